@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.IOException;
+
+import javax.faces.application.ResourceHandler;
+import javax.faces.application.ResourceHandlerWrapper;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * ResourceHandler that serves the resource bundles written by {@link ResourceBundleBuilder} with immutable caching
+ * headers, see {@link Html5WebConfigParams#RESOURCE_BUNDLES_ENABLED}. Registered in faces-config.xml. <br/>
+ * The names of the bundles contain the hash of their content, so a client never needs to check them again. The
+ * content itself is served by the wrapped handler.
+ *
+ * @author Ali Ok
+ * @see ResourceBundleListener
+ */
+public class BundleResourceHandler extends ResourceHandlerWrapper
+{
+    private static final String LIBRARY_NAME_PARAM = "ln";
+
+    private static final long MAX_AGE = 31536000L;
+
+    private final ResourceHandler _delegate;
+
+    public BundleResourceHandler(ResourceHandler delegate)
+    {
+        this._delegate = delegate;
+    }
+
+    @Override
+    public ResourceHandler getWrapped()
+    {
+        return _delegate;
+    }
+
+    @Override
+    public void handleResourceRequest(FacesContext facesContext) throws IOException
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+
+        String libraryName = externalContext.getRequestParameterMap().get(LIBRARY_NAME_PARAM);
+        String resourceName = ResourceBundleManifest.LIBRARY_NAME.equals(libraryName)
+                ? MediaResourceHandler.getResourceName(externalContext) : null;
+        if (resourceName == null || !ResourceBundleManifest.getInstance(externalContext).isBundle(resourceName))
+        {
+            super.handleResourceRequest(facesContext);
+            return;
+        }
+
+        String etag = "\"" + resourceName.substring(ResourceBundleManifest.BUNDLE_DIRECTORY.length()) + "\"";
+        externalContext.setResponseHeader("ETag", etag);
+        externalContext.setResponseHeader("Cache-Control", "public, max-age=" + MAX_AGE + ", immutable");
+
+        // content of a bundle name never changes, so any copy the client has is up to date
+        if (MediaResourceHandler.isNotModified(externalContext.getRequestHeaderMap(), etag, 0))
+        {
+            externalContext.setResponseStatus(304);
+            return;
+        }
+
+        super.handleResourceRequest(facesContext);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+
+/**
+ * Deletes the temporary files of the dropped files claimed in a request, after the last phase of the request.
+ * Registered in faces-config.xml.
+ * 
+ * @author Ali Ok
+ * @see DroppedFileStore
+ */
+public class DroppedFileCleanupPhaseListener implements PhaseListener
+{
+    private static final long serialVersionUID = 1L;
+
+    public void afterPhase(PhaseEvent event)
+    {
+        FacesContext facesContext = event.getFacesContext();
+        if (event.getPhaseId() == PhaseId.RENDER_RESPONSE || facesContext.getResponseComplete())
+            DroppedFileStore.release(facesContext);
+    }
+
+    public void beforePhase(PhaseEvent event)
+    {
+    }
+
+    public PhaseId getPhaseId()
+    {
+        return PhaseId.ANY_PHASE;
+    }
+}
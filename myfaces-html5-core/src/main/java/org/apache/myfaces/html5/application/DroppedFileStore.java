@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+import org.apache.myfaces.html5.event.DroppedFile;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * Session scoped store of the files uploaded by file drops, see {@link FileDropResourceHandler}. <br/>
+ * Uploads are written to temporary files chunk by chunk, with a small fixed buffer, so the heap usage does not depend
+ * on the file size. Completed uploads are claimed by the drop event of the same session, and their files are deleted
+ * at the end of that request by {@link DroppedFileCleanupPhaseListener}. Unclaimed files are deleted when the session
+ * ends, when their upload is aborted by the client, or when no chunk was received for
+ * {@link Html5WebConfigParams#FILE_DROP_IDLE_TIMEOUT} seconds. The declared sizes of the unclaimed uploads of a session
+ * are limited by {@link Html5WebConfigParams#FILE_DROP_SESSION_QUOTA}.
+ * 
+ * @author Ali Ok
+ * 
+ */
+public class DroppedFileStore implements HttpSessionBindingListener, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = Logger.getLogger(DroppedFileStore.class.getName());
+
+    private static final String SESSION_MAP_KEY = DroppedFileStore.class.getName();
+    private static final String CLAIMED_FILES_KEY = DroppedFileStore.class.getName() + ".CLAIMED_FILES";
+
+    /**
+     * Maximum number of unclaimed uploads of a session.
+     */
+    static final int MAX_UPLOADS = 64;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Map<String, Upload> _uploads = new LinkedHashMap<String, Upload>();
+
+    /**
+     * Returns the store of the session.
+     * 
+     * @param create
+     *            if false and there is no store yet, null is returned
+     */
+    public static DroppedFileStore getInstance(ExternalContext externalContext, boolean create)
+    {
+        Map<String, Object> sessionMap = externalContext.getSessionMap();
+        DroppedFileStore store = (DroppedFileStore) sessionMap.get(SESSION_MAP_KEY);
+        if (store == null && create)
+        {
+            store = new DroppedFileStore();
+            sessionMap.put(SESSION_MAP_KEY, store);
+        }
+        return store;
+    }
+
+    /**
+     * Claims the completed uploads with the ids for the current request. Unknown and incomplete uploads are skipped.
+     */
+    public static List<DroppedFile> claim(FacesContext facesContext, String[] ids)
+    {
+        DroppedFileStore store = getInstance(facesContext.getExternalContext(), false);
+        if (store == null)
+            return Collections.emptyList();
+
+        List<DroppedFile> files = new ArrayList<DroppedFile>(ids.length);
+        for (String id : ids)
+        {
+            DroppedFile file = store._claim(id);
+            if (file != null)
+                files.add(file);
+        }
+
+        if (!files.isEmpty())
+        {
+            @SuppressWarnings("unchecked")
+            List<DroppedFile> claimedFiles = (List<DroppedFile>) facesContext.getAttributes().get(CLAIMED_FILES_KEY);
+            if (claimedFiles == null)
+            {
+                claimedFiles = new ArrayList<DroppedFile>(files.size());
+                facesContext.getAttributes().put(CLAIMED_FILES_KEY, claimedFiles);
+            }
+            claimedFiles.addAll(files);
+        }
+        return files;
+    }
+
+    /**
+     * Deletes the files claimed in the current request, which are not moved.
+     */
+    public static void release(FacesContext facesContext)
+    {
+        @SuppressWarnings("unchecked")
+        List<DroppedFile> claimedFiles = (List<DroppedFile>) facesContext.getAttributes().remove(CLAIMED_FILES_KEY);
+        if (claimedFiles == null)
+            return;
+
+        for (DroppedFile file : claimedFiles)
+        {
+            if (file.getFile().exists() && !file.delete() && log.isLoggable(Level.WARNING))
+                log.warning("temporary file '" + file.getFile() + "' of dropped file can not be deleted.");
+        }
+    }
+
+    /**
+     * Starts an upload with an empty temporary file in the directory.
+     * 
+     * @param directory
+     *            null for the default temporary directory
+     * @param quota
+     *            maximum sum of the declared sizes of the unclaimed uploads, including this one
+     * @return false if the id is in use, there are too many unclaimed uploads or the quota would be exceeded
+     */
+    synchronized boolean start(String id, String name, String contentType, long size, File directory, long quota)
+            throws IOException
+    {
+        if (_uploads.containsKey(id) || _uploads.size() >= MAX_UPLOADS)
+            return false;
+
+        long reserved = size;
+        for (Upload upload : _uploads.values())
+            reserved += upload.size;
+        if (reserved > quota)
+        {
+            if (log.isLoggable(Level.WARNING))
+                log.warning("dropped file '" + name + "' of " + size + " bytes exceeds the session quota of " + quota
+                        + " bytes.");
+            return false;
+        }
+
+        File file = File.createTempFile("myfaces-html5-drop", ".tmp", directory);
+        _uploads.put(id, new Upload(file, name, contentType, size));
+        return true;
+    }
+
+    /**
+     * Removes the upload and deletes its file, e.g. after the client failed to send one of its chunks.
+     * 
+     * @return false if the upload is unknown
+     */
+    synchronized boolean abort(String id)
+    {
+        Upload upload = _uploads.remove(id);
+        if (upload == null)
+            return false;
+
+        upload.file.delete();
+        return true;
+    }
+
+    /**
+     * Aborts the uploads, including completed but unclaimed ones, which received no chunk since the given time.
+     * 
+     * @return the number of aborted uploads
+     */
+    synchronized int expire(long idleSince)
+    {
+        int count = 0;
+        for (Iterator<Map.Entry<String, Upload>> it = _uploads.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<String, Upload> entry = it.next();
+            if (entry.getValue().lastAccessed >= idleSince)
+                continue;
+
+            if (log.isLoggable(Level.FINE))
+                log.fine("upload '" + entry.getKey() + "' is idle, deleting it.");
+            it.remove();
+            entry.getValue().file.delete();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Appends the stream to the upload. The upload is aborted if the stream exceeds the size declared at
+     * {@link #start(String, String, String, long, File, long)}.
+     * 
+     * @return false if the upload is unknown, the offset is not the number of bytes received, or the upload is aborted
+     */
+    boolean append(String id, long offset, InputStream in) throws IOException
+    {
+        Upload upload;
+        synchronized (this)
+        {
+            upload = _uploads.get(id);
+        }
+        if (upload == null)
+            return false;
+
+        boolean exceeded = false;
+        synchronized (upload)
+        {
+            if (offset != upload.received)
+                return false;
+
+            upload.lastAccessed = System.currentTimeMillis();
+            FileOutputStream out = new FileOutputStream(upload.file, true);
+            try
+            {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int count;
+                while ((count = in.read(buffer)) >= 0)
+                {
+                    if (count > upload.size - upload.received)
+                    {
+                        exceeded = true;
+                        break;
+                    }
+                    out.write(buffer, 0, count);
+                    upload.received += count;
+                }
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+
+        if (exceeded)
+        {
+            if (log.isLoggable(Level.WARNING))
+                log.warning("upload '" + id + "' exceeds its declared size of " + upload.size + " bytes, aborting.");
+            synchronized (this)
+            {
+                _uploads.remove(id);
+            }
+            upload.file.delete();
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized DroppedFile _claim(String id)
+    {
+        Upload upload = _uploads.get(id);
+        if (upload == null || upload.received != upload.size)
+        {
+            if (log.isLoggable(Level.WARNING))
+                log.warning("dropped file '" + id + "' is not uploaded completely, ignoring it.");
+            return null;
+        }
+
+        _uploads.remove(id);
+        return new DroppedFile(upload.file, upload.name, upload.contentType, upload.size);
+    }
+
+    public void valueBound(HttpSessionBindingEvent event)
+    {
+    }
+
+    /**
+     * Deletes the files of the unclaimed uploads.
+     */
+    public synchronized void valueUnbound(HttpSessionBindingEvent event)
+    {
+        for (Upload upload : _uploads.values())
+            upload.file.delete();
+        _uploads.clear();
+    }
+
+    private static final class Upload implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final File file;
+        private final String name;
+        private final String contentType;
+        private final long size;
+        private long received;
+        private volatile long lastAccessed;
+
+        Upload(File file, String name, String contentType, long size)
+        {
+            this.file = file;
+            this.name = name;
+            this.contentType = contentType;
+            this.size = size;
+            this.lastAccessed = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.faces.application.ResourceHandler;
+import javax.faces.application.ResourceHandlerWrapper;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * ResourceHandler that receives the files dropped on <code>fx:dropTarget</code>s, uploaded by dnd.js before the drop
+ * event is sent. Registered in faces-config.xml. Disabled unless {@link Html5WebConfigParams#FILE_DROP_MAX_SIZE} is
+ * set. <br/>
+ * Files are uploaded as a sequence of <code>POST</code> requests to {@link #getUploadURL(FacesContext)}, each carrying
+ * one chunk of the file as the raw request body. The query parameters are
+ * <ul>
+ * <li><code>id</code>: id of the upload, chosen by the client,</li>
+ * <li><code>offset</code>: position of the chunk in the file, which has to be the number of bytes received so
+ * far,</li>
+ * <li><code>name</code>, <code>type</code>, <code>size</code>: name, content type and size of the file, with the
+ * first chunk only.</li>
+ * </ul>
+ * Chunks are streamed to the {@link DroppedFileStore} of the session, and answered with
+ * <code>204 No Content</code>. The client sends the next chunk only after the response, so the server is never
+ * flooded. Invalid parameters are answered with <code>400</code>, files bigger than the limit with <code>413</code>
+ * and unknown uploads, chunks out of order, too many unclaimed uploads or an exceeded session quota with
+ * <code>409</code>. <br/>
+ * A request with the <code>id</code> and <code>abort=true</code> parameters deletes the upload, which the client sends
+ * when an upload fails. Uploads without a chunk for {@link Html5WebConfigParams#FILE_DROP_IDLE_TIMEOUT} seconds are
+ * deleted on the next request of the session.
+ * 
+ * @author Ali Ok
+ * 
+ */
+public class FileDropResourceHandler extends ResourceHandlerWrapper
+{
+    private static final Logger log = Logger.getLogger(FileDropResourceHandler.class.getName());
+
+    /**
+     * Name of the resource the files are uploaded to.
+     */
+    public static final String RESOURCE_NAME = "myfaces-html5-file-drop";
+
+    private static final String TEMP_DIR_ATTR = "javax.servlet.context.tempdir";
+
+    private static final long DEFAULT_IDLE_TIMEOUT = 300;
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9_\\-]{1,64}");
+
+    private final ResourceHandler _delegate;
+
+    public FileDropResourceHandler(ResourceHandler delegate)
+    {
+        this._delegate = delegate;
+    }
+
+    @Override
+    public ResourceHandler getWrapped()
+    {
+        return _delegate;
+    }
+
+    @Override
+    public void handleResourceRequest(FacesContext facesContext) throws IOException
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+        if (!RESOURCE_NAME.equals(MediaResourceHandler.getResourceName(externalContext)))
+        {
+            super.handleResourceRequest(facesContext);
+            return;
+        }
+
+        long maxSize = getMaxSize(externalContext);
+        if (maxSize <= 0)
+        {
+            externalContext.setResponseStatus(404);
+            return;
+        }
+
+        Object request = externalContext.getRequest();
+        if (!(request instanceof HttpServletRequest) || !"POST".equals(((HttpServletRequest) request).getMethod()))
+        {
+            externalContext.setResponseStatus(405);
+            externalContext.setResponseHeader("Allow", "POST");
+            return;
+        }
+
+        Map<String, String> params = externalContext.getRequestParameterMap();
+        String id = params.get("id");
+        if (id == null || !ID_PATTERN.matcher(id).matches())
+        {
+            externalContext.setResponseStatus(400);
+            return;
+        }
+
+        if ("true".equals(params.get("abort")))
+        {
+            DroppedFileStore store = DroppedFileStore.getInstance(externalContext, false);
+            if (store != null)
+                store.abort(id);
+            externalContext.setResponseStatus(204);
+            return;
+        }
+
+        long offset = _parseLong(params.get("offset"));
+        if (offset < 0)
+        {
+            externalContext.setResponseStatus(400);
+            return;
+        }
+
+        DroppedFileStore store = DroppedFileStore.getInstance(externalContext, true);
+        store.expire(System.currentTimeMillis() - getIdleTimeout(externalContext) * 1000L);
+        if (offset == 0)
+        {
+            long size = _parseLong(params.get("size"));
+            String name = params.get("name");
+            if (size < 0 || name == null)
+            {
+                externalContext.setResponseStatus(400);
+                return;
+            }
+            if (size > maxSize)
+            {
+                if (log.isLoggable(Level.WARNING))
+                    log.warning("dropped file '" + name + "' of " + size + " bytes exceeds the limit of " + maxSize
+                            + " bytes.");
+                externalContext.setResponseStatus(413);
+                return;
+            }
+
+            String type = params.get("type");
+            Object tempDir = externalContext.getApplicationMap().get(TEMP_DIR_ATTR);
+            if (!store.start(id, name, type == null || type.length() == 0 ? null : type, size,
+                    tempDir instanceof File ? (File) tempDir : null, getSessionQuota(externalContext, maxSize)))
+            {
+                externalContext.setResponseStatus(409);
+                return;
+            }
+        }
+
+        if (!store.append(id, offset, ((HttpServletRequest) request).getInputStream()))
+        {
+            externalContext.setResponseStatus(409);
+            return;
+        }
+
+        externalContext.setResponseStatus(204);
+    }
+
+    /**
+     * Returns the maximum size of a dropped file, 0 if file drops are disabled.
+     */
+    public static long getMaxSize(ExternalContext externalContext)
+    {
+        return Html5WebConfigParams.getLongInitParameter(externalContext, Html5WebConfigParams.FILE_DROP_MAX_SIZE, 0);
+    }
+
+    /**
+     * Returns the maximum sum of the sizes of the unclaimed dropped files of a session.
+     */
+    public static long getSessionQuota(ExternalContext externalContext, long maxSize)
+    {
+        return Html5WebConfigParams.getLongInitParameter(externalContext,
+                Html5WebConfigParams.FILE_DROP_SESSION_QUOTA, 4 * maxSize);
+    }
+
+    /**
+     * Returns the number of seconds after which an upload without chunks is abandoned.
+     */
+    public static long getIdleTimeout(ExternalContext externalContext)
+    {
+        return Html5WebConfigParams.getLongInitParameter(externalContext,
+                Html5WebConfigParams.FILE_DROP_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Returns the url the files are uploaded to, using the same servlet mapping as the current request.
+     */
+    public static String getUploadURL(FacesContext facesContext)
+    {
+        return MediaResourceHandler.getResourceURL(facesContext, RESOURCE_NAME);
+    }
+
+    private static long _parseLong(String value)
+    {
+        if (value == null)
+            return -1;
+        try
+        {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,541 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.faces.application.ResourceHandler;
+import javax.faces.application.ResourceHandlerWrapper;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * ResourceHandler that serves the resources of the media libraries configured with
+ * {@link Html5WebConfigParams#MEDIA_LIBRARIES} directly from the file system. Registered in faces-config.xml. <br/>
+ * Media files are looked up in the <code>/resources/&lt;library&gt;/</code> directory of the web application, so
+ * <code>createResource(name, library)</code> of the default handler creates their urls. They are served with
+ * <ul>
+ * <li>HTTP <code>Range</code> and <code>If-Range</code> support, with <code>206 Partial Content</code> responses
+ * for single and <code>multipart/byteranges</code> responses for multiple ranges,</li>
+ * <li>strong ETags, <code>Last-Modified</code> and conditional <code>304 Not Modified</code> responses,</li>
+ * <li>long cache headers, see {@link Html5WebConfigParams#MEDIA_CACHE_MAX_AGE},</li>
+ * <li>file content copied with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, or handed to the
+ * container with the Tomcat sendfile request attributes if supported.</li>
+ * </ul>
+ * All other resource requests, and media files that can't be found on the file system (e.g. in an unexploded war),
+ * are passed to the wrapped handler.
+ * 
+ * @author Ali Ok
+ * 
+ */
+public class MediaResourceHandler extends ResourceHandlerWrapper
+{
+    private static final Logger log = Logger.getLogger(MediaResourceHandler.class.getName());
+
+    private static final String MEDIA_LIBRARIES_KEY = MediaResourceHandler.class.getName() + ".MEDIA_LIBRARIES";
+
+    private static final String LIBRARY_NAME_PARAM = "ln";
+    private static final String RESOURCES_DIRECTORY = "/resources/";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private static final long DEFAULT_MAX_AGE = 31536000L;
+
+    /**
+     * Requests with more ranges are answered with the whole file.
+     */
+    static final int MAX_RANGES = 16;
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final String CRLF = "\r\n";
+
+    private final ResourceHandler _delegate;
+
+    public MediaResourceHandler(ResourceHandler delegate)
+    {
+        this._delegate = delegate;
+    }
+
+    @Override
+    public ResourceHandler getWrapped()
+    {
+        return _delegate;
+    }
+
+    @Override
+    public void handleResourceRequest(FacesContext facesContext) throws IOException
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+
+        String libraryName = externalContext.getRequestParameterMap().get(LIBRARY_NAME_PARAM);
+        File file = null;
+        String resourceName = null;
+        if (libraryName != null && isMediaLibrary(externalContext, libraryName))
+        {
+            resourceName = getResourceName(externalContext);
+            file = findMediaFile(externalContext, libraryName, resourceName);
+        }
+
+        if (file == null)
+        {
+            super.handleResourceRequest(facesContext);
+            return;
+        }
+
+        if (log.isLoggable(Level.FINE))
+            log.fine("serving media file '" + file + "'");
+
+        serveFile(facesContext, file, resourceName);
+    }
+
+    /**
+     * Returns true if the library is one of {@link Html5WebConfigParams#MEDIA_LIBRARIES}.
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean isMediaLibrary(ExternalContext externalContext, String libraryName)
+    {
+        Map<String, Object> applicationMap = externalContext.getApplicationMap();
+        Set<String> libraries = (Set<String>) applicationMap.get(MEDIA_LIBRARIES_KEY);
+        if (libraries == null)
+        {
+            libraries = new HashSet<String>();
+            String value = Html5WebConfigParams.getStringInitParameter(externalContext,
+                    Html5WebConfigParams.MEDIA_LIBRARIES, "");
+            for (String library : value.split(","))
+            {
+                if (library.trim().length() > 0)
+                    libraries.add(library.trim());
+            }
+            applicationMap.put(MEDIA_LIBRARIES_KEY, libraries);
+        }
+        return libraries.contains(libraryName);
+    }
+
+    /**
+     * Writes the response for the file, answering conditional and range requests.
+     */
+    protected void serveFile(FacesContext facesContext, File file, String resourceName) throws IOException
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+        Map<String, String> headers = externalContext.getRequestHeaderMap();
+
+        long length = file.length();
+        long lastModified = file.lastModified();
+        String etag = createETag(length, lastModified);
+
+        String contentType = externalContext.getMimeType(resourceName);
+        if (contentType == null)
+            contentType = DEFAULT_CONTENT_TYPE;
+
+        long maxAge = Html5WebConfigParams.getLongInitParameter(externalContext,
+                Html5WebConfigParams.MEDIA_CACHE_MAX_AGE, DEFAULT_MAX_AGE);
+
+        externalContext.setResponseHeader("Accept-Ranges", "bytes");
+        externalContext.setResponseHeader("ETag", etag);
+        externalContext.setResponseHeader("Last-Modified", _formatHttpDate(lastModified));
+        externalContext.setResponseHeader("Cache-Control", "public, max-age=" + maxAge);
+        externalContext.setResponseHeader("Expires", _formatHttpDate(System.currentTimeMillis() + maxAge * 1000L));
+
+        if (isNotModified(headers, etag, lastModified))
+        {
+            externalContext.setResponseStatus(304);
+            return;
+        }
+
+        List<long[]> ranges = null;
+        String range = headers.get("Range");
+        if (range != null && isIfRangeSatisfied(headers.get("If-Range"), etag, lastModified))
+        {
+            ranges = parseRanges(range, length);
+            if (ranges != null && ranges.isEmpty())
+            {
+                externalContext.setResponseStatus(416);
+                externalContext.setResponseHeader("Content-Range", "bytes */" + length);
+                return;
+            }
+        }
+
+        boolean headRequest = isHeadRequest(externalContext);
+
+        if (ranges == null || ranges.size() == 1)
+        {
+            long start = ranges == null ? 0 : ranges.get(0)[0];
+            long end = ranges == null ? length - 1 : ranges.get(0)[1];
+
+            if (ranges == null)
+            {
+                externalContext.setResponseStatus(200);
+            }
+            else
+            {
+                externalContext.setResponseStatus(206);
+                externalContext.setResponseHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+            }
+            externalContext.setResponseHeader("Content-Type", contentType);
+            externalContext.setResponseHeader("Content-Length", Long.toString(end - start + 1));
+
+            if (!headRequest && !_sendFile(externalContext, file, start, end))
+                _transfer(file, new long[][] { { start, end } }, null, externalContext.getResponseOutputStream());
+            return;
+        }
+
+        // multipart/byteranges
+        String boundary = "MYFACES_HTML5_" + Long.toHexString(System.nanoTime()) + Long.toHexString(lastModified);
+        String[] partHeaders = new String[ranges.size()];
+        long contentLength = 0;
+        for (int i = 0; i < partHeaders.length; i++)
+        {
+            long[] part = ranges.get(i);
+            partHeaders[i] = CRLF + "--" + boundary + CRLF + "Content-Type: " + contentType + CRLF + "Content-Range: bytes "
+                    + part[0] + "-" + part[1] + "/" + length + CRLF + CRLF;
+            contentLength += partHeaders[i].length() + part[1] - part[0] + 1;
+        }
+        String end = CRLF + "--" + boundary + "--" + CRLF;
+        contentLength += end.length();
+
+        externalContext.setResponseStatus(206);
+        externalContext.setResponseHeader("Content-Type", "multipart/byteranges; boundary=" + boundary);
+        externalContext.setResponseHeader("Content-Length", Long.toString(contentLength));
+
+        if (!headRequest)
+        {
+            OutputStream out = externalContext.getResponseOutputStream();
+            _transfer(file, ranges.toArray(new long[ranges.size()][]), partHeaders, out);
+            out.write(end.getBytes("ISO-8859-1"));
+        }
+    }
+
+    /**
+     * Returns a strong ETag for the file.
+     */
+    static String createETag(long length, long lastModified)
+    {
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    /**
+     * Parses the value of a Range header.
+     * 
+     * @return the ranges as {first byte, last byte} pairs, sorted and with overlapping ranges merged; an empty list if
+     *         no range is satisfiable; null if the header is invalid or has more than {@link #MAX_RANGES} ranges, in
+     *         which case it has to be ignored.
+     */
+    static List<long[]> parseRanges(String header, long length)
+    {
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6))
+            return null;
+
+        String[] specs = value.substring(6).split(",");
+        if (specs.length > MAX_RANGES)
+            return null;
+
+        List<long[]> ranges = new ArrayList<long[]>(specs.length);
+        for (String spec : specs)
+        {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0)
+                return null;
+
+            long start;
+            long end;
+            try
+            {
+                if (dash == 0)
+                {
+                    // suffix range: the last n bytes
+                    long suffixLength = Long.parseLong(spec.substring(1));
+                    if (suffixLength < 0)
+                        return null;
+                    if (suffixLength == 0 || length == 0)
+                        continue;
+                    start = Math.max(0, length - suffixLength);
+                    end = length - 1;
+                }
+                else
+                {
+                    start = Long.parseLong(spec.substring(0, dash));
+                    end = dash == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+                    if (start < 0 || end < start)
+                        return null;
+                    if (start >= length)
+                        continue;
+                    end = Math.min(end, length - 1);
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                return null;
+            }
+            ranges.add(new long[] { start, end });
+        }
+
+        Collections.sort(ranges, new Comparator<long[]>()
+        {
+            public int compare(long[] o1, long[] o2)
+            {
+                return o1[0] < o2[0] ? -1 : (o1[0] == o2[0] ? 0 : 1);
+            }
+        });
+
+        List<long[]> merged = new ArrayList<long[]>(ranges.size());
+        for (long[] range : ranges)
+        {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1)
+                last[1] = Math.max(last[1], range[1]);
+            else
+                merged.add(range);
+        }
+        return merged;
+    }
+
+    /**
+     * Returns true if the Range header has to be applied: If-Range is missing, or it is the (strong) ETag or the exact
+     * modification date of the file.
+     */
+    static boolean isIfRangeSatisfied(String ifRange, String etag, long lastModified)
+    {
+        if (ifRange == null)
+            return true;
+
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+            return ifRange.equals(etag);
+
+        long date = _parseHttpDate(ifRange);
+        return date >= 0 && date / 1000 == lastModified / 1000;
+    }
+
+    static boolean isNotModified(Map<String, String> headers, String etag, long lastModified)
+    {
+        String ifNoneMatch = headers.get("If-None-Match");
+        if (ifNoneMatch != null)
+        {
+            for (String tag : ifNoneMatch.split(","))
+            {
+                tag = tag.trim();
+                if (tag.startsWith("W/"))
+                    tag = tag.substring(2);
+                if (tag.equals("*") || tag.equals(etag))
+                    return true;
+            }
+            return false;
+        }
+
+        String ifModifiedSince = headers.get("If-Modified-Since");
+        if (ifModifiedSince != null)
+        {
+            long date = _parseHttpDate(ifModifiedSince.trim());
+            return date >= 0 && lastModified / 1000 <= date / 1000;
+        }
+        return false;
+    }
+
+    static boolean isHeadRequest(ExternalContext externalContext)
+    {
+        Object request = externalContext.getRequest();
+        return request instanceof HttpServletRequest && "HEAD".equals(((HttpServletRequest) request).getMethod());
+    }
+
+    /**
+     * Hands the range over to the container, if it supports the Tomcat sendfile attributes.
+     */
+    private static boolean _sendFile(ExternalContext externalContext, File file, long start, long end)
+            throws IOException
+    {
+        Map<String, Object> requestMap = externalContext.getRequestMap();
+        if (!Boolean.TRUE.equals(requestMap.get(SENDFILE_SUPPORT_ATTR)))
+            return false;
+
+        requestMap.put(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+        requestMap.put(SENDFILE_START_ATTR, Long.valueOf(start));
+        requestMap.put(SENDFILE_END_ATTR, Long.valueOf(end + 1));
+        return true;
+    }
+
+    /**
+     * Copies the ranges of the file to the stream, each one preceded by its part header if given.
+     */
+    private static void _transfer(File file, long[][] ranges, String[] partHeaders, OutputStream out)
+            throws IOException
+    {
+        FileInputStream in = new FileInputStream(file);
+        try
+        {
+            FileChannel channel = in.getChannel();
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < ranges.length; i++)
+            {
+                if (partHeaders != null)
+                    out.write(partHeaders[i].getBytes("ISO-8859-1"));
+
+                long position = ranges[i][0];
+                long remaining = ranges[i][1] - ranges[i][0] + 1;
+                while (remaining > 0)
+                {
+                    long count = channel.transferTo(position, remaining, target);
+                    if (count <= 0)
+                        throw new IOException("File '" + file + "' was truncated while it was served.");
+                    position += count;
+                    remaining -= count;
+                }
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns the resource name of the request, which follows {@link ResourceHandler#RESOURCE_IDENTIFIER} in the path
+     * info (prefix mapping) or in the servlet path without the mapping suffix (suffix mapping).
+     */
+    static String getResourceName(ExternalContext externalContext)
+    {
+        String prefix = RESOURCE_IDENTIFIER + "/";
+
+        String pathInfo = externalContext.getRequestPathInfo();
+        if (pathInfo != null)
+            return pathInfo.startsWith(prefix) ? pathInfo.substring(prefix.length()) : null;
+
+        String servletPath = externalContext.getRequestServletPath();
+        if (servletPath == null || !servletPath.startsWith(prefix))
+            return null;
+
+        int suffixIndex = servletPath.lastIndexOf('.');
+        return suffixIndex > prefix.length() ? servletPath.substring(prefix.length(), suffixIndex) : null;
+    }
+
+    /**
+     * Returns the url of the resource, which is handled by one of the resource handlers of this package, using the
+     * same servlet mapping as the current request.
+     */
+    static String getResourceURL(FacesContext facesContext, String resourceName)
+    {
+        return getResourceURL(facesContext, resourceName, null);
+    }
+
+    /**
+     * Returns the url of the resource with the query string, see {@link #getResourceURL(FacesContext, String)}.
+     * 
+     * @param query
+     *            encoded query string without the leading "?", may be null
+     */
+    static String getResourceURL(FacesContext facesContext, String resourceName, String query)
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+        String servletPath = externalContext.getRequestServletPath();
+        if (servletPath == null)
+            servletPath = "";
+
+        String path;
+        if (externalContext.getRequestPathInfo() != null)
+        {
+            // prefix mapping, e.g. /faces/*
+            path = servletPath + RESOURCE_IDENTIFIER + "/" + resourceName;
+        }
+        else
+        {
+            // suffix mapping, e.g. *.jsf
+            int suffixIndex = servletPath.lastIndexOf('.');
+            String suffix = suffixIndex >= 0 ? servletPath.substring(suffixIndex) : "";
+            path = RESOURCE_IDENTIFIER + "/" + resourceName + suffix;
+        }
+        if (query != null)
+            path += "?" + query;
+
+        String url = facesContext.getApplication().getViewHandler().getResourceURL(facesContext, path);
+        return externalContext.encodeResourceURL(url);
+    }
+
+    /**
+     * Returns the file of the resource in the media library, or null if it does not exist or the names are not safe.
+     */
+    public static File findMediaFile(ExternalContext externalContext, String libraryName, String resourceName)
+    {
+        if (resourceName == null || !_isSafePath(libraryName) || !_isSafePath(resourceName))
+            return null;
+
+        String realPath = externalContext.getRealPath(RESOURCES_DIRECTORY + libraryName + "/" + resourceName);
+        if (realPath == null)
+            return null;
+
+        File file = new File(realPath);
+        return file.isFile() ? file : null;
+    }
+
+    private static boolean _isSafePath(String path)
+    {
+        return path.length() > 0 && !path.startsWith("/") && path.indexOf('\\') < 0 && path.indexOf(':') < 0
+                && !path.equals("..") && !path.startsWith("../") && !path.endsWith("/..") && path.indexOf("/../") < 0;
+    }
+
+    private static SimpleDateFormat _createHttpDateFormat()
+    {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format;
+    }
+
+    private static String _formatHttpDate(long time)
+    {
+        return _createHttpDateFormat().format(new Date(time));
+    }
+
+    private static long _parseHttpDate(String value)
+    {
+        try
+        {
+            return _createHttpDateFormat().parse(value).getTime();
+        }
+        catch (ParseException e)
+        {
+            return -1;
+        }
+    }
+}
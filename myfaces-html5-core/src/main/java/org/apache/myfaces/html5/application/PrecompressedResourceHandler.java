@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.faces.application.Resource;
+import javax.faces.application.ResourceHandler;
+import javax.faces.application.ResourceHandlerWrapper;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * ResourceHandler that serves the scripts and stylesheets of MyFaces Html5 from their compressed variants, which are
+ * written next to them at build time by {@link ResourceBundleBuilder}, see
+ * {@link Html5WebConfigParams#PRECOMPRESSED_RESOURCES_ENABLED}. Registered in faces-config.xml. <br/>
+ * The variant is chosen by the <code>Accept-Encoding</code> header of the request, preferring brotli
+ * (<code>&lt;name&gt;.br</code>) over gzip (<code>&lt;name&gt;.gz</code>). Variants are read once and kept by the
+ * application, so a response is a single write of the compressed bytes. Resources without an acceptable variant are
+ * served by the wrapped handler.
+ *
+ * @author Ali Ok
+ */
+public class PrecompressedResourceHandler extends ResourceHandlerWrapper
+{
+    public static final String GZIP_EXTENSION = ".gz";
+
+    public static final String BROTLI_EXTENSION = ".br";
+
+    private static final String LIBRARY_NAME_PARAM = "ln";
+
+    private static final String RESOURCE_DIRECTORY = "META-INF/resources/" + ResourceBundleManifest.LIBRARY_NAME + "/";
+
+    private static final String VARIANTS_KEY = PrecompressedResourceHandler.class.getName() + ".VARIANTS";
+
+    // content codings in order of preference, with the extensions of their variants
+    private static final String[][] CODINGS = { { "br", BROTLI_EXTENSION }, { "gzip", GZIP_EXTENSION } };
+
+    // kept for resources without the variant
+    private static final byte[] NO_VARIANT = new byte[0];
+
+    private final ResourceHandler _delegate;
+
+    public PrecompressedResourceHandler(ResourceHandler delegate)
+    {
+        this._delegate = delegate;
+    }
+
+    @Override
+    public ResourceHandler getWrapped()
+    {
+        return _delegate;
+    }
+
+    @Override
+    public void handleResourceRequest(FacesContext facesContext) throws IOException
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+
+        String libraryName = externalContext.getRequestParameterMap().get(LIBRARY_NAME_PARAM);
+        String resourceName = ResourceBundleManifest.LIBRARY_NAME.equals(libraryName)
+                ? MediaResourceHandler.getResourceName(externalContext) : null;
+        if (resourceName == null || !_isCompressible(resourceName) || !isEnabled(externalContext))
+        {
+            super.handleResourceRequest(facesContext);
+            return;
+        }
+
+        // the variants are looked up for existing resources only, so the application keeps a bounded number of them
+        Resource resource = getWrapped().createResource(resourceName, libraryName);
+        if (resource == null)
+        {
+            super.handleResourceRequest(facesContext);
+            return;
+        }
+
+        String acceptEncoding = externalContext.getRequestHeaderMap().get("Accept-Encoding");
+        boolean hasVariant = false;
+        for (String[] coding : CODINGS)
+        {
+            byte[] variant = _getVariant(externalContext, resourceName + coding[1]);
+            if (variant == null)
+                continue;
+
+            hasVariant = true;
+            if (isAccepted(acceptEncoding, coding[0]))
+            {
+                _serveVariant(facesContext, resource, coding[0], variant);
+                return;
+            }
+        }
+
+        // a cache must not hand out this response to clients accepting a variant
+        if (hasVariant)
+            externalContext.setResponseHeader("Vary", "Accept-Encoding");
+
+        super.handleResourceRequest(facesContext);
+    }
+
+    public static boolean isEnabled(ExternalContext externalContext)
+    {
+        return Html5WebConfigParams.getBooleanInitParameter(externalContext,
+                Html5WebConfigParams.PRECOMPRESSED_RESOURCES_ENABLED, false);
+    }
+
+    /**
+     * Returns true if the value of an Accept-Encoding header accepts the content coding, explicitly or with "*", and
+     * its quality value is not 0.
+     */
+    static boolean isAccepted(String acceptEncoding, String coding)
+    {
+        if (acceptEncoding == null)
+            return false;
+
+        boolean wildcard = false;
+        for (String element : acceptEncoding.split(","))
+        {
+            String[] parts = element.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(coding))
+                return _getQuality(parts) > 0;
+            if (name.equals("*"))
+                wildcard = _getQuality(parts) > 0;
+        }
+        return wildcard;
+    }
+
+    private void _serveVariant(FacesContext facesContext, Resource resource, String coding, byte[] variant)
+            throws IOException
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+
+        if (!resource.userAgentNeedsUpdate(facesContext))
+        {
+            externalContext.setResponseStatus(304);
+            return;
+        }
+
+        for (Map.Entry<String, String> header : resource.getResponseHeaders().entrySet())
+        {
+            externalContext.setResponseHeader(header.getKey(), header.getValue());
+        }
+
+        String contentType = resource.getContentType();
+        if (contentType == null)
+            contentType = externalContext.getMimeType(resource.getResourceName());
+
+        externalContext.setResponseStatus(200);
+        if (contentType != null)
+            externalContext.setResponseHeader("Content-Type", contentType);
+        externalContext.setResponseHeader("Content-Encoding", coding);
+        externalContext.setResponseHeader("Vary", "Accept-Encoding");
+        externalContext.setResponseHeader("Content-Length", Integer.toString(variant.length));
+
+        if (!MediaResourceHandler.isHeadRequest(externalContext))
+            externalContext.getResponseOutputStream().write(variant);
+    }
+
+    /**
+     * Returns the content of the variant, or null if it does not exist.
+     */
+    private static byte[] _getVariant(ExternalContext externalContext, String variantName) throws IOException
+    {
+        Map<String, byte[]> variants = _getVariants(externalContext);
+        byte[] variant = variants.get(variantName);
+        if (variant == null)
+        {
+            variant = _load(RESOURCE_DIRECTORY + variantName);
+            variants.put(variantName, variant == null ? NO_VARIANT : variant);
+        }
+        return variant == NO_VARIANT ? null : variant;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, byte[]> _getVariants(ExternalContext externalContext)
+    {
+        Map<String, Object> applicationMap = externalContext.getApplicationMap();
+        Map<String, byte[]> variants = (Map<String, byte[]>) applicationMap.get(VARIANTS_KEY);
+        if (variants == null)
+        {
+            variants = new ConcurrentHashMap<String, byte[]>();
+            applicationMap.put(VARIANTS_KEY, variants);
+        }
+        return variants;
+    }
+
+    private static byte[] _load(String path) throws IOException
+    {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null)
+            classLoader = PrecompressedResourceHandler.class.getClassLoader();
+
+        InputStream in = classLoader.getResourceAsStream(path);
+        if (in == null)
+            return null;
+
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+            {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    private static boolean _isCompressible(String resourceName)
+    {
+        return (resourceName.endsWith(".js") || resourceName.endsWith(".css")) && resourceName.indexOf("..") < 0;
+    }
+
+    private static double _getQuality(String[] parameters)
+    {
+        for (int i = 1; i < parameters.length; i++)
+        {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q="))
+            {
+                try
+                {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                }
+                catch (NumberFormatException e)
+                {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
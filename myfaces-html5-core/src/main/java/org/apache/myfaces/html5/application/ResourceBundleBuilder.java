@@ -0,0 +1,436 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build time tool which minifies and combines the client resources of the library into bundles, run by the
+ * exec-maven-plugin in the process-classes phase. Must not depend on anything but the JDK.
+ * <br/>
+ * The bundle definitions are read from a properties file, whose keys are the bundle names and values are the comma
+ * separated resource names in the order they are combined, e.g. <code>html5-slide.js=common.js,effect.js,slide.js</code>.
+ * Each bundle is written to <code>bundles/&lt;name&gt;-&lt;hash&gt;.&lt;extension&gt;</code> in the resource directory,
+ * and {@link ResourceBundleManifest#MANIFEST_NAME} lists the written bundles with their resources. <br/>
+ * Afterwards a gzip compressed variant is written next to each script and stylesheet of the resource directory,
+ * including the bundles, for {@link PrecompressedResourceHandler}. <br/>
+ * Usage: <code>ResourceBundleBuilder &lt;definitions file&gt; &lt;resource directory&gt;</code>
+ *
+ * @author Ali Ok
+ * @see BundleResourceHandler
+ */
+public class ResourceBundleBuilder
+{
+    private static final String CHARSET = "UTF-8";
+
+    private static final String HEADER = "/* Licensed to the Apache Software Foundation (ASF) under the Apache License, "
+            + "Version 2.0. http://www.apache.org/licenses/LICENSE-2.0 */\n";
+
+    // a slash after these characters starts a regular expression, not a division
+    private static final String REGEX_PRECEDERS = "(,=:[!&|?{};";
+
+    // no line break is needed after these characters, as a statement can not end with them
+    private static final String NO_BREAK_AFTER = "{;,(";
+
+    // no space is needed after these characters of a stylesheet
+    private static final String CSS_NO_SPACE_AFTER = "{};:,>";
+
+    // no space is needed before these characters of a stylesheet; unlike in a declaration, a space before a colon is
+    // significant in a selector such as ".a :hover"
+    private static final String CSS_NO_SPACE_BEFORE = "{};,>";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final int HASH_LENGTH = 16;
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.err.println("Usage: ResourceBundleBuilder <definitions file> <resource directory>");
+            System.exit(1);
+        }
+
+        Properties definitions = new Properties();
+        InputStream in = new FileInputStream(args[0]);
+        try
+        {
+            definitions.load(in);
+        }
+        finally
+        {
+            in.close();
+        }
+
+        File resourceDirectory = new File(args[1]);
+        build(definitions, resourceDirectory);
+        compress(resourceDirectory);
+    }
+
+    /**
+     * Writes the bundles and the manifest into the resource directory.
+     */
+    public static void build(Properties definitions, File resourceDirectory) throws IOException
+    {
+        File bundleDirectory = new File(resourceDirectory, ResourceBundleManifest.BUNDLE_DIRECTORY);
+        if (!bundleDirectory.isDirectory() && !bundleDirectory.mkdirs())
+            throw new IOException("Can not create " + bundleDirectory);
+
+        // bundles of earlier builds, whose content has changed since, must not end up in the jar
+        for (File file : bundleDirectory.listFiles())
+        {
+            if (file.isFile() && !file.delete())
+                throw new IOException("Can not delete " + file);
+        }
+
+        // sorted, so the manifest is the same on every build
+        Map<String, String> manifest = new TreeMap<String, String>();
+
+        for (Object key : new TreeMap<Object, Object>(definitions).keySet())
+        {
+            String bundleName = (String) key;
+            String resources = definitions.getProperty(bundleName).trim();
+            boolean css = bundleName.endsWith(".css");
+
+            StringBuilder bundle = new StringBuilder(HEADER);
+            for (String resource : resources.split("\\s*,\\s*"))
+            {
+                String content = _read(new File(resourceDirectory, resource));
+                bundle.append(css ? minifyCss(content) : minifyJs(content));
+                // keeps the statements of the files apart
+                bundle.append(css ? "\n" : ";\n");
+            }
+
+            byte[] content = bundle.toString().getBytes(CHARSET);
+            int extension = bundleName.lastIndexOf('.');
+            String fileName = bundleName.substring(0, extension) + "-" + hash(content)
+                    + bundleName.substring(extension);
+
+            _write(new File(bundleDirectory, fileName), content);
+            manifest.put(ResourceBundleManifest.BUNDLE_DIRECTORY + fileName, resources.replaceAll("\\s", ""));
+        }
+
+        StringBuilder manifestContent = new StringBuilder("# generated by ResourceBundleBuilder, do not edit\n");
+        for (Map.Entry<String, String> entry : manifest.entrySet())
+        {
+            manifestContent.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        _write(new File(resourceDirectory, ResourceBundleManifest.MANIFEST_NAME),
+                manifestContent.toString().getBytes(CHARSET));
+    }
+
+    /**
+     * Writes the gzip compressed variant <code>&lt;file&gt;.gz</code> of each script and stylesheet in the directory
+     * and its subdirectories, unless the variant is not smaller than the file.
+     */
+    public static void compress(File directory) throws IOException
+    {
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+
+        for (File file : files)
+        {
+            String name = file.getName();
+            if (file.isDirectory())
+            {
+                compress(file);
+            }
+            else if (name.endsWith(".js") || name.endsWith(".css"))
+            {
+                byte[] content = _readBytes(file);
+                byte[] compressed = gzip(content);
+                File variant = new File(directory, name + PrecompressedResourceHandler.GZIP_EXTENSION);
+                if (compressed.length < content.length)
+                    _write(variant, compressed);
+                else if (variant.isFile() && !variant.delete())
+                    throw new IOException("Can not delete " + variant);
+            }
+        }
+    }
+
+    /**
+     * Returns the content compressed with gzip at the best compression level. The header has no modification time, so
+     * the same content is always compressed to the same bytes.
+     */
+    static byte[] gzip(byte[] content) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2 + 32);
+        GZIPOutputStream gzip = new GZIPOutputStream(out)
+        {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        };
+        try
+        {
+            gzip.write(content);
+        }
+        finally
+        {
+            gzip.close();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Removes the comments and needless whitespace of the script. Line breaks are kept where a statement may end, so
+     * automatic semicolon insertion works as before.
+     */
+    static String minifyJs(String js)
+    {
+        StringBuilder out = new StringBuilder(js.length());
+        int length = js.length();
+        // last written character that is not whitespace
+        char last = 0;
+        boolean pendingSpace = false;
+        boolean pendingBreak = false;
+
+        int i = 0;
+        while (i < length)
+        {
+            char c = js.charAt(i);
+
+            if (Character.isWhitespace(c))
+            {
+                if (c == '\n' || c == '\r')
+                    pendingBreak = true;
+                else
+                    pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (c == '/' && i + 1 < length && js.charAt(i + 1) == '/')
+            {
+                int end = js.indexOf('\n', i);
+                i = end < 0 ? length : end;
+                continue;
+            }
+
+            if (c == '/' && i + 1 < length && js.charAt(i + 1) == '*')
+            {
+                int end = js.indexOf("*/", i + 2);
+                if (end >= 0 && js.substring(i, end).indexOf('\n') >= 0)
+                    pendingBreak = true;
+                else
+                    pendingSpace = true;
+                i = end < 0 ? length : end + 2;
+                continue;
+            }
+
+            if (last != 0)
+            {
+                if (pendingBreak && NO_BREAK_AFTER.indexOf(last) < 0)
+                    out.append('\n');
+                else if ((pendingSpace || pendingBreak) && _needsSpace(last, c))
+                    out.append(' ');
+            }
+            pendingSpace = false;
+            pendingBreak = false;
+
+            int end;
+            if (c == '\'' || c == '"')
+                end = _skipQuoted(js, i, c);
+            else if (c == '/' && (last == 0 || REGEX_PRECEDERS.indexOf(last) >= 0))
+                end = _skipRegex(js, i);
+            else
+                end = i + 1;
+
+            out.append(js, i, end);
+            last = js.charAt(end - 1);
+            i = end;
+        }
+
+        return out.toString();
+    }
+
+    /**
+     * Removes the comments and needless whitespace of the stylesheet.
+     */
+    static String minifyCss(String css)
+    {
+        StringBuilder out = new StringBuilder(css.length());
+        int length = css.length();
+        char last = 0;
+        boolean pendingSpace = false;
+
+        int i = 0;
+        while (i < length)
+        {
+            char c = css.charAt(i);
+
+            if (Character.isWhitespace(c))
+            {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (c == '/' && i + 1 < length && css.charAt(i + 1) == '*')
+            {
+                int end = css.indexOf("*/", i + 2);
+                pendingSpace = true;
+                i = end < 0 ? length : end + 2;
+                continue;
+            }
+
+            // the last declaration of a block does not need a semicolon
+            if (c == '}' && last == ';')
+                out.setLength(out.length() - 1);
+            else if (pendingSpace && last != 0 && CSS_NO_SPACE_AFTER.indexOf(last) < 0
+                    && CSS_NO_SPACE_BEFORE.indexOf(c) < 0)
+                out.append(' ');
+            pendingSpace = false;
+
+            int end = c == '\'' || c == '"' ? _skipQuoted(css, i, c) : i + 1;
+            out.append(css, i, end);
+            last = css.charAt(end - 1);
+            i = end;
+        }
+
+        return out.toString();
+    }
+
+    /**
+     * Returns the first hex digits of the MD5 hash of the content.
+     */
+    static String hash(byte[] content)
+    {
+        byte[] digest;
+        try
+        {
+            digest = MessageDigest.getInstance("MD5").digest(content);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+
+        char[] hex = new char[HASH_LENGTH];
+        for (int i = 0; i < HASH_LENGTH / 2; i++)
+        {
+            hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static boolean _needsSpace(char last, char next)
+    {
+        // "a b", "a + +b", "a - -b"
+        return (_isIdentifierPart(last) && _isIdentifierPart(next)) || (last == next && (last == '+' || last == '-'));
+    }
+
+    private static boolean _isIdentifierPart(char c)
+    {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '\\' || c > 126;
+    }
+
+    /**
+     * Returns the index after the closing quote of the string literal starting at the index.
+     */
+    private static int _skipQuoted(String s, int start, char quote)
+    {
+        int i = start + 1;
+        while (i < s.length())
+        {
+            char c = s.charAt(i++);
+            if (c == '\\')
+                i++;
+            else if (c == quote)
+                return Math.min(i, s.length());
+        }
+        return s.length();
+    }
+
+    /**
+     * Returns the index after the closing slash of the regular expression literal starting at the index. The flags
+     * are copied as ordinary characters.
+     */
+    private static int _skipRegex(String s, int start)
+    {
+        boolean inClass = false;
+        int i = start + 1;
+        while (i < s.length())
+        {
+            char c = s.charAt(i++);
+            if (c == '\\')
+                i++;
+            else if (c == '[')
+                inClass = true;
+            else if (c == ']')
+                inClass = false;
+            else if (c == '/' && !inClass)
+                return i;
+        }
+        return s.length();
+    }
+
+    private static String _read(File file) throws IOException
+    {
+        return new String(_readBytes(file), CHARSET);
+    }
+
+    private static byte[] _readBytes(File file) throws IOException
+    {
+        InputStream in = new FileInputStream(file);
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+            {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    private static void _write(File file, byte[] content) throws IOException
+    {
+        OutputStream out = new FileOutputStream(file);
+        try
+        {
+            out.write(content);
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.event.AbortProcessingException;
+import javax.faces.event.SystemEvent;
+import javax.faces.event.SystemEventListener;
+
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * Replaces the scripts and stylesheets of the library, which are added to the view by the
+ * <code>&#64;ResourceDependency</code> annotations of the renderers and behaviors, with the smallest resource bundle
+ * containing all of them, see {@link Html5WebConfigParams#RESOURCE_BUNDLES_ENABLED}. Listens to the PreRenderViewEvent,
+ * registered in faces-config.xml. <br/>
+ * The first resource of the library is renamed to the bundle and the others are removed. Resources are only replaced
+ * if a bundle contains all of them, and scripts and stylesheets of each target are bundled separately.
+ *
+ * @author Ali Ok
+ * @see BundleResourceHandler
+ */
+public class ResourceBundleListener implements SystemEventListener
+{
+    private static final Logger log = Logger.getLogger(ResourceBundleListener.class.getName());
+
+    private static final String[] TARGETS = { "head", "body" };
+
+    private static final String[] EXTENSIONS = { ".js", ".css" };
+
+    private static final String NAME_ATTR = "name";
+    private static final String LIBRARY_ATTR = "library";
+
+    public boolean isListenerForSource(Object source)
+    {
+        return source instanceof UIViewRoot;
+    }
+
+    public void processEvent(SystemEvent event) throws AbortProcessingException
+    {
+        FacesContext facesContext = FacesContext.getCurrentInstance();
+        if (!Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                Html5WebConfigParams.RESOURCE_BUNDLES_ENABLED, false))
+            return;
+
+        ResourceBundleManifest manifest = ResourceBundleManifest.getInstance(facesContext.getExternalContext());
+        if (manifest.isEmpty())
+            return;
+
+        UIViewRoot viewRoot = (UIViewRoot) event.getSource();
+        for (String target : TARGETS)
+        {
+            for (String extension : EXTENSIONS)
+            {
+                bundle(facesContext, viewRoot, target, extension, manifest);
+            }
+        }
+    }
+
+    private static void bundle(FacesContext facesContext, UIViewRoot viewRoot, String target, String extension,
+            ResourceBundleManifest manifest)
+    {
+        List<UIComponent> bundled = new ArrayList<UIComponent>();
+        Set<String> resourceNames = new LinkedHashSet<String>();
+
+        for (UIComponent resource : viewRoot.getComponentResources(facesContext, target))
+        {
+            Map<String, Object> attributes = resource.getAttributes();
+            Object name = attributes.get(NAME_ATTR);
+            if (!ResourceBundleManifest.LIBRARY_NAME.equals(attributes.get(LIBRARY_ATTR)) || !(name instanceof String)
+                    || !((String) name).endsWith(extension))
+                continue;
+
+            // bundles of an earlier request, when the view is restored
+            List<String> bundleResources = manifest.getResources((String) name);
+            if (bundleResources != null)
+                resourceNames.addAll(bundleResources);
+            else if (manifest.isBundled((String) name))
+                resourceNames.add((String) name);
+            else
+                // a resource of the library which is in no bundle, the resources are left in their order
+                return;
+
+            bundled.add(resource);
+        }
+
+        if (bundled.isEmpty())
+            return;
+
+        String bundleName = manifest.findBundle(resourceNames);
+        if (bundleName == null)
+        {
+            if (log.isLoggable(Level.FINE))
+                log.fine("no resource bundle contains " + resourceNames);
+            return;
+        }
+
+        bundled.get(0).getAttributes().put(NAME_ATTR, bundleName);
+        for (int i = 1; i < bundled.size(); i++)
+        {
+            viewRoot.removeComponentResource(facesContext, bundled.get(i), target);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.faces.context.ExternalContext;
+
+/**
+ * The bundles written by {@link ResourceBundleBuilder}, read from {@link #MANIFEST_NAME} of the library. The manifest
+ * is empty if the build step did not run, e.g. when the classes are used straight from an IDE.
+ *
+ * @author Ali Ok
+ */
+public class ResourceBundleManifest
+{
+    private static final Logger log = Logger.getLogger(ResourceBundleManifest.class.getName());
+
+    public static final String LIBRARY_NAME = "org.apache.myfaces.html5";
+
+    /**
+     * Directory of the bundles, relative to the library.
+     */
+    public static final String BUNDLE_DIRECTORY = "bundles/";
+
+    /**
+     * Name of the manifest, relative to the library.
+     */
+    public static final String MANIFEST_NAME = BUNDLE_DIRECTORY + "manifest.properties";
+
+    private static final String MANIFEST_PATH = "META-INF/resources/" + LIBRARY_NAME + "/" + MANIFEST_NAME;
+
+    private static final String APPLICATION_MAP_KEY = ResourceBundleManifest.class.getName();
+
+    // bundle resource name -> names of the resources in the bundle
+    private final Map<String, List<String>> _bundles = new HashMap<String, List<String>>();
+
+    // smallest bundles first
+    private final List<String> _bundleNames = new ArrayList<String>();
+
+    private final Set<String> _bundledResources = new HashSet<String>();
+
+    public ResourceBundleManifest(Properties manifest)
+    {
+        for (Enumeration<?> names = manifest.propertyNames(); names.hasMoreElements();)
+        {
+            String bundleName = (String) names.nextElement();
+            List<String> resources = Arrays.asList(manifest.getProperty(bundleName).split(","));
+            _bundles.put(bundleName, resources);
+            _bundleNames.add(bundleName);
+            _bundledResources.addAll(resources);
+        }
+
+        Collections.sort(_bundleNames, new Comparator<String>()
+        {
+            public int compare(String name1, String name2)
+            {
+                int size1 = _bundles.get(name1).size();
+                int size2 = _bundles.get(name2).size();
+                return size1 != size2 ? size1 - size2 : name1.compareTo(name2);
+            }
+        });
+    }
+
+    /**
+     * Returns the manifest of the application.
+     */
+    public static ResourceBundleManifest getInstance(ExternalContext externalContext)
+    {
+        Map<String, Object> applicationMap = externalContext.getApplicationMap();
+        ResourceBundleManifest manifest = (ResourceBundleManifest) applicationMap.get(APPLICATION_MAP_KEY);
+        if (manifest == null)
+        {
+            manifest = new ResourceBundleManifest(_load());
+            applicationMap.put(APPLICATION_MAP_KEY, manifest);
+        }
+        return manifest;
+    }
+
+    private static Properties _load()
+    {
+        Properties properties = new Properties();
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null)
+            classLoader = ResourceBundleManifest.class.getClassLoader();
+
+        InputStream in = classLoader.getResourceAsStream(MANIFEST_PATH);
+        if (in == null)
+        {
+            log.info("Resource bundle manifest '" + MANIFEST_PATH + "' not found, resources are not bundled.");
+            return properties;
+        }
+
+        try
+        {
+            properties.load(in);
+        }
+        catch (IOException e)
+        {
+            log.log(Level.WARNING, "Resource bundle manifest '" + MANIFEST_PATH + "' can not be read.", e);
+            properties.clear();
+        }
+        finally
+        {
+            try
+            {
+                in.close();
+            }
+            catch (IOException e)
+            {
+                // ignore
+            }
+        }
+        return properties;
+    }
+
+    public boolean isEmpty()
+    {
+        return _bundles.isEmpty();
+    }
+
+    public boolean isBundle(String resourceName)
+    {
+        return _bundles.containsKey(resourceName);
+    }
+
+    /**
+     * Returns the names of the resources in the bundle, or null if there is no such bundle.
+     */
+    public List<String> getResources(String bundleName)
+    {
+        return _bundles.get(bundleName);
+    }
+
+    /**
+     * Returns true if the resource is part of at least one bundle.
+     */
+    public boolean isBundled(String resourceName)
+    {
+        return _bundledResources.contains(resourceName);
+    }
+
+    /**
+     * Returns the smallest bundle containing all given resources, or null if there is none.
+     */
+    public String findBundle(Collection<String> resourceNames)
+    {
+        for (String bundleName : _bundleNames)
+        {
+            if (_bundles.get(bundleName).containsAll(resourceNames))
+                return bundleName;
+        }
+        return null;
+    }
+}
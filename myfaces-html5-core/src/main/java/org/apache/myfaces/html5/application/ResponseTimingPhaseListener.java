@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * Measures the time to first byte of the views whose head is flushed early, and their response time, see
+ * {@link Html5WebConfigParams#HEAD_FLUSH_ENABLED}. The times are recorded in the {@link ResponseTimings} of the
+ * application, put in the request map under {@link #TIME_TO_FIRST_BYTE_ATTR} and {@link #RESPONSE_TIME_ATTR}, and
+ * logged at level FINE. Registered in faces-config.xml.
+ *
+ * @author Ali Ok
+ * @see org.apache.myfaces.html5.renderkit.HeadFlushRenderer
+ */
+public class ResponseTimingPhaseListener implements PhaseListener
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = Logger.getLogger(ResponseTimingPhaseListener.class.getName());
+
+    /**
+     * Request attribute with the time from the start of the lifecycle until the head was flushed, in nanoseconds.
+     */
+    public static final String TIME_TO_FIRST_BYTE_ATTR = "org.apache.myfaces.html5.TIME_TO_FIRST_BYTE";
+
+    /**
+     * Request attribute with the time from the start of the lifecycle until the view was rendered, in nanoseconds.
+     */
+    public static final String RESPONSE_TIME_ATTR = "org.apache.myfaces.html5.RESPONSE_TIME";
+
+    private static final String START_TIME_ATTR = ResponseTimingPhaseListener.class.getName() + ".START_TIME";
+
+    public void beforePhase(PhaseEvent event)
+    {
+        if (event.getPhaseId() != PhaseId.RESTORE_VIEW)
+            return;
+
+        ExternalContext externalContext = event.getFacesContext().getExternalContext();
+        if (isEnabled(externalContext))
+            externalContext.getRequestMap().put(START_TIME_ATTR, Long.valueOf(System.nanoTime()));
+    }
+
+    public void afterPhase(PhaseEvent event)
+    {
+        if (event.getPhaseId() != PhaseId.RENDER_RESPONSE)
+            return;
+
+        FacesContext facesContext = event.getFacesContext();
+        ExternalContext externalContext = facesContext.getExternalContext();
+        Map<String, Object> requestMap = externalContext.getRequestMap();
+        Long startTime = (Long) requestMap.get(START_TIME_ATTR);
+        if (startTime == null)
+            return;
+
+        long responseTime = System.nanoTime() - startTime.longValue();
+        requestMap.put(RESPONSE_TIME_ATTR, Long.valueOf(responseTime));
+        ResponseTimings.getInstance(externalContext).recordResponseTime(responseTime);
+
+        if (log.isLoggable(Level.FINE))
+        {
+            Long timeToFirstByte = (Long) requestMap.get(TIME_TO_FIRST_BYTE_ATTR);
+            String viewId = facesContext.getViewRoot() != null ? facesContext.getViewRoot().getViewId() : null;
+            log.fine("view '" + viewId + "' rendered in " + _toMillis(responseTime) + " ms, time to first byte "
+                    + (timeToFirstByte != null ? _toMillis(timeToFirstByte.longValue()) + " ms" : "not measured"));
+        }
+    }
+
+    public PhaseId getPhaseId()
+    {
+        return PhaseId.ANY_PHASE;
+    }
+
+    public static boolean isEnabled(ExternalContext externalContext)
+    {
+        return Html5WebConfigParams.getBooleanInitParameter(externalContext, Html5WebConfigParams.HEAD_FLUSH_ENABLED,
+                false);
+    }
+
+    /**
+     * Records the time to first byte of the request, called after its head is flushed.
+     */
+    public static void headFlushed(FacesContext facesContext)
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+        Map<String, Object> requestMap = externalContext.getRequestMap();
+        Long startTime = (Long) requestMap.get(START_TIME_ATTR);
+        if (startTime == null || requestMap.containsKey(TIME_TO_FIRST_BYTE_ATTR))
+            return;
+
+        long timeToFirstByte = System.nanoTime() - startTime.longValue();
+        requestMap.put(TIME_TO_FIRST_BYTE_ATTR, Long.valueOf(timeToFirstByte));
+        ResponseTimings.getInstance(externalContext).recordTimeToFirstByte(timeToFirstByte);
+    }
+
+    private static long _toMillis(long nanos)
+    {
+        return nanos / 1000000L;
+    }
+}
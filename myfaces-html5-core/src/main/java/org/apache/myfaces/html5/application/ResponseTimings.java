@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.faces.context.ExternalContext;
+
+/**
+ * Time to first byte and response times of the rendered views of the application, recorded by
+ * {@link ResponseTimingPhaseListener}. Times are measured from the start of the lifecycle of the request, and kept in
+ * the application map under {@link #APPLICATION_MAP_KEY}, e.g. to be shown with
+ * <code>#{applicationScope['org.apache.myfaces.html5.application.ResponseTimings'].averageTimeToFirstByte}</code>.
+ *
+ * @author Ali Ok
+ */
+public class ResponseTimings
+{
+    public static final String APPLICATION_MAP_KEY = ResponseTimings.class.getName();
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final AtomicLong _responseCount = new AtomicLong();
+    private final AtomicLong _responseTime = new AtomicLong();
+
+    private final AtomicLong _headFlushCount = new AtomicLong();
+    private final AtomicLong _timeToFirstByte = new AtomicLong();
+    private final AtomicLong _maxTimeToFirstByte = new AtomicLong();
+
+    public static ResponseTimings getInstance(ExternalContext externalContext)
+    {
+        Map<String, Object> applicationMap = externalContext.getApplicationMap();
+        ResponseTimings timings = (ResponseTimings) applicationMap.get(APPLICATION_MAP_KEY);
+        if (timings == null)
+        {
+            timings = new ResponseTimings();
+            applicationMap.put(APPLICATION_MAP_KEY, timings);
+        }
+        return timings;
+    }
+
+    /**
+     * Records the time until the head of a response was flushed, in nanoseconds.
+     */
+    public void recordTimeToFirstByte(long nanos)
+    {
+        _headFlushCount.incrementAndGet();
+        _timeToFirstByte.addAndGet(nanos);
+
+        long max = _maxTimeToFirstByte.get();
+        while (nanos > max && !_maxTimeToFirstByte.compareAndSet(max, nanos))
+        {
+            max = _maxTimeToFirstByte.get();
+        }
+    }
+
+    /**
+     * Records the time until a response was rendered completely, in nanoseconds.
+     */
+    public void recordResponseTime(long nanos)
+    {
+        _responseCount.incrementAndGet();
+        _responseTime.addAndGet(nanos);
+    }
+
+    public long getResponseCount()
+    {
+        return _responseCount.get();
+    }
+
+    public long getHeadFlushCount()
+    {
+        return _headFlushCount.get();
+    }
+
+    /**
+     * Returns the average time to first byte of the responses with a flushed head, in milliseconds.
+     */
+    public double getAverageTimeToFirstByte()
+    {
+        return _average(_timeToFirstByte.get(), _headFlushCount.get());
+    }
+
+    /**
+     * Returns the longest time to first byte of the responses with a flushed head, in milliseconds.
+     */
+    public double getMaxTimeToFirstByte()
+    {
+        return (double) _maxTimeToFirstByte.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the average time until the responses were rendered completely, in milliseconds.
+     */
+    public double getAverageResponseTime()
+    {
+        return _average(_responseTime.get(), _responseCount.get());
+    }
+
+    private static double _average(long nanos, long count)
+    {
+        return count == 0 ? 0 : (double) nanos / count / NANOS_PER_MILLI;
+    }
+}
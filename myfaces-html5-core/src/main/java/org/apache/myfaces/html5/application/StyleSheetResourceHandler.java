@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.faces.FacesException;
+import javax.faces.application.ResourceHandler;
+import javax.faces.application.ResourceHandlerWrapper;
+import javax.faces.application.ViewHandler;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.render.Renderer;
+import javax.faces.view.ViewDeclarationLanguage;
+
+import org.apache.myfaces.html5.renderkit.animation.AnimationStyleSheetRenderer;
+import org.apache.myfaces.html5.renderkit.util.AggregatedStyleSheet;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * ResourceHandler that serves the stylesheets generated while rendering the views, see
+ * {@link Html5WebConfigParams#ANIMATION_STYLESHEET_ENABLED}. Registered in faces-config.xml. <br/>
+ * Generated stylesheets are named after the hash of their content, so they never change and are served with
+ * immutable caching headers. The application keeps the last
+ * {@link Html5WebConfigParams#ANIMATION_STYLESHEET_CACHE_SIZE} of them. <br/>
+ * The url of a stylesheet also carries the id of its view. A stylesheet that is not kept, e.g. after it was evicted,
+ * after a restart of the application or on another node of a cluster, is regenerated by building that view and
+ * rendering its CSS again. If the CSS of the view has changed since, e.g. because it depends on the session or the
+ * request, the request is answered with <code>404</code>; clusters serving such views need sticky sessions. <br/>
+ * The url is not signed, so anyone can request made up hashes. A view is only built if it exists and the application
+ * keeps no stylesheet of it, and the result is kept as its stylesheet even if it has another hash, so such requests
+ * build each view at most once while it is kept.
+ * 
+ * @author Ali Ok
+ * 
+ */
+public class StyleSheetResourceHandler extends ResourceHandlerWrapper
+{
+    private static final Logger log = Logger.getLogger(StyleSheetResourceHandler.class.getName());
+
+    /**
+     * Prefix of the names of the generated stylesheet resources, which is followed by the content hash and ".css".
+     */
+    public static final String RESOURCE_NAME_PREFIX = "myfaces-html5-styles/";
+
+    private static final String RESOURCE_NAME_SUFFIX = ".css";
+
+    /**
+     * Request parameter with the id of the view of a stylesheet.
+     */
+    public static final String VIEW_ID_PARAM = "v";
+
+    private static final String STYLE_SHEETS_KEY = StyleSheetResourceHandler.class.getName() + ".STYLE_SHEETS";
+
+    private static final String VIEW_HASHES_KEY = StyleSheetResourceHandler.class.getName() + ".VIEW_HASHES";
+
+    /**
+     * Default number of generated stylesheets kept by the application.
+     */
+    static final int DEFAULT_MAX_STYLE_SHEETS = 256;
+
+    private static final long MAX_AGE = 31536000L;
+
+    private static final String CHARSET = "UTF-8";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final ResourceHandler _delegate;
+
+    public StyleSheetResourceHandler(ResourceHandler delegate)
+    {
+        this._delegate = delegate;
+    }
+
+    @Override
+    public ResourceHandler getWrapped()
+    {
+        return _delegate;
+    }
+
+    @Override
+    public void handleResourceRequest(FacesContext facesContext) throws IOException
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+        String resourceName = MediaResourceHandler.getResourceName(externalContext);
+        if (resourceName == null || !resourceName.startsWith(RESOURCE_NAME_PREFIX)
+                || !resourceName.endsWith(RESOURCE_NAME_SUFFIX))
+        {
+            super.handleResourceRequest(facesContext);
+            return;
+        }
+
+        String hash = resourceName.substring(RESOURCE_NAME_PREFIX.length(), resourceName.length()
+                - RESOURCE_NAME_SUFFIX.length());
+        String css = getStyleSheet(externalContext, hash);
+        if (css == null)
+            css = _regenerate(facesContext, hash, externalContext.getRequestParameterMap().get(VIEW_ID_PARAM));
+        if (css == null)
+        {
+            externalContext.setResponseStatus(404);
+            return;
+        }
+
+        String etag = "\"" + hash + "\"";
+        externalContext.setResponseHeader("ETag", etag);
+        externalContext.setResponseHeader("Cache-Control", "public, max-age=" + MAX_AGE + ", immutable");
+
+        // content of a hash never changes, so any copy the client has is up to date
+        if (MediaResourceHandler.isNotModified(externalContext.getRequestHeaderMap(), etag, 0))
+        {
+            externalContext.setResponseStatus(304);
+            return;
+        }
+
+        byte[] content = css.getBytes(CHARSET);
+        externalContext.setResponseStatus(200);
+        externalContext.setResponseHeader("Content-Type", "text/css; charset=" + CHARSET);
+        externalContext.setResponseHeader("Content-Length", Integer.toString(content.length));
+
+        if (!MediaResourceHandler.isHeadRequest(externalContext))
+            externalContext.getResponseOutputStream().write(content);
+    }
+
+    /**
+     * Keeps the stylesheet of the current view in the application, and returns its url. <br/>
+     * The last stylesheet of each view is remembered with its hash, so a view rendering the same CSS again is not
+     * hashed again.
+     */
+    public static String register(FacesContext facesContext, String css)
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+        String viewId = facesContext.getViewRoot().getViewId();
+
+        Map<String, String[]> viewHashes = _getCache(externalContext, VIEW_HASHES_KEY);
+        String[] viewHash;
+        synchronized (viewHashes)
+        {
+            viewHash = viewHashes.get(viewId);
+        }
+
+        String hash;
+        if (viewHash != null && css.equals(viewHash[0]))
+        {
+            hash = viewHash[1];
+        }
+        else
+        {
+            hash = hash(css);
+            synchronized (viewHashes)
+            {
+                viewHashes.put(viewId, new String[] { css, hash });
+            }
+        }
+
+        _store(externalContext, hash, css);
+
+        String query = null;
+        if (viewId != null)
+        {
+            try
+            {
+                query = VIEW_ID_PARAM + "=" + URLEncoder.encode(viewId, CHARSET);
+            }
+            catch (UnsupportedEncodingException e)
+            {
+                throw new FacesException(e);
+            }
+        }
+        return MediaResourceHandler.getResourceURL(facesContext, RESOURCE_NAME_PREFIX + hash + RESOURCE_NAME_SUFFIX,
+                query);
+    }
+
+    /**
+     * Returns the registered stylesheet with the hash, or null if it is not known (anymore).
+     */
+    static String getStyleSheet(ExternalContext externalContext, String hash)
+    {
+        Map<String, String> styleSheets = _getCache(externalContext, STYLE_SHEETS_KEY);
+        synchronized (styleSheets)
+        {
+            return styleSheets.get(hash);
+        }
+    }
+
+    private static void _store(ExternalContext externalContext, String hash, String css)
+    {
+        Map<String, String> styleSheets = _getCache(externalContext, STYLE_SHEETS_KEY);
+        synchronized (styleSheets)
+        {
+            if (!styleSheets.containsKey(hash))
+                styleSheets.put(hash, css);
+        }
+    }
+
+    /**
+     * Builds the view and renders its stylesheet again, unless the application keeps a stylesheet of the view, which
+     * then has another hash. The result is kept as the stylesheet of the view, also if there is none.
+     * 
+     * @return the stylesheet, or null if the view does not exist or renders a stylesheet with another hash now
+     */
+    private static String _regenerate(FacesContext facesContext, String hash, String viewId)
+    {
+        if (viewId == null || !viewId.startsWith("/") || viewId.indexOf("..") >= 0)
+            return null;
+
+        ExternalContext externalContext = facesContext.getExternalContext();
+        Map<String, String[]> viewHashes = _getCache(externalContext, VIEW_HASHES_KEY);
+        synchronized (viewHashes)
+        {
+            if (viewHashes.containsKey(viewId))
+                return null;
+        }
+
+        if (!_exists(externalContext, viewId))
+            return null;
+
+        String css = _renderStyleSheet(facesContext, viewId);
+        String cssHash = css == null ? null : hash(css);
+        synchronized (viewHashes)
+        {
+            viewHashes.put(viewId, new String[] { css, cssHash });
+        }
+
+        if (!hash.equals(cssHash))
+        {
+            if (log.isLoggable(Level.FINE))
+                log.fine("stylesheet '" + hash + "' of view '" + viewId + "' can not be regenerated.");
+            return null;
+        }
+
+        _store(externalContext, hash, css);
+        return css;
+    }
+
+    private static boolean _exists(ExternalContext externalContext, String viewId)
+    {
+        try
+        {
+            return externalContext.getResource(viewId) != null;
+        }
+        catch (MalformedURLException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Builds the view and renders its stylesheet.
+     * 
+     * @return the stylesheet, or null if the view can not be built or has no stylesheet
+     */
+    private static String _renderStyleSheet(FacesContext facesContext, String viewId)
+    {
+        try
+        {
+            ViewHandler viewHandler = facesContext.getApplication().getViewHandler();
+            ViewDeclarationLanguage vdl = viewHandler.getViewDeclarationLanguage(facesContext, viewId);
+            if (vdl == null)
+                return null;
+
+            UIViewRoot viewRoot = viewHandler.createView(facesContext, viewId);
+            facesContext.setViewRoot(viewRoot);
+            vdl.buildView(facesContext, viewRoot);
+
+            UIComponent styleSheet = AggregatedStyleSheet.findStyleSheet(facesContext);
+            if (styleSheet == null)
+                return null;
+
+            Renderer renderer = facesContext.getRenderKit().getRenderer(styleSheet.getFamily(),
+                    styleSheet.getRendererType());
+            if (!(renderer instanceof AnimationStyleSheetRenderer))
+                return null;
+
+            return ((AnimationStyleSheetRenderer) renderer).renderStyleSheet(facesContext, styleSheet);
+        }
+        catch (IOException e)
+        {
+            if (log.isLoggable(Level.FINE))
+                log.log(Level.FINE, "view '" + viewId + "' can not be built.", e);
+            return null;
+        }
+        catch (FacesException e)
+        {
+            if (log.isLoggable(Level.FINE))
+                log.log(Level.FINE, "view '" + viewId + "' can not be built.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the hex encoded MD5 hash of the UTF-8 bytes of the content.
+     */
+    public static String hash(String content)
+    {
+        byte[] digest;
+        try
+        {
+            digest = MessageDigest.getInstance("MD5").digest(content.getBytes(CHARSET));
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new FacesException(e);
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            throw new FacesException(e);
+        }
+
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++)
+        {
+            hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Returns the application scoped LRU cache with the key, of at most
+     * {@link Html5WebConfigParams#ANIMATION_STYLESHEET_CACHE_SIZE} entries.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Map<String, V> _getCache(ExternalContext externalContext, String key)
+    {
+        Map<String, Object> applicationMap = externalContext.getApplicationMap();
+        Map<String, V> cache = (Map<String, V>) applicationMap.get(key);
+        if (cache == null)
+        {
+            final int maxSize = Html5WebConfigParams.getIntInitParameter(externalContext,
+                    Html5WebConfigParams.ANIMATION_STYLESHEET_CACHE_SIZE, DEFAULT_MAX_STYLE_SHEETS);
+            cache = new LinkedHashMap<String, V>(16, 0.75F, true)
+            {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, V> eldest)
+                {
+                    return size() > maxSize;
+                }
+            };
+            applicationMap.put(key, cache);
+        }
+        return cache;
+    }
+}
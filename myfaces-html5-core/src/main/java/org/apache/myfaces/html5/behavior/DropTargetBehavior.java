@@ -53,6 +53,7 @@ public class DropTargetBehavior extends javax.faces.component.behavior.ClientBeh
     private static final String ATTR_TYPES = "types";
     private static final String ATTR_ACCEPT_MIME_TYPES = "acceptMimeTypes";
     private static final String ATTR_RERENDER = "rerender";
+    private static final String ATTR_BATCH_DELAY = "batchDelay";
 
     private Map<String, ValueExpression> _valueExpressions = new HashMap<String, ValueExpression>();
     private ClientBehaviorDeltaStateHelper<DropTargetBehavior> deltaStateHelper = new ClientBehaviorDeltaStateHelper<DropTargetBehavior>(this);
@@ -131,6 +132,20 @@ public class DropTargetBehavior extends javax.faces.component.behavior.ClientBeh
         deltaStateHelper.put(ATTR_RERENDER, rerender);
     }
 
+    /**
+     * @see DropTargetBehaviorHandler#_batchDelay
+     */
+    public int getBatchDelay()
+    {
+        Object batchDelay = deltaStateHelper.eval(ATTR_BATCH_DELAY);
+        return batchDelay instanceof Number ? ((Number) batchDelay).intValue() : 0;
+    }
+
+    public void setBatchDelay(int batchDelay)
+    {
+        deltaStateHelper.put(ATTR_BATCH_DELAY, batchDelay);
+    }
+
     
     public void setValueExpression(String name, ValueExpression item)
     {
@@ -41,7 +41,8 @@ public abstract class AbstractHtmlDataList extends javax.faces.component.UICompo
     private static final Logger log = Logger.getLogger(AbstractHtmlDataList.class.getName());
 
     /**
-     * Suggestion values to use. Can be one of comma seperated strings, array of {@link SelectItem} or collection of {@link SelectItem}. 
+     * Suggestion values to use. Can be one of comma seperated strings, array of {@link SelectItem}, collection of {@link SelectItem}
+     * or a {@link org.apache.myfaces.html5.model.SuggestionProvider}. 
      */
     @JSFProperty(deferredValueType = "java.lang.Object")
     // since this property accepts both comma separated string and List<SelectItem>
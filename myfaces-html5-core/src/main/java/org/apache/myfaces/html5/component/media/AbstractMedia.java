@@ -77,6 +77,20 @@ public abstract class AbstractMedia extends javax.faces.component.html.HtmlOutpu
     @JSFProperty(deferredValueType = "java.lang.String")
     public abstract String getPreload();
 
+    /**
+     * Returns the loading mode of the component. Can be one of
+     * <ul>
+     * <li>"eager": Sources are rendered as they are</li>
+     * <li>"lazy": Sources are rendered as "data-" attributes with preload="none", and set by a shared script when the
+     * element nears the viewport. Avoids the metadata requests of media far below the fold.</li>
+     * </ul>
+     * Default to null, which uses the value of the context parameter
+     * {@link org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams#MEDIA_LOADING}, or "eager" if it is not
+     * set.
+     */
+    @JSFProperty(deferredValueType = "java.lang.String")
+    public abstract String getLoading();
+
     /**
      * This property is to show/hide browser's media controls. If true, browser's media controls are shown (default). If
      * false, controls are not shown and page author needs to provide controls explicitly.
@@ -97,6 +97,15 @@ public abstract class AbstractSlideView extends javax.faces.component.UIComponen
     @JSFProperty(required = false, deferredValueType = "java.lang.Boolean", defaultValue = "true")
     public abstract boolean isNavigateOnMouseWheel();
 
+    /**
+     * Number of slides rendered after the first slide, which is active initially. The other slides are rendered as empty
+     * placeholders, which are fetched with partial requests when they get within this number of slides of the active
+     * one. The requests need a form in the page, which does not need to contain the slide view.<br/>
+     * Defaults to 0, which renders all slides.
+     */
+    @JSFProperty(required = false, deferredValueType = "java.lang.Integer", defaultValue = "0")
+    public abstract int getSlideWindow();
+
 
     @Override
     public String getContainerClientId(FacesContext ctx)
@@ -31,7 +31,8 @@ public interface Html5InputProperties
     public abstract boolean isAutoFocus();
 
     /**
-     * Static(not Ajax) suggestion values. This attribute should not be defined if "list" is set.
+     * Static(not Ajax) suggestion values. This attribute should not be defined if "list" is set. Can be one of comma
+     * separated strings, array or collection of SelectItem, or a {@link org.apache.myfaces.html5.model.SuggestionProvider}.
      * 
      * @see list property
      */
@@ -48,6 +49,23 @@ public interface Html5InputProperties
     @JSFProperty(deferredValueType = "java.lang.String")
     public abstract String getDataList();
 
+    /**
+     * If true, the options of the generated datalist are not rendered with the page. They are requested with Ajax on
+     * the input event instead, and looked up in a prefix index that is built once from the "suggestions" property (see
+     * {@link org.apache.myfaces.html5.model.PrefixSuggestionIndex}). f:selectItem(s) children are not used in this mode.
+     * Default to false.
+     * 
+     */
+    @JSFProperty(defaultValue = "false", deferredValueType = "java.lang.Boolean")
+    public abstract boolean isIncrementalSuggestions();
+
+    /**
+     * Maximum number of options sent for the typed prefix if "incrementalSuggestions" is true. Default to 10.
+     * 
+     */
+    @JSFProperty(defaultValue = "10", deferredValueType = "java.lang.Integer")
+    public abstract int getMaxSuggestions();
+
     /**
      * HTML: Script to be invoked when the state of the owner form is changed.
      * 
@@ -18,6 +18,8 @@
  */
 package org.apache.myfaces.html5.event;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -31,7 +33,7 @@ import org.apache.myfaces.html5.behavior.DropTargetBehavior;
  * This event is fired when a successful drop is done.
  * <br/>
  * 
- * Holds the parameter and content-type <=> value map sent with the event.
+ * Holds the parameter, content-type <=> value map and the files sent with the event.
  * 
  * @author Ali Ok
  *
@@ -43,12 +45,21 @@ public class DropEvent extends BehaviorEvent
 
     private final Map<String, String> _dropDataMap;
     private final String _param;
+    private final List<DroppedFile> _files;
 
     public DropEvent(UIComponent component, DropTargetBehavior behavior, Map<String, String> dropDataMap, String param)
+    {
+        this(component, behavior, dropDataMap, param, null);
+    }
+
+    public DropEvent(UIComponent component, DropTargetBehavior behavior, Map<String, String> dropDataMap,
+            String param, List<DroppedFile> files)
     {
         super(component, behavior);
         _dropDataMap = dropDataMap;
         this._param = param;
+        List<DroppedFile> emptyFiles = Collections.emptyList();
+        this._files = files == null ? emptyFiles : Collections.unmodifiableList(files);
     }
     
     @Override
@@ -91,5 +102,14 @@ public class DropEvent extends BehaviorEvent
     {
         return _param;
     }
+
+    /**
+     * Files dropped on the drop target, empty if there are none or file drops are disabled. See
+     * {@link org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams#FILE_DROP_MAX_SIZE}.
+     */
+    public List<DroppedFile> getFiles()
+    {
+        return _files;
+    }
     
 }
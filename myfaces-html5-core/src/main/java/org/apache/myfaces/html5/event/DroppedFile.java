@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.event;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * A file dropped on a drop target, uploaded to a temporary file of the server. <br/>
+ * The content is not read until {@link #openStream()} is called. The temporary file is deleted at the end of the
+ * request of the {@link DropEvent}; listeners that want to keep the file should {@link #moveTo(File)} it.
+ * 
+ * @author Ali Ok
+ * 
+ */
+public class DroppedFile
+{
+    private final File _file;
+    private final String _name;
+    private final String _contentType;
+    private final long _size;
+
+    public DroppedFile(File file, String name, String contentType, long size)
+    {
+        this._file = file;
+        this._name = name;
+        this._contentType = contentType;
+        this._size = size;
+    }
+
+    /**
+     * Name of the file on the client, without the path.
+     */
+    public String getName()
+    {
+        return _name;
+    }
+
+    /**
+     * Content type of the file as reported by the browser, may be null.
+     */
+    public String getContentType()
+    {
+        return _contentType;
+    }
+
+    /**
+     * Size of the file in bytes.
+     */
+    public long getSize()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns the temporary file which holds the content.
+     */
+    public File getFile()
+    {
+        return _file;
+    }
+
+    /**
+     * Opens a new stream to the content. The caller is responsible for closing it.
+     */
+    public InputStream openStream() throws IOException
+    {
+        return new FileInputStream(_file);
+    }
+
+    /**
+     * Moves the content to the target file, which is replaced if it exists. The content is copied if the file can not
+     * be renamed, e.g. the target is on another file system.
+     */
+    public void moveTo(File target) throws IOException
+    {
+        if (target.exists() && !target.delete())
+            throw new IOException("File '" + target + "' can not be replaced.");
+
+        if (_file.renameTo(target))
+            return;
+
+        FileInputStream in = new FileInputStream(_file);
+        try
+        {
+            FileOutputStream out = new FileOutputStream(target);
+            try
+            {
+                FileChannel channel = in.getChannel();
+                long position = 0;
+                long size = channel.size();
+                while (position < size)
+                    position += channel.transferTo(position, size - position, out.getChannel());
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+
+        _file.delete();
+    }
+
+    /**
+     * Deletes the temporary file.
+     */
+    public boolean delete()
+    {
+        return _file.delete();
+    }
+
+    @Override
+    public String toString()
+    {
+        return _name + " (" + _contentType + ", " + _size + " bytes)";
+    }
+}
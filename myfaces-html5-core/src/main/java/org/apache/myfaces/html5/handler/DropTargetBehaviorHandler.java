@@ -140,6 +140,15 @@ public class DropTargetBehaviorHandler extends javax.faces.view.facelets.Behavio
     @JSFFaceletAttribute(name = "rerender", className = "javax.el.ValueExpression", deferredValueType = "java.lang.Object")
     private final TagAttribute _rerender;
 
+    /**
+     * If greater than 0, drops are not sent to the server one by one, but buffered on the client for this many
+     * milliseconds after the first drop and sent in one request. A {@link DropEvent} is queued for each buffered drop,
+     * in the order of the drops, and the components of "rerender" are rendered once for the whole batch. <br/>
+     * Default value is 0, which sends each drop immediately.
+     */
+    @JSFFaceletAttribute(name = "batchDelay", className = "javax.el.ValueExpression", deferredValueType = "java.lang.Integer")
+    private final TagAttribute _batchDelay;
+
     /**
      * Drop listener to trigger when a successful drop event is happened into this drop target. <br/>
      * Listener method must have a signature of :
@@ -157,6 +166,7 @@ public class DropTargetBehaviorHandler extends javax.faces.view.facelets.Behavio
         _types = getAttribute("types");
         _acceptMimeTypes = getAttribute("acceptMimeTypes");
         _rerender = getAttribute("rerender");
+        _batchDelay = getAttribute("batchDelay");
         _dropListener = getAttribute("dropListener");
     }
 
@@ -251,6 +261,18 @@ public class DropTargetBehaviorHandler extends javax.faces.view.facelets.Behavio
                             Object.class));
                 }
             }
+            if (_batchDelay != null)
+            {
+                if (_batchDelay.isLiteral())
+                {
+                    dropTargetBehavior.setBatchDelay(_batchDelay.getInt(faceletContext));
+                }
+                else
+                {
+                    dropTargetBehavior.setValueExpression("batchDelay", _batchDelay.getValueExpression(faceletContext,
+                            Integer.class));
+                }
+            }
 
             holder.addClientBehavior(ClientBehaviorEvents.DRAGENTER_EVENT, dropTargetBehavior);
             holder.addClientBehavior(ClientBehaviorEvents.DRAGOVER_EVENT, dropTargetBehavior);
@@ -83,6 +83,13 @@ public class MediaSourceHandler extends TagHandler
     @JSFFaceletAttribute(className = "javax.el.ValueExpression", deferredValueType = "java.lang.Boolean")
     private final TagAttribute disabled;
 
+    /**
+     * Quality hint of the resource, e.g. its bitrate in kbit/s. Higher is better. Used to order the playable sources
+     * if media source negotiation is enabled.
+     */
+    @JSFFaceletAttribute(className = "javax.el.ValueExpression", deferredValueType = "java.lang.Integer")
+    private final TagAttribute quality;
+
     public MediaSourceHandler(TagConfig config)
     {
         super(config);
@@ -92,6 +99,7 @@ public class MediaSourceHandler extends TagHandler
         this.contentType = getAttribute("contentType");
         this.media = getAttribute("media");
         this.disabled = getAttribute("disabled");
+        this.quality = getAttribute("quality");
 
     }
 
@@ -110,6 +118,7 @@ public class MediaSourceHandler extends TagHandler
             String contentTypeVal = null;
             String mediaVal = null;
             boolean disabledVal = false;
+            int qualityVal = 0;
 
             // src is required, no need to check nullness
             valueVal = this.src.getValue(faceletContext);
@@ -126,7 +135,10 @@ public class MediaSourceHandler extends TagHandler
             if (this.disabled != null)
                 disabledVal = this.disabled.getBoolean(faceletContext);
 
-            MediaInfo mediaInfo = new MediaInfo(valueVal, contentTypeVal, codecVal, mediaVal, disabledVal);
+            if (this.quality != null)
+                qualityVal = this.quality.getInt(faceletContext);
+
+            MediaInfo mediaInfo = new MediaInfo(valueVal, contentTypeVal, codecVal, mediaVal, disabledVal, qualityVal);
 
             if (log.isLoggable(Level.FINE))
                 log.fine("MediaInfo instance created, adding it into parent's set.");
@@ -42,6 +42,7 @@ public class MediaInfo
     protected String media;
     protected String codec;
     protected boolean disabled;
+    protected int quality;
 
     /**
      * @param src
@@ -55,19 +56,30 @@ public class MediaInfo
      *            Intended media type of the media resource. eg: "tv" or "3d-glasses"
      * @param disabled
      *            Is this media resource should not be rendered or used, this field should be set to true.
+     * @param quality
+     *            Quality hint of the resource, e.g. its bitrate in kbit/s. Higher is better, 0 means unknown.
      * 
      */
-    public MediaInfo(String src, String contentType, String codec, String media, boolean disabled)
+    public MediaInfo(String src, String contentType, String codec, String media, boolean disabled, int quality)
     {
         this.src = src;
         this.contentType = contentType;
         this.codec = codec;
         this.media = media;
         this.disabled = disabled;
+        this.quality = quality;
     }
 
     // overloaded constructors
 
+    /**
+     * @see #MediaInfo(String, String, String, String, boolean, int)
+     */
+    public MediaInfo(String src, String contentType, String codec, String media, boolean disabled)
+    {
+        this(src, contentType, codec, media, disabled, 0);
+    }
+
     /**
      * @see #MediaInfo(String, String, String, String, boolean)
      */
@@ -144,4 +156,14 @@ public class MediaInfo
         return disabled;
     }
 
+    /**
+     * Returns the quality hint of the resource, e.g. its bitrate in kbit/s. Higher is better, 0 means unknown. If
+     * media source negotiation is enabled, playable sources of the same preference are rendered in descending order of
+     * quality.
+     */
+    public int getQuality()
+    {
+        return quality;
+    }
+
 }
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import javax.faces.model.SelectItem;
+
+/**
+ * Immutable index of suggestions for case insensitive prefix lookups, used by the incremental suggestions of the
+ * Html5 inputs. <br/>
+ * Suggestions are kept in arrays sorted by the lower cased string form of their values; a lookup is a binary search
+ * for the first match followed by reading at most <code>limit</code> entries, so its cost does not depend on the
+ * number of suggestions. <br/>
+ * An index can be built once and returned from the "suggestions" value expression directly, e.g. from an application
+ * scoped bean. Other values of the "suggestions" property are indexed by the renderer.
+ * 
+ * @author Ali Ok
+ * 
+ */
+public final class PrefixSuggestionIndex
+{
+    private final String[] _keys;
+    private final Object[] _values;
+    private final String[] _labels;
+
+    private PrefixSuggestionIndex(String[] keys, Object[] values, String[] labels)
+    {
+        this._keys = keys;
+        this._values = values;
+        this._labels = labels;
+    }
+
+    /**
+     * Builds an index from comma separated strings, an array or collection of {@link SelectItem}s or plain values, or
+     * a {@link SuggestionProvider}.
+     * 
+     * @throws IllegalArgumentException
+     *             if the source is none of them
+     */
+    public static PrefixSuggestionIndex build(Object source) throws IOException
+    {
+        final List<Object> values = new ArrayList<Object>();
+        final List<String> labels = new ArrayList<String>();
+
+        if (source instanceof String)
+        {
+            for (String value : ((String) source).split(","))
+            {
+                values.add(value.trim());
+                labels.add(null);
+            }
+        }
+        else if (source instanceof SuggestionProvider)
+        {
+            ((SuggestionProvider) source).provideSuggestions(new SuggestionProvider.Callback()
+            {
+                public boolean suggest(Object value, String label)
+                {
+                    values.add(value);
+                    labels.add(label);
+                    return true;
+                }
+            }, -1);
+        }
+        else if (source instanceof Object[] || source instanceof Collection<?>)
+        {
+            Collection<?> items = source instanceof Object[] ? Arrays.asList((Object[]) source)
+                    : (Collection<?>) source;
+            for (Object item : items)
+            {
+                if (item instanceof SelectItem)
+                {
+                    values.add(((SelectItem) item).getValue());
+                    labels.add(((SelectItem) item).getLabel());
+                }
+                else
+                {
+                    values.add(item);
+                    labels.add(null);
+                }
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Suggestions of type "
+                    + (source == null ? null : source.getClass().getName()) + " can not be indexed.");
+        }
+
+        return _build(values, labels);
+    }
+
+    private static PrefixSuggestionIndex _build(List<Object> values, List<String> labels)
+    {
+        int size = values.size();
+        final String[] unsortedKeys = new String[size];
+        Integer[] order = new Integer[size];
+        boolean hasLabels = false;
+        for (int i = 0; i < size; i++)
+        {
+            unsortedKeys[i] = _key(String.valueOf(values.get(i)));
+            order[i] = Integer.valueOf(i);
+            hasLabels |= labels.get(i) != null;
+        }
+
+        // stable, so suggestions with the same key keep the order of the source
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            public int compare(Integer o1, Integer o2)
+            {
+                return unsortedKeys[o1.intValue()].compareTo(unsortedKeys[o2.intValue()]);
+            }
+        });
+
+        String[] keys = new String[size];
+        Object[] sortedValues = new Object[size];
+        String[] sortedLabels = hasLabels ? new String[size] : null;
+        for (int i = 0; i < size; i++)
+        {
+            int index = order[i].intValue();
+            keys[i] = unsortedKeys[index];
+            sortedValues[i] = values.get(index);
+            if (hasLabels)
+                sortedLabels[i] = labels.get(index);
+        }
+
+        return new PrefixSuggestionIndex(keys, sortedValues, sortedLabels);
+    }
+
+    /**
+     * Returns the number of suggestions in the index.
+     */
+    public int size()
+    {
+        return _keys.length;
+    }
+
+    /**
+     * Passes the suggestions starting with the given prefix (ignoring case) to the callback, in the order of their
+     * values.
+     * 
+     * @param limit
+     *            maximum number of suggestions passed, -1 for no limit
+     * @return the number of suggestions passed
+     */
+    public int lookup(String prefix, int limit, SuggestionProvider.Callback callback) throws IOException
+    {
+        String key = _key(prefix == null ? "" : prefix);
+
+        int count = 0;
+        for (int i = _lowerBound(key); i < _keys.length && (limit < 0 || count < limit); i++)
+        {
+            if (!_keys[i].startsWith(key))
+                break;
+
+            count++;
+            if (!callback.suggest(_values[i], _labels == null ? null : _labels[i]))
+                break;
+        }
+        return count;
+    }
+
+    /**
+     * Returns a provider of the suggestions starting with the given prefix.
+     */
+    public SuggestionProvider forPrefix(final String prefix)
+    {
+        return new SuggestionProvider()
+        {
+            public int getSizeHint()
+            {
+                return -1;
+            }
+
+            public void provideSuggestions(Callback callback, int limit) throws IOException
+            {
+                lookup(prefix, limit, callback);
+            }
+        };
+    }
+
+    // index of the first key which is not less than the given key
+    private int _lowerBound(String key)
+    {
+        int low = 0;
+        int high = _keys.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (_keys[middle].compareTo(key) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private static String _key(String value)
+    {
+        return value.toLowerCase(Locale.ENGLISH);
+    }
+}
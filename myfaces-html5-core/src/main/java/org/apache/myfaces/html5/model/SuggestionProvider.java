@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.model;
+
+import java.io.IOException;
+
+/**
+ * Source of suggestions that are written while they are produced, instead of being collected in an array or
+ * collection first. Can be used as the value of the "suggestions" property of hx:dataList and the Html5 inputs.
+ * <br/>
+ * Implementations backed by a database cursor or a large index should pass the suggestions to the callback one by
+ * one, and release their resources before {@link #provideSuggestions(Callback, int)} returns.
+ * 
+ * @author Ali Ok
+ * 
+ * @see org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams#SUGGESTIONS_LIMIT
+ */
+public interface SuggestionProvider
+{
+    /**
+     * Returns the number of suggestions this provider will produce, or -1 if it is not known in advance. If 0 is
+     * returned, {@link #provideSuggestions(Callback, int)} is not called at all.
+     */
+    public int getSizeHint();
+
+    /**
+     * Passes the suggestions to the callback in the order they should be rendered.
+     * 
+     * @param limit
+     *            maximum number of suggestions that will be rendered, or -1 if there is no limit. Implementations may
+     *            use it to restrict their queries; suggestions after the limit are ignored anyway.
+     * @throws IOException
+     *             if the callback fails to write a suggestion
+     */
+    public void provideSuggestions(Callback callback, int limit) throws IOException;
+
+    /**
+     * Receives the suggestions of a {@link SuggestionProvider}.
+     */
+    public interface Callback
+    {
+        /**
+         * Renders a suggestion.
+         * 
+         * @param value
+         *            value of the suggestion, converted with the converter of the input
+         * @param label
+         *            label of the suggestion, might be null
+         * @return false if no more suggestions will be rendered, so the provider can stop
+         */
+        public boolean suggest(Object value, String label) throws IOException;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit;
+
+import java.io.IOException;
+
+import javax.faces.component.UIComponent;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
+import javax.faces.convert.ConverterException;
+import javax.faces.render.Renderer;
+
+import org.apache.myfaces.html5.application.ResponseTimingPhaseListener;
+import org.apache.myfaces.html5.renderkit.media.MediaCapabilities;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * Wraps the renderer of h:head to send the rendered head, including the resources targeted at it, to the client as
+ * soon as it is complete, see {@link Html5WebConfigParams#HEAD_FLUSH_ENABLED}. The browser starts loading the scripts
+ * and stylesheets while the body is still being rendered.
+ * <br/>
+ * The response is committed by the flush, so nothing rendered afterwards can set headers or cookies. The session is
+ * created before the flush if the state is saved on the server, as its cookie could not be sent later; the same goes
+ * for the <code>Vary</code> header of {@link MediaCapabilities}. Partial responses are never flushed.
+ * <br/>
+ * For the same reason, an exception thrown while rendering the body can no longer forward to the error page or set an
+ * error status once the head is flushed; the client gets the page up to the error with status 200.
+ *
+ * @author Ali Ok
+ * @see Html5RenderKit
+ */
+public class HeadFlushRenderer extends Renderer
+{
+    private final Renderer _delegate;
+
+    public HeadFlushRenderer(Renderer delegate)
+    {
+        this._delegate = delegate;
+    }
+
+    public Renderer getWrapped()
+    {
+        return _delegate;
+    }
+
+    @Override
+    public void decode(FacesContext context, UIComponent component)
+    {
+        _delegate.decode(context, component);
+    }
+
+    @Override
+    public void encodeBegin(FacesContext context, UIComponent component) throws IOException
+    {
+        _delegate.encodeBegin(context, component);
+    }
+
+    @Override
+    public void encodeChildren(FacesContext context, UIComponent component) throws IOException
+    {
+        _delegate.encodeChildren(context, component);
+    }
+
+    @Override
+    public void encodeEnd(FacesContext context, UIComponent component) throws IOException
+    {
+        _delegate.encodeEnd(context, component);
+
+        if (component.isRendered())
+            flushHead(context);
+    }
+
+    @Override
+    public String convertClientId(FacesContext context, String clientId)
+    {
+        return _delegate.convertClientId(context, clientId);
+    }
+
+    @Override
+    public boolean getRendersChildren()
+    {
+        return _delegate.getRendersChildren();
+    }
+
+    @Override
+    public Object getConvertedValue(FacesContext context, UIComponent component, Object submittedValue)
+            throws ConverterException
+    {
+        return _delegate.getConvertedValue(context, component, submittedValue);
+    }
+
+    /**
+     * Sends everything rendered so far to the client.
+     */
+    protected void flushHead(FacesContext facesContext) throws IOException
+    {
+        if (facesContext.getPartialViewContext().isPartialRequest())
+            return;
+
+        ExternalContext externalContext = facesContext.getExternalContext();
+        if (!facesContext.getApplication().getStateManager().isSavingStateInClient(facesContext))
+            externalContext.getSession(true);
+
+        // adds the Vary header of negotiated media sources, which could not be set later
+        MediaCapabilities.getInstance(facesContext);
+
+        ResponseWriter writer = facesContext.getResponseWriter();
+        if (writer != null)
+            writer.flush();
+        externalContext.responseFlushBuffer();
+
+        ResponseTimingPhaseListener.headFlushed(facesContext);
+    }
+}
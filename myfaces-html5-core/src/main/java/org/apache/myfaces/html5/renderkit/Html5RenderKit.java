@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit;
+
+import java.io.Writer;
+
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
+import javax.faces.render.RenderKit;
+import javax.faces.render.Renderer;
+import javax.faces.render.RenderKitWrapper;
+
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * Wraps the HTML_BASIC render kit to create {@link Html5ResponseWriter}s for html responses, and to flush the head of
+ * the responses early with {@link HeadFlushRenderer}, if enabled.
+ *
+ * @author Ali Ok
+ * @see Html5RenderKitFactory
+ */
+public class Html5RenderKit extends RenderKitWrapper
+{
+    private static final String HTML_CONTENT_TYPE = "text/html";
+
+    private static final String ANY_CONTENT_TYPE = "*/*";
+
+    private static final String[] XML_CONTENT_TYPES = { "application/xhtml+xml", "application/xml", "text/xml" };
+
+    // used by the HTML_BASIC render kits if no encoding is given
+    private static final String DEFAULT_CHARACTER_ENCODING = "ISO-8859-1";
+
+    private static final String HEAD_FAMILY = "javax.faces.Output";
+    private static final String HEAD_RENDERER_TYPE = "javax.faces.Head";
+
+    private final RenderKit _delegate;
+
+    private Boolean _responseWriterEnabled;
+
+    private Boolean _headFlushEnabled;
+
+    private volatile HeadFlushRenderer _headRenderer;
+
+    public Html5RenderKit(RenderKit delegate)
+    {
+        this._delegate = delegate;
+    }
+
+    @Override
+    public RenderKit getWrapped()
+    {
+        return _delegate;
+    }
+
+    @Override
+    public ResponseWriter createResponseWriter(Writer writer, String contentTypeList, String characterEncoding)
+    {
+        // only html is handled, xml (e.g. partial responses) and anything else is left to the default writer
+        if (isResponseWriterEnabled() && isHtmlContentType(contentTypeList))
+        {
+            return new Html5ResponseWriter(writer, HTML_CONTENT_TYPE,
+                    characterEncoding != null ? characterEncoding : DEFAULT_CHARACTER_ENCODING);
+        }
+
+        return _delegate.createResponseWriter(writer, contentTypeList, characterEncoding);
+    }
+
+    /**
+     * Returns true if text/html or any type is listed before an xhtml or xml type in the list, or in the Accept header
+     * of the request if there is no list. Quality values are not weighed, so a list preferring another type is left
+     * to the wrapped render kit. The content type is resolved here, so the wrapped render kit does not have to create
+     * a writer just to tell it.
+     */
+    static boolean isHtmlContentType(String contentTypeList)
+    {
+        if (contentTypeList == null)
+        {
+            FacesContext facesContext = FacesContext.getCurrentInstance();
+            if (facesContext != null)
+                contentTypeList = facesContext.getExternalContext().getRequestHeaderMap().get("Accept");
+            if (contentTypeList == null)
+                return true;
+        }
+
+        for (String element : contentTypeList.split(","))
+        {
+            int parameters = element.indexOf(';');
+            String contentType = (parameters < 0 ? element : element.substring(0, parameters)).trim();
+            if (HTML_CONTENT_TYPE.equals(contentType) || ANY_CONTENT_TYPE.equals(contentType))
+                return true;
+            for (String xmlContentType : XML_CONTENT_TYPES)
+            {
+                if (xmlContentType.equals(contentType))
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Renderer getRenderer(String family, String rendererType)
+    {
+        Renderer renderer = _delegate.getRenderer(family, rendererType);
+        if (renderer == null || !HEAD_RENDERER_TYPE.equals(rendererType) || !HEAD_FAMILY.equals(family)
+                || !isHeadFlushEnabled())
+        {
+            return renderer;
+        }
+
+        HeadFlushRenderer headRenderer = _headRenderer;
+        if (headRenderer == null || headRenderer.getWrapped() != renderer)
+        {
+            headRenderer = new HeadFlushRenderer(renderer);
+            _headRenderer = headRenderer;
+        }
+        return headRenderer;
+    }
+
+    private boolean isResponseWriterEnabled()
+    {
+        if (_responseWriterEnabled == null)
+        {
+            FacesContext facesContext = FacesContext.getCurrentInstance();
+            _responseWriterEnabled = facesContext != null
+                    && Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                            Html5WebConfigParams.RESPONSE_WRITER_ENABLED, false);
+        }
+        return _responseWriterEnabled.booleanValue();
+    }
+
+    private boolean isHeadFlushEnabled()
+    {
+        if (_headFlushEnabled == null)
+        {
+            FacesContext facesContext = FacesContext.getCurrentInstance();
+            _headFlushEnabled = facesContext != null
+                    && Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                            Html5WebConfigParams.HEAD_FLUSH_ENABLED, false);
+        }
+        return _headFlushEnabled.booleanValue();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.faces.context.FacesContext;
+import javax.faces.render.RenderKit;
+import javax.faces.render.RenderKitFactory;
+
+/**
+ * RenderKitFactory that decorates the HTML_BASIC render kit with {@link Html5RenderKit}. Registered in
+ * faces-config.xml.
+ *
+ * @author Ali Ok
+ */
+public class Html5RenderKitFactory extends RenderKitFactory
+{
+    private final RenderKitFactory _delegate;
+
+    private final Map<RenderKit, RenderKit> _wrappedRenderKits = new ConcurrentHashMap<RenderKit, RenderKit>();
+
+    public Html5RenderKitFactory(RenderKitFactory delegate)
+    {
+        this._delegate = delegate;
+    }
+
+    @Override
+    public RenderKitFactory getWrapped()
+    {
+        return _delegate;
+    }
+
+    @Override
+    public void addRenderKit(String renderKitId, RenderKit renderKit)
+    {
+        _delegate.addRenderKit(renderKitId, renderKit);
+    }
+
+    @Override
+    public RenderKit getRenderKit(FacesContext context, String renderKitId)
+    {
+        RenderKit renderKit = _delegate.getRenderKit(context, renderKitId);
+        if (renderKit == null || !HTML_BASIC_RENDER_KIT.equals(renderKitId))
+            return renderKit;
+
+        RenderKit wrapped = _wrappedRenderKits.get(renderKit);
+        if (wrapped == null)
+        {
+            wrapped = new Html5RenderKit(renderKit);
+            _wrappedRenderKits.put(renderKit, wrapped);
+        }
+        return wrapped;
+    }
+
+    @Override
+    public Iterator<String> getRenderKitIds()
+    {
+        return _delegate.getRenderKitIds();
+    }
+}
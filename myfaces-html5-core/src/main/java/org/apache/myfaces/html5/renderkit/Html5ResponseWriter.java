@@ -0,0 +1,632 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.faces.component.UIComponent;
+import javax.faces.context.ResponseWriter;
+
+import org.apache.myfaces.html5.renderkit.util.HTML5;
+
+/**
+ * High throughput ResponseWriter for text/html responses. <br/>
+ * Element and attribute names defined in {@link HTML5} are kept as prebuilt tokens (e.g. <code>&lt;video</code>,
+ * <code> src="</code>), values that contain nothing to escape are copied in one go and all output is collected in a
+ * pooled buffer that is passed to the underlying writer in large chunks. The buffer goes back to the pool whenever the
+ * writer is flushed, which {@link #endDocument()} does at the end of a response. Writers created with
+ * {@link #cloneWithWriter(Writer)} are not buffered, as their callers usually read the target writer without flushing
+ * the clone. <br/>
+ * Enabled with the {@link org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams#RESPONSE_WRITER_ENABLED}
+ * context parameter.
+ *
+ * @author Ali Ok
+ * @see Html5RenderKit
+ */
+public class Html5ResponseWriter extends ResponseWriter
+{
+    static final int BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    private static final ConcurrentLinkedQueue<char[]> BUFFER_POOL = new ConcurrentLinkedQueue<char[]>();
+    private static final AtomicInteger POOLED_BUFFER_COUNT = new AtomicInteger();
+
+    private static final Map<String, char[]> START_ELEMENT_TOKENS = new HashMap<String, char[]>();
+    private static final Map<String, char[]> END_ELEMENT_TOKENS = new HashMap<String, char[]>();
+    private static final Map<String, char[]> ATTRIBUTE_TOKENS = new HashMap<String, char[]>();
+
+    private static final Set<String> EMPTY_ELEMENTS = new HashSet<String>(Arrays.asList("area", "base", "br", "col",
+            "embed", "hr", "img", "input", "keygen", "link", "meta", "param", "source", "track", "wbr"));
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final char[] AMP = "&amp;".toCharArray();
+    private static final char[] LT = "&lt;".toCharArray();
+    private static final char[] GT = "&gt;".toCharArray();
+    private static final char[] QUOT = "&quot;".toCharArray();
+
+    static
+    {
+        for (Field field : HTML5.class.getFields())
+        {
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class)
+                continue;
+
+            String name;
+            try
+            {
+                name = (String) field.get(null);
+            }
+            catch (IllegalAccessException e)
+            {
+                continue;
+            }
+
+            if (field.getName().endsWith("_ELEM"))
+            {
+                START_ELEMENT_TOKENS.put(name, ("<" + name).toCharArray());
+                END_ELEMENT_TOKENS.put(name, ("</" + name + ">").toCharArray());
+            }
+            else if (field.getName().endsWith("_ATTR"))
+            {
+                ATTRIBUTE_TOKENS.put(name, (" " + name + "=\"").toCharArray());
+            }
+        }
+    }
+
+    private final Writer _out;
+    private final String _contentType;
+    private final String _characterEncoding;
+    private final boolean _unicodeEncoding;
+    private final boolean _buffered;
+
+    private char[] _buffer;
+    private int _position;
+
+    private boolean _startTagOpen;
+    private String _startElementName;
+    private boolean _startElementEmpty;
+    private boolean _rawContent;
+
+    public Html5ResponseWriter(Writer out, String contentType, String characterEncoding)
+    {
+        this(out, contentType, characterEncoding, true);
+    }
+
+    private Html5ResponseWriter(Writer out, String contentType, String characterEncoding, boolean buffered)
+    {
+        this._out = out;
+        this._buffered = buffered;
+        this._contentType = contentType;
+        this._characterEncoding = characterEncoding;
+        this._unicodeEncoding = characterEncoding == null || characterEncoding.toUpperCase().startsWith("UTF");
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return _contentType;
+    }
+
+    @Override
+    public String getCharacterEncoding()
+    {
+        return _characterEncoding;
+    }
+
+    @Override
+    public void startDocument() throws IOException
+    {
+        // nothing to do
+    }
+
+    @Override
+    public void endDocument() throws IOException
+    {
+        closeStartTagIfNecessary();
+        flush();
+    }
+
+    /**
+     * Writes the pending output to the underlying writer and returns the buffer to the pool. A new one is taken on the
+     * next write.
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        closeStartTagIfNecessary();
+        flushBuffer();
+        releaseBuffer();
+        _out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closeStartTagIfNecessary();
+        flushBuffer();
+        releaseBuffer();
+        _out.close();
+    }
+
+    /**
+     * Creates a writer for the given writer, after writing the pending output of this one. The clone writes straight
+     * to the given writer, so its output is there as soon as an element is complete, without flushing the clone.
+     */
+    @Override
+    public ResponseWriter cloneWithWriter(Writer writer)
+    {
+        // pending output has to reach the underlying writer before the clone starts writing
+        try
+        {
+            flushBuffer();
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        return new Html5ResponseWriter(writer, _contentType, _characterEncoding, false);
+    }
+
+    @Override
+    public void startElement(String name, UIComponent component) throws IOException
+    {
+        if (name == null)
+            throw new NullPointerException("elementName name must not be null");
+
+        closeStartTagIfNecessary();
+
+        char[] token = START_ELEMENT_TOKENS.get(name);
+        if (token != null)
+        {
+            put(token);
+        }
+        else
+        {
+            put('<');
+            put(name);
+        }
+
+        _startTagOpen = true;
+        _startElementName = name;
+        // the names of the tokens are lower case already
+        _startElementEmpty = EMPTY_ELEMENTS.contains(name)
+                || (token == null && EMPTY_ELEMENTS.contains(name.toLowerCase(Locale.ENGLISH)));
+        _rawContent = HTML5.SCRIPT_ELEM.equalsIgnoreCase(name) || HTML5.STYLE_ELEM.equalsIgnoreCase(name);
+    }
+
+    @Override
+    public void endElement(String name) throws IOException
+    {
+        if (name == null)
+            throw new NullPointerException("elementName name must not be null");
+
+        if (_startTagOpen && _startElementEmpty && name.equals(_startElementName))
+        {
+            put(" />");
+            _startTagOpen = false;
+            _startElementName = null;
+            return;
+        }
+
+        closeStartTagIfNecessary();
+
+        char[] token = END_ELEMENT_TOKENS.get(name);
+        if (token != null)
+        {
+            put(token);
+        }
+        else
+        {
+            put("</");
+            put(name);
+            put('>');
+        }
+
+        _rawContent = false;
+    }
+
+    @Override
+    public void writeAttribute(String name, Object value, String property) throws IOException
+    {
+        if (name == null)
+            throw new NullPointerException("attributeName name must not be null");
+        if (!_startTagOpen)
+            throw new IllegalStateException("Must be called before the start element is closed (attribute '" + name
+                    + "')");
+
+        if (value instanceof Boolean)
+        {
+            // boolean attributes are written as name="name", or not at all
+            if (((Boolean) value).booleanValue())
+            {
+                appendAttributeName(name);
+                put(name);
+                put('"');
+            }
+            return;
+        }
+
+        appendAttributeName(name);
+        if (value != null)
+            appendEscaped(value.toString(), true);
+        put('"');
+    }
+
+    @Override
+    public void writeURIAttribute(String name, Object value, String property) throws IOException
+    {
+        if (name == null)
+            throw new NullPointerException("attributeName name must not be null");
+        if (!_startTagOpen)
+            throw new IllegalStateException("Must be called before the start element is closed (attribute '" + name
+                    + "')");
+
+        appendAttributeName(name);
+        if (value != null)
+        {
+            String uri = value.toString();
+            if (uri.regionMatches(true, 0, "javascript:", 0, 11))
+                appendEscaped(uri, true);
+            else
+                appendEscapedURI(uri);
+        }
+        put('"');
+    }
+
+    @Override
+    public void writeComment(Object comment) throws IOException
+    {
+        if (comment == null)
+            throw new NullPointerException("comment must not be null");
+
+        closeStartTagIfNecessary();
+        put("<!--");
+        put(comment.toString());
+        put("-->");
+    }
+
+    @Override
+    public void writeText(Object text, String property) throws IOException
+    {
+        if (text == null)
+            throw new NullPointerException("text name must not be null");
+
+        closeStartTagIfNecessary();
+
+        String str = text.toString();
+        if (_rawContent)
+            put(str);
+        else
+            appendEscaped(str, false);
+    }
+
+    @Override
+    public void writeText(char[] text, int off, int len) throws IOException
+    {
+        if (text == null)
+            throw new NullPointerException("text name must not be null");
+
+        closeStartTagIfNecessary();
+
+        if (_rawContent)
+            put(text, off, len);
+        else
+            appendEscaped(new String(text, off, len), false);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException
+    {
+        closeStartTagIfNecessary();
+        put(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str) throws IOException
+    {
+        closeStartTagIfNecessary();
+        put(str);
+    }
+
+    @Override
+    public void write(int c) throws IOException
+    {
+        closeStartTagIfNecessary();
+        put((char) c);
+    }
+
+    private void closeStartTagIfNecessary() throws IOException
+    {
+        if (_startTagOpen)
+        {
+            put('>');
+            _startTagOpen = false;
+            _startElementName = null;
+        }
+    }
+
+    private void appendAttributeName(String name) throws IOException
+    {
+        char[] token = ATTRIBUTE_TOKENS.get(name);
+        if (token != null)
+        {
+            put(token);
+        }
+        else
+        {
+            put(' ');
+            put(name);
+            put("=\"");
+        }
+    }
+
+    /**
+     * Escapes markup characters; non-ASCII characters are written as character references if the response encoding
+     * can't hold them, one reference per code point. Strings that need no escaping are appended at once.
+     */
+    private void appendEscaped(String str, boolean attribute) throws IOException
+    {
+        int length = str.length();
+        int start = 0;
+        for (int i = 0; i < length; i++)
+        {
+            char c = str.charAt(i);
+            if (c > '>' && (c < 0x80 || _unicodeEncoding))
+                continue;
+
+            char[] replacement;
+            if (c == '&')
+                replacement = AMP;
+            else if (c == '<')
+                replacement = LT;
+            else if (c == '>')
+                replacement = GT;
+            else if (c == '"' && attribute)
+                replacement = QUOT;
+            else if (c >= 0x80)
+                replacement = null;
+            else
+                continue;
+
+            if (i > start)
+                put(str, start, i);
+
+            if (replacement != null)
+            {
+                put(replacement);
+            }
+            else
+            {
+                // a reference to each half of a surrogate pair would be invalid
+                int codePoint = c;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1)))
+                {
+                    codePoint = Character.toCodePoint(c, str.charAt(++i));
+                }
+                put("&#");
+                put(Integer.toString(codePoint));
+                put(';');
+            }
+            start = i + 1;
+        }
+
+        if (start == 0)
+            put(str);
+        else if (start < length)
+            put(str, start, length);
+    }
+
+    /**
+     * Percent-encodes non-ASCII characters and spaces of the uri with UTF-8 and escapes the markup characters.
+     */
+    private void appendEscapedURI(String uri) throws IOException
+    {
+        int length = uri.length();
+        for (int i = 0; i < length; i++)
+        {
+            char c = uri.charAt(i);
+            if (c == '&')
+            {
+                put(AMP);
+            }
+            else if (c == '"')
+            {
+                put(QUOT);
+            }
+            else if (c == '<')
+            {
+                put(LT);
+            }
+            else if (c == '>')
+            {
+                put(GT);
+            }
+            else if (c == ' ' || c >= 0x80)
+            {
+                int codePoint = c;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(uri.charAt(i + 1)))
+                {
+                    codePoint = Character.toCodePoint(c, uri.charAt(++i));
+                }
+                appendPercentEncoded(codePoint);
+            }
+            else
+            {
+                put(c);
+            }
+        }
+    }
+
+    private void appendPercentEncoded(int codePoint) throws IOException
+    {
+        if (codePoint < 0x80)
+        {
+            appendPercentByte(codePoint);
+        }
+        else if (codePoint < 0x800)
+        {
+            appendPercentByte(0xC0 | (codePoint >> 6));
+            appendPercentByte(0x80 | (codePoint & 0x3F));
+        }
+        else if (codePoint < 0x10000)
+        {
+            appendPercentByte(0xE0 | (codePoint >> 12));
+            appendPercentByte(0x80 | ((codePoint >> 6) & 0x3F));
+            appendPercentByte(0x80 | (codePoint & 0x3F));
+        }
+        else
+        {
+            appendPercentByte(0xF0 | (codePoint >> 18));
+            appendPercentByte(0x80 | ((codePoint >> 12) & 0x3F));
+            appendPercentByte(0x80 | ((codePoint >> 6) & 0x3F));
+            appendPercentByte(0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private void appendPercentByte(int b) throws IOException
+    {
+        put('%');
+        put(HEX[(b >> 4) & 0xF]);
+        put(HEX[b & 0xF]);
+    }
+
+    // ---------------------------- buffer handling
+
+    private char[] buffer()
+    {
+        if (_buffer == null)
+        {
+            _buffer = BUFFER_POOL.poll();
+            if (_buffer == null)
+                _buffer = new char[BUFFER_SIZE];
+            else
+                POOLED_BUFFER_COUNT.decrementAndGet();
+        }
+        return _buffer;
+    }
+
+    /**
+     * Returns the number of buffers waiting in the pool.
+     */
+    static int getPooledBufferCount()
+    {
+        return POOLED_BUFFER_COUNT.get();
+    }
+
+    private void releaseBuffer()
+    {
+        if (_buffer != null)
+        {
+            if (POOLED_BUFFER_COUNT.incrementAndGet() <= MAX_POOLED_BUFFERS)
+                BUFFER_POOL.offer(_buffer);
+            else
+                POOLED_BUFFER_COUNT.decrementAndGet();
+            _buffer = null;
+        }
+    }
+
+    private void flushBuffer() throws IOException
+    {
+        if (_position > 0)
+        {
+            _out.write(_buffer, 0, _position);
+            _position = 0;
+        }
+    }
+
+    private void put(char c) throws IOException
+    {
+        if (!_buffered)
+        {
+            _out.write(c);
+            return;
+        }
+
+        char[] buffer = buffer();
+        if (_position == buffer.length)
+            flushBuffer();
+        buffer[_position++] = c;
+    }
+
+    private void put(char[] chars) throws IOException
+    {
+        put(chars, 0, chars.length);
+    }
+
+    private void put(char[] chars, int off, int len) throws IOException
+    {
+        if (!_buffered)
+        {
+            _out.write(chars, off, len);
+            return;
+        }
+
+        char[] buffer = buffer();
+        if (len > buffer.length - _position)
+        {
+            flushBuffer();
+            if (len > buffer.length)
+            {
+                _out.write(chars, off, len);
+                return;
+            }
+        }
+        System.arraycopy(chars, off, buffer, _position, len);
+        _position += len;
+    }
+
+    private void put(String str) throws IOException
+    {
+        put(str, 0, str.length());
+    }
+
+    private void put(String str, int start, int end) throws IOException
+    {
+        if (!_buffered)
+        {
+            _out.write(str, start, end - start);
+            return;
+        }
+
+        char[] buffer = buffer();
+        int len = end - start;
+        if (len > buffer.length - _position)
+        {
+            flushBuffer();
+            if (len > buffer.length)
+            {
+                _out.write(str, start, len);
+                return;
+            }
+        }
+        str.getChars(start, end, buffer, _position);
+        _position += len;
+    }
+}
@@ -22,7 +22,9 @@ package org.apache.myfaces.html5.renderkit.animation;
 import org.apache.commons.lang.StringUtils;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFRenderer;
 import org.apache.myfaces.html5.component.animation.AbstractAnimation;
+import org.apache.myfaces.html5.renderkit.util.AggregatedStyleSheet;
 import org.apache.myfaces.html5.renderkit.util.CSS;
+import org.apache.myfaces.html5.renderkit.util.CssWriter;
 import org.apache.myfaces.html5.renderkit.util.HTML5;
 import org.apache.myfaces.html5.renderkit.util.Html5RendererUtils;
 import org.apache.myfaces.html5.renderkit.util.RendererUtils;
@@ -49,6 +51,10 @@ public class AnimationRenderer extends Renderer implements ComponentSystemEventL
 
     @Override
     public void encodeBegin(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        // rendered into the stylesheet already, see AggregatedStyleSheet
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         super.encodeBegin(facesContext, uiComponent);
 
         RendererUtils.checkParamValidity(facesContext, uiComponent, AbstractAnimation.class);
@@ -62,7 +68,7 @@ public class AnimationRenderer extends Renderer implements ComponentSystemEventL
         RendererUtils.checkParamValidity(facesContext, uiComponent, AbstractAnimation.class);
 
         //write CSS class definition with animation definition
-        writer.writeText(getAnimationDefinition(facesContext, component),component, null);
+        writeAnimationDefinition(facesContext, component, CssWriter.forResponse(facesContext));
     }
 
     @Override
@@ -72,6 +78,9 @@ public class AnimationRenderer extends Renderer implements ComponentSystemEventL
 
     @Override
     public void encodeEnd(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         // just close the element
         super.encodeEnd(facesContext, uiComponent);
 
@@ -80,7 +89,8 @@ public class AnimationRenderer extends Renderer implements ComponentSystemEventL
         writer.endElement(HTML5.STYLE_ELEM);
     }
 
-    protected String getAnimationDefinition(FacesContext facesContext, AbstractAnimation component){
+    protected void writeAnimationDefinition(FacesContext facesContext, AbstractAnimation component, CssWriter css)
+            throws IOException {
         final String id = component.getClientId(facesContext);
         final String duration = getTimeValue(component.getDuration());
         final String iteration = component.getIteration();
@@ -88,28 +98,14 @@ public class AnimationRenderer extends Renderer implements ComponentSystemEventL
         final String direction = component.getDirection();
         final String delay = getTimeValue(component.getDelay());
 
-        StringBuilder builder = new StringBuilder();
-        builder.append(".").append(Html5RendererUtils.escapeCssSelector(id));
-        builder.append(" { ");
-
-        appendIfNotNull(builder, CSS.ANIMATION_NAME_PROP, component.getKeyFrame());
-        appendIfNotNull(builder, CSS.ANIMATION_DURATION_PROP, duration);
-        appendIfNotNull(builder, CSS.ANIMATION_ITERATION_COUNT_PROP, iteration);
-        appendIfNotNull(builder, CSS.ANIMATION_TIMING_FUNCTION_PROP, timingFunction);
-        appendIfNotNull(builder, CSS.ANIMATION_DIRECTION_PROP, direction);
-        appendIfNotNull(builder, CSS.ANIMATION_DELAY_PROP, delay);
-
-        builder.append("} ");
-
-        return builder.toString();
-    }
-
-    private static void appendIfNotNull(StringBuilder builder, String propName, String propValue) {
-        if(StringUtils.isBlank(propName))
-            throw new RuntimeException("Propname cannot be null");
-
-        if(!StringUtils.isBlank(propValue))
-            builder.append(propName).append(": ").append(propValue).append("; ");
+        css.clazz(Html5RendererUtils.escapeCssSelector(id))
+                .declaration(CSS.ANIMATION_NAME_PROP, component.getKeyFrame())
+                .declaration(CSS.ANIMATION_DURATION_PROP, duration)
+                .declaration(CSS.ANIMATION_ITERATION_COUNT_PROP, iteration)
+                .declaration(CSS.ANIMATION_TIMING_FUNCTION_PROP, timingFunction)
+                .declaration(CSS.ANIMATION_DIRECTION_PROP, direction)
+                .declaration(CSS.ANIMATION_DELAY_PROP, delay)
+                .endRule();
     }
 
     private static String getTimeValue(String s) {
@@ -128,5 +124,6 @@ public class AnimationRenderer extends Renderer implements ComponentSystemEventL
 
         //TODO: other alternative than body? think about ajax PPR
         facesContext.getViewRoot().addComponentResource(facesContext, component, "body");
+        AggregatedStyleSheet.addStyleSheet(facesContext);
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.animation;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFRenderer;
+import org.apache.myfaces.html5.application.StyleSheetResourceHandler;
+import org.apache.myfaces.html5.renderkit.util.AggregatedStyleSheet;
+import org.apache.myfaces.html5.renderkit.util.HTML5;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
+import javax.faces.render.Renderer;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the CSS of the animation and effect components of the view into one generated stylesheet, and a
+ * &lt;link&gt; to it. Added to the head of the view by {@link AggregatedStyleSheet#addStyleSheet(FacesContext)}.
+ *
+ * @author Ali Ok
+ */
+@JSFRenderer(renderKitId = "HTML_BASIC", family = "javax.faces.Output", type = "org.apache.myfaces.html5.AnimationStyleSheet")
+public class AnimationStyleSheetRenderer extends Renderer {
+
+    private static final String[] TARGETS = {"head", "body", "form"};
+
+    @Override
+    public void encodeEnd(FacesContext facesContext, UIComponent component) throws IOException {
+        super.encodeEnd(facesContext, component);
+
+        String css = renderStyleSheet(facesContext, component);
+        if (css == null)
+            return;
+
+        ResponseWriter writer = facesContext.getResponseWriter();
+        writer.startElement(HTML5.LINK_ELEM, component);
+        writer.writeAttribute(HTML5.REL_ATTR, HTML5.REL_STYLESHEET, null);
+        writer.writeAttribute(HTML5.TYPE_ATTR, HTML5.TYPE_TEXT_CSS, null);
+        writer.writeURIAttribute(HTML5.HREF_ATTR, StyleSheetResourceHandler.register(facesContext, css), null);
+        writer.endElement(HTML5.LINK_ELEM);
+    }
+
+    /**
+     * Renders the CSS of the aggregated components of the view to a string, and marks them as aggregated. Also used
+     * by {@link StyleSheetResourceHandler} to regenerate the stylesheet of a view, so no response writer is required.
+     *
+     * @return null if the components render no CSS
+     */
+    public String renderStyleSheet(FacesContext facesContext, UIComponent component) throws IOException {
+        List<UIComponent> aggregatedComponents = getAggregatedComponents(facesContext, component);
+        if (aggregatedComponents.isEmpty())
+            return null;
+
+        // let the components render themselves, only their text is kept
+        StringWriter css = new StringWriter();
+        ResponseWriter writer = facesContext.getResponseWriter();
+        facesContext.setResponseWriter(new CssCaptureResponseWriter(css, writer));
+        try {
+            for (UIComponent aggregatedComponent : aggregatedComponents) {
+                aggregatedComponent.encodeAll(facesContext);
+                AggregatedStyleSheet.markAggregated(facesContext, aggregatedComponent);
+            }
+        }
+        finally {
+            facesContext.setResponseWriter(writer);
+        }
+
+        return css.getBuffer().length() == 0 ? null : css.toString();
+    }
+
+    /**
+     * Returns the rendered animation and effect components of the component resources of the view, in the order they
+     * would be rendered. Components in the head before the stylesheet are already rendered, so they are left out.
+     */
+    protected List<UIComponent> getAggregatedComponents(FacesContext facesContext, UIComponent styleSheet) {
+        UIViewRoot viewRoot = facesContext.getViewRoot();
+        List<UIComponent> aggregatedComponents = new ArrayList<UIComponent>();
+
+        for (String target : TARGETS) {
+            boolean rendered = "head".equals(target);
+            for (UIComponent resource : viewRoot.getComponentResources(facesContext, target)) {
+                if (resource == styleSheet)
+                    rendered = false;
+                else if (!rendered && resource.isRendered()
+                        && AggregatedStyleSheet.AGGREGATED_RENDERER_TYPES.contains(resource.getRendererType()))
+                    aggregatedComponents.add(resource);
+            }
+        }
+        return aggregatedComponents;
+    }
+
+    /**
+     * Writer that only keeps the text written by the renderers, elements and attributes are dropped. Text is not
+     * escaped, as it would be in a &lt;style&gt; element.
+     */
+    private static class CssCaptureResponseWriter extends ResponseWriter {
+
+        private final Writer _writer;
+        private final ResponseWriter _responseWriter;
+
+        CssCaptureResponseWriter(Writer writer, ResponseWriter responseWriter) {
+            this._writer = writer;
+            this._responseWriter = responseWriter;
+        }
+
+        @Override
+        public String getContentType() {
+            return _responseWriter != null ? _responseWriter.getContentType() : HTML5.TYPE_TEXT_CSS;
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return _responseWriter != null ? _responseWriter.getCharacterEncoding() : null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            _writer.flush();
+        }
+
+        @Override
+        public void startDocument() throws IOException {
+        }
+
+        @Override
+        public void endDocument() throws IOException {
+        }
+
+        @Override
+        public void startElement(String name, UIComponent component) throws IOException {
+        }
+
+        @Override
+        public void endElement(String name) throws IOException {
+        }
+
+        @Override
+        public void writeAttribute(String name, Object value, String property) throws IOException {
+        }
+
+        @Override
+        public void writeURIAttribute(String name, Object value, String property) throws IOException {
+        }
+
+        @Override
+        public void writeComment(Object comment) throws IOException {
+        }
+
+        @Override
+        public void writeText(Object text, String property) throws IOException {
+            if (text != null)
+                _writer.write(text.toString());
+        }
+
+        @Override
+        public void writeText(char[] text, int off, int len) throws IOException {
+            _writer.write(text, off, len);
+        }
+
+        @Override
+        public ResponseWriter cloneWithWriter(Writer writer) {
+            return new CssCaptureResponseWriter(writer, _responseWriter);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            _writer.write(cbuf, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+}
@@ -22,7 +22,9 @@ package org.apache.myfaces.html5.renderkit.animation;
 import org.apache.commons.lang.StringUtils;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFRenderer;
 import org.apache.myfaces.html5.component.animation.AbstractAnimations;
+import org.apache.myfaces.html5.renderkit.util.AggregatedStyleSheet;
 import org.apache.myfaces.html5.renderkit.util.CSS;
+import org.apache.myfaces.html5.renderkit.util.CssWriter;
 import org.apache.myfaces.html5.renderkit.util.HTML5;
 import org.apache.myfaces.html5.renderkit.util.Html5RendererUtils;
 import org.apache.myfaces.html5.renderkit.util.RendererUtils;
@@ -34,6 +36,7 @@ import javax.faces.context.ResponseWriter;
 import javax.faces.event.*;
 import javax.faces.render.Renderer;
 import java.io.IOException;
+import java.io.StringWriter;
 
 @ListenersFor({
         @ListenerFor(systemEventClass = PostAddToViewEvent.class),
@@ -49,6 +52,10 @@ public class AnimationsRenderer extends Renderer implements ComponentSystemEvent
 
     @Override
     public void encodeBegin(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        // rendered into the stylesheet already, see AggregatedStyleSheet
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         super.encodeBegin(facesContext, uiComponent);
 
         RendererUtils.checkParamValidity(facesContext, uiComponent, AbstractAnimations.class);
@@ -62,6 +69,9 @@ public class AnimationsRenderer extends Renderer implements ComponentSystemEvent
 
     @Override
     public void encodeChildren(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         RendererUtils.checkParamValidity(facesContext, uiComponent, AbstractAnimations.class);
 
         AbstractAnimations component = (AbstractAnimations) uiComponent;
@@ -72,20 +82,63 @@ public class AnimationsRenderer extends Renderer implements ComponentSystemEvent
         final String id = component.getClientId(facesContext);
         writer.writeAttribute(HTML5.ID_ATTR, id, null);
 
-        //TODO: what happens if id has colon? Will CSS accept it?
+        KeyFrameNameCache keyFrameNameCache = KeyFrameNameCache.getInstance(facesContext);
+        if (keyFrameNameCache != null) {
+            encodeSharedKeyFrames(facesContext, component, keyFrameNameCache);
+            return;
+        }
+
+        final String keyFrameName = Html5RendererUtils.escapeCssSelector(id);
+        CssWriter css = CssWriter.forResponse(facesContext);
+
         //write key frames (let child components render themselves)
-        writer.writeText("@-webkit-keyframes " + Html5RendererUtils.escapeCssSelector(id) + " { ", component, null);
+        css.startAtRule(CSS.KEYFRAMES_RULE, keyFrameName);
         //TODO: allow only BaseAnimation children!
 
         super.encodeChildren(facesContext, component);
 
-        writer.writeText(" } ", component, null);
+        css.endAtRule();
         //write CSS class definition with animation definition
-        writer.writeText(getAnimationDefinition(facesContext, component),component, null);
+        writeAnimationDefinition(facesContext, component, keyFrameName, css);
+    }
+
+    /**
+     * Writes the keyframes under the name shared by all identical keyframes, only if they are not written in this
+     * response yet. The CSS class definition is always written, referencing the shared name.
+     */
+    protected void encodeSharedKeyFrames(FacesContext facesContext, AbstractAnimations component,
+                                         KeyFrameNameCache keyFrameNameCache) throws IOException {
+        ResponseWriter writer = facesContext.getResponseWriter();
+
+        //let child components render their keyframes into the buffer
+        StringWriter body = new StringWriter();
+        facesContext.setResponseWriter(writer.cloneWithWriter(body));
+        try {
+            super.encodeChildren(facesContext, component);
+            facesContext.getResponseWriter().flush();
+        }
+        finally {
+            facesContext.setResponseWriter(writer);
+        }
+
+        final String canonicalBody = KeyFrameNameCache.canonicalize(body.toString());
+        final String keyFrameName = keyFrameNameCache.getName(canonicalBody);
+
+        CssWriter css = CssWriter.forResponse(facesContext);
+        if (KeyFrameNameCache.markRendered(facesContext, keyFrameName)) {
+            css.startAtRule(CSS.KEYFRAMES_RULE, keyFrameName);
+            writer.write(canonicalBody);
+            css.endAtRule();
+        }
+
+        writeAnimationDefinition(facesContext, component, keyFrameName, css);
     }
 
     @Override
     public void encodeEnd(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         // just close the element
         super.encodeEnd(facesContext, uiComponent);
 
@@ -94,7 +147,8 @@ public class AnimationsRenderer extends Renderer implements ComponentSystemEvent
         writer.endElement(HTML5.STYLE_ELEM);
     }
 
-    protected String getAnimationDefinition(FacesContext facesContext, AbstractAnimations component){
+    protected void writeAnimationDefinition(FacesContext facesContext, AbstractAnimations component,
+                                            String keyFrameName, CssWriter css) throws IOException {
         final String id = component.getClientId(facesContext);
         final String duration = getTimeValue(component.getDuration());
         final String iteration = component.getIteration();
@@ -102,28 +156,14 @@ public class AnimationsRenderer extends Renderer implements ComponentSystemEvent
         final String direction = component.getDirection();
         final String delay = getTimeValue(component.getDelay());
 
-        StringBuilder builder = new StringBuilder();
-        builder.append(".").append(Html5RendererUtils.escapeCssSelector(id));
-        builder.append(" { ");
-
-        appendIfNotNull(builder, CSS.ANIMATION_NAME_PROP, Html5RendererUtils.escapeCssSelector(id));
-        appendIfNotNull(builder, CSS.ANIMATION_DURATION_PROP, duration);
-        appendIfNotNull(builder, CSS.ANIMATION_ITERATION_COUNT_PROP, iteration);
-        appendIfNotNull(builder, CSS.ANIMATION_TIMING_FUNCTION_PROP, timingFunction);
-        appendIfNotNull(builder, CSS.ANIMATION_DIRECTION_PROP, direction);
-        appendIfNotNull(builder, CSS.ANIMATION_DELAY_PROP, delay);
-
-        builder.append("} ");
-
-        return builder.toString();
-    }
-
-    private static void appendIfNotNull(StringBuilder builder, String propName, String propValue) {
-        if(StringUtils.isBlank(propName))
-            throw new RuntimeException("Propname cannot be null");
-
-        if(!StringUtils.isBlank(propValue))
-            builder.append(propName).append(": ").append(propValue).append("; ");
+        css.clazz(Html5RendererUtils.escapeCssSelector(id))
+                .declaration(CSS.ANIMATION_NAME_PROP, keyFrameName)
+                .declaration(CSS.ANIMATION_DURATION_PROP, duration)
+                .declaration(CSS.ANIMATION_ITERATION_COUNT_PROP, iteration)
+                .declaration(CSS.ANIMATION_TIMING_FUNCTION_PROP, timingFunction)
+                .declaration(CSS.ANIMATION_DIRECTION_PROP, direction)
+                .declaration(CSS.ANIMATION_DELAY_PROP, delay)
+                .endRule();
     }
 
     private static String getTimeValue(String s) {
@@ -142,5 +182,6 @@ public class AnimationsRenderer extends Renderer implements ComponentSystemEvent
 
         //TODO: other alternative than body? think about ajax PPR
         facesContext.getViewRoot().addComponentResource(facesContext, component, "body");
+        AggregatedStyleSheet.addStyleSheet(facesContext);
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.animation;
+
+import org.apache.myfaces.html5.application.StyleSheetResourceHandler;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+import javax.faces.context.FacesContext;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Application scoped LRU cache of the generated names of keyframes, by their canonical body. See
+ * {@link Html5WebConfigParams#KEYFRAMES_DEDUPLICATION_ENABLED}. <br/>
+ * Names are derived from the hash of the canonical body, so identical keyframes get the same name in all views, and
+ * after a restart of the application too.
+ *
+ * @author Ali Ok
+ */
+public class KeyFrameNameCache {
+
+    private static final String APPLICATION_MAP_KEY = KeyFrameNameCache.class.getName();
+
+    private static final String RENDERED_NAMES_KEY = KeyFrameNameCache.class.getName() + ".RENDERED";
+
+    static final int MAX_SIZE = 1000;
+
+    private static final String NAME_PREFIX = "fx-kf-";
+
+    private static final int HASH_LENGTH = 16;
+
+    private final Map<String, String> _names;
+
+    public KeyFrameNameCache(final int maxSize) {
+        this._names = new LinkedHashMap<String, String>(16, 0.75F, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache of the application, or null if deduplication of keyframes is disabled.
+     */
+    public static KeyFrameNameCache getInstance(FacesContext facesContext) {
+        Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+        Object cache = applicationMap.get(APPLICATION_MAP_KEY);
+        if (cache == null) {
+            boolean enabled = Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                    Html5WebConfigParams.KEYFRAMES_DEDUPLICATION_ENABLED, false);
+
+            // Boolean.FALSE marks the disabled cache, so the init param is not read again
+            cache = enabled ? new KeyFrameNameCache(MAX_SIZE) : Boolean.FALSE;
+            applicationMap.put(APPLICATION_MAP_KEY, cache);
+        }
+        return cache instanceof KeyFrameNameCache ? (KeyFrameNameCache) cache : null;
+    }
+
+    /**
+     * Returns the name of the keyframes with the canonical body.
+     *
+     * @see #canonicalize(String)
+     */
+    public String getName(String canonicalBody) {
+        synchronized (_names) {
+            String name = _names.get(canonicalBody);
+            if (name == null) {
+                name = NAME_PREFIX + StyleSheetResourceHandler.hash(canonicalBody).substring(0, HASH_LENGTH);
+                _names.put(canonicalBody, name);
+            }
+            return name;
+        }
+    }
+
+    public int size() {
+        synchronized (_names) {
+            return _names.size();
+        }
+    }
+
+    /**
+     * Returns the keyframes body with whitespace collapsed, and removed next to the <code>{ } : ; ,</code>
+     * characters, so formatting differences do not result in different names.
+     */
+    public static String canonicalize(String body) {
+        StringBuilder builder = new StringBuilder(body.length());
+        boolean whitespace = false;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespace = true;
+                continue;
+            }
+
+            boolean punctuation = _isPunctuation(c);
+            if (whitespace && !punctuation && builder.length() > 0
+                    && !_isPunctuation(builder.charAt(builder.length() - 1)))
+                builder.append(' ');
+
+            whitespace = false;
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns true if the keyframes with the name are not rendered yet in the current response, and marks them as
+     * rendered.
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean markRendered(FacesContext facesContext, String name) {
+        Map<Object, Object> attributes = facesContext.getAttributes();
+        Set<String> renderedNames = (Set<String>) attributes.get(RENDERED_NAMES_KEY);
+        if (renderedNames == null) {
+            renderedNames = new HashSet<String>();
+            attributes.put(RENDERED_NAMES_KEY, renderedNames);
+        }
+        return renderedNames.add(name);
+    }
+
+    private static boolean _isPunctuation(char c) {
+        return c == '{' || c == '}' || c == ':' || c == ';' || c == ',';
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.behavior;
+
+import java.io.IOException;
+
+import javax.faces.component.behavior.ClientBehavior;
+import javax.faces.component.behavior.ClientBehaviorContext;
+
+/**
+ * Implemented by client behavior renderers which are able to render their behaviors as attributes of the element,
+ * handled by one document level script, instead of an inline event handler script on every element. <br/>
+ * Called by {@link org.apache.myfaces.html5.renderkit.util.Html5RendererUtils} while the element of the component is
+ * started, before the event handler attribute is rendered.
+ * 
+ * @author Ali Ok
+ */
+public interface DelegatedClientBehaviorRenderer
+{
+    /**
+     * Renders the attributes of the behavior for the event of the context, if the behavior is delegated.
+     * 
+     * @return true, if the behavior is delegated and needs no inline script for the event
+     * @throws IOException
+     */
+    boolean renderDelegatedAttributes(ClientBehaviorContext behaviorContext, ClientBehavior behavior)
+            throws IOException;
+}
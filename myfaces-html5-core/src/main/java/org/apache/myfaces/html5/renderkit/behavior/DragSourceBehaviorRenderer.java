@@ -18,27 +18,35 @@
  */
 package org.apache.myfaces.html5.renderkit.behavior;
 
+import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.faces.FacesException;
 import javax.faces.component.behavior.ClientBehavior;
 import javax.faces.component.behavior.ClientBehaviorContext;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
 import javax.faces.render.ClientBehaviorRenderer;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.myfaces.html5.behavior.DragSourceBehavior;
 import org.apache.myfaces.html5.renderkit.util.BehaviorScriptUtils;
 import org.apache.myfaces.html5.renderkit.util.ClientBehaviorEvents;
+import org.apache.myfaces.html5.renderkit.util.HTML5;
 import org.apache.myfaces.html5.renderkit.util.Html5RendererUtils;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
 
 /**
  * Renderer of {@link DragSourceBehavior} behaviors. <br/>
- * This class only handles the script of "dragstart" event.
+ * This class only handles the script of "dragstart" event. If {@link Html5WebConfigParams#DND_DELEGATION_ENABLED} is
+ * set, the data- attributes of the drag source are rendered instead of the script on the components of MyFaces Html5.
+ * Other components, e.g. h:graphicImage, still get the script.
  * 
  * @author Ali Ok
  * 
  */
-public class DragSourceBehaviorRenderer extends ClientBehaviorRenderer
+public class DragSourceBehaviorRenderer extends ClientBehaviorRenderer implements DelegatedClientBehaviorRenderer
 {
     private static final Logger log = Logger.getLogger(DragSourceBehaviorRenderer.class.getName());
 
@@ -50,6 +58,10 @@ public class DragSourceBehaviorRenderer extends ClientBehaviorRenderer
             throw new FacesException("Behavior is not a DragSourceBehavior.");
         }
 
+        // rendered by renderDelegatedAttributes(...) already, which is only called by the renderers of MyFaces Html5
+        if (Html5RendererUtils.isDelegatedBehaviorRendered(behaviorContext))
+            return null;
+
         String eventName = behaviorContext.getEventName();
         if (ClientBehaviorEvents.DRAGSTART_EVENT.equals(eventName))
         {
@@ -65,6 +77,42 @@ public class DragSourceBehaviorRenderer extends ClientBehaviorRenderer
         }
     }
 
+    public boolean renderDelegatedAttributes(ClientBehaviorContext behaviorContext, ClientBehavior behavior)
+            throws IOException
+    {
+        if (!(behavior instanceof DragSourceBehavior))
+        {
+            throw new FacesException("Behavior is not a DragSourceBehavior.");
+        }
+
+        FacesContext facesContext = behaviorContext.getFacesContext();
+        if (!_isDelegated(facesContext) || !ClientBehaviorEvents.DRAGSTART_EVENT.equals(behaviorContext.getEventName()))
+            return false;
+
+        DragSourceBehavior dragSourceBehavior = (DragSourceBehavior) behavior;
+        String[] dropTargetTypes = Html5RendererUtils.resolveStrings(dragSourceBehavior.getDropTargetTypes());
+
+        ResponseWriter writer = facesContext.getResponseWriter();
+
+        // the marker attribute of the drag source, so it is rendered even if no action is set
+        String action = dragSourceBehavior.getAction();
+        writer.writeAttribute(HTML5.DATA_FX_DRAG_ATTR, action == null ? "" : action, null);
+
+        if (dropTargetTypes != null && dropTargetTypes.length > 0)
+            writer.writeAttribute(HTML5.DATA_FX_DRAG_TYPES_ATTR, StringUtils.join(dropTargetTypes, ','), null);
+
+        if (dragSourceBehavior.getParam() != null)
+            writer.writeAttribute(HTML5.DATA_FX_DRAG_PARAM_ATTR, dragSourceBehavior.getParam(), null);
+
+        return true;
+    }
+
+    private boolean _isDelegated(FacesContext facesContext)
+    {
+        return Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                Html5WebConfigParams.DND_DELEGATION_ENABLED, false);
+    }
+
     private String _getDragStartScript(DragSourceBehavior behavior)
     {
         String[] dropTargetTypes = Html5RendererUtils.resolveStrings(behavior.getDropTargetTypes());
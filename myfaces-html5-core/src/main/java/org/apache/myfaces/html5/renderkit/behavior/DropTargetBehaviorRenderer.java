@@ -18,9 +18,11 @@
  */
 package org.apache.myfaces.html5.renderkit.behavior;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -31,23 +33,32 @@ import javax.faces.component.UIComponent;
 import javax.faces.component.behavior.ClientBehavior;
 import javax.faces.component.behavior.ClientBehaviorContext;
 import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
 import javax.faces.event.PhaseId;
 import javax.faces.render.ClientBehaviorRenderer;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.myfaces.html5.application.DroppedFileStore;
+import org.apache.myfaces.html5.application.FileDropResourceHandler;
 import org.apache.myfaces.html5.behavior.DropTargetBehavior;
 import org.apache.myfaces.html5.event.DropEvent;
+import org.apache.myfaces.html5.event.DroppedFile;
 import org.apache.myfaces.html5.renderkit.util.BehaviorScriptUtils;
 import org.apache.myfaces.html5.renderkit.util.ClientBehaviorEvents;
+import org.apache.myfaces.html5.renderkit.util.HTML5;
 import org.apache.myfaces.html5.renderkit.util.Html5RendererUtils;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
 
 /**
- * Renderer of the fx:dropTarget behavior.
+ * Renderer of the fx:dropTarget behavior. <br/>
+ * If {@link Html5WebConfigParams#DND_DELEGATION_ENABLED} is set, no scripts are rendered for the behavior on the
+ * components of MyFaces Html5, but the data- attributes of the drop target, which are handled by the document level
+ * listener of dnd.js. Other components, e.g. h:panelGroup, still get the scripts.
  * 
  * @author Ali Ok
  * 
  */
-public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer
+public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer implements DelegatedClientBehaviorRenderer
 {
 
     private static final Logger log = Logger.getLogger(DropTargetBehaviorRenderer.class.getName());
@@ -69,11 +80,32 @@ public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer
      */
     private static final String MYFACES_HTML5_DND_PARAM_MIME_TYPE = "text/x-myfaces-html5-dnd-param";
 
+    /**
+     * On a succesful drop with files, ids of the uploads in {@link DroppedFileStore} will be post to server with this
+     * key.
+     */
+    private static final String MYFACES_DND_FILES_KEY = "org.apache.myfaces.dnd.files";
+
+    /**
+     * On a batched submission of drops, the number of drops will be post to server with this key. Values of each drop
+     * are post with their keys, prefixed by {@link #MYFACES_DND_BATCH_PREFIX} and the index of the drop.
+     */
+    private static final String MYFACES_DND_BATCH_SIZE_KEY = "org.apache.myfaces.dnd.batchSize";
+
+    private static final String MYFACES_DND_BATCH_PREFIX = "org.apache.myfaces.dnd.batch.";
+
+    /**
+     * Maximum number of drops handled from one batch. dnd.js sends a batch when it reaches this size.
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
     private static Set<String> ALLOWED_ACTIONS = new HashSet<String>(Arrays.asList("copy", "move", "link", "copyLink",
             "copyMove", "linkMove", "all", "none"));
 
     private static final String ACCEPT_ALL_MIME_TYPES = "*";
 
+    private static final String FILES_MIME_TYPE = "Files";
+
     @Override
     public void decode(FacesContext context, UIComponent component, ClientBehavior behavior)
     {
@@ -97,21 +129,61 @@ public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer
     }
 
     /**
-     * Dispatches the {@link DropEvent} with appropriate parameter and data information.
+     * Dispatches the {@link DropEvent} with appropriate parameter and data information. For a batched submission, one
+     * event is dispatched for each drop, in the order of the drops.
      */
     protected void dispatchBehaviorEvent(FacesContext context, UIComponent component,
             DropTargetBehavior dropTargetBehavior)
+    {
+        String strBatchSize = context.getExternalContext().getRequestParameterMap().get(MYFACES_DND_BATCH_SIZE_KEY);
+        if (strBatchSize == null)
+        {
+            _queueDropEvent(component, createDropEvent(context, component, dropTargetBehavior, ""));
+            return;
+        }
+
+        int batchSize;
+        try
+        {
+            batchSize = Integer.parseInt(strBatchSize);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new FacesException("Batch size of drop events is not a number: " + strBatchSize);
+        }
+
+        if (batchSize > MAX_BATCH_SIZE)
+        {
+            if (log.isLoggable(Level.WARNING))
+                log.warning("Batch of " + batchSize + " drops exceeds the maximum of " + MAX_BATCH_SIZE
+                        + ", ignoring the rest.");
+            batchSize = MAX_BATCH_SIZE;
+        }
+
+        for (int i = 0; i < batchSize; i++)
+        {
+            _queueDropEvent(component, createDropEvent(context, component, dropTargetBehavior,
+                    MYFACES_DND_BATCH_PREFIX + i + "."));
+        }
+    }
+
+    /**
+     * Creates the {@link DropEvent} of the drop, whose values are sent with request parameter names starting with the
+     * prefix.
+     */
+    protected DropEvent createDropEvent(FacesContext context, UIComponent component,
+            DropTargetBehavior dropTargetBehavior, String paramPrefix)
     {
         Map<String, String> requestParameterMap = context.getExternalContext().getRequestParameterMap();
 
         // get value of param set in fx:dragSource
-        String param = requestParameterMap.get(MYFACES_HTML5_DND_PARAM_MIME_TYPE);
+        String param = requestParameterMap.get(paramPrefix + MYFACES_HTML5_DND_PARAM_MIME_TYPE);
         if (param == null || param.length() == 0)
             param = null;
 
         // get other data values with accepted mime types
         Map<String, String> dropDataMap = null;
-        String strReceivedDataMimeTypes = requestParameterMap.get(MYFACES_DND_FOUND_MIME_TYPES_KEY);
+        String strReceivedDataMimeTypes = requestParameterMap.get(paramPrefix + MYFACES_DND_FOUND_MIME_TYPES_KEY);
         if (strReceivedDataMimeTypes != null && strReceivedDataMimeTypes.length() > 0)
         {
             dropDataMap = new HashMap<String, String>();
@@ -125,7 +197,7 @@ public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer
                     // param is set already, pass
                     continue;
 
-                String data = requestParameterMap.get(mimeType);
+                String data = requestParameterMap.get(paramPrefix + mimeType);
                 if (data != null && data.length() > 0)
                 {
                     dropDataMap.put(mimeType, data);
@@ -133,8 +205,17 @@ public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer
             }
         }
 
-        DropEvent event = new DropEvent(component, dropTargetBehavior, dropDataMap, param);
+        // get the files uploaded before the drop event
+        List<DroppedFile> files = null;
+        String strFileIds = requestParameterMap.get(paramPrefix + MYFACES_DND_FILES_KEY);
+        if (strFileIds != null && strFileIds.length() > 0)
+            files = DroppedFileStore.claim(context, Html5RendererUtils.resolveStrings(strFileIds));
 
+        return new DropEvent(component, dropTargetBehavior, dropDataMap, param, files);
+    }
+
+    private void _queueDropEvent(UIComponent component, DropEvent event)
+    {
         // XXX: do we need immediate stuff on drop event?
         // PhaseId phaseId = dropTargetBehavior.isImmediate() || isComponentImmediate(component) ?
         // PhaseId.APPLY_REQUEST_VALUES :
@@ -153,6 +234,10 @@ public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer
             throw new FacesException("Behavior is not a DropTargetBehavior");
         }
 
+        // rendered by renderDelegatedAttributes(...) already, which is only called by the renderers of MyFaces Html5
+        if (Html5RendererUtils.isDelegatedBehaviorRendered(behaviorContext))
+            return null;
+
         String eventName = behaviorContext.getEventName();
         if (eventName.equals(ClientBehaviorEvents.DRAGENTER_EVENT)
                 || eventName.equals(ClientBehaviorEvents.DRAGOVER_EVENT))
@@ -179,6 +264,77 @@ public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer
         }
     }
 
+    /**
+     * Renders the data- attributes of the drop target on the "drop" event, and nothing on "dragenter" and "dragover",
+     * which are handled with the same attributes.
+     */
+    public boolean renderDelegatedAttributes(ClientBehaviorContext behaviorContext, ClientBehavior behavior)
+            throws IOException
+    {
+        if (!(behavior instanceof DropTargetBehavior))
+        {
+            throw new FacesException("Behavior is not a DropTargetBehavior");
+        }
+
+        FacesContext facesContext = behaviorContext.getFacesContext();
+        if (!_isDelegated(facesContext))
+            return false;
+
+        String eventName = behaviorContext.getEventName();
+        if (eventName.equals(ClientBehaviorEvents.DRAGENTER_EVENT)
+                || eventName.equals(ClientBehaviorEvents.DRAGOVER_EVENT))
+        {
+            return true;
+        }
+        else if (!eventName.equals(ClientBehaviorEvents.DROP_EVENT))
+        {
+            // not handled by dnd.js, getScript(...) logs and ignores it
+            return false;
+        }
+
+        DropTargetBehavior dropTargetBehavior = (DropTargetBehavior) behavior;
+        String action = dropTargetBehavior.getAction();
+        String[] types = Html5RendererUtils.resolveStrings(dropTargetBehavior.getTypes());
+        String[] acceptMimeTypes = _resolveAcceptMimeTypes(dropTargetBehavior);
+        String[] rerender = Html5RendererUtils.resolveStrings(dropTargetBehavior.getRerender());
+
+        _checkAction(action);
+
+        ResponseWriter writer = facesContext.getResponseWriter();
+
+        // the marker attribute of the drop target, so it is rendered even if no action is set
+        writer.writeAttribute(HTML5.DATA_FX_DROP_ATTR, action == null ? "" : action, null);
+
+        if (types != null && types.length > 0)
+            writer.writeAttribute(HTML5.DATA_FX_DROP_TYPES_ATTR, StringUtils.join(types, ','), null);
+
+        // dnd.js falls back to the default mime type, so it is not repeated on every drop target
+        List<String> acceptMimeTypeList = Arrays.asList(acceptMimeTypes);
+        if (acceptMimeTypes.length != 1 || !DEFAULT_MYFACES_MIME_TYPE.equals(acceptMimeTypes[0]))
+            writer.writeAttribute(HTML5.DATA_FX_DROP_ACCEPT_ATTR, StringUtils.join(acceptMimeTypes, ','), null);
+
+        if (rerender != null && rerender.length > 0)
+            writer.writeAttribute(HTML5.DATA_FX_DROP_RENDER_ATTR, StringUtils.join(rerender, ' '), null);
+
+        // the upload url is only needed by the drop targets which accept files
+        if ((acceptMimeTypeList.contains(ACCEPT_ALL_MIME_TYPES) || acceptMimeTypeList.contains(FILES_MIME_TYPE))
+                && FileDropResourceHandler.getMaxSize(facesContext.getExternalContext()) > 0)
+            writer.writeAttribute(HTML5.DATA_FX_DROP_UPLOAD_ATTR, FileDropResourceHandler.getUploadURL(facesContext),
+                    null);
+
+        if (dropTargetBehavior.getBatchDelay() > 0)
+            writer.writeAttribute(HTML5.DATA_FX_DROP_BATCH_ATTR, String.valueOf(dropTargetBehavior.getBatchDelay()),
+                    null);
+
+        return true;
+    }
+
+    private boolean _isDelegated(FacesContext facesContext)
+    {
+        return Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                Html5WebConfigParams.DND_DELEGATION_ENABLED, false);
+    }
+
     private String _getDragEnterOrOverScript(DropTargetBehavior behavior)
     {
         String action = behavior.getAction() != null ? behavior.getAction().toString() : null;
@@ -211,10 +367,18 @@ public class DropTargetBehaviorRenderer extends ClientBehaviorRenderer
         String jsAcceptMimeTypes = BehaviorScriptUtils.convertToSafeJavascriptLiteralArray(acceptMimeTypes);
         String jsRerender = BehaviorScriptUtils.convertToSpaceSeperatedJSLiteral(rerender);
 
+        // dropped files are only uploaded if file drops are enabled
+        FacesContext facesContext = behaviorContext.getFacesContext();
+        String jsUploadURL = "null";
+        if (FileDropResourceHandler.getMaxSize(facesContext.getExternalContext()) > 0)
+            jsUploadURL = BehaviorScriptUtils.convertToSafeJavascriptLiteral(FileDropResourceHandler
+                    .getUploadURL(facesContext));
+
         // sample:: return myfaces.html5.dnd.drop(event, 'drop_zone', '@this someId',
-        // ['text/x-myfaces-html5-dnd-source','text/plain']);
-        String format = "return myfaces.html5.dnd.drop(event, %s, %s, %s);";
-        String script = String.format(format, jsSourceId, jsRerender, jsAcceptMimeTypes);
+        // ['text/x-myfaces-html5-dnd-source','text/plain'], '/app/javax.faces.resource/myfaces-html5-file-drop.jsf', 0);
+        String format = "return myfaces.html5.dnd.drop(event, %s, %s, %s, %s, %d);";
+        String script = String.format(format, jsSourceId, jsRerender, jsAcceptMimeTypes, jsUploadURL, behavior
+                .getBatchDelay());
 
         return script;
     }
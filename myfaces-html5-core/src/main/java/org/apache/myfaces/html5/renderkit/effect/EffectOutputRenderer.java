@@ -23,7 +23,8 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFRenderer;
 import org.apache.myfaces.html5.component.effect.AbstractEffectOutput;
 import org.apache.myfaces.html5.component.effect.AbstractEffects;
-import org.apache.myfaces.html5.renderkit.util.CSS;
+import org.apache.myfaces.html5.renderkit.util.AggregatedStyleSheet;
+import org.apache.myfaces.html5.renderkit.util.CssWriter;
 import org.apache.myfaces.html5.renderkit.util.HTML5;
 import org.apache.myfaces.html5.renderkit.util.Html5RendererUtils;
 import org.apache.myfaces.html5.renderkit.util.RendererUtils;
@@ -50,6 +51,10 @@ public class EffectOutputRenderer extends Renderer implements ComponentSystemEve
 
     @Override
     public void encodeBegin(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        // rendered into the stylesheet already, see AggregatedStyleSheet
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         super.encodeBegin(facesContext, uiComponent);
 
         RendererUtils.checkParamValidity(facesContext, uiComponent, AbstractEffectOutput.class);
@@ -63,6 +68,9 @@ public class EffectOutputRenderer extends Renderer implements ComponentSystemEve
 
     @Override
     public void encodeChildren(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         RendererUtils.checkParamValidity(facesContext, uiComponent, AbstractEffectOutput.class);
 
         AbstractEffectOutput component = (AbstractEffectOutput) uiComponent;
@@ -74,16 +82,20 @@ public class EffectOutputRenderer extends Renderer implements ComponentSystemEve
         writer.writeAttribute(HTML5.ID_ATTR, id, null);
 
         //let child components render themselves
-        writer.writeText("." + Html5RendererUtils.escapeCssSelector(id) + " { ", component, null);
+        CssWriter css = CssWriter.forResponse(facesContext);
+        css.clazz(Html5RendererUtils.escapeCssSelector(id)).startBlock();
         //TODO: allow only BaseEffect children!
 
         super.encodeChildren(facesContext, component);
 
-        writer.writeText(" } ", component, null);
+        css.endRule();
     }
 
     @Override
     public void encodeEnd(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         // just close the element
         super.encodeEnd(facesContext, uiComponent);
 
@@ -102,5 +114,6 @@ public class EffectOutputRenderer extends Renderer implements ComponentSystemEve
 
         //TODO: think about ajax PPR
         facesContext.getViewRoot().addComponentResource(facesContext, component, target);
+        AggregatedStyleSheet.addStyleSheet(facesContext);
     }
 }
@@ -22,14 +22,15 @@ package org.apache.myfaces.html5.renderkit.effect;
 import org.apache.commons.lang.StringUtils;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFRenderer;
 import org.apache.myfaces.html5.component.effect.AbstractEffects;
+import org.apache.myfaces.html5.renderkit.util.AggregatedStyleSheet;
 import org.apache.myfaces.html5.renderkit.util.CSS;
+import org.apache.myfaces.html5.renderkit.util.CssWriter;
 import org.apache.myfaces.html5.renderkit.util.Html5RendererUtils;
 import org.apache.myfaces.html5.renderkit.util.RendererUtils;
 import org.apache.myfaces.view.facelets.PostBuildComponentTreeOnRestoreViewEvent;
 
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
-import javax.faces.context.ResponseWriter;
 import javax.faces.event.*;
 import java.io.IOException;
 
@@ -42,48 +43,30 @@ public class EffectsRenderer extends EffectOutputRenderer implements ComponentSy
 
     @Override
     public void encodeChildren(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+        // rendered into the stylesheet already, see AggregatedStyleSheet
+        if (AggregatedStyleSheet.isAggregated(facesContext, uiComponent))
+            return;
+
         RendererUtils.checkParamValidity(facesContext, uiComponent, AbstractEffects.class);
         AbstractEffects component = (AbstractEffects) uiComponent;
-        ResponseWriter writer = facesContext.getResponseWriter();
 
         super.encodeChildren(facesContext, component);
 
         //write CSS class definition with animation definition
-        writer.writeText(getTransitionDefinition(component),component, null);
+        writeTransitionDefinition(component, CssWriter.forResponse(facesContext));
     }
 
-    protected String getTransitionDefinition(AbstractEffects component){
+    protected void writeTransitionDefinition(AbstractEffects component, CssWriter css) throws IOException {
         final String timingFunction = component.getTimingFunction();
         final String duration = Html5RendererUtils.getTimeValue(component.getDuration());
         final String delay = Html5RendererUtils.getTimeValue(component.getDelay());
 
-        StringBuilder builder = new StringBuilder();
-        builder.append("#").append(Html5RendererUtils.escapeCssSelector(component.getTransitionComponentId()));
-        builder.append(" { ");
-
-        //TODO: use CssBuilder. see SlideViewRenderer.
-        //for now
-        appendIfNotNull(builder, "-webkit-" + CSS.TRANSITION_PROPERTY_PROP, "all");
-        appendIfNotNull(builder, "-webkit-" + CSS.TRANSITION_DURATION_PROP, duration);
-        appendIfNotNull(builder, "-webkit-" + CSS.TRANSITION_TIMING_FUNCTION_PROP, timingFunction);
-        appendIfNotNull(builder, "-webkit-" + CSS.TRANSITION_DELAY_PROP, delay);
-
-        appendIfNotNull(builder, "-o-" + CSS.TRANSITION_PROPERTY_PROP, "all");
-        appendIfNotNull(builder, "-o-" + CSS.TRANSITION_DURATION_PROP, duration);
-        appendIfNotNull(builder, "-o-" + CSS.TRANSITION_TIMING_FUNCTION_PROP, timingFunction);
-        appendIfNotNull(builder, "-o-" + CSS.TRANSITION_DELAY_PROP, delay);
-
-        builder.append("} ");
-
-        return builder.toString();
-    }
-
-    private static void appendIfNotNull(StringBuilder builder, String propName, String propValue) {
-        if(StringUtils.isBlank(propName))
-            throw new RuntimeException("Propname cannot be null");
-
-        if(!StringUtils.isBlank(propValue))
-            builder.append(propName).append(": ").append(propValue).append("; ");
+        css.id(Html5RendererUtils.escapeCssSelector(component.getTransitionComponentId()))
+                .prefixedDeclaration(CSS.TRANSITION_PREFIXES, CSS.TRANSITION_PROPERTY_PROP, "all")
+                .prefixedDeclaration(CSS.TRANSITION_PREFIXES, CSS.TRANSITION_DURATION_PROP, duration)
+                .prefixedDeclaration(CSS.TRANSITION_PREFIXES, CSS.TRANSITION_TIMING_FUNCTION_PROP, timingFunction)
+                .prefixedDeclaration(CSS.TRANSITION_PREFIXES, CSS.TRANSITION_DELAY_PROP, delay)
+                .endRule();
     }
 
 
@@ -98,5 +81,6 @@ public class EffectsRenderer extends EffectOutputRenderer implements ComponentSy
         }
 
         facesContext.getViewRoot().addComponentResource(facesContext, component, "body");
+        AggregatedStyleSheet.addStyleSheet(facesContext);
     }
 }
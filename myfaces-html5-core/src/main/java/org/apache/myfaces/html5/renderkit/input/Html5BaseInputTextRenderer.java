@@ -19,9 +19,11 @@
 package org.apache.myfaces.html5.renderkit.input;
 
 import org.apache.myfaces.html5.component.input.Html5BaseInputText;
+import org.apache.myfaces.html5.renderkit.input.delegate.HtmlTextInputSuggestionRendererHelper;
 import org.apache.myfaces.html5.renderkit.input.delegate.SuggestionRendererHelper;
 import org.apache.myfaces.html5.renderkit.util.*;
 
+import javax.faces.FacesException;
 import javax.faces.component.UIComponent;
 import javax.faces.component.behavior.ClientBehavior;
 import javax.faces.component.behavior.ClientBehaviorHolder;
@@ -45,6 +47,36 @@ public abstract class Html5BaseInputTextRenderer extends Renderer
 
     private static final Logger log = Logger.getLogger(Html5BaseInputTextRenderer.class.getName());
 
+    /**
+     * Answers the Ajax requests of incremental suggestions; decoding is skipped for them.
+     */
+    @Override
+    public void decode(FacesContext facesContext, UIComponent uiComponent)
+    {
+        if (uiComponent instanceof Html5BaseInputText)
+        {
+            SuggestionRendererHelper suggestionRendererHelper = getSuggestionRendererHelper((Html5BaseInputText) uiComponent);
+            if (suggestionRendererHelper instanceof HtmlTextInputSuggestionRendererHelper)
+            {
+                HtmlTextInputSuggestionRendererHelper textInputHelper = (HtmlTextInputSuggestionRendererHelper) suggestionRendererHelper;
+                if (textInputHelper.isSuggestionsRequest(facesContext, uiComponent))
+                {
+                    try
+                    {
+                        textInputHelper.renderSuggestionsResponse(facesContext, uiComponent);
+                    }
+                    catch (IOException e)
+                    {
+                        throw new FacesException(e);
+                    }
+                    return;
+                }
+            }
+        }
+
+        super.decode(facesContext, uiComponent);
+    }
+
     @Override
     public void encodeEnd(FacesContext facesContext, UIComponent uiComponent) throws IOException
     {
@@ -66,15 +98,42 @@ public abstract class Html5BaseInputTextRenderer extends Renderer
 
         // are suggestions available?
         boolean shouldGenerateDatalist = false;
+        boolean incrementalSuggestions = false;
 
         if (suggestionRendererHelper != null)
         {
             shouldGenerateDatalist = suggestionRendererHelper.shouldGenerateDatalist(component);
             if (shouldGenerateDatalist)
             {
-                String datalistId = facesContext.getViewRoot().createUniqueId();
-                if (log.isLoggable(Level.FINE))
-                    log.fine("datalist will be created with id '" + datalistId + "'");
+                String datalistId = null;
+                if (suggestionRendererHelper instanceof HtmlTextInputSuggestionRendererHelper)
+                {
+                    HtmlTextInputSuggestionRendererHelper textInputHelper = (HtmlTextInputSuggestionRendererHelper) suggestionRendererHelper;
+                    incrementalSuggestions = textInputHelper.isIncrementalSuggestions(component);
+                    if (incrementalSuggestions)
+                        datalistId = textInputHelper.getIncrementalDataListId(facesContext, component);
+                    else
+                        datalistId = textInputHelper.findSharedDataListId(facesContext, component);
+                }
+
+                if (incrementalSuggestions)
+                {
+                    if (log.isLoggable(Level.FINE))
+                        log.fine("options of datalist with id '" + datalistId + "' will be requested with Ajax");
+                }
+                else if (datalistId != null)
+                {
+                    // an identical datalist is rendered already
+                    shouldGenerateDatalist = false;
+                    if (log.isLoggable(Level.FINE))
+                        log.fine("shared datalist with id '" + datalistId + "' will be used");
+                }
+                else
+                {
+                    datalistId = facesContext.getViewRoot().createUniqueId();
+                    if (log.isLoggable(Level.FINE))
+                        log.fine("datalist will be created with id '" + datalistId + "'");
+                }
                 component.getAttributes().put(JsfProperties.DATALIST_PROP, datalistId);
             }
         }
@@ -89,7 +148,17 @@ public abstract class Html5BaseInputTextRenderer extends Renderer
         {
             if (log.isLoggable(Level.FINE))
                 log.fine("will render generated datalist");
-            suggestionRendererHelper.renderDataList(facesContext, component);
+
+            if (incrementalSuggestions)
+            {
+                ResourceUtils.renderDefaultJsfJsInlineIfNecessary(facesContext, facesContext.getResponseWriter());
+                ((HtmlTextInputSuggestionRendererHelper) suggestionRendererHelper).renderIncrementalDataList(
+                        facesContext, component);
+            }
+            else
+            {
+                suggestionRendererHelper.renderDataList(facesContext, component);
+            }
         }
 
     }
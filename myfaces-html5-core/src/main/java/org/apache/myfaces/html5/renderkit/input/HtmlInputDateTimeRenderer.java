@@ -21,11 +21,11 @@ package org.apache.myfaces.html5.renderkit.input;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Arrays;
-import java.util.Date;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.el.ValueExpression;
 import javax.faces.FacesException;
 import javax.faces.component.UIComponent;
 import javax.faces.component.html.HtmlInputText;
@@ -42,7 +42,8 @@ import org.apache.myfaces.html5.component.input.HtmlInputDateTime;
 import org.apache.myfaces.html5.renderkit.input.delegate.HtmlTextInputSuggestionRendererHelper;
 import org.apache.myfaces.html5.renderkit.input.delegate.SuggestionRendererHelper;
 import org.apache.myfaces.html5.renderkit.input.util.Html5DateTimeConverter;
-import org.apache.myfaces.html5.renderkit.input.util.Html5DateTimeFormatUtils;
+import org.apache.myfaces.html5.renderkit.input.util.Html5TemporalConverter;
+import org.apache.myfaces.html5.renderkit.input.util.Html5TemporalSupport;
 import org.apache.myfaces.html5.renderkit.util.HTML5;
 import org.apache.myfaces.html5.renderkit.util.JsfProperties;
 import org.apache.myfaces.html5.renderkit.util.PassThroughAttributes;
@@ -79,7 +80,7 @@ public class HtmlInputDateTimeRenderer extends Html5BaseInputTextRenderer
     public Object getConvertedValue(FacesContext facesContext, UIComponent uiComponent, Object submittedValue)
             throws ConverterException
     {
-        // override this method to convert the input to java.util.Date
+        // override this method to convert the input to java.util.Date or to the bound java.time type
 
         if (submittedValue != null && !(submittedValue instanceof String))
         {
@@ -93,13 +94,7 @@ public class HtmlInputDateTimeRenderer extends Html5BaseInputTextRenderer
 
         HtmlInputDateTime component = (HtmlInputDateTime) uiComponent;
 
-        Converter converter = RendererUtils.findUIOutputConverter(facesContext, component);
-        if (converter == null)
-        {
-            // min and max validation is done at DateTimeRangeValidator, not in converter.
-            converter = new Html5DateTimeConverter();
-            component.setConverter(converter);
-        }
+        Converter converter = _findConverter(facesContext, component);
 
         return converter.getAsObject(facesContext, component, (String) submittedValue);
 
@@ -111,10 +106,7 @@ public class HtmlInputDateTimeRenderer extends Html5BaseInputTextRenderer
         RendererUtils.checkParamValidity(facesContext, uiComponent, HtmlInputDateTime.class);
         HtmlInputDateTime component = (HtmlInputDateTime) uiComponent;
 
-        if (RendererUtils.findUIOutputConverter(facesContext, component) == null)
-        {
-            component.setConverter(new Html5DateTimeConverter());
-        }
+        _findConverter(facesContext, component);
 
         _checkInputHtmlType(uiComponent);
         super.renderInputBegin(facesContext, uiComponent);
@@ -146,6 +138,35 @@ public class HtmlInputDateTimeRenderer extends Html5BaseInputTextRenderer
             writer.writeAttribute(HTML5.MAX_ATTR, strMaximum, null);
     }
 
+    /**
+     * Finds the converter of the component, falling back to {@link Html5TemporalConverter} for values bound to a
+     * java.time type and to {@link Html5DateTimeConverter} for java.util.Date values. The fallback converter is set on
+     * the component, so the value is rendered with it too.
+     */
+    private Converter _findConverter(FacesContext facesContext, HtmlInputDateTime component)
+    {
+        Converter converter = RendererUtils.findUIOutputConverter(facesContext, component);
+        if (converter == null)
+        {
+            // java.time types are converted directly, unless the application registered its own converter
+            Class<?> valueType = _getValueType(facesContext, component);
+            if (Html5TemporalSupport.isSupportedType(valueType))
+                converter = new Html5TemporalConverter(valueType);
+            else
+                // min and max validation is done at DateTimeRangeValidator, not in converter.
+                converter = new Html5DateTimeConverter();
+            component.setConverter(converter);
+        }
+
+        return converter;
+    }
+
+    private static Class<?> _getValueType(FacesContext facesContext, HtmlInputDateTime component)
+    {
+        ValueExpression expression = component.getValueExpression("value");
+        return expression != null ? expression.getType(facesContext.getELContext()) : null;
+    }
+
     /**
      * Extract minimum date selectable from attached fx:validateDateTimeRange
      */
@@ -157,17 +178,17 @@ public class HtmlInputDateTimeRenderer extends Html5BaseInputTextRenderer
             if (validator instanceof DateTimeRangeValidator)
             {
                 DateTimeRangeValidator dateTimeRangeValidator = (DateTimeRangeValidator) validator;
-                Date minimum;
+                String minimum;
                 try
                 {
-                    minimum = dateTimeRangeValidator.getResolvedMinimum(component.getType());
+                    minimum = dateTimeRangeValidator.getFormattedMinimum(component.getType());
                 }
                 catch (ParseException e)
                 {
                     throw new FacesException("Unable to resolve minimum value of component " + DebugUtils.getPathToComponent(component) + ".", e);
                 }
                 if (minimum != null)
-                    return Html5DateTimeFormatUtils.formatDateTime(minimum, component.getType());
+                    return minimum;
             }
         }
 
@@ -185,10 +206,10 @@ public class HtmlInputDateTimeRenderer extends Html5BaseInputTextRenderer
             if (validator instanceof DateTimeRangeValidator)
             {
                 DateTimeRangeValidator dateTimeRangeValidator = (DateTimeRangeValidator) validator;
-                Date maximum;
+                String maximum;
                 try
                 {
-                    maximum = dateTimeRangeValidator.getResolvedMaximum(component.getType());
+                    maximum = dateTimeRangeValidator.getFormattedMaximum(component.getType());
                 }
                 catch (ParseException e)
                 {
@@ -196,7 +217,7 @@ public class HtmlInputDateTimeRenderer extends Html5BaseInputTextRenderer
                             + DebugUtils.getPathToComponent(component) + ".", e);
                 }
                 if (maximum != null)
-                    return Html5DateTimeFormatUtils.formatDateTime(maximum, component.getType());
+                    return maximum;
             }
         }
 
@@ -19,13 +19,11 @@
 package org.apache.myfaces.html5.renderkit.input.delegate;
 
 import java.io.IOException;
-import java.util.Collection;
 
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
 import javax.faces.context.ResponseWriter;
 import javax.faces.convert.Converter;
-import javax.faces.model.SelectItem;
 
 import org.apache.myfaces.commons.util.DebugUtils;
 import org.apache.myfaces.html5.component.input.HtmlDataList;
@@ -86,9 +84,7 @@ public class HtmlDataListSuggestionRendererHelper extends HtmlTextInputSuggestio
             if (objSuggestions == null)
                 return;
 
-            Collection<SelectItem> selectItemsCollection = extractSelectItemsCollectionFromObject(objSuggestions);
-
-            renderOptionsFromSelectItemsCollection(facesContext, component, selectItemsCollection, converter);
+            renderOptionsFromObject(facesContext, component, objSuggestions, converter);
         }
         else
         {
@@ -22,14 +22,21 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.el.ValueExpression;
 import javax.faces.FacesException;
 import javax.faces.component.UIComponent;
 import javax.faces.component.UISelectItem;
 import javax.faces.component.UISelectItems;
+import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
+import javax.faces.context.PartialResponseWriter;
+import javax.faces.context.PartialViewContext;
 import javax.faces.context.ResponseWriter;
 import javax.faces.convert.Converter;
 import javax.faces.model.SelectItem;
@@ -38,7 +45,10 @@ import org.apache.myfaces.commons.util.DebugUtils;
 import org.apache.myfaces.commons.util.SelectItemsIterator;
 import org.apache.myfaces.html5.component.input.Html5BaseInputText;
 import org.apache.myfaces.html5.component.input.HtmlInputText;
+import org.apache.myfaces.html5.model.PrefixSuggestionIndex;
+import org.apache.myfaces.html5.model.SuggestionProvider;
 import org.apache.myfaces.html5.renderkit.util.HTML5;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
 import org.apache.myfaces.html5.renderkit.util.JsfProperties;
 import org.apache.myfaces.html5.renderkit.util.RendererUtils;
 
@@ -52,6 +62,21 @@ public class HtmlTextInputSuggestionRendererHelper implements SuggestionRenderer
 {
     static final char TABULATOR = '\t';
 
+    /**
+     * Request parameter of the Ajax requests for incremental suggestions. Its value is the client id of the input.
+     */
+    public static final String SUGGESTIONS_REQUEST_PARAM = "org.apache.myfaces.html5.SUGGESTIONS";
+
+    private static final String INCREMENTAL_DATALIST_ID_SUFFIX = "_suggestions";
+
+    /**
+     * Milliseconds without input after which the incremental suggestions are requested.
+     */
+    public static final int INCREMENTAL_SUGGESTIONS_DELAY = 150;
+
+    private static final String SUGGESTIONS_LIMIT_KEY = HtmlTextInputSuggestionRendererHelper.class.getName()
+            + ".SUGGESTIONS_LIMIT";
+
     // not using singleton since that approach is evil, not testable and needs thread safety which means performance penalty
 
     /*
@@ -136,9 +161,248 @@ public class HtmlTextInputSuggestionRendererHelper implements SuggestionRenderer
 
         renderDataListOptions(facesContext, component, converter);
 
+        SharedDataLists sharedDataLists = SharedDataLists.getInstance(facesContext);
+        if (sharedDataLists != null)
+            sharedDataLists.register(component, (String) component.getAttributes().get(JsfProperties.DATALIST_PROP));
+
         renderDataListEnd(facesContext, component);
     }
 
+    /**
+     * Returns the id of an already rendered datalist with the same suggestions, if sharing of datalists is enabled
+     * with {@link Html5WebConfigParams#SHARED_DATALISTS_ENABLED}. <br/>
+     * Datalists are identical if the expression string of the "suggestions" property and a hash of the converted
+     * values, labels and disabled flags of their options are the same. The hash is computed while the options are
+     * read, without keeping them, so a datalist found here is not rendered at all; otherwise the following
+     * {@link #renderDataList(FacesContext, UIComponent)} call reads the suggestions again to render them, and
+     * registers the datalist under the hash. <br/>
+     * A {@link SuggestionProvider} that does not know its size in advance is not shared, so it is never asked twice.
+     *
+     * @return null if sharing is disabled, the suggestions are not shared or no identical datalist is rendered yet
+     */
+    public String findSharedDataListId(FacesContext facesContext, UIComponent component) throws IOException
+    {
+        SharedDataLists sharedDataLists = SharedDataLists.getInstance(facesContext);
+        if (sharedDataLists == null)
+            return null;
+
+        Object suggestions = ((Html5BaseInputText) component).getSuggestions();
+        if (suggestions instanceof SuggestionProvider && ((SuggestionProvider) suggestions).getSizeHint() < 0)
+            return null;
+
+        Converter converter = RendererUtils.findUIOutputConverterFailSafe(facesContext, component);
+        OptionsHash hash = new OptionsHash();
+        hashDataListOptions(facesContext, component, suggestions, converter, hash);
+
+        ValueExpression suggestionsExpression = component.getValueExpression(JsfProperties.SUGGESTIONS_PROP);
+        String expressionString = suggestionsExpression == null ? "" : suggestionsExpression.getExpressionString();
+
+        return sharedDataLists.findOrAdd(component, expressionString + '\u0000' + hash);
+    }
+
+    /**
+     * Hashes the options {@link #renderDataListOptions(FacesContext, UIComponent, Converter)} would render, in the
+     * same order and with the same limit.
+     */
+    private void hashDataListOptions(final FacesContext facesContext, final UIComponent component,
+            Object suggestions, final Converter converter, final OptionsHash hash) throws IOException
+    {
+        final int limit = getSuggestionsLimit(facesContext);
+
+        if (suggestions instanceof PrefixSuggestionIndex)
+            suggestions = ((PrefixSuggestionIndex) suggestions).forPrefix("");
+
+        if (suggestions instanceof SuggestionProvider)
+        {
+            SuggestionProvider suggestionProvider = (SuggestionProvider) suggestions;
+            if (suggestionProvider.getSizeHint() != 0)
+            {
+                suggestionProvider.provideSuggestions(new SuggestionProvider.Callback()
+                {
+                    private int _count = 0;
+
+                    public boolean suggest(Object value, String label)
+                    {
+                        if (limit >= 0 && _count >= limit)
+                            return false;
+
+                        hash.add(RendererUtils.getConvertedStringValue(facesContext, component, converter, value),
+                                label, false);
+                        _count++;
+                        return limit < 0 || _count < limit;
+                    }
+                }, limit);
+            }
+        }
+        else if (suggestions != null)
+        {
+            hashSelectItems(facesContext, component, extractSelectItemsCollectionFromObject(suggestions).iterator(),
+                    converter, limit, hash);
+        }
+
+        hashSelectItems(facesContext, component, new SelectItemsIterator(component, facesContext), converter, limit,
+                hash);
+    }
+
+    private void hashSelectItems(FacesContext facesContext, UIComponent component,
+            Iterator<SelectItem> selectItems, Converter converter, int limit, OptionsHash hash)
+    {
+        for (int count = 0; selectItems.hasNext() && (limit < 0 || count < limit); count++)
+        {
+            SelectItem selectItem = selectItems.next();
+            hash.add(RendererUtils.getConvertedStringValue(facesContext, component, converter,
+                    selectItem.getValue()), selectItem.getLabel(), selectItem.isDisabled());
+        }
+    }
+
+    /**
+     * Returns true if the options of the component are requested with Ajax, which is the case if the
+     * "incrementalSuggestions" property is true and the "suggestions" property is set.
+     */
+    public boolean isIncrementalSuggestions(UIComponent uiComponent)
+    {
+        if (!(uiComponent instanceof Html5BaseInputText))
+            return false;
+
+        Html5BaseInputText component = (Html5BaseInputText) uiComponent;
+        return component.isIncrementalSuggestions() && component.getSuggestions() != null;
+    }
+
+    /**
+     * Returns the id of the datalist of a component with incremental suggestions. The id has to be the same on every
+     * request, since the Ajax responses update the datalist with it.
+     */
+    public String getIncrementalDataListId(FacesContext facesContext, UIComponent component)
+    {
+        return component.getClientId(facesContext) + INCREMENTAL_DATALIST_ID_SUFFIX;
+    }
+
+    /**
+     * Renders an empty datalist and the script which requests its options with Ajax on the input event of the
+     * component. jsf.js must be rendered before. <br/>
+     * A request is sent once the user stops typing for {@link #INCREMENTAL_SUGGESTIONS_DELAY} milliseconds. Only one
+     * request is in flight at a time; input received meanwhile is sent with a single request after it completes, so
+     * requests for stale values are never queued.
+     */
+    public void renderIncrementalDataList(FacesContext facesContext, UIComponent component) throws IOException
+    {
+        renderDataListBegin(facesContext, component);
+        renderDataListEnd(facesContext, component);
+
+        String clientId = component.getClientId(facesContext);
+
+        // t: debounce timer, b: a request is in flight, p: input changed while it was
+        ResponseWriter writer = facesContext.getResponseWriter();
+        writer.startElement(HTML5.SCRIPT_ELEM, null);
+        writer.writeAttribute(HTML5.TYPE_ATTR, "text/javascript", null);
+        writer.writeText("(function(){var i=document.getElementById('" + clientId + "'),t,b,p;"
+                + "function d(){b=false;if(p)s();}"
+                + "function s(){if(b){p=true;return;}b=true;p=false;jsf.ajax.request(i,null,{execute:'" + clientId
+                + "',render:'@none','" + SUGGESTIONS_REQUEST_PARAM + "':'" + clientId
+                + "',onevent:function(e){if(e.status==='success')d();},onerror:d});}"
+                + "i.addEventListener('input',function(){clearTimeout(t);t=setTimeout(s,"
+                + INCREMENTAL_SUGGESTIONS_DELAY + ");},false);})();", null);
+        writer.endElement(HTML5.SCRIPT_ELEM);
+    }
+
+    /**
+     * Returns true if the current request is an Ajax request for the incremental suggestions of the component.
+     */
+    public boolean isSuggestionsRequest(FacesContext facesContext, UIComponent component)
+    {
+        String clientId = facesContext.getExternalContext().getRequestParameterMap().get(SUGGESTIONS_REQUEST_PARAM);
+        return clientId != null && facesContext.getPartialViewContext().isAjaxRequest()
+                && clientId.equals(component.getClientId(facesContext)) && isIncrementalSuggestions(component);
+    }
+
+    /**
+     * Writes a partial response which updates the datalist of the component with the suggestions starting with the
+     * submitted value, and completes the response. At most "maxSuggestions" options are written.
+     */
+    public void renderSuggestionsResponse(FacesContext facesContext, UIComponent uiComponent) throws IOException
+    {
+        final Html5BaseInputText component = (Html5BaseInputText) uiComponent;
+        ExternalContext externalContext = facesContext.getExternalContext();
+
+        String prefix = externalContext.getRequestParameterMap().get(component.getClientId(facesContext));
+        PrefixSuggestionIndex index = getPrefixSuggestionIndex(facesContext, component);
+
+        String datalistId = getIncrementalDataListId(facesContext, component);
+        component.getAttributes().put(JsfProperties.DATALIST_PROP, datalistId);
+
+        final PartialResponseWriter writer = facesContext.getPartialViewContext().getPartialResponseWriter();
+        externalContext.setResponseContentType("text/xml");
+        if (writer.getCharacterEncoding() != null)
+            externalContext.setResponseCharacterEncoding(writer.getCharacterEncoding());
+
+        ResponseWriter originalWriter = facesContext.getResponseWriter();
+        facesContext.setResponseWriter(writer);
+        try
+        {
+            writer.startDocument();
+            writer.startUpdate(datalistId);
+            renderDataListBegin(facesContext, component);
+
+            final FacesContext context = facesContext;
+            final Converter converter = RendererUtils.findUIOutputConverterFailSafe(facesContext, component);
+            index.lookup(prefix, component.getMaxSuggestions(), new SuggestionProvider.Callback()
+            {
+                public boolean suggest(Object value, String label) throws IOException
+                {
+                    renderOption(context, writer, component, converter, value, label, false);
+                    return true;
+                }
+            });
+
+            renderDataListEnd(facesContext, component);
+            writer.endUpdate();
+            writer.endDocument();
+        }
+        finally
+        {
+            facesContext.setResponseWriter(originalWriter);
+        }
+
+        facesContext.responseComplete();
+    }
+
+    /**
+     * Returns the index of the "suggestions" property of the component. A {@link PrefixSuggestionIndex} value is used
+     * as it is; other values are indexed once and the index is reused as long as the expression returns the same
+     * suggestions: an equal string, an array or collection with the same values and labels, even if a new one is
+     * returned on each call, or the same {@link SuggestionProvider} instance.
+     */
+    protected PrefixSuggestionIndex getPrefixSuggestionIndex(FacesContext facesContext, Html5BaseInputText component)
+            throws IOException
+    {
+        Object suggestions = component.getSuggestions();
+        if (suggestions instanceof PrefixSuggestionIndex)
+            return (PrefixSuggestionIndex) suggestions;
+
+        ValueExpression suggestionsExpression = component.getValueExpression(JsfProperties.SUGGESTIONS_PROP);
+        String key = suggestionsExpression == null ? String.valueOf(suggestions) : suggestionsExpression
+                .getExpressionString();
+
+        PrefixSuggestionIndexCache cache = PrefixSuggestionIndexCache.getInstance(facesContext);
+        Object fingerprint = PrefixSuggestionIndexCache.fingerprint(suggestions);
+        PrefixSuggestionIndex index = cache.get(key, fingerprint);
+        if (index == null)
+        {
+            try
+            {
+                index = PrefixSuggestionIndex.build(suggestions);
+            }
+            catch (IllegalArgumentException e)
+            {
+                // WIKI: Add a wiki page
+                throw new FacesException(
+                        "\"suggestions\" property should be one of comma separeted strings, array or collection of SelectItem, SuggestionProvider or PrefixSuggestionIndex", e);
+            }
+            cache.put(key, fingerprint, index);
+        }
+        return index;
+    }
+
     protected void renderDataListBegin(FacesContext facesContext, UIComponent component) throws IOException
     {
         ResponseWriter writer = facesContext.getResponseWriter();
@@ -170,9 +434,7 @@ public class HtmlTextInputSuggestionRendererHelper implements SuggestionRenderer
             if (objSuggestions == null)
                 return;
 
-            Collection<SelectItem> selectItemsCollection = extractSelectItemsCollectionFromObject(objSuggestions);
-
-            renderOptionsFromSelectItemsCollection(facesContext, component, selectItemsCollection, converter);
+            renderOptionsFromObject(facesContext, component, objSuggestions, converter);
         }
         else
         {
@@ -181,6 +443,60 @@ public class HtmlTextInputSuggestionRendererHelper implements SuggestionRenderer
         }
     }
 
+    /**
+     * Renders the options of the value of a "suggestions" property, which is either a {@link SuggestionProvider}, a
+     * {@link PrefixSuggestionIndex} whose suggestions are all rendered, or one of the types accepted by
+     * {@link #extractSelectItemsCollectionFromObject(Object)}.
+     */
+    protected void renderOptionsFromObject(FacesContext facesContext, UIComponent component, Object objSuggestions,
+            Converter converter) throws IOException
+    {
+        if (objSuggestions instanceof PrefixSuggestionIndex)
+        {
+            renderOptionsFromSuggestionProvider(facesContext, component,
+                    ((PrefixSuggestionIndex) objSuggestions).forPrefix(""), converter);
+        }
+        else if (objSuggestions instanceof SuggestionProvider)
+        {
+            renderOptionsFromSuggestionProvider(facesContext, component, (SuggestionProvider) objSuggestions,
+                    converter);
+        }
+        else
+        {
+            Collection<SelectItem> selectItemsCollection = extractSelectItemsCollectionFromObject(objSuggestions);
+            renderOptionsFromSelectItems(facesContext, component, selectItemsCollection.iterator(), converter);
+        }
+    }
+
+    /**
+     * Renders the suggestions of the provider as they are produced, up to the limit of
+     * {@link #getSuggestionsLimit(FacesContext)}.
+     */
+    protected void renderOptionsFromSuggestionProvider(final FacesContext facesContext, final UIComponent component,
+            SuggestionProvider suggestionProvider, final Converter converter) throws IOException
+    {
+        if (suggestionProvider.getSizeHint() == 0)
+            return;
+
+        final int limit = getSuggestionsLimit(facesContext);
+        final ResponseWriter writer = facesContext.getResponseWriter();
+
+        suggestionProvider.provideSuggestions(new SuggestionProvider.Callback()
+        {
+            private int _count = 0;
+
+            public boolean suggest(Object value, String label) throws IOException
+            {
+                if (limit >= 0 && _count >= limit)
+                    return false;
+
+                renderOption(facesContext, writer, component, converter, value, label, false);
+                _count++;
+                return limit < 0 || _count < limit;
+            }
+        }, limit);
+    }
+
     @SuppressWarnings("unchecked")
     protected Collection<SelectItem> extractSelectItemsCollectionFromObject(Object objSuggestions)
     {
@@ -213,7 +529,7 @@ public class HtmlTextInputSuggestionRendererHelper implements SuggestionRenderer
         {
             // WIKI: Add a wiki page
             throw new FacesException(
-                    "\"suggestions\" property should be one of comma separeted strings, SelectItem[] or Collection of \"SelectItem\"s");
+                    "\"suggestions\" property should be one of comma separeted strings, SelectItem[], Collection of \"SelectItem\"s, SuggestionProvider or PrefixSuggestionIndex");
         }
         return selectItemsCollection;
     }
@@ -221,12 +537,19 @@ public class HtmlTextInputSuggestionRendererHelper implements SuggestionRenderer
     protected void renderOptionsOfChildren(FacesContext facesContext, UIComponent component, Converter converter)
             throws IOException
     {
-        List<SelectItem> selectItemsList = getSelectItemsList(facesContext, component);
-        renderOptionsFromSelectItemsCollection(facesContext, component, selectItemsList, converter);
+        // items are rendered while iterating, without collecting them first
+        renderOptionsFromSelectItems(facesContext, component, new SelectItemsIterator(component, facesContext),
+                converter);
     }
 
     protected void renderOptionsFromSelectItemsCollection(FacesContext facesContext, UIComponent component,
             Collection<SelectItem> selectItemsCollection, Converter converter) throws IOException
+    {
+        renderOptionsFromSelectItems(facesContext, component, selectItemsCollection.iterator(), converter);
+    }
+
+    protected void renderOptionsFromSelectItems(FacesContext facesContext, UIComponent component,
+            Iterator<SelectItem> selectItems, Converter converter) throws IOException
     {
         /*
          * ignore SelectItemGroup, since grouping(<optgroup>) is not allowed in suggestions. ignore selected items,
@@ -235,44 +558,269 @@ public class HtmlTextInputSuggestionRendererHelper implements SuggestionRenderer
          */
 
         ResponseWriter writer = facesContext.getResponseWriter();
+        int limit = getSuggestionsLimit(facesContext);
 
-        for (Iterator<SelectItem> iterator = selectItemsCollection.iterator(); iterator.hasNext();)
+        for (int count = 0; selectItems.hasNext() && (limit < 0 || count < limit); count++)
         {
             // might throw an exception! don't handle, and let the user handle the exception
-            SelectItem selectItem = iterator.next();
+            SelectItem selectItem = selectItems.next();
 
-            writer.write(TABULATOR);
+            renderOption(facesContext, writer, component, converter, selectItem.getValue(), selectItem.getLabel(),
+                    selectItem.isDisabled());
+        }
+    }
 
-            writer.startElement(HTML5.OPTION_ELEM, null);
+    protected void renderOption(FacesContext facesContext, ResponseWriter writer, UIComponent component,
+            Converter converter, Object value, String label, boolean disabled) throws IOException
+    {
+        String itemStrValue = RendererUtils.getConvertedStringValue(facesContext, component, converter, value);
+        renderOption(writer, itemStrValue, label, disabled);
+    }
 
-            /*
-             * we're writing an attribute, not text here: using <option value="value" label="Label" /> notation, not
-             * <option value="value">Label</option>
-             */
-            String itemLabel = selectItem.getLabel();
-            // writeAttribute method escapes the label anyway. so ignore SelectItem#isEscape()...
-            writer.writeAttribute(HTML5.LABEL_ATTR, itemLabel, null);
+    private static void renderOption(ResponseWriter writer, String itemStrValue, String label, boolean disabled)
+            throws IOException
+    {
+        writer.write(TABULATOR);
 
-            String itemStrValue = RendererUtils.getConvertedStringValue(facesContext, component, converter, selectItem.getValue());
-            writer.writeAttribute(HTML5.VALUE_ATTR, itemStrValue, null);
+        writer.startElement(HTML5.OPTION_ELEM, null);
 
-            writer.writeAttribute(HTML5.DISABLED_ATTR, selectItem.isDisabled(), null);
+        /*
+         * we're writing an attribute, not text here: using <option value="value" label="Label" /> notation, not
+         * <option value="value">Label</option>
+         */
+        // writeAttribute method escapes the label anyway. so ignore SelectItem#isEscape()...
+        writer.writeAttribute(HTML5.LABEL_ATTR, label, null);
 
-            writer.endElement(HTML5.OPTION_ELEM);
+        writer.writeAttribute(HTML5.VALUE_ATTR, itemStrValue, null);
+
+        writer.writeAttribute(HTML5.DISABLED_ATTR, disabled, null);
+
+        writer.endElement(HTML5.OPTION_ELEM);
+    }
 
+    /**
+     * Returns the maximum number of options rendered for a suggestion source, or -1 if there is no limit.
+     * 
+     * @see Html5WebConfigParams#SUGGESTIONS_LIMIT
+     */
+    protected int getSuggestionsLimit(FacesContext facesContext)
+    {
+        // the init parameter is read once and kept by the application
+        Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+        Integer limit = (Integer) applicationMap.get(SUGGESTIONS_LIMIT_KEY);
+        if (limit == null)
+        {
+            int value = Html5WebConfigParams.getIntInitParameter(facesContext.getExternalContext(),
+                    Html5WebConfigParams.SUGGESTIONS_LIMIT, -1);
+            limit = Integer.valueOf(value > 0 ? value : -1);
+            applicationMap.put(SUGGESTIONS_LIMIT_KEY, limit);
         }
+        return limit.intValue();
     }
 
-    protected List<SelectItem> getSelectItemsList(FacesContext facesContext, UIComponent component)
+    /**
+     * Application scoped LRU cache of the indexes built for incremental suggestions, keyed by the expression string
+     * (or the literal value) of the "suggestions" property. An entry is only used for a source with the same
+     * {@link #fingerprint(Object)} as the one it was built from.
+     */
+    private static final class PrefixSuggestionIndexCache
     {
-        List<SelectItem> list = new ArrayList<SelectItem>();
+        private static final String APPLICATION_MAP_KEY = PrefixSuggestionIndexCache.class.getName();
+
+        private static final int MAX_SIZE = 32;
 
-        for (Iterator<SelectItem> iter = new SelectItemsIterator(component, facesContext); iter.hasNext();)
+        private final Map<String, Object[]> _entries = new LinkedHashMap<String, Object[]>(16, 0.75F, true)
         {
-            list.add(iter.next());
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object[]> eldest)
+            {
+                return size() > MAX_SIZE;
+            }
+        };
+
+        static PrefixSuggestionIndexCache getInstance(FacesContext facesContext)
+        {
+            Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+            PrefixSuggestionIndexCache cache = (PrefixSuggestionIndexCache) applicationMap.get(APPLICATION_MAP_KEY);
+            if (cache == null)
+            {
+                // a concurrently created instance is simply replaced
+                cache = new PrefixSuggestionIndexCache();
+                applicationMap.put(APPLICATION_MAP_KEY, cache);
+            }
+            return cache;
+        }
+
+        /**
+         * Returns what tells whether the source has changed, far cheaper than indexing it: a string itself, the size
+         * and a hash of the values and labels of an array or collection, as getters often return a new one on each
+         * call, or else the source instance, as the suggestions of a provider can not be read without asking it.
+         */
+        static Object fingerprint(Object source)
+        {
+            if (!(source instanceof Object[]) && !(source instanceof Collection<?>))
+                return source;
+
+            Collection<?> items = source instanceof Object[] ? Arrays.asList((Object[]) source)
+                    : (Collection<?>) source;
+            long hash = 1;
+            for (Object item : items)
+            {
+                if (item instanceof SelectItem)
+                {
+                    hash = 31 * hash + _hashCode(((SelectItem) item).getValue());
+                    hash = 31 * hash + _hashCode(((SelectItem) item).getLabel());
+                }
+                else
+                {
+                    hash = 31 * hash + _hashCode(item);
+                }
+            }
+            return items.size() + ":" + Long.toHexString(hash);
+        }
+
+        private static int _hashCode(Object o)
+        {
+            return o == null ? 0 : o.hashCode();
+        }
+
+        PrefixSuggestionIndex get(String key, Object fingerprint)
+        {
+            Object[] entry;
+            synchronized (_entries)
+            {
+                entry = _entries.get(key);
+            }
+
+            if (entry == null || fingerprint == null || !fingerprint.equals(entry[0]))
+                return null;
+
+            return (PrefixSuggestionIndex) entry[1];
         }
 
-        return list;
+        void put(String key, Object fingerprint, PrefixSuggestionIndex index)
+        {
+            synchronized (_entries)
+            {
+                _entries.put(key, new Object[] { fingerprint, index });
+            }
+        }
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the converted options of a datalist, with their number. The options are not kept.
+     */
+    private static final class OptionsHash
+    {
+        private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long PRIME = 0x100000001b3L;
+
+        // separates the fields, so "ab","c" and "a","bc" differ
+        private static final char SEPARATOR = '\u0000';
+
+        // added for null fields, so they differ from empty ones
+        private static final char NULL_MARK = '\uffff';
+
+        private long _hash = OFFSET_BASIS;
+        private int _count = 0;
+
+        void add(String value, String label, boolean disabled)
+        {
+            _add(value);
+            _add(label);
+            _add(disabled ? '1' : '0');
+            _count++;
+        }
+
+        @Override
+        public String toString()
+        {
+            return _count + ":" + Long.toHexString(_hash);
+        }
+
+        private void _add(String s)
+        {
+            if (s == null)
+            {
+                _add(NULL_MARK);
+                return;
+            }
+
+            for (int i = 0, length = s.length(); i < length; i++)
+            {
+                _add(s.charAt(i));
+            }
+            _add(SEPARATOR);
+        }
+
+        private void _add(char c)
+        {
+            _hash = (_hash ^ c) * PRIME;
+        }
     }
 
+    /**
+     * Request scoped registry of the datalists rendered so far, keyed by suggestions expression and options hash.
+     */
+    private static final class SharedDataLists
+    {
+        private static final String REQUEST_KEY = SharedDataLists.class.getName();
+
+        private final Map<String, String> _idsByKey = new HashMap<String, String>();
+
+        private UIComponent _pendingComponent;
+        private String _pendingKey;
+
+        /**
+         * Returns the registry of the request, or null if datalists are not shared.
+         */
+        static SharedDataLists getInstance(FacesContext facesContext)
+        {
+            Map<Object, Object> attributes = facesContext.getAttributes();
+            Object instance = attributes.get(REQUEST_KEY);
+            if (instance == null)
+            {
+                boolean enabled = Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                        Html5WebConfigParams.SHARED_DATALISTS_ENABLED, false);
+
+                // on partial rendering, the first datalist might not be a part of the response
+                PartialViewContext partialViewContext = facesContext.getPartialViewContext();
+                if (enabled && partialViewContext.isAjaxRequest() && !partialViewContext.isRenderAll())
+                    enabled = false;
+
+                // Boolean.FALSE marks a request without sharing
+                instance = enabled ? new SharedDataLists() : Boolean.FALSE;
+                attributes.put(REQUEST_KEY, instance);
+            }
+            return instance instanceof SharedDataLists ? (SharedDataLists) instance : null;
+        }
+
+        /**
+         * Returns the id of the datalist rendered with the key, or null after remembering the key for the datalist
+         * the component renders next.
+         */
+        String findOrAdd(UIComponent component, String key)
+        {
+            String id = _idsByKey.get(key);
+            if (id == null)
+            {
+                _pendingComponent = component;
+                _pendingKey = key;
+            }
+            return id;
+        }
+
+        void register(UIComponent component, String datalistId)
+        {
+            if (_pendingComponent != component)
+                return;
+
+            _idsByKey.put(_pendingKey, datalistId);
+
+            _pendingComponent = null;
+            _pendingKey = null;
+        }
+    }
 }
@@ -19,26 +19,52 @@
 package org.apache.myfaces.html5.renderkit.input.util;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
 
 import javax.faces.FacesException;
 
 import org.apache.myfaces.html5.renderkit.util.HTML5;
 
 /**
- * Utility class for parsing and formatting date values.
- * 
+ * Utility class for parsing and formatting date values. <br/>
+ * Parsing and formatting is done by hand over the characters of the value, without SimpleDateFormat or Calendar, so
+ * it is thread-safe and the primitive API ({@link #parseEpochMillis(CharSequence, int)},
+ * {@link #formatEpochMillis(long, int, StringBuilder)}) does not allocate anything. <br/>
+ * The primitive API works on "epoch millis": for the global date and time type (datetime) it is the instant in UTC,
+ * for all other types it is the local date and time fields counted as if they were in UTC. The java.util.Date API
+ * converts the local types from/to the default time zone of the JVM.
+ *
  * @author Ali Ok
- * 
+ *
  */
 public class Html5DateTimeFormatUtils
 {
+    public static final int TYPE_DATETIME = 1;
+    public static final int TYPE_DATETIME_LOCAL = 2;
+    public static final int TYPE_DATE = 3;
+    public static final int TYPE_TIME = 4;
+    public static final int TYPE_MONTH = 5;
+    public static final int TYPE_WEEK = 6;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60L * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60L * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+
+    // no valid value comes close to this, see the position handling of the parse helpers
+    private static final int MAX_LENGTH = 256;
+
+    // the last year java.util.Date holds completely, so the epoch millis of no valid value overflow
+    private static final int MAX_YEAR = 292278993;
+
+    private Html5DateTimeFormatUtils()
+    {
+    }
 
     /**
      * Parses the value and converts it to date time considering the type.
-     * 
+     *
      * @throws ParseException
      *             if the input is not parsable for the given type.
      */
@@ -46,346 +72,549 @@ public class Html5DateTimeFormatUtils
     {
         if (value == null || value.length() == 0)
             return null;
-        
-        if (HTML5.INPUT_TYPE_DATETIME.equals(type))
-        {
-            return _parseGlobalDateTime(value);
-        }
-        else if (HTML5.INPUT_TYPE_DATETIME_LOCAL.equals(type))
-        {
-            return _parseLocalDateTime(value);
-        }
-        else if (HTML5.INPUT_TYPE_DATE.equals(type))
-        {
-            return _parseDate(value);
-        }
-        else if (HTML5.INPUT_TYPE_TIME.equals(type))
-        {
-            return _parseTime(value);
-        }
-        else if (HTML5.INPUT_TYPE_MONTH.equals(type))
-        {
-            return _parseMonth(value);
-        }
-        else if (HTML5.INPUT_TYPE_WEEK.equals(type))
-        {
-            return _parseWeek(value);
-        }
+
+        int resolvedType = resolveType(type);
+        long millis = parseEpochMillis(value, resolvedType);
+
+        if (resolvedType == TYPE_DATETIME)
+            return new Date(millis);
         else
-        {
-            throw new FacesException("Type " + type + " is not applicable.");
-        }
+            return new Date(toInstant(millis, TimeZone.getDefault()));
     }
 
     /**
      * Formats datetime for given type.
-     * 
+     *
      * @throws FacesException
      */
     public static String formatDateTime(Date value, String type) throws FacesException
     {
         if (value == null)
             return null;
-        
+
+        int resolvedType = resolveType(type);
+        long millis = value.getTime();
+        if (resolvedType != TYPE_DATETIME)
+            millis = toLocalEpochMillis(millis, TimeZone.getDefault());
+
+        return formatEpochMillis(millis, resolvedType);
+    }
+
+    /**
+     * Returns the TYPE_* constant of the given Html5 input type.
+     *
+     * @throws FacesException
+     *             if the type is not one of the date and time input types.
+     */
+    public static int resolveType(String type) throws FacesException
+    {
         if (HTML5.INPUT_TYPE_DATETIME.equals(type))
-        {
-            return _formatGlobalDateTime(value);
-        }
+            return TYPE_DATETIME;
         else if (HTML5.INPUT_TYPE_DATETIME_LOCAL.equals(type))
-        {
-            return _formatLocalDateTime(value);
-        }
+            return TYPE_DATETIME_LOCAL;
         else if (HTML5.INPUT_TYPE_DATE.equals(type))
-        {
-            return _formatDate(value);
-        }
+            return TYPE_DATE;
         else if (HTML5.INPUT_TYPE_TIME.equals(type))
-        {
-            return _formatTime(value);
-        }
+            return TYPE_TIME;
         else if (HTML5.INPUT_TYPE_MONTH.equals(type))
-        {
-            return _formatMonth(value);
-        }
+            return TYPE_MONTH;
         else if (HTML5.INPUT_TYPE_WEEK.equals(type))
-        {
-            return _formatWeek(value);
-        }
+            return TYPE_WEEK;
         else
-        {
             throw new FacesException("Type " + type + " is not applicable.");
-        }
     }
 
-    private static final String GLOBAL_DATETIME_UTC_PATTERN = "yyyy-MM-dd'T'HH:mm'Z'";
-    private static final String GLOBAL_DATETIME_UTC_PATTERN_WITH_SECONDS = "yyyy-MM-dd'T'HH:mm:ss'Z'";
-    private static final String GLOBAL_DATETIME_UTC_PATTERN_WITH_MILLIS = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
-
-    // note that HTML5 spec has colon char in the time zone, but it is not applicable for SimpleDateFormat.
-    // so, if a non UTC string is being parsed, the last colon will be removed.
-    private static final String GLOBAL_DATETIME_NONUTC_PATTERN = "yyyy-MM-dd'T'HH:mmZZZZ";
-    private static final String GLOBAL_DATETIME_NONUTC_PATTERN_WITH_SECONDS = "yyyy-MM-dd'T'HH:mm:ssZZZZ";
-    private static final String GLOBAL_DATETIME_NONUTC_PATTERN_WITH_MILLIS = "yyyy-MM-dd'T'HH:mm:ss.SSSZZZZ";
-
-    private static final String LOCAL_DATETIME_PATTERN = "yyyy-MM-dd'T'HH:mm";
-    private static final String LOCAL_DATETIME_PATTERN_WITH_SECONDS = "yyyy-MM-dd'T'HH:mm:ss";
-    private static final String LOCAL_DATETIME_PATTERN_WITH_MILLIS = "yyyy-MM-dd'T'HH:mm:ss.SSS";
-
-    private static final String DATE_PATTERN = "yyyy-MM-dd";
-
-    private static final String TIME_PATTERN = "HH:mm";
-    private static final String TIME_PATTERN_WITH_SECONDS = "HH:mm:ss";
-    private static final String TIME_PATTERN_WITH_MILLIS = "HH:mm:ss.SSS";
-
-    private static final String MONTH_PATTERN = "yyyy-MM";
-
-    private static final String WEEK_PATTERN = "yyyy-'W'ww";
-
-    private Html5DateTimeFormatUtils()
+    /**
+     * Converts an instant to the epoch millis of its local fields in the given time zone.
+     */
+    public static long toLocalEpochMillis(long instant, TimeZone timeZone)
     {
+        return instant + timeZone.getOffset(instant);
     }
 
-    // Samples: 0037-12-13T00:00Z, 1979-10-14T12:00:00.001-04:00, 8592-01-01T02:09+02:09
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-global-date-and-time-string
-    private static Date _parseGlobalDateTime(String value) throws ParseException
+    /**
+     * Converts the epoch millis of local fields to an instant in the given time zone.
+     */
+    public static long toInstant(long localEpochMillis, TimeZone timeZone)
     {
-        if (value == null || value.length() == 0)
-            return null;
+        int offset = timeZone.getOffset(localEpochMillis - timeZone.getRawOffset());
+        long instant = localEpochMillis - offset;
 
-        boolean utcDateTime = value.charAt(value.length() - 1) == 'Z';
+        // around daylight saving transitions the first guess might use the offset of the other side
+        int actualOffset = timeZone.getOffset(instant);
+        if (actualOffset != offset)
+            instant = localEpochMillis - actualOffset;
 
-        if (!utcDateTime)
-        {
-            /*
-             * TimeZoned datetime values of Html5 have to define the time zone with colon, but that is not applicable
-             * with SimpleDateFormat. SimpleDateFormat is unable to use a pattern like "yyyy-MM-dd'T'HH:mm:ZZ:ZZ". It
-             * doesn't like the last colon, since it breaks the timezone. Since it is unable to parse a value like
-             * "1992-01-01T02:09+02:00" using "yyyy-MM-dd'T'HH:mm:ZZZZ" pattern, we're removing the last comma of the
-             * value to convert it to "1992-01-01T02:09+0200"
-             */
-            value = _deleteLastColonOfGlobalNonUTCDateTime(value);
-        }
-
-        boolean hasMillis = value.indexOf('.') != -1;
+        return instant;
+    }
 
-        int lastIndexOfT = value.lastIndexOf('T');
-        if (lastIndexOfT == -1)
-            throw new ParseException("Value has no time information, since it does not have 'T' symbol : " + value, 0);
+    /**
+     * Parses the value for the given TYPE_* constant.
+     *
+     * @return the instant for {@link #TYPE_DATETIME}, the epoch millis of the local fields for the other types.
+     * @throws ParseException
+     *             if the value is not a valid string of the type, or its year is after 292278993. The error
+     *             offset is the position of the first invalid character.
+     */
+    public static long parseEpochMillis(CharSequence value, int type) throws ParseException
+    {
+        int length = value.length();
+        if (length > MAX_LENGTH)
+            throw _error(value, MAX_LENGTH, "value is too long");
 
-        boolean doesntHaveMillisButHasSeconds = _hasSeconds(value.substring(lastIndexOfT));
+        long millis;
+        int pos;
 
-        if (utcDateTime)
+        switch (type)
         {
-            if (hasMillis)
+            case TYPE_DATETIME:
+            case TYPE_DATETIME_LOCAL:
             {
-                return new SimpleDateFormat(GLOBAL_DATETIME_UTC_PATTERN_WITH_MILLIS).parse(value);
+                // Samples: 0037-12-13T00:00Z, 1979-10-14T12:00:00.001-04:00, 8592-01-01T02:09+02:09
+                // Html5 Spec:
+                // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-global-date-and-time-string
+                // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-local-date-and-time-string
+                long date = _parseDate(value, 0);
+                pos = _position(date);
+                if (pos >= length || (value.charAt(pos) != 'T' && value.charAt(pos) != ' '))
+                    throw _error(value, pos, "'T' expected");
+
+                long time = _parseTime(value, pos + 1);
+                pos = _position(time);
+                millis = _days(date) * MILLIS_PER_DAY + _value(time);
+
+                if (type == TYPE_DATETIME)
+                {
+                    if (pos >= length)
+                        throw _error(value, pos, "time zone expected");
+
+                    char c = value.charAt(pos);
+                    if (c == 'Z')
+                    {
+                        pos++;
+                    }
+                    else if (c == '+' || c == '-')
+                    {
+                        int hours = _parseDigits(value, pos + 1, 2, 0, 23);
+                        if (pos + 3 >= length || value.charAt(pos + 3) != ':')
+                            throw _error(value, pos + 3, "':' expected");
+                        int minutes = _parseDigits(value, pos + 4, 2, 0, 59);
+
+                        long offset = hours * MILLIS_PER_HOUR + minutes * MILLIS_PER_MINUTE;
+                        millis = c == '+' ? millis - offset : millis + offset;
+                        pos += 6;
+                    }
+                    else
+                    {
+                        throw _error(value, pos, "time zone expected");
+                    }
+                }
+                break;
             }
-            else if (doesntHaveMillisButHasSeconds)
+            case TYPE_DATE:
             {
-                return new SimpleDateFormat(GLOBAL_DATETIME_UTC_PATTERN_WITH_SECONDS).parse(value);
+                // Samples: 0037-12-13, 1979-10-14, 8592-01-01
+                long date = _parseDate(value, 0);
+                pos = _position(date);
+                millis = _days(date) * MILLIS_PER_DAY;
+                break;
             }
-            else
+            case TYPE_TIME:
             {
-                return new SimpleDateFormat(GLOBAL_DATETIME_UTC_PATTERN).parse(value);
+                // Samples: 00:00, 12:00:00.001, 02:09
+                long time = _parseTime(value, 0);
+                pos = _position(time);
+                millis = _value(time);
+                break;
             }
-        }
-        else
-        {
-            if (hasMillis)
+            case TYPE_MONTH:
+            {
+                // Samples: 0037-12, 1979-10, 8592-01
+                long year = _parseYear(value, 0);
+                pos = _position(year);
+                _expect(value, pos, '-');
+                int month = _parseDigits(value, pos + 1, 2, 1, 12);
+                pos += 3;
+                millis = daysFromCivil((int) _value(year), month, 1) * MILLIS_PER_DAY;
+                break;
+            }
+            case TYPE_WEEK:
             {
-                return new SimpleDateFormat(GLOBAL_DATETIME_NONUTC_PATTERN_WITH_MILLIS).parse(value);
+                // Samples: 2005-W52, 1979-W10, 8592-W01
+                // A week starts on Monday and week 1 is the week that contains the first Thursday of the year:
+                // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-week-string
+                long year = _parseYear(value, 0);
+                pos = _position(year);
+                _expect(value, pos, '-');
+                _expect(value, pos + 1, 'W');
+                int weekYear = (int) _value(year);
+                int week = _parseDigits(value, pos + 2, 2, 1, weeksInYear(weekYear));
+                pos += 4;
+                millis = (_firstMondayOfWeekYear(weekYear) + (week - 1) * 7L) * MILLIS_PER_DAY;
+                break;
             }
-            else if (doesntHaveMillisButHasSeconds)
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+
+        if (pos != length)
+            throw _error(value, pos, "unexpected character");
+
+        return millis;
+    }
+
+    /**
+     * Formats the epoch millis for the given TYPE_* constant.
+     */
+    public static String formatEpochMillis(long millis, int type)
+    {
+        StringBuilder builder = new StringBuilder(30);
+        formatEpochMillis(millis, type, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Formats the epoch millis for the given TYPE_* constant into the given builder.
+     *
+     * @see #parseEpochMillis(CharSequence, int)
+     */
+    public static void formatEpochMillis(long millis, int type, StringBuilder target)
+    {
+        long days = _floorDiv(millis, MILLIS_PER_DAY);
+        long millisOfDay = millis - days * MILLIS_PER_DAY;
+
+        switch (type)
+        {
+            case TYPE_DATETIME:
+                // Samples: 0037-12-13T00:00:00.000Z
+                _appendDate(target, days);
+                target.append('T');
+                _appendTime(target, millisOfDay);
+                target.append('Z');
+                break;
+            case TYPE_DATETIME_LOCAL:
+                // Samples: 0037-12-13T00:00:00.000
+                _appendDate(target, days);
+                target.append('T');
+                _appendTime(target, millisOfDay);
+                break;
+            case TYPE_DATE:
+                _appendDate(target, days);
+                break;
+            case TYPE_TIME:
+                _appendTime(target, millisOfDay);
+                break;
+            case TYPE_MONTH:
             {
-                return new SimpleDateFormat(GLOBAL_DATETIME_NONUTC_PATTERN_WITH_SECONDS).parse(value);
+                long civil = civilFromDays(days);
+                _appendYear(target, _year(civil));
+                target.append('-');
+                _appendTwoDigits(target, _month(civil));
+                break;
             }
-            else
+            case TYPE_WEEK:
             {
-                return new SimpleDateFormat(GLOBAL_DATETIME_NONUTC_PATTERN).parse(value);
+                // the week belongs to the year of its Thursday
+                long thursday = days - _dayOfWeek(days) + 4;
+                int weekYear = _year(civilFromDays(thursday));
+                int week = (int) ((thursday - daysFromCivil(weekYear, 1, 1)) / 7) + 1;
+                _appendYear(target, weekYear);
+                target.append("-W");
+                _appendTwoDigits(target, week);
+                break;
             }
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
         }
     }
 
-    // Samples: 0037-12-13T00:00, 1979-10-14T12:00:00.001, 8592-01-01T02:09
-    // Html5 spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-local-date-and-time-string
-    private static Date _parseLocalDateTime(String value) throws ParseException
+    /**
+     * Returns the number of days between 1970-01-01 and the given date of the proleptic Gregorian calendar.
+     */
+    public static long daysFromCivil(int year, int month, int day)
     {
-        if (value == null || value.length() == 0)
-            return null;
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
 
-        boolean hasMillis = value.indexOf('.') != -1;
+    /**
+     * Returns the date for the given days since 1970-01-01, packed as <code>year &lt;&lt; 9 | month &lt;&lt; 5 |
+     * day</code>.
+     */
+    public static long civilFromDays(long days)
+    {
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
 
-        int lastIndexOfT = value.lastIndexOf('T');
-        if (lastIndexOfT == -1)
-            throw new ParseException("Value has no time information, since it does not have 'T' symbol : " + value, 0);
+    /**
+     * Returns the number of ISO 8601 weeks in the year, 52 or 53.
+     */
+    public static int weeksInYear(int year)
+    {
+        int firstDayOfWeek = _dayOfWeek(daysFromCivil(year, 1, 1));
+        if (firstDayOfWeek == 4 || (firstDayOfWeek == 3 && _isLeapYear(year)))
+            return 53;
+        return 52;
+    }
 
-        boolean doesntHaveMillisButHasSeconds = _hasSeconds(value.substring(lastIndexOfT));
+    private static long _firstMondayOfWeekYear(int year)
+    {
+        long january4 = daysFromCivil(year, 1, 4);
+        return january4 - _dayOfWeek(january4) + 1;
+    }
 
-        if (hasMillis)
-        {
-            return new SimpleDateFormat(LOCAL_DATETIME_PATTERN_WITH_MILLIS).parse(value);
-        }
-        else if (doesntHaveMillisButHasSeconds)
-        {
-            return new SimpleDateFormat(LOCAL_DATETIME_PATTERN_WITH_SECONDS).parse(value);
-        }
-        else
+    // Monday is 1, Sunday is 7. 1970-01-01 was a Thursday.
+    private static int _dayOfWeek(long days)
+    {
+        return (int) (_floorMod(days + 3, 7) + 1);
+    }
+
+    private static boolean _isLeapYear(int year)
+    {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static int _daysInMonth(int year, int month)
+    {
+        switch (month)
         {
-            return new SimpleDateFormat(LOCAL_DATETIME_PATTERN).parse(value);
+            case 2:
+                return _isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
         }
     }
 
-    // Samples: 0037-12-13, 1979-10-14, 8592-01-01
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-date-string
-    private static Date _parseDate(String value) throws ParseException
+    private static int _year(long civil)
     {
-        return new SimpleDateFormat(DATE_PATTERN).parse(value);
+        return (int) (civil >> 9);
     }
 
-    // Samples: 0037-12-13, 1979-10-14, 8592-01-01
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-time-string
-    private static Date _parseTime(String value) throws ParseException
+    private static int _month(long civil)
     {
-        boolean hasMillis = value.indexOf('.') != -1;
-        boolean hasSeconds = _hasSeconds(value);
+        return (int) ((civil >> 5) & 0xF);
+    }
 
-        if (hasMillis)
-            return new SimpleDateFormat(TIME_PATTERN_WITH_MILLIS).parse(value);
-        else if (hasSeconds)
-            return new SimpleDateFormat(TIME_PATTERN_WITH_SECONDS).parse(value);
-        else
-            return new SimpleDateFormat(TIME_PATTERN).parse(value);
+    private static int _day(long civil)
+    {
+        return (int) (civil & 0x1F);
     }
 
-    // Samples: 0037-12, 1979-10, 8592-01
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-month-string
-    private static Date _parseMonth(String value) throws ParseException
+    private static long _floorDiv(long x, long y)
     {
-        return new SimpleDateFormat(MONTH_PATTERN).parse(value);
+        long q = x / y;
+        return (x % y != 0 && ((x ^ y) < 0)) ? q - 1 : q;
     }
 
-    // Samples: 2005-W52, 1979-W10, 8592-W01
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-week-string
-    private static Date _parseWeek(String value) throws ParseException
+    private static long _floorMod(long x, long y)
     {
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(WEEK_PATTERN);
+        return x - _floorDiv(x, y) * y;
+    }
 
-        /*
-         * A week starts on Monday according to Html5 spec. see:
-         * http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#concept-week
-         */
-        simpleDateFormat.getCalendar().setFirstDayOfWeek(Calendar.MONDAY);
+    // ---------------------------- parsing
+    // The parse helpers return the parsed value and the position after it packed into one long, the position in the
+    // lower 16 bits. The values are never negative.
 
-        return simpleDateFormat.parse(value);
+    private static long _result(long value, int position)
+    {
+        return (value << 16) | position;
     }
 
-    // Samples: 0037-12-13T00:00Z, 1979-10-14T12:00:00.001-04:00, 8592-01-01T02:09+02:09
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-global-date-and-time-string
-    private static String _formatGlobalDateTime(Date value)
+    private static long _value(long result)
     {
-        return new SimpleDateFormat(GLOBAL_DATETIME_UTC_PATTERN_WITH_MILLIS).format(value);
+        return result >>> 16;
     }
 
-    // Samples: 0037-12-13T00:00, 1979-10-14T12:00:00.001, 8592-01-01T02:09
-    // Html5 spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-local-date-and-time-string
-    private static String _formatLocalDateTime(Date value)
+    private static int _position(long result)
     {
-        return new SimpleDateFormat(LOCAL_DATETIME_PATTERN_WITH_MILLIS).format(value);
+        return (int) (result & 0xFFFF);
     }
 
-    // Samples: 0037-12-13, 1979-10-14, 8592-01-01
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-date-string
-    private static String _formatDate(Date value)
+    private static long _days(long dateResult)
     {
-        return new SimpleDateFormat(DATE_PATTERN).format(value);
+        return _value(dateResult) - 719468;
     }
 
-    // Samples: 0037-12-13, 1979-10-14, 8592-01-01
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-time-string
-    private static String _formatTime(Date value)
+    // yyyy-MM-dd, returns days since epoch + 719468, so that the result is positive for years > 0
+    private static long _parseDate(CharSequence value, int pos) throws ParseException
     {
-        return new SimpleDateFormat(TIME_PATTERN_WITH_MILLIS).format(value);
+        long yearResult = _parseYear(value, pos);
+        int year = (int) _value(yearResult);
+        pos = _position(yearResult);
+
+        _expect(value, pos, '-');
+        int month = _parseDigits(value, pos + 1, 2, 1, 12);
+        _expect(value, pos + 3, '-');
+        int day = _parseDigits(value, pos + 4, 2, 1, _daysInMonth(year, month));
+
+        long days = daysFromCivil(year, month, day);
+        return _result(days + 719468, pos + 6);
     }
 
-    // Samples: 0037-12, 1979-10, 8592-01
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-month-string
-    private static String _formatMonth(Date value)
+    // HH:mm[:ss[.S+]], returns millis of day
+    private static long _parseTime(CharSequence value, int pos) throws ParseException
     {
-        return new SimpleDateFormat(MONTH_PATTERN).format(value);
+        int hours = _parseDigits(value, pos, 2, 0, 23);
+        _expect(value, pos + 2, ':');
+        int minutes = _parseDigits(value, pos + 3, 2, 0, 59);
+        pos += 5;
+
+        long millis = hours * MILLIS_PER_HOUR + minutes * MILLIS_PER_MINUTE;
+
+        int length = value.length();
+        if (pos < length && value.charAt(pos) == ':')
+        {
+            int seconds = _parseDigits(value, pos + 1, 2, 0, 59);
+            millis += seconds * MILLIS_PER_SECOND;
+            pos += 3;
+
+            if (pos < length && value.charAt(pos) == '.')
+            {
+                pos++;
+                int start = pos;
+                int fraction = 0;
+                while (pos < length && _isDigit(value.charAt(pos)))
+                {
+                    // only millisecond precision is kept
+                    if (pos - start < 3)
+                        fraction = fraction * 10 + (value.charAt(pos) - '0');
+                    pos++;
+                }
+                if (pos == start)
+                    throw _error(value, pos, "digit expected");
+
+                for (int i = pos - start; i < 3; i++)
+                    fraction *= 10;
+
+                millis += fraction;
+            }
+        }
+
+        return _result(millis, pos);
     }
 
-    // Samples: 2005-W52, 1979-W10, 8592-W01
-    // Html5 Spec:
-    // http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#valid-week-string
-    private static String _formatWeek(Date value)
+    // four or more digits, greater than zero
+    private static long _parseYear(CharSequence value, int pos) throws ParseException
     {
-        /*
-         * We cannot use the pattern "yyyy-'W'ww" here since it SimpleDateFormat evalates 'ww' w/o considering the year.
-         * So, for date Fri Dec 31 00:00:00 EET 1999, it returns "1999-W01" instead of "2000-W01".
-         * 
-         * Tomahawk has implemented its own formatter, but I didn't want to use it, since it is complicated.
-         * http://myfaces
-         * .apache.org/tomahawk-project/tomahawk/apidocs/org/apache/myfaces/dateformat/SimpleDateFormatter.html
-         * 
-         * So, here is the workaround.
-         */
+        int length = value.length();
+        int start = pos;
+        int year = 0;
+        while (pos < length && _isDigit(value.charAt(pos)))
+        {
+            if (pos - start >= 9)
+                throw _error(value, pos, "year is too large");
+            year = year * 10 + (value.charAt(pos) - '0');
+            pos++;
+        }
 
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(value);
+        if (pos - start < 4)
+            throw _error(value, pos, "year must have at least four digits");
+        if (year == 0)
+            throw _error(value, start, "year must be greater than zero");
+        if (year > MAX_YEAR)
+            throw _error(value, start, "year is too large");
 
-        /*
-         * A week starts on Monday according to Html5 spec. see:
-         * http://www.whatwg.org/specs/web-apps/current-work/multipage/common-microsyntaxes.html#concept-week
-         */
-        cal.setFirstDayOfWeek(Calendar.MONDAY);
+        return _result(year, pos);
+    }
 
-        int year = cal.get(Calendar.YEAR);
-        int week = cal.get(Calendar.WEEK_OF_YEAR);
+    private static int _parseDigits(CharSequence value, int pos, int count, int min, int max) throws ParseException
+    {
+        if (pos + count > value.length())
+            throw _error(value, value.length(), "digit expected");
 
-        if (cal.get(Calendar.MONTH) == Calendar.DECEMBER)
+        int result = 0;
+        for (int i = pos; i < pos + count; i++)
         {
-            if (week == 1)
-            {
-                year++;
-            }
+            char c = value.charAt(i);
+            if (!_isDigit(c))
+                throw _error(value, i, "digit expected");
+            result = result * 10 + (c - '0');
         }
 
-        return String.format("%04d-W%02d", year, week);
+        if (result < min || result > max)
+            throw _error(value, pos, "value must be between " + min + " and " + max);
+
+        return result;
     }
 
-    private static boolean _hasSeconds(String value) throws ParseException
+    private static void _expect(CharSequence value, int pos, char expected) throws ParseException
     {
-        // example strings : '22:03', '22:03:05', '22:03:05.455'
+        if (pos >= value.length() || value.charAt(pos) != expected)
+            throw _error(value, pos, "'" + expected + "' expected");
+    }
 
-        int indexOfMinuteBeginning = value.indexOf(':');
+    private static boolean _isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
 
-        // if the second information is present, then lastIndexOfColon must be the beginning position of the seconds(for
-        // example '1979-10-14T12:00:00-0400').
-        // else it must be the beginning position of the minutes(for example: '8592-01-01T02:09Z' ).
-        int lastIndexOfColon = value.lastIndexOf(':');
+    private static ParseException _error(CharSequence value, int pos, String message)
+    {
+        return new ParseException("Unable to parse '" + value + "' at position " + pos + ": " + message, pos);
+    }
 
-        return lastIndexOfColon > indexOfMinuteBeginning;
+    // ---------------------------- formatting
+
+    private static void _appendDate(StringBuilder target, long days)
+    {
+        long civil = civilFromDays(days);
+        _appendYear(target, _year(civil));
+        target.append('-');
+        _appendTwoDigits(target, _month(civil));
+        target.append('-');
+        _appendTwoDigits(target, _day(civil));
     }
 
-    private static String _deleteLastColonOfGlobalNonUTCDateTime(String value) throws ParseException
+    private static void _appendTime(StringBuilder target, long millisOfDay)
     {
-        int indexOfTimeZoneSign = value.lastIndexOf(':');
-        if (indexOfTimeZoneSign == -1)
-            throw new ParseException("A valid nonUTC date time must contain time zone information.", 0);
+        int millis = (int) millisOfDay;
+        _appendTwoDigits(target, millis / (int) MILLIS_PER_HOUR);
+        target.append(':');
+        _appendTwoDigits(target, (millis / (int) MILLIS_PER_MINUTE) % 60);
+        target.append(':');
+        _appendTwoDigits(target, (millis / (int) MILLIS_PER_SECOND) % 60);
+        target.append('.');
+        int fraction = millis % (int) MILLIS_PER_SECOND;
+        target.append((char) ('0' + fraction / 100));
+        target.append((char) ('0' + (fraction / 10) % 10));
+        target.append((char) ('0' + fraction % 10));
+    }
 
-        value = value.substring(0, indexOfTimeZoneSign) + value.substring(indexOfTimeZoneSign + 1, value.length());
+    private static void _appendYear(StringBuilder target, int year)
+    {
+        if (year <= 0)
+            throw new FacesException("Years before 0001 can not be formatted: " + year);
+
+        if (year < 1000)
+            target.append('0');
+        if (year < 100)
+            target.append('0');
+        if (year < 10)
+            target.append('0');
+        target.append(year);
+    }
 
-        return value;
+    private static void _appendTwoDigits(StringBuilder target, int value)
+    {
+        target.append((char) ('0' + value / 10));
+        target.append((char) ('0' + value % 10));
     }
 }
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input.util;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass scanner for the "valid e-mail address" and "valid e-mail address list" grammars of Html5. <br/>
+ * The submitted value is scanned once; the only copies made are the returned addresses themselves.
+ *
+ * @author Ali Ok
+ * @see <a href="http://www.whatwg.org/specs/web-apps/current-work/multipage/states-of-the-type-attribute.html#valid-e-mail-address">valid e-mail address</a>
+ */
+public final class Html5EmailAddressScanner
+{
+    public static final char ADDRESS_DELIMITER = ',';
+
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    // characters allowed in the local part besides letters and digits
+    private static final String LOCAL_PART_SYMBOLS = ".!#$%&'*+/=?^_`{|}~-";
+
+    private static final boolean[] LOCAL_PART_CHARS = new boolean[128];
+
+    static
+    {
+        for (char c = 'a'; c <= 'z'; c++)
+            LOCAL_PART_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++)
+            LOCAL_PART_CHARS[c] = true;
+        for (char c = '0'; c <= '9'; c++)
+            LOCAL_PART_CHARS[c] = true;
+        for (int i = 0; i < LOCAL_PART_SYMBOLS.length(); i++)
+            LOCAL_PART_CHARS[LOCAL_PART_SYMBOLS.charAt(i)] = true;
+    }
+
+    private Html5EmailAddressScanner()
+    {
+    }
+
+    /**
+     * Parses a comma separated list of addresses. White space around the addresses is ignored.
+     *
+     * @return the addresses, or null if the value is empty or white space only
+     * @throws ParseException
+     *             if an address is not valid. The error offset is the position of the first invalid character in
+     *             the value.
+     */
+    public static String[] parseAddressList(String value) throws ParseException
+    {
+        int length = value.length();
+        int start = _skipWhiteSpace(value, 0, length);
+        if (start == length)
+            return null;
+
+        List<String> addresses = null;
+        String firstAddress = null;
+
+        while (true)
+        {
+            int delimiter = start;
+            while (delimiter < length && value.charAt(delimiter) != ADDRESS_DELIMITER)
+                delimiter++;
+
+            int end = delimiter;
+            while (end > start && _isWhiteSpace(value.charAt(end - 1)))
+                end--;
+
+            int errorOffset = findInvalidOffset(value, start, end);
+            if (errorOffset >= 0)
+                throw new ParseException("Invalid e-mail address at position " + errorOffset + ": "
+                        + value.substring(start, end), errorOffset);
+
+            String address = value.substring(start, end);
+            if (firstAddress == null)
+            {
+                firstAddress = address;
+            }
+            else
+            {
+                if (addresses == null)
+                {
+                    addresses = new ArrayList<String>();
+                    addresses.add(firstAddress);
+                }
+                addresses.add(address);
+            }
+
+            if (delimiter == length)
+                break;
+
+            start = _skipWhiteSpace(value, delimiter + 1, length);
+        }
+
+        return addresses == null ? new String[] { firstAddress } : addresses.toArray(new String[addresses.size()]);
+    }
+
+    /**
+     * Checks if the given region of the value is a valid e-mail address.
+     *
+     * @return -1 if the address is valid, the position of the first invalid character otherwise. For an address that
+     *         ends too early, this is the end of the region.
+     */
+    public static int findInvalidOffset(CharSequence value, int start, int end)
+    {
+        // local part: 1*( atext / "." )
+        int pos = start;
+        while (pos < end)
+        {
+            char c = value.charAt(pos);
+            if (c == '@' || c >= 128 || !LOCAL_PART_CHARS[c])
+                break;
+            pos++;
+        }
+
+        if (pos == start || pos == end || value.charAt(pos) != '@')
+            return pos;
+
+        // domain: label *( "." label ), labels are 1-63 letters, digits and hyphens without a hyphen at either end
+        pos++;
+        while (true)
+        {
+            int labelStart = pos;
+            while (pos < end)
+            {
+                char c = value.charAt(pos);
+                if (_isLetterOrDigit(c))
+                    pos++;
+                else if (c == '-' && pos > labelStart)
+                    pos++;
+                else
+                    break;
+            }
+
+            if (pos == labelStart)
+                return pos;
+            if (value.charAt(pos - 1) == '-')
+                return pos - 1;
+            if (pos - labelStart > MAX_LABEL_LENGTH)
+                return labelStart + MAX_LABEL_LENGTH;
+
+            if (pos == end)
+                return -1;
+            if (value.charAt(pos) != '.')
+                return pos;
+            pos++;
+        }
+    }
+
+    /**
+     * Returns true if the value is a single valid e-mail address, without surrounding white space.
+     */
+    public static boolean isValidAddress(CharSequence value)
+    {
+        return findInvalidOffset(value, 0, value.length()) < 0;
+    }
+
+    /**
+     * Appends the addresses separated with commas, leaving out white space around them.
+     */
+    public static void appendAddressList(StringBuilder target, String[] addresses)
+    {
+        for (int i = 0; i < addresses.length; i++)
+        {
+            if (i > 0)
+                target.append(ADDRESS_DELIMITER);
+
+            String address = addresses[i];
+            int end = address.length();
+            int start = _skipWhiteSpace(address, 0, end);
+            while (end > start && _isWhiteSpace(address.charAt(end - 1)))
+                end--;
+
+            target.append(address, start, end);
+        }
+    }
+
+    private static int _skipWhiteSpace(CharSequence value, int pos, int end)
+    {
+        while (pos < end && _isWhiteSpace(value.charAt(pos)))
+            pos++;
+        return pos;
+    }
+
+    // "space characters" of Html5
+    private static boolean _isWhiteSpace(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+    }
+
+    private static boolean _isLetterOrDigit(char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
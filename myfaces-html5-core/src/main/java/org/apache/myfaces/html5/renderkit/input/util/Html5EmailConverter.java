@@ -18,25 +18,25 @@
  */
 package org.apache.myfaces.html5.renderkit.input.util;
 
+import java.text.ParseException;
+
 import javax.faces.application.FacesMessage;
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
 import javax.faces.convert.Converter;
 import javax.faces.convert.ConverterException;
 
-import org.apache.commons.validator.EmailValidator;
 import org.apache.myfaces.commons.util.DebugUtils;
 
 /**
- * Converter for use in hx:inputEmail.
+ * Converter for use in hx:inputEmail. Converts the comma separated addresses to a String[], see
+ * {@link Html5EmailAddressScanner}.
  * 
  * @author Ali Ok
  * 
  */
 public class Html5EmailConverter implements Converter
 {
-    private static final char MULTIPLE_EMAIL_DELIMITER = ',';
-
     public Object getAsObject(FacesContext context, UIComponent component, String value) throws ConverterException
     {
         if (value == null)
@@ -45,24 +45,14 @@ public class Html5EmailConverter implements Converter
         if (value.length() == 0)
             return null;
 
-        String[] emails = value.split(",");
-        if (emails != null && emails.length > 0)
+        try
         {
-            for (String email : emails)
-            {
-                email = email.trim();
-                if (!EmailValidator.getInstance().isValid(email))
-                {
-                    throw new ConverterException(new FacesMessage("Provided value for component "
-                            + DebugUtils.getPathToComponent(component) + " is not a valid email: " + email));
-                }
-            }
-
-            return emails;
+            return Html5EmailAddressScanner.parseAddressList(value);
         }
-        else
+        catch (ParseException e)
         {
-            return null;
+            throw new ConverterException(new FacesMessage("Provided value for component "
+                    + DebugUtils.getPathToComponent(component) + " is not a valid email: " + e.getMessage()), e);
         }
     }
 
@@ -81,14 +71,12 @@ public class Html5EmailConverter implements Converter
             String[] strArrVal = (String[]) value;
             if (strArrVal.length == 0)
                 return null;
+            if (strArrVal.length == 1)
+                return strArrVal[0].trim();
 
-            StringBuilder builder = new StringBuilder();
-            for (String email : strArrVal)
-            {
-                builder.append(email.trim()).append(MULTIPLE_EMAIL_DELIMITER);
-            }
-
-            return builder.substring(0, builder.length() - 1);
+            StringBuilder builder = new StringBuilder(strArrVal.length * 32);
+            Html5EmailAddressScanner.appendAddressList(builder, strArrVal);
+            return builder.toString();
         }
         else
         {
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input.util;
+
+import java.text.ParseException;
+
+import javax.el.ValueExpression;
+import javax.faces.FacesException;
+import javax.faces.application.FacesMessage;
+import javax.faces.component.StateHolder;
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+import javax.faces.convert.Converter;
+import javax.faces.convert.ConverterException;
+
+import org.apache.myfaces.commons.util.DebugUtils;
+import org.apache.myfaces.html5.component.input.HtmlInputDateTime;
+
+/**
+ * Converter for use in hx:inputDateTime, if the value is bound to one of the java.time types supported by
+ * {@link Html5TemporalSupport}. Values are converted directly from and to the epoch millis of
+ * {@link Html5DateTimeFormatUtils}, without a java.util.Date in between. <br/>
+ * A converter created without a value type takes it from the value expression of the component.
+ *
+ * @author Ali Ok
+ * @see org.apache.myfaces.html5.renderkit.input.HtmlInputDateTimeRenderer
+ */
+public class Html5TemporalConverter implements Converter, StateHolder
+{
+    private Class<?> _valueType;
+
+    private boolean _transient;
+
+    public Html5TemporalConverter()
+    {
+    }
+
+    public Html5TemporalConverter(Class<?> valueType)
+    {
+        if (!Html5TemporalSupport.isSupportedType(valueType))
+            throw new IllegalArgumentException("Type " + valueType + " is not a supported java.time type.");
+
+        this._valueType = valueType;
+    }
+
+    public Object getAsObject(FacesContext context, UIComponent uiComponent, String value) throws ConverterException
+    {
+        if (uiComponent instanceof HtmlInputDateTime)
+        {
+            if (value == null || value.length() == 0)
+                return null;
+
+            HtmlInputDateTime component = (HtmlInputDateTime) uiComponent;
+            String type = component.getType();
+            int resolvedType = Html5DateTimeFormatUtils.resolveType(type);
+
+            long millis;
+            try
+            {
+                millis = Html5DateTimeFormatUtils.parseEpochMillis(value, resolvedType);
+            }
+            catch (ParseException e)
+            {
+                throw new ConverterException(new FacesMessage("Unable to parse input " + value + " for "
+                        + DebugUtils.getPathToComponent(uiComponent) + " with type " + type), e);
+            }
+
+            return Html5TemporalSupport.fromEpochMillis(millis, resolvedType, _getValueType(context, component));
+        }
+        else
+        {
+            throw new FacesException("Component " + DebugUtils.getPathToComponent(uiComponent)
+                    + " is not a HtmlInputDateTime");
+        }
+    }
+
+    public String getAsString(FacesContext context, UIComponent uiComponent, Object value) throws ConverterException
+    {
+        if (value == null)
+            return null;
+
+        if (!Html5TemporalSupport.isSupportedType(value.getClass()))
+            throw new FacesException("Value is not a supported java.time value for component "
+                    + DebugUtils.getPathToComponent(uiComponent) + ".");
+
+        if (uiComponent instanceof HtmlInputDateTime)
+        {
+            HtmlInputDateTime component = (HtmlInputDateTime) uiComponent;
+            int resolvedType = Html5DateTimeFormatUtils.resolveType(component.getType());
+
+            return Html5DateTimeFormatUtils.formatEpochMillis(Html5TemporalSupport.toEpochMillis(value,
+                    resolvedType), resolvedType);
+        }
+        else
+        {
+            throw new FacesException("Component " + DebugUtils.getPathToComponent(uiComponent)
+                    + " is not a HtmlInputDateTime");
+        }
+    }
+
+    public Class<?> getValueType()
+    {
+        return _valueType;
+    }
+
+    private Class<?> _getValueType(FacesContext context, UIComponent component)
+    {
+        if (_valueType != null)
+            return _valueType;
+
+        ValueExpression expression = component.getValueExpression("value");
+        Class<?> valueType = expression != null ? expression.getType(context.getELContext()) : null;
+        if (!Html5TemporalSupport.isSupportedType(valueType))
+            throw new FacesException("The value of component " + DebugUtils.getPathToComponent(component)
+                    + " is not bound to a supported java.time type.");
+
+        return valueType;
+    }
+
+    // RESTORE/SAVE STATE
+    public Object saveState(FacesContext context)
+    {
+        return _valueType == null ? null : _valueType.getName();
+    }
+
+    public void restoreState(FacesContext context, Object state)
+    {
+        if (state == null)
+            return;
+
+        String className = (String) state;
+        try
+        {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            _valueType = Class.forName(className, false, classLoader != null ? classLoader
+                    : Html5TemporalConverter.class.getClassLoader());
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new FacesException("Unable to restore value type " + className + ".", e);
+        }
+    }
+
+    public boolean isTransient()
+    {
+        return _transient;
+    }
+
+    public void setTransient(boolean transientValue)
+    {
+        _transient = transientValue;
+    }
+}
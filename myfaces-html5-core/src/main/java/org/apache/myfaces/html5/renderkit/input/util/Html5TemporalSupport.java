@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.faces.FacesException;
+
+/**
+ * Conversion between the epoch millis of {@link Html5DateTimeFormatUtils} and the java.time value types
+ * <code>LocalDate</code>, <code>LocalTime</code>, <code>LocalDateTime</code>, <code>OffsetDateTime</code>,
+ * <code>Instant</code> and <code>YearMonth</code>. <br/>
+ * The types are accessed reflectively, since they are not available on every runtime this library supports. There is
+ * no java.time type for ISO weeks; week inputs are bound to <code>LocalDate</code>, the monday of the week. <br/>
+ * Local types are paired with the local fields of the input; if the input type is datetime, the fields are
+ * interpreted in the default time zone. Instant types are converted to local fields with the default time zone.
+ *
+ * @author Ali Ok
+ * @see Html5TemporalConverter
+ */
+public final class Html5TemporalSupport
+{
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static final int LOCAL_DATE = 1;
+    private static final int LOCAL_TIME = 2;
+    private static final int LOCAL_DATE_TIME = 3;
+    private static final int YEAR_MONTH = 4;
+    private static final int OFFSET_DATE_TIME = 5;
+    private static final int INSTANT = 6;
+
+    private static final Map<String, Integer> KIND_IDS = new HashMap<String, Integer>();
+
+    static
+    {
+        KIND_IDS.put("java.time.LocalDate", LOCAL_DATE);
+        KIND_IDS.put("java.time.LocalTime", LOCAL_TIME);
+        KIND_IDS.put("java.time.LocalDateTime", LOCAL_DATE_TIME);
+        KIND_IDS.put("java.time.YearMonth", YEAR_MONTH);
+        KIND_IDS.put("java.time.OffsetDateTime", OFFSET_DATE_TIME);
+        KIND_IDS.put("java.time.Instant", INSTANT);
+    }
+
+    private static final Map<Class<?>, Kind> KINDS = new ConcurrentHashMap<Class<?>, Kind>();
+
+    private Html5TemporalSupport()
+    {
+    }
+
+    /**
+     * Returns true if the given class is one of the supported java.time types.
+     */
+    public static boolean isSupportedType(Class<?> type)
+    {
+        return type != null && KIND_IDS.containsKey(type.getName());
+    }
+
+    /**
+     * Converts the result of {@link Html5DateTimeFormatUtils#parseEpochMillis(CharSequence, int)} to an instance of
+     * the target type.
+     *
+     * @throws FacesException
+     *             if the target type is not supported.
+     */
+    public static Object fromEpochMillis(long millis, int resolvedType, Class<?> targetType) throws FacesException
+    {
+        Kind kind = _kind(targetType);
+        if (kind.isLocal())
+        {
+            long localMillis = resolvedType == Html5DateTimeFormatUtils.TYPE_DATETIME ? Html5DateTimeFormatUtils
+                    .toLocalEpochMillis(millis, TimeZone.getDefault()) : millis;
+            return kind.fromLocalMillis(localMillis);
+        }
+        else
+        {
+            long instant = resolvedType == Html5DateTimeFormatUtils.TYPE_DATETIME ? millis : Html5DateTimeFormatUtils
+                    .toInstant(millis, TimeZone.getDefault());
+            return kind.fromInstant(instant);
+        }
+    }
+
+    /**
+     * Converts the given java.time value to epoch millis as accepted by
+     * {@link Html5DateTimeFormatUtils#formatEpochMillis(long, int)}: the instant for
+     * {@link Html5DateTimeFormatUtils#TYPE_DATETIME}, the millis of the local fields for the other types.
+     *
+     * @throws FacesException
+     *             if the type of the value is not supported.
+     */
+    public static long toEpochMillis(Object value, int resolvedType) throws FacesException
+    {
+        Kind kind = _kind(value.getClass());
+        if (kind.isLocal())
+        {
+            long localMillis = kind.toLocalMillis(value);
+            return resolvedType == Html5DateTimeFormatUtils.TYPE_DATETIME ? Html5DateTimeFormatUtils.toInstant(
+                    localMillis, TimeZone.getDefault()) : localMillis;
+        }
+        else
+        {
+            long instant = kind.toInstant(value);
+            return resolvedType == Html5DateTimeFormatUtils.TYPE_DATETIME ? instant : Html5DateTimeFormatUtils
+                    .toLocalEpochMillis(instant, TimeZone.getDefault());
+        }
+    }
+
+    private static Kind _kind(Class<?> type)
+    {
+        Kind kind = KINDS.get(type);
+        if (kind == null)
+        {
+            Integer id = KIND_IDS.get(type.getName());
+            if (id == null)
+                throw new FacesException("Type " + type.getName() + " is not a supported java.time type.");
+
+            // no synchronization necessary, creating a Kind twice does no harm
+            kind = new Kind(id.intValue(), type);
+            KINDS.put(type, kind);
+        }
+        return kind;
+    }
+
+    private static long _floorDiv(long value, long divisor)
+    {
+        long quotient = value / divisor;
+        return (value % divisor) < 0 ? quotient - 1 : quotient;
+    }
+
+    private static long _floorMod(long value, long divisor)
+    {
+        long remainder = value % divisor;
+        return remainder < 0 ? remainder + divisor : remainder;
+    }
+
+    /**
+     * Reflective access to one java.time type.
+     */
+    private static final class Kind
+    {
+        private final int id;
+
+        private final Object utc;
+        private final Method factory;
+        private final Method accessor;
+        private final Method secondAccessor;
+        private final Method instantFactory;
+        private final Method instantAccessor;
+
+        private Kind(int id, Class<?> type)
+        {
+            this.id = id;
+            try
+            {
+                ClassLoader classLoader = type.getClassLoader();
+                Class<?> zoneOffsetClass = Class.forName("java.time.ZoneOffset", true, classLoader);
+                Class<?> instantClass = Class.forName("java.time.Instant", true, classLoader);
+                this.utc = zoneOffsetClass.getField("UTC").get(null);
+
+                switch (id)
+                {
+                    case LOCAL_DATE:
+                        factory = type.getMethod("ofEpochDay", long.class);
+                        accessor = type.getMethod("toEpochDay");
+                        secondAccessor = null;
+                        break;
+                    case LOCAL_TIME:
+                        factory = type.getMethod("ofNanoOfDay", long.class);
+                        accessor = type.getMethod("toNanoOfDay");
+                        secondAccessor = null;
+                        break;
+                    case LOCAL_DATE_TIME:
+                        factory = type.getMethod("ofEpochSecond", long.class, int.class, zoneOffsetClass);
+                        accessor = type.getMethod("toEpochSecond", zoneOffsetClass);
+                        secondAccessor = type.getMethod("getNano");
+                        break;
+                    case YEAR_MONTH:
+                        factory = type.getMethod("of", int.class, int.class);
+                        accessor = type.getMethod("getYear");
+                        secondAccessor = type.getMethod("getMonthValue");
+                        break;
+                    case OFFSET_DATE_TIME:
+                        factory = type.getMethod("ofInstant", instantClass,
+                                Class.forName("java.time.ZoneId", true, classLoader));
+                        accessor = type.getMethod("toInstant");
+                        secondAccessor = null;
+                        break;
+                    default:
+                        factory = null;
+                        accessor = null;
+                        secondAccessor = null;
+                        break;
+                }
+
+                instantFactory = instantClass.getMethod("ofEpochMilli", long.class);
+                instantAccessor = instantClass.getMethod("toEpochMilli");
+            }
+            catch (Exception e)
+            {
+                throw new FacesException("Unable to access java.time type " + type.getName() + ".", e);
+            }
+        }
+
+        private boolean isLocal()
+        {
+            return id != OFFSET_DATE_TIME && id != INSTANT;
+        }
+
+        private Object fromLocalMillis(long millis)
+        {
+            switch (id)
+            {
+                case LOCAL_DATE:
+                    return _invoke(factory, null, Long.valueOf(_floorDiv(millis, MILLIS_PER_DAY)));
+                case LOCAL_TIME:
+                    return _invoke(factory, null, Long.valueOf(_floorMod(millis, MILLIS_PER_DAY) * 1000000L));
+                case LOCAL_DATE_TIME:
+                    return _invoke(factory, null, Long.valueOf(_floorDiv(millis, 1000L)),
+                            Integer.valueOf((int) _floorMod(millis, 1000L) * 1000000), utc);
+                default:
+                    long civil = Html5DateTimeFormatUtils.civilFromDays(_floorDiv(millis, MILLIS_PER_DAY));
+                    return _invoke(factory, null, Integer.valueOf((int) (civil >> 9)),
+                            Integer.valueOf((int) ((civil >> 5) & 0xF)));
+            }
+        }
+
+        private long toLocalMillis(Object value)
+        {
+            switch (id)
+            {
+                case LOCAL_DATE:
+                    return ((Long) _invoke(accessor, value)).longValue() * MILLIS_PER_DAY;
+                case LOCAL_TIME:
+                    return ((Long) _invoke(accessor, value)).longValue() / 1000000L;
+                case LOCAL_DATE_TIME:
+                    return ((Long) _invoke(accessor, value, utc)).longValue() * 1000L
+                            + ((Integer) _invoke(secondAccessor, value)).intValue() / 1000000;
+                default:
+                    int year = ((Integer) _invoke(accessor, value)).intValue();
+                    int month = ((Integer) _invoke(secondAccessor, value)).intValue();
+                    return Html5DateTimeFormatUtils.daysFromCivil(year, month, 1) * MILLIS_PER_DAY;
+            }
+        }
+
+        private Object fromInstant(long millis)
+        {
+            Object instant = _invoke(instantFactory, null, Long.valueOf(millis));
+            if (id == INSTANT)
+                return instant;
+
+            return _invoke(factory, null, instant, utc);
+        }
+
+        private long toInstant(Object value)
+        {
+            Object instant = id == INSTANT ? value : _invoke(accessor, value);
+            return ((Long) _invoke(instantAccessor, instant)).longValue();
+        }
+
+        private static Object _invoke(Method method, Object target, Object... args)
+        {
+            try
+            {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException e)
+            {
+                throw new FacesException(e.getCause());
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new FacesException(e);
+            }
+        }
+    }
+}
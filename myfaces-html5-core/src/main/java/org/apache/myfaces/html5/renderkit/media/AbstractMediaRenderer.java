@@ -18,14 +18,17 @@
  */
 package org.apache.myfaces.html5.renderkit.media;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.faces.FacesException;
+import javax.faces.application.Resource;
 import javax.faces.component.UIComponent;
 import javax.faces.component.behavior.ClientBehavior;
 import javax.faces.component.behavior.ClientBehaviorHolder;
@@ -34,10 +37,15 @@ import javax.faces.context.ResponseWriter;
 import javax.faces.render.Renderer;
 
 import org.apache.myfaces.commons.util.DebugUtils;
+import org.apache.myfaces.html5.application.MediaResourceHandler;
 import org.apache.myfaces.html5.component.media.AbstractMedia;
 import org.apache.myfaces.html5.model.MediaInfo;
+import org.apache.myfaces.html5.renderkit.media.util.MediaMetadata;
+import org.apache.myfaces.html5.renderkit.media.util.MediaProbe;
 import org.apache.myfaces.html5.renderkit.util.HTML5;
 import org.apache.myfaces.html5.renderkit.util.Html5RendererUtils;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+import org.apache.myfaces.html5.renderkit.util.JsfProperties;
 import org.apache.myfaces.html5.renderkit.util.RendererUtils;
 
 /**
@@ -52,6 +60,17 @@ public abstract class AbstractMediaRenderer extends Renderer
 
     protected static final String FACET_FALLBACK = "fallback";
 
+    protected static final String LOADING_EAGER = "eager";
+    protected static final String LOADING_LAZY = "lazy";
+
+    private static final String RENDERED_CAPABILITY_PROBE = AbstractMediaRenderer.class.getName()
+            + ".RENDERED_CAPABILITY_PROBE";
+    private static final String RENDERED_LAZY_LOADING_SCRIPT = AbstractMediaRenderer.class.getName()
+            + ".RENDERED_LAZY_LOADING_SCRIPT";
+
+    private static final String LAZY_LOADING_SCRIPT_NAME = "media.js";
+    private static final String LAZY_LOADING_SCRIPT_LIBRARY = "org.apache.myfaces.html5";
+
     @Override
     public void encodeBegin(FacesContext facesContext, UIComponent uiComponent) throws IOException
     {
@@ -71,12 +90,16 @@ public abstract class AbstractMediaRenderer extends Renderer
         // write id
         writer.writeAttribute(HTML5.ID_ATTR, component.getClientId(facesContext), null);
 
+        boolean lazy = isLazy(facesContext, component);
+        if (lazy)
+            writer.writeAttribute(HTML5.DATA_LOADING_ATTR, LOADING_LAZY, null);
+
         // get the value and render the src attr
         String src = RendererUtils.getStringValue(facesContext, component);
         if (log.isLoggable(Level.FINE))
             log.fine("writing src '" + src + "'");
         if (src != null && src.length() > 0)
-            writer.writeAttribute(HTML5.SRC_ATTR, src, "value");
+            writer.writeAttribute(lazy ? HTML5.DATA_SRC_ATTR : HTML5.SRC_ATTR, resolveSrc(facesContext, src), "value");
 
         // no need to check the value of preload, it is bypassed anyway.
         // _checkPreload(component);
@@ -93,8 +116,21 @@ public abstract class AbstractMediaRenderer extends Renderer
         Html5RendererUtils.renderPassThroughClientBehaviorEventHandlers(facesContext, uiComponent,
                 getPassThroughClientBehaviorEvents(), clientBehaviors);
 
-        Html5RendererUtils.renderPassThroughAttributes(facesContext.getResponseWriter(), uiComponent,
-                getPassThroughAttributes());
+        ResponseWriter writer = facesContext.getResponseWriter();
+        if (isLazy(facesContext, uiComponent))
+        {
+            // nothing is preloaded until media.js promotes the preload value
+            writer.writeAttribute(HTML5.PRELOAD_ATTR, "none", null);
+            String preload = ((AbstractMedia) uiComponent).getPreload();
+            if (preload != null)
+                writer.writeAttribute(HTML5.DATA_PRELOAD_ATTR, preload, JsfProperties.PRELOAD_PROP);
+
+            Html5RendererUtils.renderPassThroughAttributes(writer, uiComponent, getLazyPassThroughAttributes());
+        }
+        else
+        {
+            Html5RendererUtils.renderPassThroughAttributes(writer, uiComponent, getPassThroughAttributes());
+        }
     }
 
     protected abstract Map<String, String> getPassThroughClientBehaviorEvents();
@@ -104,6 +140,24 @@ public abstract class AbstractMediaRenderer extends Renderer
 
     protected abstract Map<String, String> getPassThroughAttributes();
 
+    /**
+     * Returns the pass through attributes of the lazy loading mode, which must not contain "preload".
+     */
+    protected abstract Map<String, String> getLazyPassThroughAttributes();
+
+    /**
+     * Returns true if the component is rendered in lazy loading mode, see {@link AbstractMedia#getLoading()}.
+     */
+    protected boolean isLazy(FacesContext facesContext, UIComponent uiComponent)
+    {
+        String loading = ((AbstractMedia) uiComponent).getLoading();
+        if (loading == null || loading.length() == 0)
+            loading = Html5WebConfigParams.getStringInitParameter(facesContext.getExternalContext(),
+                    Html5WebConfigParams.MEDIA_LOADING, LOADING_EAGER);
+
+        return LOADING_LAZY.equals(loading);
+    }
+
     @Override
     public void encodeChildren(FacesContext facesContext, UIComponent uiComponent) throws IOException
     {
@@ -130,6 +184,11 @@ public abstract class AbstractMediaRenderer extends Renderer
         ResponseWriter writer = facesContext.getResponseWriter();
 
         writer.endElement(getHtmlElementName());
+
+        if (isLazy(facesContext, component))
+            renderLazyLoadingScript(facesContext, component);
+
+        renderCapabilityProbe(facesContext, component);
     }
 
     @Override
@@ -139,7 +198,9 @@ public abstract class AbstractMediaRenderer extends Renderer
     }
 
     /**
-     * Renders extracted media sources.
+     * Renders extracted media sources. Missing content types and codecs of media library sources are filled by
+     * probing the files, see {@link #fillMediaInfos(FacesContext, Collection)}. If media source negotiation is
+     * enabled, only the sources playable for the {@link MediaCapabilities} of the request are rendered, best first.
      */
     protected void renderMediaSources(FacesContext facesContext, UIComponent uiComponent) throws IOException
     {
@@ -149,9 +210,16 @@ public abstract class AbstractMediaRenderer extends Renderer
         AbstractMedia component = (AbstractMedia) uiComponent;
 
         // render MediaInfo instances
-        Set<MediaInfo> mediaInfoSet = component.getMediaInfos();
+        Collection<MediaInfo> mediaInfoSet = component.getMediaInfos();
         if (mediaInfoSet != null)
         {
+            mediaInfoSet = fillMediaInfos(facesContext, mediaInfoSet);
+
+            MediaCapabilities capabilities = MediaCapabilities.getInstance(facesContext);
+            if (capabilities != null)
+                mediaInfoSet = capabilities.negotiate(mediaInfoSet);
+
+            String srcAttr = isLazy(facesContext, uiComponent) ? HTML5.DATA_SRC_ATTR : HTML5.SRC_ATTR;
             for (MediaInfo mediaInfo : mediaInfoSet)
             {
                 if (mediaInfo.isDisabled())
@@ -164,7 +232,7 @@ public abstract class AbstractMediaRenderer extends Renderer
                     // WIKI: add a wiki page
                     throw new FacesException("'src' field of MediaInfo has to be defined and nonempty for component " + DebugUtils.getPathToComponent(uiComponent) + ".");
 
-                writer.writeAttribute(HTML5.SRC_ATTR, mediaInfo.getSrc(), null);
+                writer.writeAttribute(srcAttr, resolveSrc(facesContext, mediaInfo.getSrc()), null);
 
                 String typeVal = _getTypeForSource(mediaInfo);
                 if (typeVal != null) // write even if empty str
@@ -178,6 +246,142 @@ public abstract class AbstractMediaRenderer extends Renderer
         }
     }
 
+    /**
+     * Resolves "library:name" values of a media library (see {@link MediaResourceHandler}) to the request path of the
+     * resource. Other values are returned as they are.
+     */
+    protected String resolveSrc(FacesContext facesContext, String src)
+    {
+        int colon = src.indexOf(':');
+        if (colon <= 0 || colon == src.length() - 1)
+            return src;
+
+        String libraryName = src.substring(0, colon);
+        if (!MediaResourceHandler.isMediaLibrary(facesContext.getExternalContext(), libraryName))
+            return src;
+
+        Resource resource = facesContext.getApplication().getResourceHandler().createResource(
+                src.substring(colon + 1), libraryName);
+        if (resource == null)
+        {
+            if (log.isLoggable(Level.WARNING))
+                log.warning("media resource '" + src + "' can not be found.");
+            return src;
+        }
+        return resource.getRequestPath();
+    }
+
+    /**
+     * Returns the media infos, where the ones with a "library:name" source of a media library and without a content
+     * type or codec are replaced with copies filled by {@link MediaProbe}. Given instances are not modified.
+     */
+    protected Collection<MediaInfo> fillMediaInfos(FacesContext facesContext, Collection<MediaInfo> mediaInfos)
+    {
+        List<MediaInfo> filled = null;
+        int index = 0;
+        for (MediaInfo mediaInfo : mediaInfos)
+        {
+            MediaInfo filledInfo = _fillMediaInfo(facesContext, mediaInfo);
+            if (filledInfo != mediaInfo && filled == null)
+                filled = new ArrayList<MediaInfo>(mediaInfos);
+            if (filled != null)
+                filled.set(index, filledInfo);
+            index++;
+        }
+        return filled == null ? mediaInfos : filled;
+    }
+
+    private MediaInfo _fillMediaInfo(FacesContext facesContext, MediaInfo mediaInfo)
+    {
+        String src = mediaInfo.getSrc();
+        String contentType = mediaInfo.getContentType();
+        String codec = mediaInfo.getCodec();
+        if (src == null || mediaInfo.isDisabled()
+                || (contentType != null && contentType.length() > 0 && codec != null && codec.length() > 0))
+            return mediaInfo;
+
+        int colon = src.indexOf(':');
+        if (colon <= 0 || colon == src.length() - 1)
+            return mediaInfo;
+
+        String libraryName = src.substring(0, colon);
+        if (!MediaResourceHandler.isMediaLibrary(facesContext.getExternalContext(), libraryName))
+            return mediaInfo;
+
+        File file = MediaResourceHandler.findMediaFile(facesContext.getExternalContext(), libraryName, src
+                .substring(colon + 1));
+        MediaMetadata metadata = file == null ? null : MediaProbe.getMetadata(facesContext, file);
+        if (metadata == null)
+            return mediaInfo;
+
+        boolean contentTypeDefined = contentType != null && contentType.length() > 0;
+        if (!contentTypeDefined)
+            contentType = metadata.getContentType();
+
+        // probed codecs only fit the probed content type
+        if ((codec == null || codec.length() == 0)
+                && (!contentTypeDefined || contentType.equalsIgnoreCase(metadata.getContentType())))
+            codec = metadata.getCodecs();
+
+        if (log.isLoggable(Level.FINE))
+            log.fine("filled media info '" + src + "' with '" + contentType + "', '" + codec + "'");
+
+        return new MediaInfo(src, contentType, codec, mediaInfo.getMedia(), mediaInfo.isDisabled(), mediaInfo
+                .getQuality());
+    }
+
+    /**
+     * Renders the script element of media.js, which loads the lazy media near the viewport, once per request. The
+     * script is not a resource dependency, so pages without lazy media don't load it.
+     */
+    protected void renderLazyLoadingScript(FacesContext facesContext, UIComponent uiComponent) throws IOException
+    {
+        Map<Object, Object> attributes = facesContext.getAttributes();
+        if (attributes.containsKey(RENDERED_LAZY_LOADING_SCRIPT))
+            return;
+        attributes.put(RENDERED_LAZY_LOADING_SCRIPT, Boolean.TRUE);
+
+        Resource resource = facesContext.getApplication().getResourceHandler().createResource(
+                LAZY_LOADING_SCRIPT_NAME, LAZY_LOADING_SCRIPT_LIBRARY);
+        if (resource == null)
+        {
+            if (log.isLoggable(Level.WARNING))
+                log.warning("lazy loading script '" + LAZY_LOADING_SCRIPT_NAME + "' can not be found.");
+            return;
+        }
+
+        ResponseWriter writer = facesContext.getResponseWriter();
+        writer.startElement(HTML5.SCRIPT_ELEM, null);
+        writer.writeAttribute(HTML5.SCRIPT_TYPE_ATTR, HTML5.SCRIPT_TYPE_TEXT_JAVASCRIPT, null);
+        writer.writeURIAttribute(HTML5.SRC_ATTR, resource.getRequestPath(), null);
+        writer.endElement(HTML5.SCRIPT_ELEM);
+    }
+
+    /**
+     * Renders the script which writes the capability cookie, once per request, if media source negotiation is enabled
+     * and the cookie is not sent yet.
+     */
+    protected void renderCapabilityProbe(FacesContext facesContext, UIComponent uiComponent) throws IOException
+    {
+        MediaCapabilities capabilities = MediaCapabilities.getInstance(facesContext);
+        if (capabilities == null || capabilities.isProbed())
+            return;
+
+        Map<Object, Object> attributes = facesContext.getAttributes();
+        if (attributes.containsKey(RENDERED_CAPABILITY_PROBE))
+            return;
+        attributes.put(RENDERED_CAPABILITY_PROBE, Boolean.TRUE);
+
+        if (log.isLoggable(Level.FINE))
+            log.fine("rendering media capability probe");
+
+        ResponseWriter writer = facesContext.getResponseWriter();
+        writer.startElement(HTML5.SCRIPT_ELEM, null);
+        writer.writeAttribute(HTML5.TYPE_ATTR, "text/javascript", null);
+        writer.writeText(MediaCapabilities.getProbeScript(), null);
+        writer.endElement(HTML5.SCRIPT_ELEM);
+    }
+
     protected void renderFallbackFacet(FacesContext facesContext, UIComponent uiComponent) throws IOException
     {
         UIComponent fallbackFacet = uiComponent.getFacet(FACET_FALLBACK);
@@ -191,7 +395,7 @@ public abstract class AbstractMediaRenderer extends Renderer
 
     /**
      * Returns the value of "type" attribute of Html5 <source> element. <br/>
-     * e.g.: 'video/mp4;codecs="avc1.4D401E, mp4a.40.2"'
+     * e.g.: 'video/mp4; codecs="avc1.4D401E, mp4a.40.2"'
      */
     private String _getTypeForSource(MediaInfo mediaInfo)
     {
@@ -215,7 +419,7 @@ public abstract class AbstractMediaRenderer extends Renderer
             // aliok: I tried <video> <source> with no codec on browser, and no problem experienced.
             if (codecDefined)
             {
-                builder.append("; codec='").append(codec).append("'");
+                builder.append("; codecs=\"").append(codec).append('"');
             }
 
             retVal = builder.toString();
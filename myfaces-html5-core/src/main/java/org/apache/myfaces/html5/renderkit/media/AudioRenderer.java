@@ -54,6 +54,12 @@ public class AudioRenderer extends AbstractMediaRenderer
     {
         return PassThroughAttributes.AUDIO;
     }
+
+    @Override
+    protected Map<String, String> getLazyPassThroughAttributes()
+    {
+        return PassThroughAttributes.LAZY_AUDIO;
+    }
     
     @Override
     protected Map<String, String> getPassThroughClientBehaviorEvents()
@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.media;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import org.apache.myfaces.html5.model.MediaInfo;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+
+/**
+ * Immutable profile of the media content types a client is able to play, used to negotiate the &lt;source&gt;
+ * elements of media components. <br/>
+ * A profile is made of
+ * <ul>
+ * <li>the capability cookie, which is written by the probe script of {@link #getProbeScript()} with the results of
+ * <code>canPlayType(...)</code> for {@link #PROBED_CONTENT_TYPES},</li>
+ * <li>a few content types known to be unplayable for the <code>User-Agent</code>, used until the cookie is set.</li>
+ * </ul>
+ * The <code>Accept</code> header of a page request says nothing about the media a browser plays, so it is not used.
+ * Profiles are parsed once per distinct combination of the cookie and the class of the <code>User-Agent</code>
+ * (legacy Internet Explorer, Safari or other) and kept in an application scoped LRU cache, so the many versions and
+ * platforms of a browser share one entry.
+ * <br/>
+ * Since the rendered page depends on these headers, {@link #getInstance(FacesContext)} adds
+ * <code>Vary: {@value #VARY_HEADER_VALUE}</code> to the response, so shared caches do not hand a negotiated page
+ * to other clients.
+ * 
+ * @author Ali Ok
+ * @see Html5WebConfigParams#MEDIA_SOURCE_NEGOTIATION_ENABLED
+ */
+public final class MediaCapabilities
+{
+    /**
+     * Name of the capability cookie. Its value is the url encoded, comma separated list of
+     * <code>contentType:1</code> (playable) and <code>contentType:0</code> (not playable) entries.
+     */
+    public static final String COOKIE_NAME = "myfaces_html5_media";
+
+    /**
+     * Content types probed by the script of {@link #getProbeScript()}.
+     */
+    public static final String[] PROBED_CONTENT_TYPES = { "video/mp4", "video/webm", "video/ogg", "audio/mp4",
+            "audio/mpeg", "audio/webm", "audio/ogg", "audio/wav", "audio/flac" };
+
+    /**
+     * Value of the <code>Vary</code> header added to responses with negotiated sources.
+     */
+    public static final String VARY_HEADER_VALUE = "Cookie, User-Agent";
+
+    private static final String REQUEST_KEY = MediaCapabilities.class.getName();
+    private static final String APPLICATION_MAP_KEY = MediaCapabilities.class.getName() + ".CACHE";
+    private static final int CACHE_SIZE = 256;
+
+    private static final List<String> LEGACY_IE_UNPLAYABLE = Arrays.asList("video/webm", "video/ogg", "audio/webm",
+            "audio/ogg", "audio/wav", "audio/flac");
+    private static final List<String> SAFARI_UNPLAYABLE = Arrays.asList("video/ogg", "audio/ogg");
+
+    // classes of user agents with different known unplayable types
+    private static final String LEGACY_IE_USER_AGENT = "legacy-ie";
+    private static final String SAFARI_USER_AGENT = "safari";
+    private static final String OTHER_USER_AGENT = "other";
+
+    private static final float PROBED_PLAYABLE_FACTOR = 2F;
+
+    private static final MediaCapabilities UNKNOWN = new MediaCapabilities(Collections.<String, Boolean> emptyMap(),
+            false);
+
+    private final Map<String, Boolean> _playable;
+    private final boolean _probed;
+
+    private MediaCapabilities(Map<String, Boolean> playable, boolean probed)
+    {
+        this._playable = playable;
+        this._probed = probed;
+    }
+
+    /**
+     * Returns the profile of the current request, or null if media source negotiation is disabled. The first call of
+     * a request with negotiation adds the <code>Vary</code> header to the response, unless it is committed already.
+     */
+    public static MediaCapabilities getInstance(FacesContext facesContext)
+    {
+        Map<Object, Object> attributes = facesContext.getAttributes();
+        Object instance = attributes.get(REQUEST_KEY);
+        if (instance == null)
+        {
+            ExternalContext externalContext = facesContext.getExternalContext();
+            boolean enabled = Html5WebConfigParams.getBooleanInitParameter(externalContext,
+                    Html5WebConfigParams.MEDIA_SOURCE_NEGOTIATION_ENABLED, false);
+
+            // Boolean.FALSE marks a request without negotiation
+            instance = enabled ? _getCachedInstance(externalContext) : Boolean.FALSE;
+            attributes.put(REQUEST_KEY, instance);
+
+            if (enabled && !externalContext.isResponseCommitted())
+                externalContext.addResponseHeader("Vary", VARY_HEADER_VALUE);
+        }
+        return instance instanceof MediaCapabilities ? (MediaCapabilities) instance : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MediaCapabilities _getCachedInstance(ExternalContext externalContext)
+    {
+        Map<String, String> headers = externalContext.getRequestHeaderMap();
+        String userAgentClass = _classifyUserAgent(headers.get("User-Agent"));
+        String cookie = _findCookieValue(headers.get("Cookie"));
+
+        String key = userAgentClass + '\u0000' + cookie;
+
+        Map<String, Object> applicationMap = externalContext.getApplicationMap();
+        Map<String, MediaCapabilities> cache = (Map<String, MediaCapabilities>) applicationMap.get(APPLICATION_MAP_KEY);
+        if (cache == null)
+        {
+            // a concurrently created cache is simply replaced
+            cache = Collections.synchronizedMap(new LinkedHashMap<String, MediaCapabilities>(16, 0.75F, true)
+            {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MediaCapabilities> eldest)
+                {
+                    return size() > CACHE_SIZE;
+                }
+            });
+            applicationMap.put(APPLICATION_MAP_KEY, cache);
+        }
+
+        MediaCapabilities capabilities = cache.get(key);
+        if (capabilities == null)
+        {
+            capabilities = _parse(userAgentClass, cookie);
+            cache.put(key, capabilities);
+        }
+        return capabilities;
+    }
+
+    /**
+     * Parses a profile. All parameters are optional.
+     * 
+     * @param cookie
+     *            value of the capability cookie, see {@link #COOKIE_NAME}
+     */
+    public static MediaCapabilities parse(String userAgent, String cookie)
+    {
+        return _parse(_classifyUserAgent(userAgent), cookie);
+    }
+
+    private static MediaCapabilities _parse(String userAgentClass, String cookie)
+    {
+        Map<String, Boolean> playable = new HashMap<String, Boolean>();
+        boolean probed = _parseCookie(cookie, playable);
+        if (!probed)
+            _applyUserAgent(userAgentClass, playable);
+
+        if (playable.isEmpty())
+            return UNKNOWN;
+
+        return new MediaCapabilities(playable, probed);
+    }
+
+    /**
+     * Returns true if the profile contains the results of the probe script.
+     */
+    public boolean isProbed()
+    {
+        return _probed;
+    }
+
+    /**
+     * Returns the preference of the content type for the client. 0 means not playable; types known to be playable are
+     * preferred to unknown ones. A content type of null or empty string is unknown.
+     */
+    public float getPreference(String contentType)
+    {
+        String type = _normalizeType(contentType);
+        Boolean playable = type == null ? null : _playable.get(type);
+        if (Boolean.FALSE.equals(playable))
+            return 0F;
+
+        return Boolean.TRUE.equals(playable) ? PROBED_PLAYABLE_FACTOR : 1F;
+    }
+
+    /**
+     * Returns the enabled media infos which are playable for the client, ordered by preference and quality (both
+     * descending). If none of them is playable, all enabled media infos are returned in their original order, so the
+     * browser can still decide.
+     */
+    public List<MediaInfo> negotiate(Collection<MediaInfo> mediaInfos)
+    {
+        List<MediaInfo> enabled = new ArrayList<MediaInfo>(mediaInfos.size());
+        final List<MediaInfo> playable = new ArrayList<MediaInfo>(mediaInfos.size());
+        final Map<MediaInfo, Float> preferences = new HashMap<MediaInfo, Float>();
+
+        for (MediaInfo mediaInfo : mediaInfos)
+        {
+            if (mediaInfo.isDisabled())
+                continue;
+
+            enabled.add(mediaInfo);
+
+            float preference = getPreference(mediaInfo.getContentType());
+            if (preference > 0F)
+            {
+                playable.add(mediaInfo);
+                preferences.put(mediaInfo, Float.valueOf(preference));
+            }
+        }
+
+        if (playable.isEmpty())
+            return enabled;
+
+        // stable, so equal sources keep their order
+        Collections.sort(playable, new Comparator<MediaInfo>()
+        {
+            public int compare(MediaInfo o1, MediaInfo o2)
+            {
+                int result = preferences.get(o2).compareTo(preferences.get(o1));
+                if (result != 0)
+                    return result;
+                return o2.getQuality() < o1.getQuality() ? -1 : (o2.getQuality() == o1.getQuality() ? 0 : 1);
+            }
+        });
+        return playable;
+    }
+
+    /**
+     * Returns the script which probes {@link #PROBED_CONTENT_TYPES} and writes the capability cookie, so the following
+     * requests are negotiated with the capabilities of the browser.
+     */
+    public static String getProbeScript()
+    {
+        StringBuilder script = new StringBuilder(320);
+        script.append("(function(){var m=document.createElement('video'),t=[");
+        for (int i = 0; i < PROBED_CONTENT_TYPES.length; i++)
+        {
+            if (i > 0)
+                script.append(',');
+            script.append('\'').append(PROBED_CONTENT_TYPES[i]).append('\'');
+        }
+        script.append("],r=[],i;if(!m.canPlayType)return;for(i=0;i<t.length;i++){r.push(t[i]+(m.canPlayType(t[i])?':1':':0'));}");
+        script.append("document.cookie='").append(COOKIE_NAME);
+        script.append("='+encodeURIComponent(r.join(','))+';path=/;max-age=31536000';})();");
+        return script.toString();
+    }
+
+    private static String _findCookieValue(String cookieHeader)
+    {
+        if (cookieHeader == null)
+            return null;
+
+        for (String cookie : cookieHeader.split(";"))
+        {
+            int separator = cookie.indexOf('=');
+            if (separator > 0 && COOKIE_NAME.equals(cookie.substring(0, separator).trim()))
+                return cookie.substring(separator + 1).trim();
+        }
+        return null;
+    }
+
+    private static boolean _parseCookie(String cookie, Map<String, Boolean> playable)
+    {
+        if (cookie == null || cookie.length() == 0)
+            return false;
+
+        String value;
+        try
+        {
+            value = URLDecoder.decode(cookie, "UTF-8");
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            return false;
+        }
+        catch (IllegalArgumentException e)
+        {
+            // malformed value, ignore the cookie
+            return false;
+        }
+
+        boolean probed = false;
+        for (String entry : value.split(","))
+        {
+            int separator = entry.lastIndexOf(':');
+            if (separator < 0)
+                continue;
+
+            String type = _normalizeType(entry.substring(0, separator));
+            if (type == null)
+                continue;
+
+            playable.put(type, Boolean.valueOf("1".equals(entry.substring(separator + 1).trim())));
+            probed = true;
+        }
+        return probed;
+    }
+
+    /**
+     * Returns the class of the user agent, which is all {@link #_applyUserAgent(String, Map)} depends on.
+     */
+    private static String _classifyUserAgent(String userAgent)
+    {
+        if (userAgent == null)
+            return OTHER_USER_AGENT;
+
+        if (userAgent.indexOf("MSIE ") >= 0 || userAgent.indexOf("Trident/") >= 0)
+            return LEGACY_IE_USER_AGENT;
+
+        if (userAgent.indexOf("Safari/") >= 0 && userAgent.indexOf("Version/") >= 0
+                && userAgent.indexOf("Chrome/") < 0 && userAgent.indexOf("Chromium/") < 0
+                && userAgent.indexOf("Android") < 0)
+            return SAFARI_USER_AGENT;
+
+        return OTHER_USER_AGENT;
+    }
+
+    private static void _applyUserAgent(String userAgentClass, Map<String, Boolean> playable)
+    {
+        List<String> unplayable = null;
+        if (LEGACY_IE_USER_AGENT.equals(userAgentClass))
+            unplayable = LEGACY_IE_UNPLAYABLE;
+        else if (SAFARI_USER_AGENT.equals(userAgentClass))
+            unplayable = SAFARI_UNPLAYABLE;
+
+        if (unplayable != null)
+        {
+            for (String type : unplayable)
+                playable.put(type, Boolean.FALSE);
+        }
+    }
+
+    /**
+     * Returns the lower cased content type without parameters, or null if it is not of the form type/subtype.
+     */
+    private static String _normalizeType(String contentType)
+    {
+        if (contentType == null)
+            return null;
+
+        int end = contentType.indexOf(';');
+        String type = (end < 0 ? contentType : contentType.substring(0, end)).trim().toLowerCase(Locale.ENGLISH);
+        return type.indexOf('/') > 0 ? type : null;
+    }
+}
@@ -55,6 +55,12 @@ public class VideoRenderer extends AbstractMediaRenderer
         return PassThroughAttributes.VIDEO;
     }
 
+    @Override
+    protected Map<String, String> getLazyPassThroughAttributes()
+    {
+        return PassThroughAttributes.LAZY_VIDEO;
+    }
+
     @Override
     protected Map<String, String> getPassThroughClientBehaviorEvents()
     {
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.media.util;
+
+/**
+ * Immutable result of a {@link MediaProbe}: the MIME content type of a media file and the RFC 6381 codec strings of
+ * its audio and video tracks.
+ * 
+ * @author Ali Ok
+ * 
+ */
+public final class MediaMetadata
+{
+    private final String _contentType;
+    private final String _codecs;
+
+    public MediaMetadata(String contentType, String codecs)
+    {
+        this._contentType = contentType;
+        this._codecs = codecs;
+    }
+
+    /**
+     * Returns the content type, e.g. "video/mp4". Null if the container is unknown.
+     */
+    public String getContentType()
+    {
+        return _contentType;
+    }
+
+    /**
+     * Returns the comma separated codec strings, e.g. "avc1.42E01E, mp4a.40.2". Null if the codec of any track can't
+     * be determined, since an incomplete list would make browsers refuse playable files.
+     */
+    public String getCodecs()
+    {
+        return _codecs;
+    }
+
+    @Override
+    public String toString()
+    {
+        return _codecs == null ? String.valueOf(_contentType) : _contentType + "; codecs=\"" + _codecs + "\"";
+    }
+}
@@ -0,0 +1,802 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.media.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.faces.context.FacesContext;
+
+/**
+ * Reads the content type and the RFC 6381 codec strings of MP4 (and QuickTime, 3GP), WebM/Matroska and Ogg files from
+ * their headers. <br/>
+ * Only the box/element headers on the way to the track descriptions (e.g. <code>moov/trak/mdia/minf/stbl/stsd</code>
+ * of MP4, <code>Segment/Tracks</code> of Matroska, the BOS pages of Ogg) are read, with positional reads of at most
+ * {@link #MAX_READ_BYTES} bytes in total per file. <br/>
+ * Results of {@link #getMetadata(FacesContext, File)} are kept in an application scoped LRU cache, keyed by path,
+ * size and modification time of the file.
+ * 
+ * @author Ali Ok
+ * 
+ */
+public final class MediaProbe
+{
+    private static final Logger log = Logger.getLogger(MediaProbe.class.getName());
+
+    /**
+     * Maximum number of bytes read from a file.
+     */
+    public static final int MAX_READ_BYTES = 8192;
+
+    private static final String APPLICATION_MAP_KEY = MediaProbe.class.getName();
+    private static final int CACHE_SIZE = 512;
+
+    // marks files which can't be probed in the cache
+    private static final MediaMetadata UNKNOWN = new MediaMetadata(null, null);
+
+    private static final int MAX_STSD_BYTES = 1024;
+    private static final int MAX_CODEC_PRIVATE_BYTES = 256;
+    private static final int MAX_OGG_BOS_PAGES = 16;
+
+    private static final int EBML_ID = 0x1A45DFA3;
+    private static final int EBML_DOC_TYPE_ID = 0x4282;
+    private static final int SEGMENT_ID = 0x18538067;
+    private static final int TRACKS_ID = 0x1654AE6B;
+    private static final int TRACK_ENTRY_ID = 0xAE;
+    private static final int TRACK_TYPE_ID = 0x83;
+    private static final int CODEC_ID_ID = 0x86;
+    private static final int CODEC_PRIVATE_ID = 0x63A2;
+    private static final int CLUSTER_ID = 0x1F43B675;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private MediaProbe()
+    {
+    }
+
+    /**
+     * Returns the cached metadata of the file, probing it if necessary.
+     * 
+     * @return null if the file can't be probed
+     */
+    @SuppressWarnings("unchecked")
+    public static MediaMetadata getMetadata(FacesContext facesContext, File file)
+    {
+        Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+        Map<String, MediaMetadata> cache = (Map<String, MediaMetadata>) applicationMap.get(APPLICATION_MAP_KEY);
+        if (cache == null)
+        {
+            // a concurrently created cache is simply replaced
+            cache = Collections.synchronizedMap(new LinkedHashMap<String, MediaMetadata>(16, 0.75F, true)
+            {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MediaMetadata> eldest)
+                {
+                    return size() > CACHE_SIZE;
+                }
+            });
+            applicationMap.put(APPLICATION_MAP_KEY, cache);
+        }
+
+        String key = file.getPath() + '\u0000' + file.length() + '\u0000' + file.lastModified();
+        MediaMetadata metadata = cache.get(key);
+        if (metadata == null)
+        {
+            try
+            {
+                metadata = probe(file);
+            }
+            catch (IOException e)
+            {
+                if (log.isLoggable(Level.WARNING))
+                    log.log(Level.WARNING, "media file '" + file + "' can not be probed", e);
+            }
+            if (metadata == null)
+                metadata = UNKNOWN;
+            cache.put(key, metadata);
+        }
+        return metadata == UNKNOWN ? null : metadata;
+    }
+
+    /**
+     * Probes the file, without caching.
+     * 
+     * @return null if the container format is not known
+     */
+    public static MediaMetadata probe(File file) throws IOException
+    {
+        FileInputStream in = new FileInputStream(file);
+        try
+        {
+            BoundedReader reader = new BoundedReader(in.getChannel());
+            byte[] magic = reader.read(0, 12);
+            if (magic.length < 12)
+                return null;
+
+            if (_equalsAscii(magic, 4, "ftyp"))
+                return _probeMp4(reader, _ascii(magic, 8, 4));
+            if (_readInt(magic, 0) == EBML_ID)
+                return _probeMatroska(reader);
+            if (_equalsAscii(magic, 0, "OggS"))
+                return _probeOgg(reader);
+
+            return null;
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    // ---------------------------- MP4
+
+    private static MediaMetadata _probeMp4(BoundedReader reader, String majorBrand) throws IOException
+    {
+        Set<String> codecs = new LinkedHashSet<String>();
+        boolean video = false;
+        boolean complete = false;
+
+        try
+        {
+            long[] moov = _findBox(reader, 0, reader.size(), "moov");
+            complete = moov != null;
+            for (long[] trak = moov == null ? null : _findBox(reader, moov[1], moov[2], "trak"); trak != null; trak = _findBox(
+                    reader, trak[2], moov[2], "trak"))
+            {
+                long[] mdia = _findBox(reader, trak[1], trak[2], "mdia");
+                long[] hdlr = mdia == null ? null : _findBox(reader, mdia[1], mdia[2], "hdlr");
+                if (hdlr == null)
+                {
+                    complete = false;
+                    continue;
+                }
+
+                // full box header (4 bytes) and pre_defined (4 bytes) precede the handler type
+                String handlerType = _ascii(reader.read(hdlr[1] + 8, 4), 0, 4);
+                boolean videoTrack = "vide".equals(handlerType);
+                if (!videoTrack && !"soun".equals(handlerType))
+                    continue;
+
+                video |= videoTrack;
+
+                long[] minf = _findBox(reader, mdia[1], mdia[2], "minf");
+                long[] stbl = minf == null ? null : _findBox(reader, minf[1], minf[2], "stbl");
+                long[] stsd = stbl == null ? null : _findBox(reader, stbl[1], stbl[2], "stsd");
+                String codec = null;
+                if (stsd != null)
+                {
+                    byte[] payload = reader.read(stsd[1], (int) Math.min(stsd[2] - stsd[1], MAX_STSD_BYTES));
+                    codec = _getSampleEntryCodec(payload, videoTrack);
+                }
+
+                if (codec == null)
+                    complete = false;
+                else
+                    codecs.add(codec);
+            }
+        }
+        catch (ReadLimitExceededException e)
+        {
+            complete = false;
+        }
+
+        String contentType;
+        if (majorBrand.equals("qt  "))
+            contentType = "video/quicktime";
+        else if (majorBrand.startsWith("3g"))
+            contentType = video ? "video/3gpp" : "audio/3gpp";
+        else
+            contentType = video || !complete ? "video/mp4" : "audio/mp4";
+
+        return new MediaMetadata(contentType, complete && !codecs.isEmpty() ? _join(codecs) : null);
+    }
+
+    /**
+     * Returns {type, payload start, end} of the first box with the type in the range, or null.
+     */
+    private static long[] _findBox(BoundedReader reader, long start, long end, String type) throws IOException
+    {
+        long position = start;
+        while (position + 8 <= end)
+        {
+            byte[] header = reader.read(position, 16);
+            if (header.length < 8)
+                return null;
+
+            long size = _readInt(header, 0) & 0xFFFFFFFFL;
+            int headerLength = 8;
+            if (size == 1)
+            {
+                if (header.length < 16)
+                    return null;
+                size = ((long) _readInt(header, 8) << 32) | (_readInt(header, 12) & 0xFFFFFFFFL);
+                headerLength = 16;
+            }
+            else if (size == 0)
+            {
+                size = end - position;
+            }
+
+            if (size < headerLength)
+                return null;
+
+            long boxEnd = Math.min(position + size, end);
+            if (_equalsAscii(header, 4, type))
+                return new long[] { position, position + headerLength, boxEnd };
+
+            position = boxEnd;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the codec string of the first sample entry of the stsd box payload, or null if it is not known.
+     */
+    private static String _getSampleEntryCodec(byte[] stsd, boolean video)
+    {
+        // full box header and entry_count precede the first entry
+        int entry = 8;
+        if (stsd.length < entry + 8)
+            return null;
+
+        int entryEnd = (int) Math.min(entry + (_readInt(stsd, entry) & 0xFFFFFFFFL), stsd.length);
+        String format = _ascii(stsd, entry + 4, 4);
+
+        // child boxes follow the fields of VisualSampleEntry and AudioSampleEntry
+        int children;
+        if (video)
+        {
+            children = entry + 86;
+        }
+        else
+        {
+            children = entry + 36;
+            if (stsd.length >= entry + 18)
+            {
+                int version = ((stsd[entry + 16] & 0xFF) << 8) | (stsd[entry + 17] & 0xFF);
+                children += version == 1 ? 16 : (version == 2 ? 36 : 0);
+            }
+        }
+
+        if (format.equals("avc1") || format.equals("avc3"))
+        {
+            int avcC = _findChildBox(stsd, children, entryEnd, "avcC");
+            if (avcC < 0 || avcC + 4 > entryEnd)
+                return null;
+            return format + "." + _hex(stsd[avcC + 1]) + _hex(stsd[avcC + 2]) + _hex(stsd[avcC + 3]);
+        }
+        if (format.equals("hvc1") || format.equals("hev1"))
+        {
+            int hvcC = _findChildBox(stsd, children, entryEnd, "hvcC");
+            return hvcC < 0 || hvcC + 13 > entryEnd ? null : _getHevcCodec(format, stsd, hvcC);
+        }
+        if (format.equals("vp09"))
+        {
+            int vpcC = _findChildBox(stsd, children, entryEnd, "vpcC");
+            if (vpcC < 0 || vpcC + 7 > entryEnd)
+                return null;
+            // full box header precedes profile, level and bit depth
+            return "vp09." + _pad2(stsd[vpcC + 4] & 0xFF) + "." + _pad2(stsd[vpcC + 5] & 0xFF) + "."
+                    + _pad2((stsd[vpcC + 6] & 0xFF) >> 4);
+        }
+        if (format.equals("av01"))
+        {
+            int av1C = _findChildBox(stsd, children, entryEnd, "av1C");
+            return av1C < 0 || av1C + 4 > entryEnd ? null : _getAv1Codec(stsd, av1C);
+        }
+        if (format.equals("mp4a"))
+        {
+            int esds = _findChildBox(stsd, children, entryEnd, "esds");
+            return esds < 0 ? null : _getEsdsCodec(stsd, esds + 4, entryEnd);
+        }
+        if (format.equals("Opus"))
+            return "opus";
+        if (format.equals("fLaC"))
+            return "flac";
+        if (format.equals("ac-3") || format.equals("ec-3"))
+            return format;
+
+        return null;
+    }
+
+    /**
+     * Returns the payload offset of the child box with the type, or -1.
+     */
+    private static int _findChildBox(byte[] bytes, int start, int end, String type)
+    {
+        int position = start;
+        while (position + 8 <= end)
+        {
+            long size = _readInt(bytes, position) & 0xFFFFFFFFL;
+            if (size < 8)
+                return -1;
+            if (_equalsAscii(bytes, position + 4, type))
+                return position + 8;
+            position += size;
+        }
+        return -1;
+    }
+
+    // ISO/IEC 14496-15, Annex E
+    private static String _getHevcCodec(String format, byte[] bytes, int hvcC)
+    {
+        int profileByte = bytes[hvcC + 1] & 0xFF;
+        int profileSpace = profileByte >> 6;
+        boolean highTier = (profileByte & 0x20) != 0;
+        int profileIdc = profileByte & 0x1F;
+
+        StringBuilder codec = new StringBuilder(format).append('.');
+        if (profileSpace > 0)
+            codec.append((char) ('A' + profileSpace - 1));
+        codec.append(profileIdc).append('.');
+        codec.append(Integer.toHexString(Integer.reverse(_readInt(bytes, hvcC + 2))).toUpperCase());
+        codec.append('.').append(highTier ? 'H' : 'L').append(bytes[hvcC + 12] & 0xFF);
+
+        int lastConstraint = 5;
+        while (lastConstraint >= 0 && bytes[hvcC + 6 + lastConstraint] == 0)
+            lastConstraint--;
+        for (int i = 0; i <= lastConstraint; i++)
+            codec.append('.').append(_hex(bytes[hvcC + 6 + i]));
+
+        return codec.toString();
+    }
+
+    // AV1 Codec ISO Media File Format Binding, section 5
+    private static String _getAv1Codec(byte[] bytes, int av1C)
+    {
+        int profile = (bytes[av1C + 1] & 0xFF) >> 5;
+        int level = bytes[av1C + 1] & 0x1F;
+        int flags = bytes[av1C + 2] & 0xFF;
+        int bitDepth = (flags & 0x40) == 0 ? 8 : ((flags & 0x20) == 0 ? 10 : 12);
+        return "av01." + profile + "." + _pad2(level) + ((flags & 0x80) == 0 ? 'M' : 'H') + "." + _pad2(bitDepth);
+    }
+
+    /**
+     * Returns the codec string of the ES_Descriptor starting at the offset, e.g. "mp4a.40.2".
+     */
+    private static String _getEsdsCodec(byte[] bytes, int offset, int end)
+    {
+        int[] position = { offset };
+        if (_readDescriptorTag(bytes, position, end) != 0x03 || position[0] + 3 > end)
+            return null;
+
+        int flags = bytes[position[0] + 2] & 0xFF;
+        position[0] += 3;
+        if ((flags & 0x80) != 0)
+            position[0] += 2;
+        if ((flags & 0x40) != 0 && position[0] < end)
+            position[0] += 1 + (bytes[position[0]] & 0xFF);
+        if ((flags & 0x20) != 0)
+            position[0] += 2;
+
+        if (_readDescriptorTag(bytes, position, end) != 0x04 || position[0] + 13 > end)
+            return null;
+
+        int objectType = bytes[position[0]] & 0xFF;
+        position[0] += 13;
+        if (objectType != 0x40)
+            return "mp4a." + _hex((byte) objectType);
+
+        if (_readDescriptorTag(bytes, position, end) != 0x05 || position[0] + 2 > end)
+            return null;
+
+        return _getAacCodec(bytes, position[0]);
+    }
+
+    /**
+     * Returns the codec string of an AudioSpecificConfig.
+     */
+    private static String _getAacCodec(byte[] bytes, int offset)
+    {
+        int audioObjectType = (bytes[offset] & 0xFF) >> 3;
+        if (audioObjectType == 31)
+            audioObjectType = 32 + (((bytes[offset] & 0x07) << 3) | ((bytes[offset + 1] & 0xFF) >> 5));
+        return "mp4a.40." + audioObjectType;
+    }
+
+    /**
+     * Reads the tag and size of a descriptor, and moves the position to its content.
+     */
+    private static int _readDescriptorTag(byte[] bytes, int[] position, int end)
+    {
+        if (position[0] >= end)
+            return -1;
+
+        int tag = bytes[position[0]++] & 0xFF;
+        for (int i = 0; i < 4 && position[0] < end; i++)
+        {
+            if ((bytes[position[0]++] & 0x80) == 0)
+                break;
+        }
+        return tag;
+    }
+
+    // ---------------------------- WebM / Matroska
+
+    private static MediaMetadata _probeMatroska(BoundedReader reader) throws IOException
+    {
+        Set<String> codecs = new LinkedHashSet<String>();
+        boolean video = false;
+        boolean complete = false;
+        String docType = null;
+
+        try
+        {
+            long[] ebml = _readElementHeader(reader, 0);
+            if (ebml == null)
+                return null;
+
+            for (long position = ebml[1]; position < ebml[1] + ebml[2];)
+            {
+                long[] child = _readElementHeader(reader, position);
+                if (child == null || child[2] < 0)
+                    break;
+                if (child[0] == EBML_DOC_TYPE_ID)
+                    docType = _ascii(reader.read(child[1], (int) Math.min(child[2], 32)), 0, -1).trim();
+                position = child[1] + child[2];
+            }
+
+            long[] segment = _readElementHeader(reader, ebml[1] + ebml[2]);
+            if (segment != null && segment[0] == SEGMENT_ID)
+            {
+                long segmentEnd = segment[2] < 0 ? reader.size() : segment[1] + segment[2];
+                for (long position = segment[1]; position < segmentEnd;)
+                {
+                    long[] child = _readElementHeader(reader, position);
+                    if (child == null || child[0] == CLUSTER_ID || child[2] < 0)
+                        break;
+
+                    if (child[0] == TRACKS_ID)
+                    {
+                        complete = true;
+                        long tracksEnd = child[1] + child[2];
+                        for (long entry = child[1]; entry < tracksEnd;)
+                        {
+                            long[] trackEntry = _readElementHeader(reader, entry);
+                            if (trackEntry == null || trackEntry[2] < 0)
+                            {
+                                complete = false;
+                                break;
+                            }
+                            if (trackEntry[0] == TRACK_ENTRY_ID)
+                            {
+                                String[] track = _readTrackEntry(reader, trackEntry);
+                                if ("1".equals(track[0]) || "2".equals(track[0]))
+                                {
+                                    video |= "1".equals(track[0]);
+                                    if (track[1] == null)
+                                        complete = false;
+                                    else
+                                        codecs.add(track[1]);
+                                }
+                            }
+                            entry = trackEntry[1] + trackEntry[2];
+                        }
+                        break;
+                    }
+                    position = child[1] + child[2];
+                }
+            }
+        }
+        catch (ReadLimitExceededException e)
+        {
+            complete = false;
+        }
+
+        boolean webm = "webm".equals(docType);
+        String contentType = (video || !complete ? "video/" : "audio/") + (webm ? "webm" : "x-matroska");
+        return new MediaMetadata(contentType, complete && !codecs.isEmpty() ? _join(codecs) : null);
+    }
+
+    /**
+     * Returns {track type, codec string} of the TrackEntry.
+     */
+    private static String[] _readTrackEntry(BoundedReader reader, long[] trackEntry) throws IOException
+    {
+        String trackType = null;
+        String codecId = null;
+        long[] codecPrivate = null;
+
+        long end = trackEntry[1] + trackEntry[2];
+        for (long position = trackEntry[1]; position < end;)
+        {
+            long[] child = _readElementHeader(reader, position);
+            if (child == null || child[2] < 0)
+                break;
+
+            if (child[0] == TRACK_TYPE_ID && child[2] > 0)
+                trackType = String.valueOf(reader.read(child[1], 1)[0] & 0xFF);
+            else if (child[0] == CODEC_ID_ID)
+                codecId = _ascii(reader.read(child[1], (int) Math.min(child[2], 64)), 0, -1);
+            else if (child[0] == CODEC_PRIVATE_ID)
+                codecPrivate = child;
+
+            position = child[1] + child[2];
+        }
+
+        return new String[] { trackType, _getMatroskaCodec(reader, codecId, codecPrivate) };
+    }
+
+    private static String _getMatroskaCodec(BoundedReader reader, String codecId, long[] codecPrivate)
+            throws IOException
+    {
+        if (codecId == null)
+            return null;
+        if (codecId.equals("V_VP8"))
+            return "vp8";
+        if (codecId.equals("V_VP9"))
+            return "vp9";
+        if (codecId.equals("V_THEORA"))
+            return "theora";
+        if (codecId.equals("A_VORBIS"))
+            return "vorbis";
+        if (codecId.equals("A_OPUS"))
+            return "opus";
+        if (codecId.equals("A_FLAC"))
+            return "flac";
+        if (codecId.equals("A_AC3"))
+            return "ac-3";
+        if (codecId.equals("A_EAC3"))
+            return "ec-3";
+
+        // the codecs below are described by their CodecPrivate
+        if (codecPrivate == null || codecPrivate[2] < 4 || codecPrivate[2] > MAX_CODEC_PRIVATE_BYTES)
+            return null;
+
+        if (codecId.equals("V_AV1"))
+            return _getAv1Codec(reader.read(codecPrivate[1], 4), 0);
+        if (codecId.equals("V_MPEG4/ISO/AVC"))
+        {
+            byte[] avcC = reader.read(codecPrivate[1], 4);
+            return "avc1." + _hex(avcC[1]) + _hex(avcC[2]) + _hex(avcC[3]);
+        }
+        if (codecId.startsWith("A_AAC"))
+            return _getAacCodec(reader.read(codecPrivate[1], 2), 0);
+
+        return null;
+    }
+
+    /**
+     * Reads the header of the EBML element at the position.
+     * 
+     * @return {id, data start, data size (-1 if unknown)}, or null if there is no valid element
+     */
+    private static long[] _readElementHeader(BoundedReader reader, long position) throws IOException
+    {
+        byte[] header = reader.read(position, 12);
+        if (header.length < 2)
+            return null;
+
+        int idLength = _getVintLength(header[0]);
+        if (idLength < 1 || idLength > 4 || header.length < idLength + 1)
+            return null;
+        long id = 0;
+        for (int i = 0; i < idLength; i++)
+            id = (id << 8) | (header[i] & 0xFF);
+
+        int sizeLength = _getVintLength(header[idLength]);
+        if (sizeLength < 1 || header.length < idLength + sizeLength)
+            return null;
+        long size = header[idLength] & (0xFF >> sizeLength);
+        boolean unknown = size == (0xFF >> sizeLength);
+        for (int i = 1; i < sizeLength; i++)
+        {
+            int b = header[idLength + i] & 0xFF;
+            size = (size << 8) | b;
+            unknown &= b == 0xFF;
+        }
+
+        return new long[] { id, position + idLength + sizeLength, unknown ? -1 : size };
+    }
+
+    private static int _getVintLength(byte first)
+    {
+        int b = first & 0xFF;
+        for (int length = 1; length <= 8; length++)
+        {
+            if ((b & (0x100 >> length)) != 0)
+                return length;
+        }
+        return -1;
+    }
+
+    // ---------------------------- Ogg
+
+    private static MediaMetadata _probeOgg(BoundedReader reader) throws IOException
+    {
+        Set<String> codecs = new LinkedHashSet<String>();
+        boolean complete = true;
+
+        try
+        {
+            long position = 0;
+            // the beginning of stream pages of all logical streams come first
+            for (int page = 0; page < MAX_OGG_BOS_PAGES; page++)
+            {
+                byte[] header = reader.read(position, 27);
+                if (header.length < 27 || !_equalsAscii(header, 0, "OggS") || (header[5] & 0x02) == 0)
+                    break;
+
+                int segmentCount = header[26] & 0xFF;
+                byte[] segments = reader.read(position + 27, segmentCount);
+                int bodyLength = 0;
+                for (byte segment : segments)
+                    bodyLength += segment & 0xFF;
+
+                byte[] packet = reader.read(position + 27 + segmentCount, Math.min(bodyLength, 8));
+                if (packet.length >= 7 && _equalsAscii(packet, 0, "fishead"))
+                {
+                    // skeleton stream, not an audio or video track
+                }
+                else
+                {
+                    String codec = _getOggCodec(packet);
+                    if (codec == null)
+                        complete = false;
+                    else
+                        codecs.add(codec);
+                }
+
+                position += 27 + segmentCount + bodyLength;
+            }
+        }
+        catch (ReadLimitExceededException e)
+        {
+            complete = false;
+        }
+
+        String contentType = codecs.contains("theora") || !complete ? "video/ogg" : "audio/ogg";
+        return new MediaMetadata(contentType, complete && !codecs.isEmpty() ? _join(codecs) : null);
+    }
+
+    private static String _getOggCodec(byte[] packet)
+    {
+        if (packet.length >= 7 && packet[0] == 0x01 && _equalsAscii(packet, 1, "vorbis"))
+            return "vorbis";
+        if (packet.length >= 7 && (packet[0] & 0xFF) == 0x80 && _equalsAscii(packet, 1, "theora"))
+            return "theora";
+        if (packet.length >= 8 && _equalsAscii(packet, 0, "OpusHead"))
+            return "opus";
+        if (packet.length >= 5 && packet[0] == 0x7F && _equalsAscii(packet, 1, "FLAC"))
+            return "flac";
+        if (packet.length >= 8 && _equalsAscii(packet, 0, "Speex   "))
+            return "speex";
+        return null;
+    }
+
+    // ---------------------------- helpers
+
+    private static int _readInt(byte[] bytes, int offset)
+    {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8)
+                | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static boolean _equalsAscii(byte[] bytes, int offset, String str)
+    {
+        if (offset + str.length() > bytes.length)
+            return false;
+        for (int i = 0; i < str.length(); i++)
+        {
+            if (bytes[offset + i] != (byte) str.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bytes as string, a length of -1 means until the end of the array.
+     */
+    private static String _ascii(byte[] bytes, int offset, int length)
+    {
+        int end = length < 0 ? bytes.length : Math.min(offset + length, bytes.length);
+        StringBuilder builder = new StringBuilder(Math.max(end - offset, 0));
+        for (int i = offset; i < end; i++)
+            builder.append((char) (bytes[i] & 0xFF));
+        return builder.toString();
+    }
+
+    private static String _hex(byte b)
+    {
+        return new String(new char[] { HEX[(b >> 4) & 0xF], HEX[b & 0xF] });
+    }
+
+    private static String _pad2(int value)
+    {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+    private static String _join(Set<String> codecs)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (String codec : codecs)
+        {
+            if (builder.length() > 0)
+                builder.append(", ");
+            builder.append(codec);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Positional reader which fails if more than {@link MediaProbe#MAX_READ_BYTES} are read.
+     */
+    private static final class BoundedReader
+    {
+        private final FileChannel _channel;
+        private final long _size;
+        private int _remaining = MAX_READ_BYTES;
+
+        BoundedReader(FileChannel channel) throws IOException
+        {
+            this._channel = channel;
+            this._size = channel.size();
+        }
+
+        long size()
+        {
+            return _size;
+        }
+
+        /**
+         * Reads up to length bytes at the position; less bytes are returned at the end of the file.
+         */
+        byte[] read(long position, int length) throws IOException
+        {
+            if (position < 0 || position >= _size || length <= 0)
+                return new byte[0];
+
+            int count = (int) Math.min(length, _size - position);
+            if (count > _remaining)
+                throw new ReadLimitExceededException();
+            _remaining -= count;
+
+            ByteBuffer buffer = ByteBuffer.allocate(count);
+            while (buffer.hasRemaining())
+            {
+                if (_channel.read(buffer, position + buffer.position()) < 0)
+                    break;
+            }
+
+            if (buffer.position() == count)
+                return buffer.array();
+
+            byte[] bytes = new byte[buffer.position()];
+            System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+            return bytes;
+        }
+    }
+
+    private static final class ReadLimitExceededException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.myfaces.html5.renderkit.output;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFRenderer;
+import org.apache.myfaces.html5.component.output.AbstractSlide;
 import org.apache.myfaces.html5.component.output.AbstractSlideView;
 import org.apache.myfaces.html5.renderkit.util.*;
 
@@ -37,8 +38,6 @@ import java.text.MessageFormat;
 import java.util.List;
 import java.util.Map;
 
-import static org.apache.myfaces.html5.renderkit.util.CssSelectorBuilder.selector;
-
 @ResourceDependencies(
 {
         @ResourceDependency(name = "jsf.js", library = "javax.faces", target = "head"),
@@ -50,6 +49,12 @@ import static org.apache.myfaces.html5.renderkit.util.CssSelectorBuilder.selecto
 @JSFRenderer(renderKitId = "HTML_BASIC", family = "org.apache.myfaces.SlideView", type = "org.apache.myfaces.html5.SlideView")
 public class SlideViewRenderer extends Renderer
 {
+    @Override
+    public boolean getRendersChildren()
+    {
+        return true;
+    }
+
     @Override
     public void encodeBegin(FacesContext facesContext, UIComponent uiComponent) throws IOException {
         super.encodeBegin(facesContext, uiComponent);
@@ -60,72 +65,51 @@ public class SlideViewRenderer extends Renderer
 
         AbstractSlideView component = (AbstractSlideView) uiComponent;
 
-        String clientId = component.getClientId(facesContext);
-        String escapedClientId = Html5RendererUtils.escapeCssSelector(clientId);
+        //write component html side
+        writer.startElement(HTML5.DIV_ELEM, uiComponent);
 
-        writer.startElement(HTML5.STYLE_ELEM, component);
+        // write id
+        writer.writeAttribute(HTML5.ID_ATTR, component.getClientId(facesContext), null);
 
-        double left = component.getSlideLeft();
-        double width = component.getSlideWidth();
-        double height = component.getSlideHeight();
-        final double inactiveSlideScale = component.getInactiveSlideScale();
-        final String timingFunction = component.getTimingFunction();
-        final String duration = Html5RendererUtils.getTimeValue(component.getDuration());
-        final String delay = Html5RendererUtils.getTimeValue(component.getDelay());
+        renderPassThruAttrsAndEvents(facesContext, uiComponent);
+    }
 
+    /**
+     * Returns the declarations of the slide custom properties whose values differ from the defaults in html5.css, e.g.
+     * "--mf-slide-left:5%;--mf-slide-duration:2s;", or null if all values are the defaults.
+     */
+    protected String getSlideProperties(AbstractSlideView component)
+    {
         StringBuilder builder = new StringBuilder();
-        new CssBuilder().selector(selector(HTML5.DIV_ELEM).id(escapedClientId).child(selector(HTML5.DIV_ELEM).clazz(Skin.SLIDE)).build())
-                .percentRule(CSS.WIDTH_PROP, width)
-                .percentRule(CSS.HEIGHT_PROP, height)
-                .rule("-webkit-transform", "scale(" + inactiveSlideScale +")")
-                .rule("-o-transform", "scale(" + inactiveSlideScale +")")
-                .rule("-moz-transform", "scale(" + inactiveSlideScale +")")
-                .append(builder);
-
-        new CssBuilder().selector(selector(HTML5.DIV_ELEM).id(escapedClientId).child(selector(HTML5.DIV_ELEM).clazz(Skin.SLIDE_TRANSITIONED)).build())
-                //once for webkit
-                .rule("-webkit-" + CSS.TRANSITION_PROPERTY_PROP ,"all")
-                .rule("-webkit-" + CSS.TRANSITION_DURATION_PROP , duration)
-                .rule("-webkit-" + CSS.TRANSITION_TIMING_FUNCTION_PROP, timingFunction)
-                .rule("-webkit-" + CSS.TRANSITION_DELAY_PROP, delay)
-                //and once for opera
-                .rule("-o-" + CSS.TRANSITION_PROPERTY_PROP ,"all")
-                .rule("-o-" + CSS.TRANSITION_DURATION_PROP, duration)
-                .rule("-o-" + CSS.TRANSITION_TIMING_FUNCTION_PROP, timingFunction)
-                .rule("-o-" + CSS.TRANSITION_DELAY_PROP, delay)
-                .append(builder);
-
-        new CssBuilder().selector(selector(HTML5.DIV_ELEM).id(escapedClientId).child(selector(HTML5.DIV_ELEM).clazz(Skin.SLIDE_PREVIOUS)).build())
-                .percentRule(CSS.LEFT_PROP, left - width)
-                .append(builder);
-
-        new CssBuilder().selector(selector(HTML5.DIV_ELEM).id(escapedClientId).child(selector(HTML5.DIV_ELEM).clazz(Skin.SLIDE_ACTIVE)).build())
-                .percentRule(CSS.LEFT_PROP, left)
-                .append(builder);
-
-        new CssBuilder().selector(selector(HTML5.DIV_ELEM).id(escapedClientId).child(selector(HTML5.DIV_ELEM).clazz(Skin.SLIDE_NEXT)).build())
-                .percentRule(CSS.LEFT_PROP, left + width)
-                .append(builder);
-
-        new CssBuilder().selector(selector(HTML5.DIV_ELEM).id(escapedClientId).child(selector(HTML5.DIV_ELEM).clazz(Skin.SLIDE_HIDDEN_LEFT)).build())
-                .percentRule(CSS.LEFT_PROP, left - width*2)
-                .append(builder);
-
-        new CssBuilder().selector(selector(HTML5.DIV_ELEM).id(escapedClientId).child(selector(HTML5.DIV_ELEM).clazz(Skin.SLIDE_HIDDEN_RIGHT)).build())
-                .percentRule(CSS.LEFT_PROP, left + width*2)
-                .append(builder);
-
-        writer.write(builder.toString());
-        writer.endElement(HTML5.STYLE_ELEM);
 
+        appendPercentIfNotDefault(builder, CSS.SLIDE_LEFT_VAR, component.getSlideLeft(),
+                AbstractSlideView.DEFAULT_SLIDE_LEFT);
+        appendPercentIfNotDefault(builder, CSS.SLIDE_WIDTH_VAR, component.getSlideWidth(),
+                AbstractSlideView.DEFAULT_SLIDE_WIDTH);
+        appendPercentIfNotDefault(builder, CSS.SLIDE_HEIGHT_VAR, component.getSlideHeight(),
+                AbstractSlideView.DEFAULT_SLIDE_HEIGHT);
 
-        //write component html side
-        writer.startElement(HTML5.DIV_ELEM, uiComponent);
+        if (component.getInactiveSlideScale() != AbstractSlideView.DEFAULT_SLIDE_INACTIVE_SCALE)
+            appendIfNotBlank(builder, CSS.SLIDE_SCALE_VAR, CssWriter.formatNumber(component.getInactiveSlideScale()));
 
-        // write id
-        writer.writeAttribute(HTML5.ID_ATTR, component.getClientId(facesContext), null);
+        appendIfNotBlank(builder, CSS.SLIDE_DURATION_VAR, Html5RendererUtils.getTimeValue(component.getDuration()));
+        appendIfNotBlank(builder, CSS.SLIDE_TIMING_FUNCTION_VAR, component.getTimingFunction());
+        appendIfNotBlank(builder, CSS.SLIDE_DELAY_VAR, Html5RendererUtils.getTimeValue(component.getDelay()));
 
-        renderPassThruAttrsAndEvents(facesContext, uiComponent);
+        return builder.length() == 0 ? null : builder.toString();
+    }
+
+    private static void appendPercentIfNotDefault(StringBuilder builder, String property, double value,
+            double defaultValue)
+    {
+        if (value != defaultValue)
+            appendIfNotBlank(builder, property, CssWriter.formatNumber(value) + "%");
+    }
+
+    private static void appendIfNotBlank(StringBuilder builder, String property, String value)
+    {
+        if (StringUtils.isNotBlank(value))
+            builder.append(property).append(':').append(value).append(';');
     }
 
     // to make this extendible
@@ -136,8 +120,58 @@ public class SlideViewRenderer extends Renderer
         Html5RendererUtils.renderPassThroughClientBehaviorEventHandlers(facesContext, uiComponent,
                 PassThroughClientBehaviorEvents.SLIDE_VIEW, clientBehaviors);
 
-        Html5RendererUtils.renderPassThroughAttributes(facesContext.getResponseWriter(), uiComponent,
-                PassThroughAttributes.SLIDE_VIEW);
+        ResponseWriter writer = facesContext.getResponseWriter();
+
+        // the layout of the slides is defined in html5.css, only the custom properties for the non-default values are
+        // rendered. they are written before the user style, so the user can still override them
+        String slideProperties = getSlideProperties((AbstractSlideView) uiComponent);
+        if (slideProperties == null)
+        {
+            Html5RendererUtils.renderPassThroughAttributes(writer, uiComponent, PassThroughAttributes.SLIDE_VIEW);
+            return;
+        }
+
+        String style = (String) uiComponent.getAttributes().get(JsfProperties.STYLE_PROP);
+        writer.writeAttribute(HTML5.STYLE_ATTR,
+                StringUtils.isBlank(style) ? slideProperties : slideProperties + style, JsfProperties.STYLE_PROP);
+
+        Html5RendererUtils.renderPassThroughAttributes(writer, uiComponent,
+                PassThroughAttributes.SLIDE_VIEW_WITHOUT_STYLE);
+    }
+
+    /**
+     * Renders the slides. If a slide window is set, only the slides in the window around the first slide are rendered,
+     * the others are rendered as placeholders and fetched by slide.js when they are needed.
+     */
+    @Override
+    public void encodeChildren(FacesContext facesContext, UIComponent uiComponent) throws IOException
+    {
+        final int slideWindow = ((AbstractSlideView) uiComponent).getSlideWindow();
+
+        int slideIndex = 0;
+        for (UIComponent child : uiComponent.getChildren())
+        {
+            if (!child.isRendered())
+                continue;
+
+            if (slideWindow > 0 && child instanceof AbstractSlide && slideIndex++ > slideWindow)
+                encodePlaceholder(facesContext, (AbstractSlide) child);
+            else
+                child.encodeAll(facesContext);
+        }
+    }
+
+    /**
+     * Renders the empty element which is replaced by the slide, when it is rendered with a partial request.
+     */
+    protected void encodePlaceholder(FacesContext facesContext, AbstractSlide slide) throws IOException
+    {
+        ResponseWriter writer = facesContext.getResponseWriter();
+
+        writer.startElement(HTML5.DIV_ELEM, slide);
+        writer.writeAttribute(HTML5.ID_ATTR, slide.getClientId(facesContext), null);
+        writer.writeAttribute(HTML5.DATA_FX_SLIDE_PLACEHOLDER_ATTR, "true", null);
+        writer.endElement(HTML5.DIV_ELEM);
     }
 
     @Override
@@ -161,9 +195,10 @@ public class SlideViewRenderer extends Renderer
 
         final boolean navigateOnArrowKeys = component.isNavigateOnArrowKeys();
         final boolean navigateOnMouseWheel = component.isNavigateOnMouseWheel();
+        final String slideWindow = String.valueOf(Math.max(component.getSlideWindow(), 0));
 
         writer.startElement(HTML5.SCRIPT_ELEM, component);
-        String jsDefinition = MessageFormat.format("var {0} = new myfaces.html5.slide.SlideView(document.getElementById(''{1}''), {2}, {3});", widgetVar, clientId, navigateOnArrowKeys, navigateOnMouseWheel);
+        String jsDefinition = MessageFormat.format("var {0} = new myfaces.html5.slide.SlideView(document.getElementById(''{1}''), {2}, {3}, {4});", widgetVar, clientId, navigateOnArrowKeys, navigateOnMouseWheel, slideWindow);
         writer.write(jsDefinition);
         writer.endElement(HTML5.SCRIPT_ELEM);
     }
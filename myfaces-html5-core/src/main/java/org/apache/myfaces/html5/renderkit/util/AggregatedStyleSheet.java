@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+
+/**
+ * Helpers for rendering the CSS of the animation and effect components of a view into one generated stylesheet, see
+ * {@link Html5WebConfigParams#ANIMATION_STYLESHEET_ENABLED}. <br/>
+ * The renderers of those components add the stylesheet component to the head of the view, whose renderer encodes the
+ * components into the stylesheet and marks them as aggregated. Aggregated components render nothing when they are
+ * encoded in the body afterwards; components that are not aggregated, e.g. on partial rendering, are still rendered
+ * with inline &lt;style&gt; blocks.
+ * 
+ * @author Ali Ok
+ */
+public final class AggregatedStyleSheet
+{
+    /**
+     * Renderer type of the component that renders the &lt;link&gt; of the stylesheet.
+     */
+    public static final String RENDERER_TYPE = "org.apache.myfaces.html5.AnimationStyleSheet";
+
+    /**
+     * Renderer types of the components whose CSS is aggregated.
+     */
+    public static final Set<String> AGGREGATED_RENDERER_TYPES = new HashSet<String>(Arrays.asList(
+            "org.apache.myfaces.html5.Animation", "org.apache.myfaces.html5.Animations",
+            "org.apache.myfaces.html5.EffectOutput", "org.apache.myfaces.html5.Effects"));
+
+    private static final String COMPONENT_ID = "org_apache_myfaces_html5_animationStyleSheet";
+
+    private static final String HEAD_TARGET = "head";
+
+    private static final String AGGREGATED_KEY = AggregatedStyleSheet.class.getName() + ".AGGREGATED";
+
+    private AggregatedStyleSheet()
+    {
+    }
+
+    public static boolean isEnabled(FacesContext facesContext)
+    {
+        return Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                Html5WebConfigParams.ANIMATION_STYLESHEET_ENABLED, false);
+    }
+
+    /**
+     * Adds the stylesheet component to the head of the view, if aggregation is enabled and it is not added yet. The
+     * component is transient, so it is added again when the view is built on the next request.
+     */
+    public static void addStyleSheet(FacesContext facesContext)
+    {
+        if (!isEnabled(facesContext))
+            return;
+
+        if (findStyleSheet(facesContext) != null)
+            return;
+
+        UIViewRoot viewRoot = facesContext.getViewRoot();
+        UIComponent styleSheet = facesContext.getApplication().createComponent(UIOutput.COMPONENT_TYPE);
+        styleSheet.setId(COMPONENT_ID);
+        styleSheet.setRendererType(RENDERER_TYPE);
+        styleSheet.setTransient(true);
+        viewRoot.addComponentResource(facesContext, styleSheet, HEAD_TARGET);
+    }
+
+    /**
+     * Returns the stylesheet component of the view, or null if it is not added.
+     */
+    public static UIComponent findStyleSheet(FacesContext facesContext)
+    {
+        UIViewRoot viewRoot = facesContext.getViewRoot();
+        for (UIComponent resource : viewRoot.getComponentResources(facesContext, HEAD_TARGET))
+        {
+            if (COMPONENT_ID.equals(resource.getId()))
+                return resource;
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the CSS of the component is already rendered into the stylesheet in this request, so it must not
+     * be rendered again.
+     */
+    public static boolean isAggregated(FacesContext facesContext, UIComponent component)
+    {
+        Set<UIComponent> aggregated = _getAggregated(facesContext, false);
+        return aggregated != null && aggregated.contains(component);
+    }
+
+    public static void markAggregated(FacesContext facesContext, UIComponent component)
+    {
+        _getAggregated(facesContext, true).add(component);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<UIComponent> _getAggregated(FacesContext facesContext, boolean create)
+    {
+        Map<Object, Object> attributes = facesContext.getAttributes();
+        Set<UIComponent> aggregated = (Set<UIComponent>) attributes.get(AGGREGATED_KEY);
+        if (aggregated == null && create)
+        {
+            aggregated = new HashSet<UIComponent>();
+            attributes.put(AGGREGATED_KEY, aggregated);
+        }
+        return aggregated;
+    }
+}
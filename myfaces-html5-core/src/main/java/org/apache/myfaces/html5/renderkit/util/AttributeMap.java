@@ -18,9 +18,11 @@
  */
 package org.apache.myfaces.html5.renderkit.util;
 
+import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Map that is used for holding the pass through attributes and events for components.
@@ -76,9 +78,12 @@ class AttributeMap<K, V>
         return this;
     }
 
+    /**
+     * Returns an unmodifiable view of the map, which also carries the compiled {@link AttributeRenderPlan} of it.
+     */
     Map<String, String> unmodifiable()
     {
-        return Collections.unmodifiableMap(this._innerMap);
+        return new CompiledMap(this._innerMap);
     }
 
     // stuff for static import
@@ -96,4 +101,48 @@ class AttributeMap<K, V>
         return new AttributeMap<String, String>(initialCapacity);
     }
 
+    /**
+     * Unmodifiable map that holds the precompiled render plan of its entries.
+     */
+    static final class CompiledMap extends AbstractMap<String, String>
+    {
+        private final Map<String, String> _delegate;
+        private final AttributeRenderPlan _renderPlan;
+
+        private CompiledMap(Map<String, String> map)
+        {
+            this._delegate = Collections.unmodifiableMap(new HashMap<String, String>(map));
+            this._renderPlan = AttributeRenderPlan.compile(this._delegate);
+        }
+
+        AttributeRenderPlan getRenderPlan()
+        {
+            return _renderPlan;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet()
+        {
+            return _delegate.entrySet();
+        }
+
+        @Override
+        public String get(Object key)
+        {
+            return _delegate.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return _delegate.containsKey(key);
+        }
+
+        @Override
+        public int size()
+        {
+            return _delegate.size();
+        }
+    }
+
 }
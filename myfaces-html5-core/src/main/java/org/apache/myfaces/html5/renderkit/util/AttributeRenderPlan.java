@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.faces.component.UIComponent;
+import javax.faces.context.ResponseWriter;
+
+/**
+ * Immutable, precompiled form of a pass through attribute map. Jsf property names, html attribute names and the
+ * "boolean but not Html5 boolean attribute" flags are kept in parallel arrays, so rendering does not need to iterate
+ * the map or look anything up per attribute.
+ *
+ * @author Ali Ok
+ * @see AttributeMap
+ * @see Html5RendererUtils#renderPassThroughAttributes(ResponseWriter, UIComponent, Map)
+ */
+public final class AttributeRenderPlan
+{
+    private final String[] _jsfProperties;
+    private final String[] _htmlAttributes;
+    private final boolean[] _booleanButNotHtml5Boolean;
+
+    private AttributeRenderPlan(String[] jsfProperties, String[] htmlAttributes, boolean[] booleanButNotHtml5Boolean)
+    {
+        this._jsfProperties = jsfProperties;
+        this._htmlAttributes = htmlAttributes;
+        this._booleanButNotHtml5Boolean = booleanButNotHtml5Boolean;
+    }
+
+    /**
+     * Compiles the given map of jsf property names to html attribute names.
+     */
+    public static AttributeRenderPlan compile(Map<String, String> passThruAttrs)
+    {
+        int size = passThruAttrs.size();
+        String[] jsfProperties = new String[size];
+        String[] htmlAttributes = new String[size];
+        boolean[] booleanButNotHtml5Boolean = new boolean[size];
+
+        int i = 0;
+        for (Map.Entry<String, String> entry : passThruAttrs.entrySet())
+        {
+            jsfProperties[i] = entry.getKey();
+            htmlAttributes[i] = entry.getValue();
+            booleanButNotHtml5Boolean[i] = Html5RendererUtils.isBooleanButNotHtml5BooleanAttribute(entry.getValue());
+            i++;
+        }
+
+        return new AttributeRenderPlan(jsfProperties, htmlAttributes, booleanButNotHtml5Boolean);
+    }
+
+    /**
+     * Renders the attributes of the plan which have a non-default value on the component.
+     *
+     * @return true, if an attribute was written
+     * @throws IOException
+     */
+    public boolean render(ResponseWriter writer, UIComponent component) throws IOException
+    {
+        Map<String, Object> attributes = component.getAttributes();
+        boolean somethingDone = false;
+
+        for (int i = 0; i < _jsfProperties.length; i++)
+        {
+            Object value = attributes.get(_jsfProperties[i]);
+            if (RendererUtils.isDefaultAttributeValue(value))
+                continue;
+
+            // see Html5RendererUtils#renderHTMLAttribute(...) for why these are rendered as ="true"
+            if (_booleanButNotHtml5Boolean[i] && value instanceof Boolean)
+                value = String.valueOf(((Boolean) value).booleanValue());
+
+            writer.writeAttribute(_htmlAttributes[i], value, _jsfProperties[i]);
+            somethingDone = true;
+        }
+
+        return somethingDone;
+    }
+
+    /**
+     * Returns the number of attributes in this plan.
+     */
+    public int size()
+    {
+        return _jsfProperties.length;
+    }
+}
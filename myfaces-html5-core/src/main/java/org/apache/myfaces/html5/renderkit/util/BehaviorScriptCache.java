@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIViewRoot;
+import javax.faces.component.behavior.AjaxBehavior;
+import javax.faces.component.behavior.ClientBehavior;
+import javax.faces.component.behavior.ClientBehaviorContext;
+import javax.faces.context.FacesContext;
+
+/**
+ * Application scoped LRU cache for the composed <code>jsf.util.chain(...)</code> scripts built by
+ * {@link Html5RendererUtils#buildBehaviorChain(FacesContext, UIComponent, String, Collection, Map, String, String)}.
+ * <br/>
+ * Scripts are only cached if all attached behaviors of the event are {@link AjaxBehavior}s without value expressions.
+ * The cache key is made of the view id, client id, event name(s), user and server event code, and the state of the
+ * behaviors, so a change of any of them results in a new entry. <br/>
+ * The size is configured with {@link Html5WebConfigParams#BEHAVIOR_SCRIPT_CACHE_SIZE}, 0 disables the cache. <br/>
+ * {@link #getHitCount()} and {@link #getMissCount()} tell whether the size fits the views of the application: misses
+ * that keep growing after all views were rendered once mean the cache is too small. The cache is kept in the
+ * application map under the name of this class, so the counts can be read by a monitoring page or a debugger.
+ *
+ * @author Ali Ok
+ */
+public class BehaviorScriptCache
+{
+    /**
+     * Kind of the behavior chain of a single event, see {@link #createKey}.
+     */
+    public static final int SINGLE_EVENT_CHAIN = 1;
+
+    /**
+     * Kind of the behavior chain of two events, which is rendered differently than the single event one.
+     */
+    public static final int TWO_EVENT_CHAIN = 2;
+
+    private static final String APPLICATION_MAP_KEY = BehaviorScriptCache.class.getName();
+
+    private static final int DEFAULT_SIZE = 1000;
+
+    private static final String[] AJAX_BEHAVIOR_PROPERTIES = { "disabled", "execute", "immediate", "onerror",
+            "onevent", "render" };
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final Map<String, String> _scripts;
+
+    private final AtomicLong _hitCount = new AtomicLong();
+    private final AtomicLong _missCount = new AtomicLong();
+
+    public BehaviorScriptCache(final int maxSize)
+    {
+        this._scripts = new LinkedHashMap<String, String>(16, 0.75F, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache of the application, or null if caching is disabled.
+     */
+    public static BehaviorScriptCache getInstance(FacesContext facesContext)
+    {
+        Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+        Object cache = applicationMap.get(APPLICATION_MAP_KEY);
+        if (cache == null)
+        {
+            int size = Html5WebConfigParams.getIntInitParameter(facesContext.getExternalContext(),
+                    Html5WebConfigParams.BEHAVIOR_SCRIPT_CACHE_SIZE, DEFAULT_SIZE);
+
+            // Boolean.FALSE marks the disabled cache, so the init param is not read again
+            cache = size > 0 ? new BehaviorScriptCache(size) : Boolean.FALSE;
+            applicationMap.put(APPLICATION_MAP_KEY, cache);
+        }
+        return cache instanceof BehaviorScriptCache ? (BehaviorScriptCache) cache : null;
+    }
+
+    /**
+     * Creates the cache key for the behavior chain of the given events.
+     *
+     * @param chainKind
+     *            {@link #SINGLE_EVENT_CHAIN} or {@link #TWO_EVENT_CHAIN}
+     * @return null, if the script is not cacheable
+     */
+    public static String createKey(FacesContext facesContext, UIComponent component,
+            Map<String, List<ClientBehavior>> clientBehaviors, Collection<ClientBehaviorContext.Parameter> params,
+            String userEventCode, String serverEventCode, int chainKind, String... eventNames)
+    {
+        if (clientBehaviors == null || (params != null && !params.isEmpty()))
+            return null;
+
+        UIViewRoot viewRoot = facesContext.getViewRoot();
+        if (viewRoot == null || viewRoot.getViewId() == null)
+            return null;
+
+        StringBuilder key = new StringBuilder(128);
+        key.append(viewRoot.getViewId()).append(SEPARATOR);
+        key.append(component.getClientId(facesContext)).append(SEPARATOR);
+        key.append(userEventCode).append(SEPARATOR);
+        key.append(serverEventCode).append(SEPARATOR);
+        key.append(chainKind);
+
+        for (String eventName : eventNames)
+        {
+            key.append(SEPARATOR).append(eventName);
+
+            List<ClientBehavior> behaviors = clientBehaviors.get(eventName);
+            if (behaviors == null)
+                continue;
+
+            for (ClientBehavior behavior : behaviors)
+            {
+                if (!appendBehaviorState(key, behavior))
+                    return null;
+            }
+        }
+
+        return key.toString();
+    }
+
+    private static boolean appendBehaviorState(StringBuilder key, ClientBehavior behavior)
+    {
+        if (!(behavior instanceof AjaxBehavior))
+            return false;
+
+        AjaxBehavior ajaxBehavior = (AjaxBehavior) behavior;
+        for (String property : AJAX_BEHAVIOR_PROPERTIES)
+        {
+            if (ajaxBehavior.getValueExpression(property) != null)
+                return false;
+        }
+
+        key.append(SEPARATOR).append(ajaxBehavior.getRendererType());
+        key.append(SEPARATOR).append(ajaxBehavior.isDisabled());
+        key.append(SEPARATOR).append(ajaxBehavior.isImmediate());
+        key.append(SEPARATOR).append(ajaxBehavior.getExecute());
+        key.append(SEPARATOR).append(ajaxBehavior.getRender());
+        key.append(SEPARATOR).append(ajaxBehavior.getOnerror());
+        key.append(SEPARATOR).append(ajaxBehavior.getOnevent());
+        return true;
+    }
+
+    public String get(String key)
+    {
+        String script;
+        synchronized (_scripts)
+        {
+            script = _scripts.get(key);
+        }
+
+        if (script == null)
+            _missCount.incrementAndGet();
+        else
+            _hitCount.incrementAndGet();
+
+        return script;
+    }
+
+    public void put(String key, String script)
+    {
+        synchronized (_scripts)
+        {
+            _scripts.put(key, script);
+        }
+    }
+
+    public int size()
+    {
+        synchronized (_scripts)
+        {
+            return _scripts.size();
+        }
+    }
+
+    public void clear()
+    {
+        synchronized (_scripts)
+        {
+            _scripts.clear();
+        }
+    }
+
+    /**
+     * Returns the number of {@link #get(String)} calls that found a script.
+     */
+    public long getHitCount()
+    {
+        return _hitCount.get();
+    }
+
+    /**
+     * Returns the number of {@link #get(String)} calls that found no script.
+     */
+    public long getMissCount()
+    {
+        return _missCount.get();
+    }
+}
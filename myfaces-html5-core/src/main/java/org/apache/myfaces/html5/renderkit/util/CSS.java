@@ -29,6 +29,9 @@ public interface CSS {
     String ANIMATION_DIRECTION_PROP = "-webkit-animation-direction";
     String ANIMATION_DELAY_PROP = "-webkit-animation-delay";
 
+    //transitions are supported on Webkit and Opera
+    String[] TRANSITION_PREFIXES = { "-webkit-", "-o-" };
+
     String TRANSITION_PROPERTY_PROP = "transition-property";
     String TRANSITION_DURATION_PROP = "transition-duration";
     String TRANSITION_TIMING_FUNCTION_PROP = "transition-timing-function";
@@ -45,4 +48,15 @@ public interface CSS {
     String LEFT_PROP = "left";
     String WIDTH_PROP = "width";
     String HEIGHT_PROP = "height";
+
+    String KEYFRAMES_RULE = "-webkit-keyframes";
+
+    //custom properties of the slide view, see html5.css
+    String SLIDE_LEFT_VAR = "--mf-slide-left";
+    String SLIDE_WIDTH_VAR = "--mf-slide-width";
+    String SLIDE_HEIGHT_VAR = "--mf-slide-height";
+    String SLIDE_SCALE_VAR = "--mf-slide-scale";
+    String SLIDE_DURATION_VAR = "--mf-slide-duration";
+    String SLIDE_TIMING_FUNCTION_VAR = "--mf-slide-timing-function";
+    String SLIDE_DELAY_VAR = "--mf-slide-delay";
 }
@@ -24,6 +24,10 @@ import org.apache.commons.lang.StringUtils;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * @deprecated use {@link CssWriter}, which writes the rules straight to the response writer.
+ */
+@Deprecated
 public class CssBuilder{
 
     List<String> selectors = new ArrayList<String>();
@@ -21,6 +21,10 @@ package org.apache.myfaces.html5.renderkit.util;
 
 import org.apache.commons.lang.StringUtils;
 
+/**
+ * @deprecated use {@link CssWriter}, which writes the selectors straight to the response writer.
+ */
+@Deprecated
 public class CssSelectorBuilder {
     private CssSelectorBuilderElement cssSelectorBuilderElement;
     private CssSelectorBuilderElement child;
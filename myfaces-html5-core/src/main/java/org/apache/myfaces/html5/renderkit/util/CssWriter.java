@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.faces.context.FacesContext;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Writes CSS rules straight to a {@link Writer}, usually the response writer inside a &lt;style&gt; element, without
+ * building intermediate strings for selectors and declarations.
+ * <br/>
+ * A rule is written by starting a selector with {@link #selector(String)}, {@link #id(String)} or
+ * {@link #clazz(String)}, adding declarations and closing it with {@link #endRule()}. The block is opened with the
+ * first declaration, or with {@link #startBlock()} if the declarations are written by someone else. Declarations with
+ * a blank value are skipped.
+ * <br/>
+ * If minification is enabled, no optional whitespace is written, see
+ * {@link Html5WebConfigParams#CSS_MINIFICATION_ENABLED}.
+ *
+ * <pre>
+ * new CssWriter(writer, false).selector("div").id("foo").descendant("div").clazz("bar")
+ *         .declaration("left", "10%").prefixedDeclaration(CSS.TRANSITION_PREFIXES, "transition-delay", "2s")
+ *         .endRule();
+ * </pre>
+ * writes <code>div#foo div.bar { left: 10%; -webkit-transition-delay: 2s; -o-transition-delay: 2s; } </code>
+ *
+ * @author Ali Ok
+ */
+public class CssWriter
+{
+    private static final int STATE_NONE = 0;
+    private static final int STATE_SELECTOR = 1;
+    private static final int STATE_BLOCK = 2;
+
+    private final Writer _writer;
+    private final boolean _minify;
+
+    private int _state = STATE_NONE;
+
+    public CssWriter(Writer writer, boolean minify)
+    {
+        this._writer = writer;
+        this._minify = minify;
+    }
+
+    /**
+     * Creates a writer for the response writer of the current response.
+     */
+    public static CssWriter forResponse(FacesContext facesContext)
+    {
+        return new CssWriter(facesContext.getResponseWriter(), isMinificationEnabled(facesContext));
+    }
+
+    public static boolean isMinificationEnabled(FacesContext facesContext)
+    {
+        return Html5WebConfigParams.getBooleanInitParameter(facesContext.getExternalContext(),
+                Html5WebConfigParams.CSS_MINIFICATION_ENABLED, false);
+    }
+
+    public boolean isMinify()
+    {
+        return _minify;
+    }
+
+    /**
+     * Starts the selector of a new rule with an element name, or appends the element to the selector as a compound
+     * part if it is already started.
+     */
+    public CssWriter selector(String element) throws IOException
+    {
+        _startSelector();
+        _writer.write(element);
+        return this;
+    }
+
+    /**
+     * Appends a descendant combinator and the element name to the selector.
+     */
+    public CssWriter descendant(String element) throws IOException
+    {
+        _startSelector();
+        _writer.write(' ');
+        _writer.write(element);
+        return this;
+    }
+
+    /**
+     * Appends an id selector. The id must be escaped already, see {@link Html5RendererUtils#escapeCssSelector(String)}.
+     */
+    public CssWriter id(String id) throws IOException
+    {
+        _startSelector();
+        _writer.write('#');
+        _writer.write(id);
+        return this;
+    }
+
+    /**
+     * Appends a class selector. The class must be escaped already, see
+     * {@link Html5RendererUtils#escapeCssSelector(String)}.
+     */
+    public CssWriter clazz(String clazz) throws IOException
+    {
+        _startSelector();
+        _writer.write('.');
+        _writer.write(clazz);
+        return this;
+    }
+
+    /**
+     * Opens the declaration block of the current rule.
+     */
+    public CssWriter startBlock() throws IOException
+    {
+        if (_state != STATE_SELECTOR)
+            throw new IllegalStateException("No selector is written for the block");
+
+        _writer.write(_minify ? "{" : " { ");
+        _state = STATE_BLOCK;
+        return this;
+    }
+
+    /**
+     * Writes the declaration, if the value is not blank.
+     */
+    public CssWriter declaration(String property, String value) throws IOException
+    {
+        if (StringUtils.isBlank(property))
+            throw new IllegalArgumentException("Property name cannot be blank");
+
+        if (StringUtils.isBlank(value))
+            return this;
+
+        _startDeclaration();
+        _writeDeclaration(null, property, value);
+        return this;
+    }
+
+    /**
+     * Writes the declaration once for each vendor prefix, if the value is not blank.
+     */
+    public CssWriter prefixedDeclaration(String[] prefixes, String property, String value) throws IOException
+    {
+        if (StringUtils.isBlank(property))
+            throw new IllegalArgumentException("Property name cannot be blank");
+
+        if (StringUtils.isBlank(value))
+            return this;
+
+        _startDeclaration();
+        for (String prefix : prefixes)
+        {
+            _writeDeclaration(prefix, property, value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a declaration with a percentage value.
+     */
+    public CssWriter percentDeclaration(String property, double value) throws IOException
+    {
+        if (StringUtils.isBlank(property))
+            throw new IllegalArgumentException("Property name cannot be blank");
+
+        _startDeclaration();
+        _writer.write(property);
+        _writer.write(_minify ? ":" : ": ");
+        _writer.write(formatNumber(value));
+        _writer.write(_minify ? "%;" : "%; ");
+        return this;
+    }
+
+    /**
+     * Closes the current rule. A rule without declarations is written with an empty block.
+     */
+    public CssWriter endRule() throws IOException
+    {
+        if (_state == STATE_NONE)
+            throw new IllegalStateException("No rule is started");
+
+        if (_state == STATE_SELECTOR)
+            startBlock();
+
+        _writer.write(_minify ? "}" : "} ");
+        _state = STATE_NONE;
+        return this;
+    }
+
+    /**
+     * Opens an at-rule block, like <code>@-webkit-keyframes name {</code>. The nested rules are written with this
+     * writer or straight to the underlying writer, and the block is closed with {@link #endAtRule()}.
+     */
+    public CssWriter startAtRule(String keyword, String prelude) throws IOException
+    {
+        if (_state != STATE_NONE)
+            throw new IllegalStateException("Rule is not ended");
+
+        _writer.write('@');
+        _writer.write(keyword);
+        _writer.write(' ');
+        _writer.write(prelude);
+        _writer.write(_minify ? "{" : " { ");
+        return this;
+    }
+
+    public CssWriter endAtRule() throws IOException
+    {
+        if (_state != STATE_NONE)
+            throw new IllegalStateException("Rule is not ended");
+
+        _writer.write(_minify ? "}" : "} ");
+        return this;
+    }
+
+    private void _startSelector()
+    {
+        if (_state == STATE_BLOCK)
+            throw new IllegalStateException("Rule is not ended");
+
+        _state = STATE_SELECTOR;
+    }
+
+    private void _startDeclaration() throws IOException
+    {
+        if (_state == STATE_SELECTOR)
+            startBlock();
+        else if (_state != STATE_BLOCK)
+            throw new IllegalStateException("No selector is written for the declaration");
+    }
+
+    private void _writeDeclaration(String prefix, String property, String value) throws IOException
+    {
+        if (prefix != null)
+            _writer.write(prefix);
+        _writer.write(property);
+        _writer.write(_minify ? ":" : ": ");
+        _writer.write(value);
+        _writer.write(_minify ? ";" : "; ");
+    }
+
+    /**
+     * Formats the number without a fraction if it is integral, e.g. 50 instead of 50.0.
+     */
+    public static String formatNumber(double value)
+    {
+        if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE)
+            return Long.toString((long) value);
+        else
+            return Double.toString(value);
+    }
+}
@@ -41,6 +41,7 @@ public interface HTML5
     String TEXTAREA_ELEM = "textarea";
     String DIV_ELEM = "div";
     String STYLE_ELEM = "style";
+    String LINK_ELEM = "link";
     String SCRIPT_ELEM = "script";
     String OPTION_ELEM = "option";
 
@@ -58,9 +59,30 @@ public interface HTML5
     String SCRIPT_TYPE_ATTR = "type";
     String SCRIPT_TYPE_TEXT_JAVASCRIPT = "text/javascript";
     String NAME_ATTR = "name";
+    String REL_ATTR = "rel";
+    String HREF_ATTR = "href";
+    String REL_STYLESHEET = "stylesheet";
+    String TYPE_TEXT_CSS = "text/css";
 
     // media attrs
     String CONTROLS_ATTR = "controls"; // not pass thru
+    String PRELOAD_ATTR = "preload";
+    // lazy loading media attrs, promoted to the real attrs by media.js
+    String DATA_LOADING_ATTR = "data-loading";
+    String DATA_SRC_ATTR = "data-src";
+    String DATA_PRELOAD_ATTR = "data-preload";
+
+    // delegated drag and drop attrs, handled by the document level listener of dnd.js
+    String DATA_FX_DRAG_ATTR = "data-fx-drag";
+    String DATA_FX_DRAG_TYPES_ATTR = "data-fx-drag-types";
+    String DATA_FX_DRAG_PARAM_ATTR = "data-fx-drag-param";
+    String DATA_FX_DROP_ATTR = "data-fx-drop";
+    String DATA_FX_DROP_TYPES_ATTR = "data-fx-drop-types";
+    String DATA_FX_DROP_ACCEPT_ATTR = "data-fx-drop-accept";
+    String DATA_FX_DROP_RENDER_ATTR = "data-fx-drop-render";
+    String DATA_FX_DROP_UPLOAD_ATTR = "data-fx-drop-upload";
+    String DATA_FX_DROP_BATCH_ATTR = "data-fx-drop-batch";
+    String DATA_FX_SLIDE_PLACEHOLDER_ATTR = "data-fx-slide-placeholder";
 
     // video attrs
     String POSTER_ATTR = "poster";
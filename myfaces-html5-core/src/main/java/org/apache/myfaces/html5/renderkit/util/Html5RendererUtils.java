@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -31,16 +32,20 @@ import java.util.logging.Logger;
 import javax.faces.component.EditableValueHolder;
 import javax.faces.component.UIComponent;
 import javax.faces.component.behavior.ClientBehavior;
+import javax.faces.component.behavior.ClientBehaviorBase;
 import javax.faces.component.behavior.ClientBehaviorContext;
 import javax.faces.component.behavior.ClientBehaviorHint;
 import javax.faces.component.behavior.ClientBehaviorHolder;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import javax.faces.context.ResponseWriter;
+import javax.faces.render.ClientBehaviorRenderer;
+import javax.faces.render.RenderKit;
 
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.myfaces.commons.util.DebugUtils;
+import org.apache.myfaces.html5.renderkit.behavior.DelegatedClientBehaviorRenderer;
 
 /**
  * @author Ali Ok
@@ -67,6 +72,8 @@ public class Html5RendererUtils
 
     private static final Logger log = Logger.getLogger(Html5RendererUtils.class.getName());
 
+    private static final String DELEGATED_BEHAVIORS_KEY = Html5RendererUtils.class.getName() + ".DELEGATED_BEHAVIORS";
+
     /**
      * Renders the pass through attributes of the component. Value of the JSF properties will be written with the
      * matching Html attribute name.
@@ -82,14 +89,19 @@ public class Html5RendererUtils
     public static boolean renderPassThroughAttributes(ResponseWriter writer, UIComponent component,
             Map<String, String> passThruAttrs) throws IOException
     {
+        if (passThruAttrs instanceof AttributeMap.CompiledMap)
+        {
+            return ((AttributeMap.CompiledMap) passThruAttrs).getRenderPlan().render(writer, component);
+        }
+
         boolean somethingDone = false;
-        Set<String> passThruJsfProperties = passThruAttrs.keySet();
-        for (String passThruJsfPropertyName : passThruJsfProperties)
+        Map<String, Object> attributes = component.getAttributes();
+        for (Map.Entry<String, String> passThruAttr : passThruAttrs.entrySet())
         {
-            String passThruHtmlAttrName = passThruAttrs.get(passThruJsfPropertyName);
-            Object value = component.getAttributes().get(passThruJsfPropertyName);
+            String passThruJsfPropertyName = passThruAttr.getKey();
+            Object value = attributes.get(passThruJsfPropertyName);
 
-            if (renderHTMLAttribute(writer, passThruJsfPropertyName, passThruHtmlAttrName, value))
+            if (renderHTMLAttribute(writer, passThruJsfPropertyName, passThruAttr.getValue(), value))
             {
                 somethingDone = true;
             }
@@ -97,6 +109,19 @@ public class Html5RendererUtils
         return somethingDone;
     }
 
+    /**
+     * Renders the pass through attributes of the component by executing a precompiled plan.
+     *
+     * @return true, if an attribute was written
+     * @throws java.io.IOException
+     * @see AttributeRenderPlan#compile(Map)
+     */
+    public static boolean renderPassThroughAttributes(ResponseWriter writer, UIComponent component,
+            AttributeRenderPlan renderPlan) throws IOException
+    {
+        return renderPlan.render(writer, component);
+    }
+
     /**
      * Renders the attribute if the value is not the default value defined in the component. <br/>
      * For three Html5 attributes (draggable, contenteditable and spellcheck), "true" will be written instead of the
@@ -118,7 +143,7 @@ public class Html5RendererUtils
     {
         if (!RendererUtils.isDefaultAttributeValue(value))
         {
-            if (BOOLEAN_BUT_NOT_HTML5_BOOLEAN_ATTRS.contains(attrName))
+            if (isBooleanButNotHtml5BooleanAttribute(attrName))
             {
                 /*
                  * these attrs are not Html5 "Booolean Attribute"s : contenteditable draggable spellcheck
@@ -143,6 +168,15 @@ public class Html5RendererUtils
         return false;
     }
 
+    /**
+     * Returns true for the attributes that look like boolean attributes but are not Html5 "Boolean Attribute"s:
+     * contenteditable, draggable and spellcheck.
+     */
+    static boolean isBooleanButNotHtml5BooleanAttribute(String attrName)
+    {
+        return BOOLEAN_BUT_NOT_HTML5_BOOLEAN_ATTRS.contains(attrName);
+    }
+
     /**
      * Renders the client behavior event handlers for the component by investigating both client behaviors and values of
      * the behaviorized attributes.
@@ -446,6 +480,11 @@ public class Html5RendererUtils
             return renderHTMLAttribute(writer, componentProperty, htmlAttrName, attributeValue);
         }
 
+        if (_renderDelegatedBehaviors(facesContext, component, eventName, eventParameters, cbl)) {
+            // delegated behaviors are handled by a document level script, only the user code is left inline
+            return renderHTMLAttribute(writer, componentProperty, htmlAttrName, attributeValue);
+        }
+
         if (cbl.size() > 1 || (cbl.size() == 1 && attributeValue != null)) {
             return renderHTMLAttribute(writer, componentProperty, htmlAttrName,
                     buildBehaviorChain(facesContext,
@@ -462,6 +501,76 @@ public class Html5RendererUtils
         }
     }
 
+    /**
+     * Lets the renderers of the behaviors which implement {@link DelegatedClientBehaviorRenderer} render their
+     * attributes.
+     *
+     * @return true, if all of the behaviors are delegated, so no behavior script must be rendered for the event
+     * @throws IOException
+     */
+    private static boolean _renderDelegatedBehaviors(FacesContext facesContext, UIComponent component,
+            String eventName, Collection<ClientBehaviorContext.Parameter> eventParameters, List<ClientBehavior> behaviors)
+            throws IOException {
+        RenderKit renderKit = facesContext.getRenderKit();
+        if (renderKit == null) {
+            return false;
+        }
+
+        boolean allDelegated = true;
+        ClientBehaviorContext behaviorContext = null;
+        for (ClientBehavior behavior : behaviors) {
+            ClientBehaviorRenderer renderer = null;
+            if (behavior instanceof ClientBehaviorBase) {
+                String rendererType = ((ClientBehaviorBase) behavior).getRendererType();
+                if (rendererType != null) {
+                    renderer = renderKit.getClientBehaviorRenderer(rendererType);
+                }
+            }
+
+            if (renderer instanceof DelegatedClientBehaviorRenderer) {
+                if (behaviorContext == null) {
+                    behaviorContext = ClientBehaviorContext.createClientBehaviorContext(facesContext, component,
+                            eventName, component.getClientId(facesContext), eventParameters);
+                }
+                if (((DelegatedClientBehaviorRenderer) renderer).renderDelegatedAttributes(behaviorContext, behavior)) {
+                    _markDelegatedBehaviorsRendered(behaviorContext);
+                    continue;
+                }
+            }
+            allDelegated = false;
+        }
+        return allDelegated;
+    }
+
+    /**
+     * Returns true if a behavior of the component was rendered as attributes for the event of the context, by
+     * {@link DelegatedClientBehaviorRenderer#renderDelegatedAttributes(ClientBehaviorContext, ClientBehavior)}, in
+     * the current request. Only the renderers of MyFaces Html5 do that; on other components, delegated behaviors still
+     * need their script.
+     */
+    public static boolean isDelegatedBehaviorRendered(ClientBehaviorContext behaviorContext) {
+        FacesContext facesContext = behaviorContext.getFacesContext();
+        Set<?> rendered = (Set<?>) facesContext.getAttributes().get(DELEGATED_BEHAVIORS_KEY);
+        return rendered != null && rendered.contains(_getDelegatedBehaviorKey(behaviorContext));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void _markDelegatedBehaviorsRendered(ClientBehaviorContext behaviorContext) {
+        Map<Object, Object> attributes = behaviorContext.getFacesContext().getAttributes();
+        Set<String> rendered = (Set<String>) attributes.get(DELEGATED_BEHAVIORS_KEY);
+        if (rendered == null) {
+            rendered = new HashSet<String>();
+            attributes.put(DELEGATED_BEHAVIORS_KEY, rendered);
+        }
+        rendered.add(_getDelegatedBehaviorKey(behaviorContext));
+    }
+
+    // the client id, as the same component is rendered once per row in iterating components
+    private static String _getDelegatedBehaviorKey(ClientBehaviorContext behaviorContext) {
+        return behaviorContext.getComponent().getClientId(behaviorContext.getFacesContext()) + ' '
+                + behaviorContext.getEventName();
+    }
+
     /**
      * @param facesContext
      * @param uiComponent
@@ -480,7 +589,33 @@ public class Html5RendererUtils
                                             String eventName, Collection<ClientBehaviorContext.Parameter> params,
                                             Map<String, List<ClientBehavior>> clientBehaviors,
                                             String userEventCode, String serverEventCode) {
-        ExternalContext externalContext = facesContext.getExternalContext();
+        BehaviorScriptCache cache = BehaviorScriptCache.getInstance(facesContext);
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = BehaviorScriptCache.createKey(facesContext, uiComponent, clientBehaviors, params,
+                    userEventCode, serverEventCode, BehaviorScriptCache.SINGLE_EVENT_CHAIN, eventName);
+            if (cacheKey != null) {
+                String script = cache.get(cacheKey);
+                if (script != null) {
+                    return script;
+                }
+            }
+        }
+
+        String script = _buildBehaviorChain(facesContext, uiComponent, eventName, params, clientBehaviors,
+                userEventCode, serverEventCode);
+
+        if (cacheKey != null) {
+            cache.put(cacheKey, script);
+        }
+        return script;
+    }
+
+    private static String _buildBehaviorChain(FacesContext facesContext,
+                                              UIComponent uiComponent,
+                                              String eventName, Collection<ClientBehaviorContext.Parameter> params,
+                                              Map<String, List<ClientBehavior>> clientBehaviors,
+                                              String userEventCode, String serverEventCode) {
         List<String> finalParams = new ArrayList<String>(3);
         if(StringUtils.isNotBlank(userEventCode)){
             // escape every ' in the user event code since it will
@@ -527,6 +662,35 @@ public class Html5RendererUtils
                                             Map<String, List<ClientBehavior>> clientBehaviors,
                                             String userEventCode,
                                             String serverEventCode) {
+        BehaviorScriptCache cache = BehaviorScriptCache.getInstance(facesContext);
+        String cacheKey = null;
+        if (cache != null && (params == null || params.isEmpty())) {
+            cacheKey = BehaviorScriptCache.createKey(facesContext, uiComponent, clientBehaviors, params2,
+                    userEventCode, serverEventCode, BehaviorScriptCache.TWO_EVENT_CHAIN, eventName1, eventName2);
+            if (cacheKey != null) {
+                String script = cache.get(cacheKey);
+                if (script != null) {
+                    return script;
+                }
+            }
+        }
+
+        String script = _buildBehaviorChain(facesContext, uiComponent, eventName1, params, eventName2, params2,
+                clientBehaviors, userEventCode, serverEventCode);
+
+        if (cacheKey != null) {
+            cache.put(cacheKey, script);
+        }
+        return script;
+    }
+
+    private static String _buildBehaviorChain(FacesContext facesContext,
+                                              UIComponent uiComponent,
+                                              String eventName1, Collection<ClientBehaviorContext.Parameter> params,
+                                              String eventName2, Collection<ClientBehaviorContext.Parameter> params2,
+                                              Map<String, List<ClientBehavior>> clientBehaviors,
+                                              String userEventCode,
+                                              String serverEventCode) {
 
         List<String> finalParams = new ArrayList<String>(3);
         if (StringUtils.isNotBlank(userEventCode)) {
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import java.util.logging.Logger;
+
+import javax.faces.context.ExternalContext;
+
+/**
+ * Context parameters (web.xml &lt;context-param&gt;) that are understood by MyFaces Html5, and helpers to read them.
+ *
+ * @author Ali Ok
+ */
+public final class Html5WebConfigParams
+{
+    private static final Logger log = Logger.getLogger(Html5WebConfigParams.class.getName());
+
+    /**
+     * If true, responses with content type text/html are written with
+     * {@link org.apache.myfaces.html5.renderkit.Html5ResponseWriter}. Default is false.
+     */
+    public static final String RESPONSE_WRITER_ENABLED = "org.apache.myfaces.html5.RESPONSE_WRITER_ENABLED";
+
+    /**
+     * Maximum number of composed behavior chain scripts kept in the application scoped
+     * {@link BehaviorScriptCache}. 0 disables the cache. Default is 1000.
+     */
+    public static final String BEHAVIOR_SCRIPT_CACHE_SIZE = "org.apache.myfaces.html5.BEHAVIOR_SCRIPT_CACHE_SIZE";
+
+    /**
+     * If true, inputs with identical suggestions share one generated &lt;datalist&gt; in a view, instead of rendering
+     * one datalist per input. Not applied on partial rendering. Default is false. <br/>
+     * No options are kept in memory for it, only a hash per distinct datalist, but the suggestions of each input are
+     * read to compute the hash before anything is rendered, and read again to render the first datalist with them.
+     * A {@link org.apache.myfaces.html5.model.SuggestionProvider} is therefore asked twice for its first datalist,
+     * and one with an unknown size hint is not shared at all.
+     */
+    public static final String SHARED_DATALISTS_ENABLED = "org.apache.myfaces.html5.SHARED_DATALISTS_ENABLED";
+
+    /**
+     * Maximum number of options rendered for each suggestion source (the "suggestions" property or the
+     * f:selectItem(s) children) of a datalist. 0 or not set means no limit.
+     */
+    public static final String SUGGESTIONS_LIMIT = "org.apache.myfaces.html5.SUGGESTIONS_LIMIT";
+
+    /**
+     * If true, media renderers only render the &lt;source&gt; elements the client is able to play, best first, by
+     * negotiating them against the {@link org.apache.myfaces.html5.renderkit.media.MediaCapabilities} of the request.
+     * Responses then carry <code>Vary: Cookie, User-Agent</code>, as they depend on these headers. Default is false.
+     */
+    public static final String MEDIA_SOURCE_NEGOTIATION_ENABLED = "org.apache.myfaces.html5.MEDIA_SOURCE_NEGOTIATION_ENABLED";
+
+    /**
+     * Comma separated names of the resource libraries which are served by
+     * {@link org.apache.myfaces.html5.application.MediaResourceHandler}, with byte range support. Media components
+     * resolve "library:name" sources of these libraries to resource urls. Not set by default.
+     */
+    public static final String MEDIA_LIBRARIES = "org.apache.myfaces.html5.MEDIA_LIBRARIES";
+
+    /**
+     * Value of the max-age cache directive of the files served by
+     * {@link org.apache.myfaces.html5.application.MediaResourceHandler}, in seconds. Default is 31536000 (one year).
+     */
+    public static final String MEDIA_CACHE_MAX_AGE = "org.apache.myfaces.html5.MEDIA_CACHE_MAX_AGE";
+
+    /**
+     * Default loading mode of media components without a "loading" property, "eager" or "lazy". Default is "eager".
+     */
+    public static final String MEDIA_LOADING = "org.apache.myfaces.html5.MEDIA_LOADING";
+
+    /**
+     * Maximum size in bytes of a file dropped on a drop target, see
+     * {@link org.apache.myfaces.html5.application.FileDropResourceHandler}. Files are streamed to temporary files, so
+     * the limit does not depend on the heap size. 0 disables file drops. Default is 0.
+     */
+    public static final String FILE_DROP_MAX_SIZE = "org.apache.myfaces.html5.FILE_DROP_MAX_SIZE";
+
+    /**
+     * Maximum sum in bytes of the sizes of the dropped files of a session which are not claimed by a drop event yet.
+     * Uploads beyond it are refused. Default is 4 times {@link #FILE_DROP_MAX_SIZE}.
+     */
+    public static final String FILE_DROP_SESSION_QUOTA = "org.apache.myfaces.html5.FILE_DROP_SESSION_QUOTA";
+
+    /**
+     * Number of seconds after which an upload of a dropped file that received no chunk is abandoned, and its temporary
+     * file deleted. Default is 300.
+     */
+    public static final String FILE_DROP_IDLE_TIMEOUT = "org.apache.myfaces.html5.FILE_DROP_IDLE_TIMEOUT";
+
+    /**
+     * If true, fx:dragSource and fx:dropTarget behaviors are rendered as compact data- attributes, which are handled by
+     * one document level listener of dnd.js, instead of inline event handler scripts on every element. The attributes
+     * are only rendered by the components of MyFaces Html5; behaviors attached to other components, e.g. a standard
+     * h:panelGroup, keep their inline scripts. Default is false.
+     */
+    public static final String DND_DELEGATION_ENABLED = "org.apache.myfaces.html5.DND_DELEGATION_ENABLED";
+
+    /**
+     * If true, the CSS of the fx:animation, fx:animations, fx:effects and fx:effectOutput components of a view is
+     * rendered to one generated stylesheet, which is referenced by a &lt;link&gt; in the head instead of an inline
+     * &lt;style&gt; block per component. The stylesheet is named after the hash of its content and served with
+     * immutable caching headers by {@link org.apache.myfaces.html5.application.StyleSheetResourceHandler}, which
+     * regenerates stylesheets it does not keep from their view. Views whose CSS depends on the session or the request
+     * need sticky sessions in a cluster. Requires a h:head in the view. Default is false.
+     */
+    public static final String ANIMATION_STYLESHEET_ENABLED = "org.apache.myfaces.html5.ANIMATION_STYLESHEET_ENABLED";
+
+    /**
+     * Maximum number of generated stylesheets, see {@link #ANIMATION_STYLESHEET_ENABLED}, kept by the application.
+     * Default is 256.
+     */
+    public static final String ANIMATION_STYLESHEET_CACHE_SIZE = "org.apache.myfaces.html5.ANIMATION_STYLESHEET_CACHE_SIZE";
+
+    /**
+     * If true, fx:animations components with identical keyframes share one generated keyframes name, derived from the
+     * hash of the keyframes, instead of naming the keyframes after their client ids. Each keyframes definition is
+     * rendered once per response. Default is false.
+     */
+    public static final String KEYFRAMES_DEDUPLICATION_ENABLED = "org.apache.myfaces.html5.KEYFRAMES_DEDUPLICATION_ENABLED";
+
+    /**
+     * If true, the CSS rules written by {@link CssWriter}, e.g. of fx:slideView, fx:animation, fx:animations and
+     * fx:effects, are written without optional whitespace. Default is false.
+     */
+    public static final String CSS_MINIFICATION_ENABLED = "org.apache.myfaces.html5.CSS_MINIFICATION_ENABLED";
+
+    /**
+     * If true, the scripts and stylesheets of MyFaces Html5 which are required by the components of a view are
+     * replaced by one minified bundle containing all of them, see
+     * {@link org.apache.myfaces.html5.application.ResourceBundleListener}. The bundles are made at build time and named
+     * after the hash of their content, so they are served with immutable caching headers by
+     * {@link org.apache.myfaces.html5.application.BundleResourceHandler}. Default is false.
+     */
+    public static final String RESOURCE_BUNDLES_ENABLED = "org.apache.myfaces.html5.RESOURCE_BUNDLES_ENABLED";
+
+    /**
+     * If true, the scripts and stylesheets of MyFaces Html5, including the resource bundles, are served from the
+     * compressed variants made at build time to clients accepting them, with <code>Content-Encoding</code> and
+     * <code>Vary: Accept-Encoding</code> headers, see
+     * {@link org.apache.myfaces.html5.application.PrecompressedResourceHandler}. Compression of these responses by the
+     * container can be turned off then. Default is false.
+     */
+    public static final String PRECOMPRESSED_RESOURCES_ENABLED = "org.apache.myfaces.html5.PRECOMPRESSED_RESOURCES_ENABLED";
+
+    /**
+     * If true, the rendered h:head, including the scripts and stylesheets targeted at it, is flushed to the client as
+     * soon as it is complete, so the browser loads them while the body is still being rendered, see
+     * {@link org.apache.myfaces.html5.renderkit.HeadFlushRenderer}. The response is committed after the head, so
+     * errors of the body can not be answered with an error page anymore. The time to first byte is recorded by
+     * {@link org.apache.myfaces.html5.application.ResponseTimingPhaseListener}. Default is false.
+     */
+    public static final String HEAD_FLUSH_ENABLED = "org.apache.myfaces.html5.HEAD_FLUSH_ENABLED";
+
+    private Html5WebConfigParams()
+    {
+    }
+
+    /**
+     * Returns the trimmed value of the init parameter, or the default value if it is not set or empty.
+     */
+    public static String getStringInitParameter(ExternalContext externalContext, String name, String defaultValue)
+    {
+        String value = externalContext.getInitParameter(name);
+        if (value == null)
+            return defaultValue;
+
+        value = value.trim();
+        return value.length() == 0 ? defaultValue : value;
+    }
+
+    public static boolean getBooleanInitParameter(ExternalContext externalContext, String name, boolean defaultValue)
+    {
+        String value = getStringInitParameter(externalContext, name, null);
+        if (value == null)
+            return defaultValue;
+
+        return "true".equalsIgnoreCase(value) || "on".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value);
+    }
+
+    public static int getIntInitParameter(ExternalContext externalContext, String name, int defaultValue)
+    {
+        String value = getStringInitParameter(externalContext, name, null);
+        if (value == null)
+            return defaultValue;
+
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            log.warning("Init parameter '" + name + "' must be an integer, but was '" + value
+                    + "'. Using default value " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
+    public static long getLongInitParameter(ExternalContext externalContext, String name, long defaultValue)
+    {
+        String value = getStringInitParameter(externalContext, name, null);
+        if (value == null)
+            return defaultValue;
+
+        try
+        {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e)
+        {
+            log.warning("Init parameter '" + name + "' must be a number, but was '" + value
+                    + "'. Using default value " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+}
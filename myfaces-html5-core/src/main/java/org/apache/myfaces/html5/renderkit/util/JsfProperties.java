@@ -57,6 +57,7 @@ public interface JsfProperties
     String LOOP_PROP = "loop";
     String AUTOPLAY_PROP = "autoplay";
     String POSTER_PROP = "poster";
+    String LOADING_PROP = "loading";
 
     // common event props
     String ONBLUR_PROP = "onblur";
@@ -103,6 +104,9 @@ public interface JsfProperties
 
     // html5 new input props
     String DATALIST_PROP = "datalist";
+    String SUGGESTIONS_PROP = "suggestions";
+    String INCREMENTAL_SUGGESTIONS_PROP = "incrementalSuggestions";
+    String MAX_SUGGESTIONS_PROP = "maxSuggestions";
     String AUTOFOCUS_PROP = "autofocus";
     String ONFORMCHANGE_PROP = "onformchange";
     String ONFORMINPUT_PROP = "onforminput";
@@ -49,6 +49,23 @@ public interface PassThroughAttributes
         .attr(HEIGHT_PROP)
         .unmodifiable();
 
+    // same as AUDIO and VIDEO, without preload which is rendered by the renderer in lazy loading mode
+    Map<String, String> LAZY_AUDIO = map(12)
+        .attrs(PassThroughAttributeGroups.HTML_GLOBAL_PROPS)
+        .attrs(PassThroughAttributeGroups.HTML5_GLOBAL_PROPS)
+        //media props
+        .attr(SHOW_CONTROLS_PROP, CONTROLS_ATTR)
+        .attr(LOOP_PROP)
+        .attr(AUTOPLAY_PROP)
+        .unmodifiable();
+
+    Map<String, String> LAZY_VIDEO = map(14)
+        .attrs(LAZY_AUDIO)
+        .attr(POSTER_PROP)
+        .attr(WIDTH_PROP)
+        .attr(HEIGHT_PROP)
+        .unmodifiable();
+
     Map<String, String> BASE_INPUT = map(13)
         .attrs(PassThroughAttributeGroups.COMMON_INPUT_PROPS)
         .unmodifiable();
@@ -139,4 +156,15 @@ public interface PassThroughAttributes
         .attrs(PassThroughAttributeGroups.HTML_GLOBAL_PROPS)
         .unmodifiable();
 
+    // same as SLIDE_VIEW, without style which is rendered by the renderer together with the slide custom properties
+    Map<String, String> SLIDE_VIEW_WITHOUT_STYLE = map(10)
+        .attrs(PassThroughAttributeGroups.HTML5_GLOBAL_PROPS)
+        .attr(DIR_PROP)
+        .attr(LANG_PROP)
+        .attr(STYLECLASS_PROP, CLASS_ATTR)
+        .attr(TITLE_PROP)
+        .attr(ACCESSKEY_PROP)
+        .attr(TABINDEX_PROP)
+        .unmodifiable();
+
 }
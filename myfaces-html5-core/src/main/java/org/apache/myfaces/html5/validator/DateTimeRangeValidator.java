@@ -19,8 +19,8 @@
 package org.apache.myfaces.html5.validator;
 
 import java.text.ParseException;
-import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,7 +37,7 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFValidat
 import org.apache.myfaces.commons.util.DebugUtils;
 import org.apache.myfaces.html5.component.input.HtmlInputDateTime;
 import org.apache.myfaces.html5.renderkit.input.util.Html5DateTimeFormatUtils;
-import org.apache.myfaces.html5.renderkit.util.HTML5;
+import org.apache.myfaces.html5.renderkit.input.util.Html5TemporalSupport;
 
 /**
  * Validate that the date entered is within a given range. Rendered min/max attributes of hx:inputDateTime is driven by
@@ -51,14 +51,16 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
 {
     private static final Logger log = Logger.getLogger(DateTimeRangeValidator.class.getName());
 
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
     private Object _minimum = null;
     private Object _maximum = null;
     private String exceedMaximumMessage;
     private String lessThanMinimumMessage;
     private String notInRangeMessage;
 
-    private Date _resolvedMinimum;
-    private Date _resolvedMaximum;
+    // bounds resolved for the type of the last validated/rendered component, see _getResolvedBounds
+    private ResolvedBounds _resolvedBounds;
 
     private boolean _transient;
 
@@ -78,34 +80,25 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
         {
             HtmlInputDateTime component = (HtmlInputDateTime) uiComponent;
 
-            if (value instanceof Date)
+            if (value instanceof Date || Html5TemporalSupport.isSupportedType(value.getClass()))
             {
-                Date dateValue = (Date) value;
-                Date resolvedMinimum = null;
-                try
-                {
-                    resolvedMinimum = getResolvedMinimum(component.getType());
-                }
-                catch (ParseException e)
-                {
-                    throw new ValidatorException(new FacesMessage("Unable to resolve minimum for component "
-                            + DebugUtils.getPathToComponent(uiComponent) + "."), e);
-                }
+                long millis = value instanceof Date ? ((Date) value).getTime() : _resolveMillisFromObject(value,
+                        component.getType());
 
-                Date resolvedMaximum = null;
+                ResolvedBounds bounds;
                 try
                 {
-                    resolvedMaximum = getResolvedMaximum(component.getType());
+                    bounds = _getResolvedBounds(component.getType());
                 }
                 catch (ParseException e)
                 {
-                    throw new ValidatorException(new FacesMessage("Unable to resolve maximum for component "
+                    throw new ValidatorException(new FacesMessage("Unable to resolve minimum or maximum for component "
                             + DebugUtils.getPathToComponent(uiComponent) + "."), e);
                 }
 
-                if (resolvedMinimum != null && resolvedMaximum != null)
+                if (bounds.hasMinimum && bounds.hasMaximum)
                 {
-                    if (!resolvedMinimum.before(resolvedMaximum))
+                    if (bounds.minimum >= bounds.maximum)
                     {
                         // not a ValidatorException since state is illegal
                         throw new FacesException("Minimum value is before than maximum for component "
@@ -113,7 +106,7 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
                     }
                     else
                     {
-                        if (dateValue.before(resolvedMinimum) || dateValue.after(resolvedMaximum))
+                        if (millis < bounds.minimum || millis > bounds.maximum)
                         {
                             if (this.notInRangeMessage != null && this.notInRangeMessage.length() > 0)
                                 throw new ValidatorException(new FacesMessage(this.notInRangeMessage));
@@ -121,29 +114,29 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
                                 throw new ValidatorException(
                                         new FacesMessage("Submitted value is not in allowed range for component "
                                                 + DebugUtils.getPathToComponent(uiComponent) + ". Range is "
-                                                + resolvedMinimum.toString() + " - " + resolvedMaximum.toString() + "."));
+                                                + new Date(bounds.minimum) + " - " + new Date(bounds.maximum) + "."));
                         }
                     }
                 }
 
-                if (resolvedMinimum != null && dateValue.before(resolvedMinimum))
+                if (bounds.hasMinimum && millis < bounds.minimum)
                 {
                     if (this.lessThanMinimumMessage != null && this.lessThanMinimumMessage.length() > 0)
                         throw new ValidatorException(new FacesMessage(this.lessThanMinimumMessage));
                     else
                         throw new ValidatorException(new FacesMessage("Value is before minimum for component "
                                 + DebugUtils.getPathToComponent(uiComponent) + ". Minimum value is "
-                                + resolvedMinimum.toString() + "."));
+                                + new Date(bounds.minimum) + "."));
                 }
 
-                if (resolvedMaximum != null && dateValue.after(resolvedMaximum))
+                if (bounds.hasMaximum && millis > bounds.maximum)
                 {
                     if (this.exceedMaximumMessage != null && this.exceedMaximumMessage.length() > 0)
                         throw new ValidatorException(new FacesMessage(this.exceedMaximumMessage));
                     else
                         throw new ValidatorException(new FacesMessage("Value is after maximum for component "
                                 + DebugUtils.getPathToComponent(uiComponent) + ". Maximum value is "
-                                + resolvedMaximum.toString() + "."));
+                                + new Date(bounds.maximum) + "."));
                 }
             }
         }
@@ -164,11 +157,8 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
      */
     public Date getResolvedMinimum(String type) throws ParseException
     {
-        // no synchronization necessary
-        if (_resolvedMinimum == null)
-            _resolvedMinimum = _resolveDateFromObject(_minimum, type);
-
-        return _resolvedMinimum;
+        ResolvedBounds bounds = _getResolvedBounds(type);
+        return bounds.hasMinimum ? new Date(bounds.minimum) : null;
     }
 
     /**
@@ -179,53 +169,174 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
      */
     public Date getResolvedMaximum(String type) throws ParseException
     {
-        // no synchronization necessary
-        if (_resolvedMaximum == null)
-            _resolvedMaximum = _resolveDateFromObject(_maximum, type);
+        ResolvedBounds bounds = _getResolvedBounds(type);
+        return bounds.hasMaximum ? new Date(bounds.maximum) : null;
+    }
 
-        return _resolvedMaximum;
+    /**
+     * Returns the resolved minimum formatted for the given type, as rendered in the min attribute of hx:inputDateTime.
+     * 
+     * @throws ParseException
+     *             if the value of minimum property is String and cannot be parsed for the given type.
+     */
+    public String getFormattedMinimum(String type) throws ParseException
+    {
+        return _getResolvedBounds(type).formattedMinimum;
     }
 
-    //Resolve the date based on parent component's type
-    private Date _resolveDateFromObject(Object value, String type) throws ParseException
+    /**
+     * Returns the resolved maximum formatted for the given type, as rendered in the max attribute of hx:inputDateTime.
+     * 
+     * @throws ParseException
+     *             if the value of maximum property is String and cannot be parsed for the given type.
+     */
+    public String getFormattedMaximum(String type) throws ParseException
     {
-        if (value == null)
-            return null;
+        return _getResolvedBounds(type).formattedMaximum;
+    }
 
+    private ResolvedBounds _getResolvedBounds(String type) throws ParseException
+    {
+        // no synchronization necessary, bounds are immutable and resolving twice does no harm
+        ResolvedBounds bounds = _resolvedBounds;
+        if (bounds == null || !bounds.isValidFor(type, _minimum, _maximum))
+        {
+            bounds = new ResolvedBounds(type, _minimum, _maximum);
+            _resolvedBounds = bounds;
+        }
+        return bounds;
+    }
+
+    //Resolve the instant based on parent component's type
+    private static long _resolveMillisFromObject(Object value, String type, int resolvedType) throws ParseException
+    {
         if (value instanceof String)
         {
-            String strValue = (String) value;
-            return Html5DateTimeFormatUtils.parseDateTime(strValue, type);
+            long millis = Html5DateTimeFormatUtils.parseEpochMillis((String) value, resolvedType);
+            if (resolvedType == Html5DateTimeFormatUtils.TYPE_DATETIME)
+                return millis;
+            else
+                return Html5DateTimeFormatUtils.toInstant(millis, TimeZone.getDefault());
         }
         else if (value instanceof Date)
         {
-            Date dateValue = (Date) value;
-            if (HTML5.INPUT_TYPE_TIME.equals(type))
+            long millis = ((Date) value).getTime();
+            if (resolvedType == Html5DateTimeFormatUtils.TYPE_TIME)
             {
                 // XXX: may be it's better to leave this operation to user?
                 // we need to clear the date info (y, m, d) if the type is "time"
-                Calendar cal = Calendar.getInstance();
-                cal.setTime(dateValue);
-                cal.set(Calendar.YEAR, 1970);
-                cal.set(Calendar.MONTH, Calendar.JANUARY);
-                cal.set(Calendar.DAY_OF_MONTH, 1);
-                return cal.getTime();
+                TimeZone timeZone = TimeZone.getDefault();
+                long localMillis = Html5DateTimeFormatUtils.toLocalEpochMillis(millis, timeZone);
+                long millisOfDay = localMillis % MILLIS_PER_DAY;
+                if (millisOfDay < 0)
+                    millisOfDay += MILLIS_PER_DAY;
+                return Html5DateTimeFormatUtils.toInstant(millisOfDay, timeZone);
             }
             else
             {
-                return dateValue;
+                return millis;
+            }
+        }
+        else if (Html5TemporalSupport.isSupportedType(value.getClass()))
+        {
+            long millis = Html5TemporalSupport.toEpochMillis(value, resolvedType);
+            if (resolvedType == Html5DateTimeFormatUtils.TYPE_DATETIME)
+                return millis;
+
+            if (resolvedType == Html5DateTimeFormatUtils.TYPE_TIME)
+            {
+                // same as for java.util.Date, only the time of day is kept
+                millis = millis % MILLIS_PER_DAY;
+                if (millis < 0)
+                    millis += MILLIS_PER_DAY;
             }
+            return Html5DateTimeFormatUtils.toInstant(millis, TimeZone.getDefault());
         }
         else
         {
-            throw new IllegalArgumentException("Value " + type + "is not String nor java.util.Date. Unable to resolve.");
+            throw new IllegalArgumentException("Value " + value + " for type " + type
+                    + " is not String, java.util.Date nor a supported java.time value. Unable to resolve.");
         }
+    }
+
+    //Resolve the instant of a java.time value
+    private static long _resolveMillisFromObject(Object value, String type)
+    {
+        try
+        {
+            return _resolveMillisFromObject(value, type, Html5DateTimeFormatUtils.resolveType(type));
+        }
+        catch (ParseException e)
+        {
+            // only String values are parsed
+            throw new IllegalStateException(e);
+        }
+    }
 
+    private static String _format(long millis, int resolvedType)
+    {
+        if (resolvedType != Html5DateTimeFormatUtils.TYPE_DATETIME)
+            millis = Html5DateTimeFormatUtils.toLocalEpochMillis(millis, TimeZone.getDefault());
+
+        return Html5DateTimeFormatUtils.formatEpochMillis(millis, resolvedType);
+    }
+
+    /**
+     * Minimum and maximum resolved to instants for an input type, together with their formatted values. Remembers the
+     * values it was resolved from, so a new minimum or maximum (e.g. re-evaluated by EL) or a modified Date is
+     * detected.
+     */
+    private static final class ResolvedBounds
+    {
+        private final String type;
+        private final Object minimumSource;
+        private final Object maximumSource;
+        private final long minimumSourceTime;
+        private final long maximumSourceTime;
+
+        private final boolean hasMinimum;
+        private final boolean hasMaximum;
+        private final long minimum;
+        private final long maximum;
+        private final String formattedMinimum;
+        private final String formattedMaximum;
+
+        private ResolvedBounds(String type, Object minimumSource, Object maximumSource) throws ParseException
+        {
+            int resolvedType = Html5DateTimeFormatUtils.resolveType(type);
+
+            this.type = type;
+            this.minimumSource = minimumSource;
+            this.maximumSource = maximumSource;
+            this.minimumSourceTime = _sourceTime(minimumSource);
+            this.maximumSourceTime = _sourceTime(maximumSource);
+
+            this.hasMinimum = minimumSource != null;
+            this.minimum = hasMinimum ? _resolveMillisFromObject(minimumSource, type, resolvedType) : 0L;
+            this.formattedMinimum = hasMinimum ? _format(minimum, resolvedType) : null;
+
+            this.hasMaximum = maximumSource != null;
+            this.maximum = hasMaximum ? _resolveMillisFromObject(maximumSource, type, resolvedType) : 0L;
+            this.formattedMaximum = hasMaximum ? _format(maximum, resolvedType) : null;
+        }
+
+        private boolean isValidFor(String type, Object minimumSource, Object maximumSource)
+        {
+            return this.type.equals(type) && this.minimumSource == minimumSource
+                    && this.maximumSource == maximumSource && this.minimumSourceTime == _sourceTime(minimumSource)
+                    && this.maximumSourceTime == _sourceTime(maximumSource);
+        }
+
+        private static long _sourceTime(Object source)
+        {
+            return source instanceof Date ? ((Date) source).getTime() : 0L;
+        }
     }
 
     /**
      * Minimum date that can be selected on client-side and is used on validation at server-side.
-     * Value must be either String, or java.util.Date. If String is given, the value must be in the format of parent hx:inputDateTime's type.
+     * Value must be either String, java.util.Date or one of the java.time types LocalDate, LocalTime, LocalDateTime,
+     * OffsetDateTime, Instant and YearMonth. If String is given, the value must be in the format of parent hx:inputDateTime's type.
      */
     @JSFProperty(deferredValueType = "java.lang.Object")
     public Object getMinimum()
@@ -236,12 +347,14 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
     public void setMinimum(Object minimum)
     {
         this._minimum = minimum;
+        this._resolvedBounds = null;
         clearInitialState();
     }
 
     /**
      * Maximum date that can be selected on client-side and is used on validation at server-side.
-     * Value must be either String, or java.util.Date. If String is given, the value must be in the format of parent hx:inputDateTime's type.
+     * Value must be either String, java.util.Date or one of the java.time types LocalDate, LocalTime, LocalDateTime,
+     * OffsetDateTime, Instant and YearMonth. If String is given, the value must be in the format of parent hx:inputDateTime's type.
      */
     @JSFProperty(deferredValueType = "java.lang.Object")
     public Object getMaximum()
@@ -252,6 +365,7 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
     public void setMaximum(Object maximum)
     {
         this._maximum = maximum;
+        this._resolvedBounds = null;
         clearInitialState();
     }
 
@@ -305,10 +419,22 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
     {
         if (!initialStateMarked())
         {
-            Object values[] = new Object[2];
-            values[0] = _maximum;
-            values[1] = _minimum;
-            return values;
+            // dates are saved as epoch millis and trailing nulls are left out
+            Object values[] = new Object[] { _saveBound(_maximum), _saveBound(_minimum), exceedMaximumMessage,
+                    lessThanMinimumMessage, notInRangeMessage };
+
+            int length = values.length;
+            while (length > 0 && values[length - 1] == null)
+                length--;
+
+            if (length == 0)
+                return null;
+            if (length == values.length)
+                return values;
+
+            Object[] trimmedValues = new Object[length];
+            System.arraycopy(values, 0, trimmedValues, 0, length);
+            return trimmedValues;
         }
         return null;
     }
@@ -318,11 +444,29 @@ public class DateTimeRangeValidator implements Validator, PartialStateHolder
         if (state != null)
         {
             Object values[] = (Object[]) state;
-            _maximum = (Double) values[0];
-            _minimum = (Double) values[1];
+            _maximum = _restoreBound(values, 0);
+            _minimum = _restoreBound(values, 1);
+            exceedMaximumMessage = values.length > 2 ? (String) values[2] : null;
+            lessThanMinimumMessage = values.length > 3 ? (String) values[3] : null;
+            notInRangeMessage = values.length > 4 ? (String) values[4] : null;
+            _resolvedBounds = null;
         }
     }
 
+    private static Object _saveBound(Object bound)
+    {
+        return bound instanceof Date ? Long.valueOf(((Date) bound).getTime()) : bound;
+    }
+
+    private static Object _restoreBound(Object[] values, int index)
+    {
+        if (index >= values.length)
+            return null;
+
+        Object bound = values[index];
+        return bound instanceof Long ? new Date(((Long) bound).longValue()) : bound;
+    }
+
     public boolean isTransient()
     {
         return _transient;
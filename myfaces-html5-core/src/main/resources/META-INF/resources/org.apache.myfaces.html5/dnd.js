@@ -32,6 +32,15 @@ myfaces.html5.dnd.COMPONENT_SOURCE_MIME_TYPE 	= 'text/x-myfaces-html5-dnd-source
 myfaces.html5.dnd.DROP_TARGETS_MIME_TYPE 		= 'text/x-myfaces-html5-drop-target-type';
 myfaces.html5.dnd.COMPONENT_SOURCE 				= 'org.apache.myfaces';
 myfaces.html5.dnd.ACCEPT_ALL_MIME_TYPES 	    = '*';
+myfaces.html5.dnd.FILES_MIME_TYPE 				= 'Files';
+myfaces.html5.dnd.FILES_PARAM 					= 'org.apache.myfaces.dnd.files';
+myfaces.html5.dnd.FILE_CHUNK_SIZE 				= 1024 * 1024;
+myfaces.html5.dnd.BATCH_SIZE_PARAM 				= 'org.apache.myfaces.dnd.batchSize';
+myfaces.html5.dnd.BATCH_PARAM_PREFIX 			= 'org.apache.myfaces.dnd.batch.';
+myfaces.html5.dnd.BATCH_MAX_SIZE 				= 100;
+
+//batches of the drop targets with batchDelay, oldest first, by source id
+myfaces.html5.dnd._batches = {};
 
 //myfaces.html5.dnd.COMPONENT_SOURCE_MIME_TYPE 	= 'text/x-myfaces-html5-dnd-source';
 
@@ -93,7 +102,7 @@ myfaces.html5.dnd.dragEnterOrOver = function(event, allowedEffect, dropTargetTyp
     return false;
 }
  
-myfaces.html5.dnd.drop = function(event, source, rerender, acceptedMimeTypes){
+myfaces.html5.dnd.drop = function(event, source, rerender, acceptedMimeTypes, uploadUrl, batchDelay){
 	//cancel the event. this is necessary for DnD execution
     if (event.preventDefault)
         event.preventDefault();
@@ -112,10 +121,13 @@ myfaces.html5.dnd.drop = function(event, source, rerender, acceptedMimeTypes){
     else
     	options.render = "@none";
     
+    //values of this drop, kept apart from the options since drops can be batched
+    var dropData = {};
+
     //set param
     var paramsToSend = event.dataTransfer.getData(myfaces.html5.dnd.PARAM_MIME_TYPE);
     if(paramsToSend)
-    	options[myfaces.html5.dnd.PARAM_MIME_TYPE] = paramsToSend;
+    	dropData[myfaces.html5.dnd.PARAM_MIME_TYPE] = paramsToSend;
 
     //set the data according to acceptedMimeTypes
     if(acceptedMimeTypes){
@@ -130,12 +142,12 @@ myfaces.html5.dnd.drop = function(event, source, rerender, acceptedMimeTypes){
             foundMimeTypes = acceptedMimeTypes.filter(function (mimeType) {return event.dataTransfer.types.contains(mimeType)});
         }
         if(foundMimeTypes.length > 0){
-             options["org.apache.myfaces.dnd.foundMimeTypes"] = myfaces.html5.common.getArrayAsString(foundMimeTypes);
+             dropData["org.apache.myfaces.dnd.foundMimeTypes"] = myfaces.html5.common.getArrayAsString(foundMimeTypes);
              for(var i=0; i< foundMimeTypes.length; i++){
                  var mimeType = foundMimeTypes[i];
                  var data = event.dataTransfer.getData(mimeType);
                  if(data){
-                     options[mimeType] = data;
+                     dropData[mimeType] = data;
                  }
              }
         }
@@ -144,8 +156,351 @@ myfaces.html5.dnd.drop = function(event, source, rerender, acceptedMimeTypes){
     //set event
     options["javax.faces.behavior.event"] = "drop"
 
-    jsf.ajax.request(source, event, options);
-    
+    //upload the dropped files first, if they are accepted and file drops are enabled on the server
+    var files = event.dataTransfer.files;
+    var upload = uploadUrl && files && files.length > 0 && window.XMLHttpRequest && window.Blob
+            && ((acceptedMimeTypes.length==1 && acceptedMimeTypes[0]==myfaces.html5.dnd.ACCEPT_ALL_MIME_TYPES)
+                || myfaces.html5.common.contains(acceptedMimeTypes, myfaces.html5.dnd.FILES_MIME_TYPE));
+
+    if(!batchDelay || batchDelay <= 0){
+        if(upload){
+            myfaces.html5.dnd.uploadFiles(uploadUrl, files, function(ids){
+                dropData[myfaces.html5.dnd.FILES_PARAM] = myfaces.html5.common.getArrayAsString(ids);
+                myfaces.html5.dnd._send(source, event, options, dropData);
+            });
+        }
+        else
+            myfaces.html5.dnd._send(source, event, options, dropData);
+        return false;
+    }
+
+    //the drop takes its place in the batch now, its upload ids are filled in when the files are uploaded
+    var batch = myfaces.html5.dnd._addToBatch(source, options, dropData, batchDelay, upload);
+    if(upload){
+        myfaces.html5.dnd.uploadFiles(uploadUrl, files, function(ids){
+            dropData[myfaces.html5.dnd.FILES_PARAM] = myfaces.html5.common.getArrayAsString(ids);
+            batch.pending--;
+            myfaces.html5.dnd._sendBatches(batch.key);
+        }, function(){
+            //the drop is left out, as it would be without batching
+            batch.drops.splice(batch.drops.indexOf(dropData), 1);
+            batch.pending--;
+            myfaces.html5.dnd._sendBatches(batch.key);
+        });
+    }
+
     return false;
 
-}
\ No newline at end of file
+}
+
+myfaces.html5.dnd._send = function(source, event, options, dropData){
+    for(var key in dropData){
+        if(dropData.hasOwnProperty(key))
+            options[key] = dropData[key];
+    }
+    jsf.ajax.request(source, event, options);
+}
+
+/*
+ * Adds the drop to the open batch of the source. A batch is opened by the first drop after the previous one was
+ * closed, and closed batchDelay milliseconds later or when it is full. Returns the batch.
+ */
+myfaces.html5.dnd._addToBatch = function(source, options, dropData, batchDelay, upload){
+    var batchKey = (typeof source == "string") ? source : source.id;
+    var batches = myfaces.html5.dnd._batches[batchKey];
+    if(!batches)
+        batches = myfaces.html5.dnd._batches[batchKey] = [];
+
+    var batch = batches.length > 0 ? batches[batches.length - 1] : null;
+    if(!batch || batch.closed){
+        batch = {key: batchKey, source: source, options: options, drops: [], pending: 0, closed: false};
+        batches.push(batch);
+        batch.timeout = window.setTimeout(function(){
+            myfaces.html5.dnd._closeBatch(batch);
+        }, batchDelay);
+    }
+    batch.drops.push(dropData);
+    if(upload)
+        batch.pending++;
+
+    if(batch.drops.length >= myfaces.html5.dnd.BATCH_MAX_SIZE){
+        window.clearTimeout(batch.timeout);
+        myfaces.html5.dnd._closeBatch(batch);
+    }
+    return batch;
+}
+
+myfaces.html5.dnd._closeBatch = function(batch){
+    batch.closed = true;
+    myfaces.html5.dnd._sendBatches(batch.key);
+}
+
+/*
+ * Sends the closed batches of the source whose uploads are finished. Batches are sent in the order they were opened,
+ * so a batch waiting for uploads holds back the later ones and the drops reach the server in the order they were made.
+ */
+myfaces.html5.dnd._sendBatches = function(batchKey){
+    var batches = myfaces.html5.dnd._batches[batchKey];
+    while(batches.length > 0 && batches[0].closed && batches[0].pending == 0)
+        myfaces.html5.dnd._sendBatch(batches.shift());
+
+    if(batches.length == 0)
+        delete myfaces.html5.dnd._batches[batchKey];
+}
+
+myfaces.html5.dnd._sendBatch = function(batch){
+    //all drops of the batch failed to upload their files
+    if(batch.drops.length == 0)
+        return;
+
+    var options = batch.options;
+    options[myfaces.html5.dnd.BATCH_SIZE_PARAM] = batch.drops.length;
+    for(var i=0; i<batch.drops.length; i++){
+        var dropData = batch.drops[i];
+        for(var key in dropData){
+            if(dropData.hasOwnProperty(key))
+                options[myfaces.html5.dnd.BATCH_PARAM_PREFIX + i + "." + key] = dropData[key];
+        }
+    }
+
+    jsf.ajax.request(batch.source, null, options);
+}
+
+/*
+ * Uploads the files one after another, in chunks of FILE_CHUNK_SIZE. The next chunk is read and sent only after the
+ * server answered the previous one, so neither the browser nor the server has to hold more than a chunk.
+ * Callback is called with the upload ids when all files are uploaded, and the optional errorCallback if an upload
+ * fails. In that case the server is told to drop the failed upload and the completed ones, so their temporary files
+ * are deleted at once.
+ */
+myfaces.html5.dnd.uploadFiles = function(uploadUrl, files, callback, errorCallback){
+    var idPrefix = new Date().getTime().toString(36) + Math.random().toString(36).substring(2);
+    var ids = [];
+
+    var uploadFile = function(index){
+        if(index == files.length){
+            callback(ids);
+            return;
+        }
+        var id = idPrefix + "-" + index;
+        myfaces.html5.dnd._uploadChunk(uploadUrl, id, files[index], 0, function(){
+            ids.push(id);
+            uploadFile(index + 1);
+        }, function(){
+            ids.push(id);
+            for(var i=0; i<ids.length; i++)
+                myfaces.html5.dnd._abortUpload(uploadUrl, ids[i]);
+            if(errorCallback)
+                errorCallback();
+        });
+    };
+    uploadFile(0);
+}
+
+myfaces.html5.dnd._abortUpload = function(uploadUrl, id){
+    var xhr = new XMLHttpRequest();
+    xhr.open("POST", uploadUrl + (uploadUrl.indexOf("?") < 0 ? "?" : "&") + "id=" + encodeURIComponent(id) + "&abort=true", true);
+    xhr.send(null);
+}
+
+myfaces.html5.dnd._uploadChunk = function(uploadUrl, id, file, offset, onComplete, onError){
+    var end = Math.min(offset + myfaces.html5.dnd.FILE_CHUNK_SIZE, file.size);
+
+    var query = "id=" + encodeURIComponent(id) + "&offset=" + offset;
+    if(offset == 0)
+        query += "&name=" + encodeURIComponent(file.name) + "&type=" + encodeURIComponent(file.type) + "&size=" + file.size;
+
+    var xhr = new XMLHttpRequest();
+    xhr.open("POST", uploadUrl + (uploadUrl.indexOf("?") < 0 ? "?" : "&") + query, true);
+    xhr.setRequestHeader("Content-Type", "application/octet-stream");
+    xhr.onreadystatechange = function(){
+        if(xhr.readyState != 4)
+            return;
+        if(xhr.status < 200 || xhr.status >= 300){
+            if(window.console)
+                window.console.error("Upload of dropped file " + file.name + " failed with status " + xhr.status);
+            onError();
+            return;
+        }
+        if(end < file.size)
+            myfaces.html5.dnd._uploadChunk(uploadUrl, id, file, end, onComplete, onError);
+        else
+            onComplete();
+    };
+    xhr.send(file.slice(offset, end));
+}
+
+/*
+ * Delegated drag and drop. With the org.apache.myfaces.html5.DND_DELEGATION_ENABLED context param, drag sources and
+ * drop targets have no inline handlers but data-fx-drag* and data-fx-drop* attributes, which are handled by the
+ * listeners below, registered once on the document.
+ * Everything that does not change during a drag is computed at dragstart (or at the first dragenter of a drag from
+ * outside the document), and the acceptance of each drop target is computed once per drag, so dragover only looks it
+ * up.
+ */
+myfaces.html5.dnd.DEFAULT_ACCEPTED_MIME_TYPES 	= [myfaces.html5.dnd.COMPONENT_SOURCE_MIME_TYPE];
+
+//state of the current drag, null if there is none
+myfaces.html5.dnd._drag = null;
+myfaces.html5.dnd._dragCount = 0;
+
+myfaces.html5.dnd._toSet = function(arr){
+    var set = {};
+    for(var i=0; i<arr.length; i++)
+        set[arr[i]] = true;
+    return set;
+}
+
+/*
+ * Returns the closest element of the given one, including itself, with the attribute. The result for the last
+ * element is kept, since dragover is fired on the same element again and again.
+ */
+myfaces.html5.dnd._closest = function(element, attribute, cache){
+    if(cache && cache.element === element)
+        return cache.result;
+
+    var current = element;
+    while(current && current.getAttribute && !current.hasAttribute(attribute))
+        current = current.parentNode;
+    var result = (current && current.getAttribute) ? current : null;
+
+    if(cache){
+        cache.element = element;
+        cache.result = result;
+    }
+    return result;
+}
+
+/*
+ * Returns the parsed data-fx-drop* attributes of the drop target, parsed only once per element.
+ */
+myfaces.html5.dnd._getDropTarget = function(element){
+    var target = element._fxDropTarget;
+    if(target)
+        return target;
+
+    var types = element.getAttribute("data-fx-drop-types");
+    var accept = element.getAttribute("data-fx-drop-accept");
+    var batch = element.getAttribute("data-fx-drop-batch");
+    target = {
+        action: element.getAttribute("data-fx-drop") || null,
+        types: types ? myfaces.html5.common.convertStringToArray(types) : null,
+        accept: accept ? myfaces.html5.common.convertStringToArray(accept) : myfaces.html5.dnd.DEFAULT_ACCEPTED_MIME_TYPES,
+        render: element.getAttribute("data-fx-drop-render"),
+        upload: element.getAttribute("data-fx-drop-upload"),
+        batch: batch ? parseInt(batch, 10) : 0
+    };
+    target.acceptAll = target.accept.length == 1 && target.accept[0] == myfaces.html5.dnd.ACCEPT_ALL_MIME_TYPES;
+    element._fxDropTarget = target;
+    return target;
+}
+
+/*
+ * Creates the state of a new drag. The mime types and the drop target types of the drag source can only be read
+ * reliably at dragstart, browsers protect the drag data during dragover.
+ */
+myfaces.html5.dnd._startDrag = function(dataTransfer, external){
+    var types = [];
+    if(dataTransfer.types){
+        for(var i=0; i<dataTransfer.types.length; i++)
+            types.push(dataTransfer.types[i]);
+    }
+
+    var dropTargetTypes = null;
+    try{
+        dropTargetTypes = dataTransfer.getData(myfaces.html5.dnd.DROP_TARGETS_MIME_TYPE);
+    }
+    catch(e){
+        //data is protected, which is the case for drags from outside the document
+    }
+
+    myfaces.html5.dnd._drag = {
+        id: ++myfaces.html5.dnd._dragCount,
+        external: external,
+        types: myfaces.html5.dnd._toSet(types),
+        dropTargetTypes: dropTargetTypes ? myfaces.html5.dnd._toSet(myfaces.html5.common.convertStringToArray(dropTargetTypes)) : null,
+        over: {}
+    };
+    return myfaces.html5.dnd._drag;
+}
+
+myfaces.html5.dnd._isAccepted = function(drag, element){
+    if(element._fxDropDrag === drag.id)
+        return element._fxDropAccepted;
+
+    var target = myfaces.html5.dnd._getDropTarget(element);
+    var accepted = target.acceptAll;
+    for(var i=0; !accepted && i<target.accept.length; i++)
+        accepted = drag.types[target.accept[i]] === true;
+
+    if(accepted && drag.dropTargetTypes){
+        accepted = false;
+        for(var i=0; !accepted && target.types && i<target.types.length; i++)
+            accepted = drag.dropTargetTypes[target.types[i]] === true;
+    }
+
+    element._fxDropDrag = drag.id;
+    element._fxDropAccepted = accepted;
+    return accepted;
+}
+
+myfaces.html5.dnd._onDragStart = function(event){
+    var element = myfaces.html5.dnd._closest(event.target, "data-fx-drag");
+    if(element){
+        var dropTargetTypes = element.getAttribute("data-fx-drag-types");
+        myfaces.html5.dnd.dragStart(event, element.getAttribute("data-fx-drag") || null,
+                dropTargetTypes ? myfaces.html5.common.convertStringToArray(dropTargetTypes) : null,
+                element.getAttribute("data-fx-drag-param"));
+    }
+    //drags of inline handled sources are tracked too, they might be dropped on delegated targets
+    myfaces.html5.dnd._startDrag(event.dataTransfer);
+}
+
+myfaces.html5.dnd._onDragEnterOrOver = function(event){
+    var drag = myfaces.html5.dnd._drag;
+    if(!drag)
+        drag = myfaces.html5.dnd._startDrag(event.dataTransfer, true);
+
+    var element = myfaces.html5.dnd._closest(event.target, "data-fx-drop", drag.over);
+    if(!element || !myfaces.html5.dnd._isAccepted(drag, element))
+        return;
+
+    var action = myfaces.html5.dnd._getDropTarget(element).action;
+    if(action)
+        event.dataTransfer.effectAllowed = action;
+
+    event.preventDefault();
+}
+
+myfaces.html5.dnd._onDrop = function(event){
+    var drag = myfaces.html5.dnd._drag || myfaces.html5.dnd._startDrag(event.dataTransfer, true);
+    myfaces.html5.dnd._drag = null;
+
+    var element = myfaces.html5.dnd._closest(event.target, "data-fx-drop");
+    if(!element || !myfaces.html5.dnd._isAccepted(drag, element))
+        return;
+
+    var target = myfaces.html5.dnd._getDropTarget(element);
+    myfaces.html5.dnd.drop(event, element, target.render, target.accept, target.upload, target.batch);
+}
+
+myfaces.html5.dnd._onDragEnd = function(event){
+    myfaces.html5.dnd._drag = null;
+}
+
+myfaces.html5.dnd._onDragLeave = function(event){
+    //a drag from outside the document left the window, there will be no dragend for it
+    var drag = myfaces.html5.dnd._drag;
+    if(drag && drag.external && !event.relatedTarget)
+        myfaces.html5.dnd._drag = null;
+}
+
+if(!myfaces.html5.dnd._delegated && document.addEventListener){
+    myfaces.html5.dnd._delegated = true;
+    document.addEventListener("dragstart", function(event){myfaces.html5.dnd._onDragStart(event)}, false);
+    document.addEventListener("dragenter", function(event){myfaces.html5.dnd._onDragEnterOrOver(event)}, false);
+    document.addEventListener("dragover", function(event){myfaces.html5.dnd._onDragEnterOrOver(event)}, false);
+    document.addEventListener("drop", function(event){myfaces.html5.dnd._onDrop(event)}, false);
+    document.addEventListener("dragend", function(event){myfaces.html5.dnd._onDragEnd(event)}, false);
+    document.addEventListener("dragleave", function(event){myfaces.html5.dnd._onDragLeave(event)}, false);
+}
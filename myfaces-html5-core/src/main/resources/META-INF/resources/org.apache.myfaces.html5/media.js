@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+var myfaces;
+if(myfaces == undefined || myfaces == null)
+	myfaces = {};
+
+if(myfaces.html5 == undefined || myfaces.html5 == null)
+    myfaces.html5 = {};
+
+if(myfaces.html5.media == undefined || myfaces.html5.media == null){
+    myfaces.html5.media = {};
+
+    /**
+     * Distance to the viewport at which lazy media start loading.
+     */
+    myfaces.html5.media.ROOT_MARGIN = "200px";
+
+    /**
+     * Promotes the "data-" attributes of a lazy <video> or <audio> element and its <source> children to the real
+     * attributes, and starts loading the media.
+     * @param elem
+     */
+    myfaces.html5.media.load = function(elem){
+        if(elem.getAttribute("data-loading") != "lazy")
+            return;
+        elem.setAttribute("data-loading", "loaded");
+
+        var sources = elem.getElementsByTagName("source");
+        for(var i=0; i<sources.length; i++){
+            myfaces.html5.media._promote(sources[i], "src");
+        }
+        myfaces.html5.media._promote(elem, "src");
+
+        if(!myfaces.html5.media._promote(elem, "preload"))
+            elem.removeAttribute("preload");
+
+        if(elem.load)
+            elem.load();
+    };
+
+    /**
+     * Starts observing the lazy media elements of the document, which are not loaded yet. Elements are loaded
+     * immediately if the browser does not support IntersectionObserver.
+     */
+    myfaces.html5.media.observe = function(){
+        var elems = myfaces.html5.media._findLazyElements();
+        if(!window.IntersectionObserver){
+            for(var i=0; i<elems.length; i++){
+                myfaces.html5.media.load(elems[i]);
+            }
+            return;
+        }
+
+        var observer = myfaces.html5.media._observer;
+        if(!observer){
+            observer = myfaces.html5.media._observer = new IntersectionObserver(function(entries){
+                for(var i=0; i<entries.length; i++){
+                    if(entries[i].isIntersecting){
+                        observer.unobserve(entries[i].target);
+                        myfaces.html5.media.load(entries[i].target);
+                    }
+                }
+            }, {rootMargin: myfaces.html5.media.ROOT_MARGIN});
+        }
+
+        // observing an element twice has no effect
+        for(var j=0; j<elems.length; j++){
+            observer.observe(elems[j]);
+        }
+    };
+
+    myfaces.html5.media._findLazyElements = function(){
+        var retVal = [];
+        var tagNames = ["video", "audio"];
+        for(var i=0; i<tagNames.length; i++){
+            var elems = document.getElementsByTagName(tagNames[i]);
+            for(var j=0; j<elems.length; j++){
+                if(elems[j].getAttribute("data-loading") == "lazy")
+                    retVal.push(elems[j]);
+            }
+        }
+        return retVal;
+    };
+
+    /**
+     * Moves the value of "data-" + name attribute to the name attribute.
+     * @return true, if the data attribute was present
+     */
+    myfaces.html5.media._promote = function(elem, name){
+        var value = elem.getAttribute("data-" + name);
+        if(value == null)
+            return false;
+        elem.setAttribute(name, value);
+        elem.removeAttribute("data-" + name);
+        return true;
+    };
+}
+
+// the script is rendered again with lazy media of partial responses, so observe on every execution
+if(document.readyState == "loading"){
+    if(document.addEventListener)
+        document.addEventListener("DOMContentLoaded", myfaces.html5.media.observe, false);
+    else
+        window.attachEvent("onload", myfaces.html5.media.observe);
+}
+else{
+    myfaces.html5.media.observe();
+}
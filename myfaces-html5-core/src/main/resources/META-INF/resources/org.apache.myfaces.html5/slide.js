@@ -26,23 +26,35 @@ if(myfaces.html5 == undefined || myfaces.html5 == null)
 
 if(myfaces.html5.slide == undefined || myfaces.html5.slide == null){
     myfaces.html5.slide = {};
-    myfaces.html5.slide.Slide = function(_element){
+    myfaces.html5.slide.Slide = function(_element, _index){
         this.element = _element;
+        this.index = _index;
     };
 
     myfaces.html5.slide.Slide.prototype = {
-        element : null
+        element : null,
+        index : 0,
+        //class name set by the slide view, null if not set yet
+        state : null,
+        //true while the slide is fetched with a partial request
+        loading : false,
+
+        isPlaceholder : function(){
+            return this.element.getAttribute('data-fx-slide-placeholder') != null;
+        }
     };
 
-    myfaces.html5.slide.SlideView = function(_root, _navigateOnArrowKeys, _navigateOnMouseWheel){
+    myfaces.html5.slide.SlideView = function(_root, _navigateOnArrowKeys, _navigateOnMouseWheel, _slideWindow){
+        this.root = _root;
         this.slides = new Array();
         this.slideIndexes = new Array();
+        this.slideWindow = _slideWindow || 0;
 
         for(var i=0; i<_root.children.length; i++)
         {
             var obj = _root.children[i];
             if(obj.tagName == "DIV"){
-                this.slides.push(new myfaces.html5.slide.Slide(obj));
+                this.slides.push(new myfaces.html5.slide.Slide(obj, this.slideCount));
                 if(obj.id){
                     this.slideIndexes[obj.id] = this.slideCount;
                 }
@@ -71,59 +83,152 @@ if(myfaces.html5.slide == undefined || myfaces.html5.slide == null){
     };
 
     myfaces.html5.slide.SlideView.prototype = {
+        root : null,
         slides : [],
         //slideIndexes : [],
         currentIndex : 0,
         slideCount : 0,
+        //number of slides kept loaded on each side of the current slide, 0 if all slides are rendered
+        slideWindow : 0,
+        transitioned : false,
+
+        getState : function(index){
+            if(index < this.currentIndex-1)
+                return 'mf-slide mf-slide-hidden-left';
+            else if(index == this.currentIndex-1)
+                return 'mf-slide mf-slide-previous';
+            else if(index == this.currentIndex)
+                return 'mf-slide mf-slide-active';
+            else if(index == this.currentIndex+1)
+                return 'mf-slide mf-slide-next';
+            else
+                return 'mf-slide mf-slide-hidden-right';
+        },
+
+        setClass : function(slide){
+            var state = this.getState(slide.index);
+            if(slide.state != state){
+                slide.element.className = state;
+                slide.state = state;
+            }
+        },
 
         setClasses : function(){
-            var index = 0;
-            var slideView = this;
-            this.slides.forEach(function(obj)
-            {
-                if(index < slideView.currentIndex-1)
-                    obj.element.className = 'mf-slide mf-slide-hidden-left';
-                else if(index == slideView.currentIndex-1)
-                    obj.element.className = 'mf-slide mf-slide-previous';
-                else if(index == slideView.currentIndex)
-                    obj.element.className = 'mf-slide mf-slide-active';
-                else if(index == slideView.currentIndex+1)
-                    obj.element.className = 'mf-slide mf-slide-next';
-                else if(index > slideView.currentIndex+1)
-                    obj.element.className = 'mf-slide mf-slide-hidden-right';
-
-                index++;
-            });
+            for(var i=0; i<this.slideCount; i++)
+                this.setClass(this.slides[i]);
         },
 
+        //only the slides between the old and the new current slide, and their neighbours change their state
+        updateClasses : function(oldIndex){
+            var from = Math.max(Math.min(oldIndex, this.currentIndex) - 1, 0);
+            var to = Math.min(Math.max(oldIndex, this.currentIndex) + 1, this.slideCount - 1);
+            for(var i=from; i<=to; i++)
+                this.setClass(this.slides[i]);
+        },
+
+        //transitions are enabled on the root, see html5.css
         addTransition : function(){
-            this.slides.forEach(function(obj)
-            {
-                myfaces.html5.effect.addEffect(obj.element, 'mf-slide-transitioned');
-            });
+            if(!this.transitioned){
+                myfaces.html5.effect.addEffect(this.root, 'mf-slide-transitioned');
+                this.transitioned = true;
+            }
         },
 
         removeTransition : function(){
-            this.slides.forEach(function(obj)
-            {
-                myfaces.html5.effect.removeEffect(obj.element, 'mf-slide-transitioned');
+            if(this.transitioned){
+                myfaces.html5.effect.removeEffect(this.root, 'mf-slide-transitioned');
+                this.transitioned = false;
+            }
+        },
+
+        //fetches the placeholders in the window around the current slide with a partial request
+        loadWindow : function(){
+            if(this.slideWindow <= 0)
+                return;
+
+            var from = Math.max(this.currentIndex - this.slideWindow, 0);
+            var to = Math.min(this.currentIndex + this.slideWindow, this.slideCount - 1);
+            var slides = [];
+            var ids = [];
+            for(var i=from; i<=to; i++){
+                var slide = this.slides[i];
+                if(!slide.loading && slide.isPlaceholder()){
+                    slide.loading = true;
+                    slides.push(slide);
+                    ids.push(slide.element.id);
+                }
+            }
+
+            if(ids.length == 0)
+                return;
+
+            var source = this.getRequestSource();
+            if(source == null){
+                slides.forEach(function(slide){ slide.loading = false; });
+                return;
+            }
+
+            var slideView = this;
+            jsf.ajax.request(source, null, {
+                execute : '@none',
+                render : ids.join(' '),
+                onevent : function(data){
+                    if(data.status == 'success')
+                        slideView.slidesLoaded(slides);
+                },
+                onerror : function(data){
+                    slides.forEach(function(slide){ slide.loading = false; });
+                }
+            });
+        },
+
+        //the partial request needs a source in a form, for the view state. the slide view itself is used if it is in a
+        //form, otherwise the view state field of any form of the page, null if the page has no form
+        getRequestSource : function(){
+            for(var element = this.root; element != null; element = element.parentNode){
+                if(element.nodeName == 'FORM')
+                    return this.root;
+            }
+            var viewStates = document.getElementsByName('javax.faces.ViewState');
+            for(var i=0; i<viewStates.length; i++){
+                if(viewStates[i].form)
+                    return viewStates[i];
+            }
+            return null;
+        },
+
+        //the placeholders are replaced by the rendered slides, which don't have the classes yet
+        slidesLoaded : function(slides){
+            var slideView = this;
+            slides.forEach(function(slide){
+                slide.loading = false;
+                var element = document.getElementById(slide.element.id);
+                if(element && element != slide.element){
+                    slide.element = element;
+                    slide.state = null;
+                    slideView.setClass(slide);
+                }
             });
         },
 
         left : function(){
+            var oldIndex = this.currentIndex;
             this.currentIndex--;
             if(this.currentIndex<0)
                 this.currentIndex = 0;
-            this.setClasses();
+            this.updateClasses(oldIndex);
             this.addTransition();
+            this.loadWindow();
         },
 
         right : function(){
+            var oldIndex = this.currentIndex;
             this.currentIndex++;
             if(this.currentIndex > this.slideCount-1)
                 this.currentIndex = this.slideCount-1;
-            this.setClasses();
+            this.updateClasses(oldIndex);
             this.addTransition();
+            this.loadWindow();
         },
 
         goto : function(newIndex){
@@ -133,9 +238,11 @@ if(myfaces.html5.slide == undefined || myfaces.html5.slide == null){
             if(newIndex > this.slideCount-1)
                 newIndex = this.slideCount -1;
 
+            var oldIndex = this.currentIndex;
             this.currentIndex = newIndex;
-            this.setClasses();
+            this.updateClasses(oldIndex);
             this.addTransition();
+            this.loadWindow();
         },
 
         goBySlideId : function(slideId){
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+public class DroppedFileStoreTest extends TestCase {
+
+    private File directory;
+    private DroppedFileStore store;
+
+    public DroppedFileStoreTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = File.createTempFile("drops", "");
+        directory.delete();
+        directory.mkdir();
+        store = new DroppedFileStore();
+    }
+
+    protected void tearDown() throws Exception {
+        store.valueUnbound(null);
+        directory.delete();
+        super.tearDown();
+    }
+
+    public void testChunksAreAppendedInOrder() throws IOException {
+        assertTrue(store.start("a", "a.txt", "text/plain", 10, directory, Long.MAX_VALUE));
+
+        assertTrue(store.append("a", 0, stream(6)));
+        assertFalse("chunk out of order", store.append("a", 0, stream(4)));
+        assertTrue(store.append("a", 6, stream(4)));
+
+        File[] files = directory.listFiles();
+        assertEquals(1, files.length);
+        assertEquals(10, files[0].length());
+    }
+
+    public void testUploadExceedingDeclaredSizeIsAborted() throws IOException {
+        assertTrue(store.start("a", "a.txt", null, 5, directory, Long.MAX_VALUE));
+
+        assertFalse(store.append("a", 0, stream(6)));
+        assertFalse("upload is removed", store.append("a", 0, stream(5)));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    public void testIdsAreUniqueAndUploadsLimited() throws IOException {
+        assertTrue(store.start("a", "a.txt", null, 0, directory, Long.MAX_VALUE));
+        assertFalse(store.start("a", "b.txt", null, 0, directory, Long.MAX_VALUE));
+
+        for (int i = 1; i < DroppedFileStore.MAX_UPLOADS; i++) {
+            assertTrue(store.start("f" + i, "f.txt", null, 0, directory, Long.MAX_VALUE));
+        }
+        assertFalse(store.start("z", "z.txt", null, 0, directory, Long.MAX_VALUE));
+    }
+
+    public void testSessionQuotaCountsUnclaimedUploads() throws IOException {
+        assertTrue(store.start("a", "a.txt", null, 6, directory, 10));
+        assertFalse("quota exceeded", store.start("b", "b.txt", null, 5, directory, 10));
+        assertTrue(store.start("c", "c.txt", null, 4, directory, 10));
+
+        assertTrue(store.abort("a"));
+        assertTrue(store.start("b", "b.txt", null, 5, directory, 10));
+    }
+
+    public void testAbortDeletesFile() throws IOException {
+        store.start("a", "a.txt", null, 10, directory, Long.MAX_VALUE);
+        store.append("a", 0, stream(4));
+
+        assertTrue(store.abort("a"));
+        assertFalse(store.abort("a"));
+        assertEquals(0, directory.listFiles().length);
+        assertFalse(store.append("a", 4, stream(6)));
+    }
+
+    public void testIdleUploadsExpire() throws IOException {
+        store.start("a", "a.txt", null, 10, directory, Long.MAX_VALUE);
+        store.append("a", 0, stream(4));
+
+        assertEquals(0, store.expire(System.currentTimeMillis() - 60000));
+        assertEquals(1, directory.listFiles().length);
+
+        assertEquals(1, store.expire(System.currentTimeMillis() + 1));
+        assertEquals(0, directory.listFiles().length);
+        assertFalse(store.append("a", 4, stream(6)));
+    }
+
+    public void testUnboundStoreDeletesFiles() throws IOException {
+        store.start("a", "a.txt", null, 3, directory, Long.MAX_VALUE);
+        store.append("a", 0, stream(3));
+
+        store.valueUnbound(null);
+
+        assertEquals(0, directory.listFiles().length);
+        assertFalse(store.append("a", 3, stream(0)));
+    }
+
+    private static ByteArrayInputStream stream(int length) {
+        return new ByteArrayInputStream(new byte[length]);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class MediaResourceHandlerTest extends TestCase {
+
+    public MediaResourceHandlerTest(String name) {
+        super(name);
+    }
+
+    public void testParseSingleRanges() {
+        assertRanges("0-499", MediaResourceHandler.parseRanges("bytes=0-499", 1000));
+        assertRanges("500-999", MediaResourceHandler.parseRanges("bytes=500-", 1000));
+        assertRanges("900-999", MediaResourceHandler.parseRanges("bytes=-100", 1000));
+        assertRanges("0-999", MediaResourceHandler.parseRanges("bytes=-5000", 1000));
+        assertRanges("990-999", MediaResourceHandler.parseRanges("BYTES=990-2000", 1000));
+    }
+
+    public void testParseMultipleRanges() {
+        assertRanges("0-99,200-299", MediaResourceHandler.parseRanges("bytes=200-299, 0-99", 1000));
+        // overlapping and adjacent ranges are merged
+        assertRanges("0-199,500-599", MediaResourceHandler.parseRanges("bytes=0-99,50-150,151-199,500-599", 1000));
+    }
+
+    public void testUnsatisfiableRanges() {
+        assertTrue(MediaResourceHandler.parseRanges("bytes=1000-1100", 1000).isEmpty());
+        assertTrue(MediaResourceHandler.parseRanges("bytes=-0", 1000).isEmpty());
+    }
+
+    public void testInvalidRangesAreIgnored() {
+        assertNull(MediaResourceHandler.parseRanges("items=0-10", 1000));
+        assertNull(MediaResourceHandler.parseRanges("bytes=10-5", 1000));
+        assertNull(MediaResourceHandler.parseRanges("bytes=a-b", 1000));
+        assertNull(MediaResourceHandler.parseRanges("bytes=5", 1000));
+
+        StringBuilder tooMany = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= MediaResourceHandler.MAX_RANGES; i++) {
+            tooMany.append(',').append(i * 2).append('-').append(i * 2);
+        }
+        assertNull(MediaResourceHandler.parseRanges(tooMany.toString(), 1000));
+    }
+
+    public void testIfRange() {
+        String etag = MediaResourceHandler.createETag(1000, 1285000000000L);
+
+        assertTrue(MediaResourceHandler.isIfRangeSatisfied(null, etag, 1285000000000L));
+        assertTrue(MediaResourceHandler.isIfRangeSatisfied(etag, etag, 1285000000000L));
+        assertFalse(MediaResourceHandler.isIfRangeSatisfied("\"other\"", etag, 1285000000000L));
+        assertFalse(MediaResourceHandler.isIfRangeSatisfied("W/" + etag, etag, 1285000000000L));
+        assertTrue(MediaResourceHandler.isIfRangeSatisfied("Mon, 20 Sep 2010 16:26:40 GMT", etag, 1285000000000L));
+        assertFalse(MediaResourceHandler.isIfRangeSatisfied("Mon, 20 Sep 2010 16:26:41 GMT", etag, 1285000000000L));
+        assertFalse(MediaResourceHandler.isIfRangeSatisfied("not a date", etag, 1285000000000L));
+    }
+
+    private static void assertRanges(String expected, List<long[]> ranges) {
+        StringBuilder actual = new StringBuilder();
+        for (long[] range : ranges) {
+            if (actual.length() > 0)
+                actual.append(',');
+            actual.append(range[0]).append('-').append(range[1]);
+        }
+        assertEquals(expected, actual.toString());
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import junit.framework.TestCase;
+
+public class PrecompressedResourceHandlerTest extends TestCase {
+
+    public PrecompressedResourceHandlerTest(String name) {
+        super(name);
+    }
+
+    public void testIsAccepted() {
+        assertTrue(PrecompressedResourceHandler.isAccepted("gzip, deflate, br", "gzip"));
+        assertTrue(PrecompressedResourceHandler.isAccepted("gzip, deflate, br", "br"));
+        assertTrue(PrecompressedResourceHandler.isAccepted("GZIP;q=0.5", "gzip"));
+        assertFalse(PrecompressedResourceHandler.isAccepted("deflate", "gzip"));
+        assertFalse(PrecompressedResourceHandler.isAccepted(null, "gzip"));
+    }
+
+    public void testQualityValues() {
+        assertFalse(PrecompressedResourceHandler.isAccepted("gzip;q=0, deflate", "gzip"));
+        assertFalse(PrecompressedResourceHandler.isAccepted("br; q=0.0", "br"));
+        assertTrue(PrecompressedResourceHandler.isAccepted("*", "br"));
+        // an explicit coding overrides the wildcard
+        assertFalse(PrecompressedResourceHandler.isAccepted("*;q=1, gzip;q=0", "gzip"));
+        assertFalse(PrecompressedResourceHandler.isAccepted("gzip, *;q=0", "br"));
+    }
+}
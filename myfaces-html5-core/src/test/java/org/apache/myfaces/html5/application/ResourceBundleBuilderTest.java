@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+public class ResourceBundleBuilderTest extends TestCase {
+
+    public ResourceBundleBuilderTest(String name) {
+        super(name);
+    }
+
+    public void testMinifyJs() {
+        assertEquals("var a=1;var b=a+ +1;",
+                ResourceBundleBuilder.minifyJs("// comment\nvar a = 1; /* inline */ var b = a + +1;"));
+        // line breaks are kept where a statement may end
+        assertEquals("var a=1\nvar b='x // y'",
+                ResourceBundleBuilder.minifyJs("var a = 1\n/*\n * block\n */\nvar b = 'x // y'"));
+        assertEquals("if(str.match(/\\/[a/]*$/))\nreturn x/2;",
+                ResourceBundleBuilder.minifyJs("if (str.match(/\\/[a/]*$/))\n    return x / 2;"));
+    }
+
+    public void testMinifyCss() {
+        assertEquals("div.a>span,p{left:calc(10% - 2px);color:red}",
+                ResourceBundleBuilder.minifyCss("/* comment */\ndiv.a > span, p {\n  left: calc(10% - 2px);\n  color: red;\n}\n"));
+        // the space of a descendant selector is kept before a pseudo-class
+        assertEquals(".deck :first-child,a:hover{top:0}",
+                ResourceBundleBuilder.minifyCss(".deck :first-child, a:hover {\n  top: 0;\n}"));
+    }
+
+    public void testGzip() throws Exception {
+        byte[] content = "var a = 'aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa';".getBytes("UTF-8");
+        byte[] compressed = ResourceBundleBuilder.gzip(content);
+        assertTrue(compressed.length < content.length);
+        // same bytes on every build
+        assertTrue(Arrays.equals(compressed, ResourceBundleBuilder.gzip(content)));
+
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int read;
+        while ((read = in.read()) != -1) {
+            out.write(read);
+        }
+        assertTrue(Arrays.equals(content, out.toByteArray()));
+    }
+
+    public void testFindBundle() {
+        Properties properties = new Properties();
+        properties.setProperty("bundles/all.js", "common.js,effect.js,slide.js,dnd.js");
+        properties.setProperty("bundles/effect.js", "common.js,effect.js");
+        properties.setProperty("bundles/dnd.js", "common.js,dnd.js");
+        ResourceBundleManifest manifest = new ResourceBundleManifest(properties);
+
+        assertEquals("bundles/effect.js", manifest.findBundle(Arrays.asList("effect.js")));
+        assertEquals("bundles/dnd.js", manifest.findBundle(Arrays.asList("dnd.js", "common.js")));
+        assertEquals("bundles/all.js", manifest.findBundle(Arrays.asList("effect.js", "dnd.js")));
+        assertNull(manifest.findBundle(Arrays.asList("media.js")));
+        assertTrue(manifest.isBundled("slide.js"));
+        assertFalse(manifest.isBundled("media.js"));
+    }
+}
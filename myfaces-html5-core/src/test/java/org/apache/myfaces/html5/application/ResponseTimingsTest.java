@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import junit.framework.TestCase;
+
+public class ResponseTimingsTest extends TestCase {
+
+    public ResponseTimingsTest(String name) {
+        super(name);
+    }
+
+    public void testEmpty() {
+        ResponseTimings timings = new ResponseTimings();
+        assertEquals(0, timings.getResponseCount());
+        assertEquals(0.0, timings.getAverageTimeToFirstByte(), 0.0);
+        assertEquals(0.0, timings.getAverageResponseTime(), 0.0);
+    }
+
+    public void testRecord() {
+        ResponseTimings timings = new ResponseTimings();
+        timings.recordTimeToFirstByte(2000000L);
+        timings.recordTimeToFirstByte(6000000L);
+        timings.recordResponseTime(10000000L);
+        timings.recordResponseTime(30000000L);
+        timings.recordResponseTime(50000000L);
+
+        assertEquals(2, timings.getHeadFlushCount());
+        assertEquals(3, timings.getResponseCount());
+        assertEquals(4.0, timings.getAverageTimeToFirstByte(), 0.001);
+        assertEquals(6.0, timings.getMaxTimeToFirstByte(), 0.001);
+        assertEquals(30.0, timings.getAverageResponseTime(), 0.001);
+    }
+}
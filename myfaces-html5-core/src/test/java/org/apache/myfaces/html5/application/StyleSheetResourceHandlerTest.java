@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.application;
+
+import java.beans.BeanInfo;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import javax.faces.application.Resource;
+import javax.faces.application.ResourceHandler;
+import javax.faces.application.ViewHandler;
+import javax.faces.application.ViewHandlerWrapper;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.view.AttachedObjectHandler;
+import javax.faces.view.StateManagementStrategy;
+import javax.faces.view.ViewDeclarationLanguage;
+import javax.faces.view.ViewMetadata;
+
+import org.apache.myfaces.html5.renderkit.animation.AnimationStyleSheetRenderer;
+import org.apache.myfaces.html5.renderkit.util.AggregatedStyleSheet;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+import org.apache.myfaces.html5.test.TextRenderer;
+
+public class StyleSheetResourceHandlerTest extends AbstractHtml5ViewControllerTestCase {
+
+    private static final String VIEW_ID = "/page.xhtml";
+
+    private static final String CSS = "a{b:c}";
+
+    private StyleSheetResourceHandler handler;
+    private BuildingViewDeclarationLanguage vdl;
+    private File documentRoot;
+
+    public StyleSheetResourceHandlerTest(String name) {
+        super(name);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        servletContext.addInitParameter(Html5WebConfigParams.ANIMATION_STYLESHEET_ENABLED, "true");
+        application.addComponent(UIOutput.COMPONENT_TYPE, UIOutput.class.getName());
+        facesContext.getRenderKit().addRenderer(UIOutput.COMPONENT_FAMILY, AggregatedStyleSheet.RENDERER_TYPE,
+                new AnimationStyleSheetRenderer());
+        facesContext.getRenderKit().addRenderer(UIOutput.COMPONENT_FAMILY, "org.apache.myfaces.html5.Effects",
+                new TextRenderer());
+
+        vdl = new BuildingViewDeclarationLanguage();
+        final ViewHandler viewHandler = application.getViewHandler();
+        application.setViewHandler(new ViewHandlerWrapper() {
+            @Override
+            public ViewHandler getWrapped() {
+                return viewHandler;
+            }
+
+            @Override
+            public ViewDeclarationLanguage getViewDeclarationLanguage(FacesContext context, String viewId) {
+                return vdl;
+            }
+        });
+
+        facesContext.getViewRoot().setViewId(VIEW_ID);
+        request.addParameter(StyleSheetResourceHandler.VIEW_ID_PARAM, VIEW_ID);
+        handler = new StyleSheetResourceHandler(application.getResourceHandler());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        if (documentRoot != null) {
+            new File(documentRoot, VIEW_ID).delete();
+            documentRoot.delete();
+            documentRoot = null;
+        }
+        handler = null;
+        vdl = null;
+        super.tearDown();
+    }
+
+    public void testRegisteredStyleSheetIsServed() throws Exception {
+        String hash = StyleSheetResourceHandler.hash(CSS);
+        String url = StyleSheetResourceHandler.register(facesContext, CSS);
+
+        assertTrue(url, url.indexOf(StyleSheetResourceHandler.RESOURCE_NAME_PREFIX + hash + ".css") > 0);
+        assertTrue(url, url.endsWith("?" + StyleSheetResourceHandler.VIEW_ID_PARAM + "=%2Fpage.xhtml"));
+        assertEquals(url, StyleSheetResourceHandler.register(facesContext, CSS));
+        assertEquals(CSS, StyleSheetResourceHandler.getStyleSheet(externalContext, hash));
+
+        assertEquals(200, request(hash));
+        assertEquals("\"" + hash + "\"", response.getHeader("ETag"));
+        assertEquals("text/css; charset=UTF-8", response.getHeader("Content-Type"));
+        assertEquals(0, vdl.builds);
+    }
+
+    public void testUnknownHashOfAMissingViewIsNotFound() throws Exception {
+        assertEquals(404, request(StyleSheetResourceHandler.hash("x")));
+        assertEquals(0, vdl.builds);
+    }
+
+    public void testMissingStyleSheetIsRegenerated() throws Exception {
+        createView();
+        String hash = StyleSheetResourceHandler.hash(CSS);
+
+        assertEquals(200, request(hash));
+        assertEquals(1, vdl.builds);
+        assertEquals(CSS, StyleSheetResourceHandler.getStyleSheet(externalContext, hash));
+
+        assertEquals(200, request(hash));
+        assertEquals(1, vdl.builds);
+    }
+
+    public void testViewIsBuiltOnceForUnknownHashes() throws Exception {
+        createView();
+
+        assertEquals(404, request(StyleSheetResourceHandler.hash("x")));
+        assertEquals(404, request(StyleSheetResourceHandler.hash("y")));
+        assertEquals(1, vdl.builds);
+    }
+
+    public void testViewWithAStyleSheetIsNotBuilt() throws Exception {
+        createView();
+        StyleSheetResourceHandler.register(facesContext, CSS);
+
+        assertEquals(404, request(StyleSheetResourceHandler.hash("x")));
+        assertEquals(0, vdl.builds);
+    }
+
+    private int request(String hash) throws IOException {
+        request.setPathElements("/app", "/faces", ResourceHandler.RESOURCE_IDENTIFIER + "/"
+                + StyleSheetResourceHandler.RESOURCE_NAME_PREFIX + hash + ".css", null);
+        response.setStatus(0);
+        handler.handleResourceRequest(facesContext);
+        return response.getStatus();
+    }
+
+    /**
+     * Creates the file of the view, which must exist to be built.
+     */
+    private void createView() throws IOException {
+        documentRoot = File.createTempFile("styles", "");
+        documentRoot.delete();
+        documentRoot.mkdir();
+        FileWriter view = new FileWriter(new File(documentRoot, VIEW_ID));
+        view.write("<html/>");
+        view.close();
+        servletContext.setDocumentRoot(documentRoot);
+    }
+
+    /**
+     * Builds views with the stylesheet and a component rendering {@link #CSS}, and counts them.
+     */
+    private static class BuildingViewDeclarationLanguage extends ViewDeclarationLanguage {
+
+        int builds;
+
+        @Override
+        public void buildView(FacesContext context, UIViewRoot root) throws IOException {
+            builds++;
+            AggregatedStyleSheet.addStyleSheet(context);
+            UIOutput css = new UIOutput();
+            css.setRendererType("org.apache.myfaces.html5.Effects");
+            css.setValue(CSS);
+            root.addComponentResource(context, css, "body");
+        }
+
+        @Override
+        public UIViewRoot createView(FacesContext context, String viewId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BeanInfo getComponentMetadata(FacesContext context, Resource componentResource) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Resource getScriptComponentResource(FacesContext context, Resource componentResource) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public StateManagementStrategy getStateManagementStrategy(FacesContext context, String viewId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ViewMetadata getViewMetadata(FacesContext context, String viewId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void renderView(FacesContext context, UIViewRoot view) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public UIViewRoot restoreView(FacesContext context, String viewId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void retargetAttachedObjects(FacesContext context, UIComponent topLevelComponent,
+                List<AttachedObjectHandler> handlers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void retargetMethodExpressions(FacesContext context, UIComponent topLevelComponent) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.faces.model.SelectItem;
+
+import junit.framework.TestCase;
+
+public class PrefixSuggestionIndexTest extends TestCase {
+
+    public PrefixSuggestionIndexTest(String name) {
+        super(name);
+    }
+
+    public void testLookupIgnoresCase() throws Exception {
+        PrefixSuggestionIndex index = PrefixSuggestionIndex.build("Matrix, Alien, matrix reloaded,Aliens, Amelie");
+
+        assertEquals(5, index.size());
+        assertEquals(Arrays.asList("Alien", "Aliens"), lookup(index, "ali", -1));
+        assertEquals(Arrays.asList("Matrix", "matrix reloaded"), lookup(index, "MAT", -1));
+        assertEquals(Arrays.asList(), lookup(index, "b", -1));
+        assertEquals(Arrays.asList(), lookup(index, "zzz", -1));
+    }
+
+    public void testLookupIsLimited() throws Exception {
+        List<Object> source = new ArrayList<Object>();
+        for (int i = 999; i >= 0; i--) {
+            source.add("item" + i);
+        }
+        PrefixSuggestionIndex index = PrefixSuggestionIndex.build(source);
+
+        assertEquals(Arrays.asList("item0", "item1", "item10"), lookup(index, "item", 3));
+        assertEquals(Arrays.asList("item99", "item990", "item991"), lookup(index, "item99", 3));
+        assertEquals(3, lookup(index, "", 3).size());
+    }
+
+    public void testSelectItemLabels() throws Exception {
+        PrefixSuggestionIndex index = PrefixSuggestionIndex.build(new SelectItem[] { new SelectItem("b", "Bee"),
+                new SelectItem("a", "Ay") });
+
+        final List<String> labels = new ArrayList<String>();
+        index.lookup("", -1, new SuggestionProvider.Callback() {
+            public boolean suggest(Object value, String label) {
+                labels.add(value + "=" + label);
+                return true;
+            }
+        });
+        assertEquals(Arrays.asList("a=Ay", "b=Bee"), labels);
+    }
+
+    public void testUnsupportedSource() throws Exception {
+        try {
+            PrefixSuggestionIndex.build(Integer.valueOf(1));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static List<Object> lookup(PrefixSuggestionIndex index, String prefix, int limit) throws Exception {
+        final List<Object> values = new ArrayList<Object>();
+        index.lookup(prefix, limit, new SuggestionProvider.Callback() {
+            public boolean suggest(Object value, String label) {
+                values.add(value);
+                return true;
+            }
+        });
+        return values;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit;
+
+import java.io.IOException;
+
+import javax.faces.application.StateManager;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.ExternalContextWrapper;
+import javax.faces.context.FacesContext;
+import javax.faces.render.Renderer;
+
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+
+public class HeadFlushRendererTest extends AbstractHtml5ViewControllerTestCase {
+
+    private static final String HEAD_FAMILY = "javax.faces.Output";
+    private static final String HEAD_RENDERER_TYPE = "javax.faces.Head";
+
+    private Renderer headRenderer;
+    private RecordingExternalContext recordingContext;
+    private UIComponent head;
+
+    public HeadFlushRendererTest(String name) {
+        super(name);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        headRenderer = new Renderer() {
+            @Override
+            public void encodeEnd(FacesContext context, UIComponent component) throws IOException {
+                context.getResponseWriter().write("</head>");
+            }
+        };
+        renderKit.addRenderer(HEAD_FAMILY, HEAD_RENDERER_TYPE, headRenderer);
+
+        recordingContext = new RecordingExternalContext(externalContext);
+        facesContext.setExternalContext(recordingContext);
+
+        head = new UIOutput();
+        head.setRendererType(HEAD_RENDERER_TYPE);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        headRenderer = null;
+        recordingContext = null;
+        head = null;
+        super.tearDown();
+    }
+
+    public void testHeadIsFlushedAfterItIsRendered() throws Exception {
+        new HeadFlushRenderer(headRenderer).encodeEnd(facesContext, head);
+
+        assertEquals("</head>", writer.getWriter().toString());
+        assertEquals(1, recordingContext.flushes);
+    }
+
+    public void testPartialResponseIsNotFlushed() throws Exception {
+        facesContext.getPartialViewContext().setPartialRequest(true);
+
+        new HeadFlushRenderer(headRenderer).encodeEnd(facesContext, head);
+
+        assertEquals("</head>", writer.getWriter().toString());
+        assertEquals(0, recordingContext.flushes);
+        assertFalse(recordingContext.sessionCreated);
+    }
+
+    public void testHeadNotRenderedIsNotFlushed() throws Exception {
+        head.setRendered(false);
+
+        new HeadFlushRenderer(headRenderer).encodeEnd(facesContext, head);
+
+        assertEquals(0, recordingContext.flushes);
+    }
+
+    public void testSessionIsCreatedBeforeTheFlushWithServerSideStateSaving() throws Exception {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME,
+                StateManager.STATE_SAVING_METHOD_SERVER);
+
+        new HeadFlushRenderer(headRenderer).encodeEnd(facesContext, head);
+
+        assertTrue(recordingContext.sessionCreated);
+        assertTrue(recordingContext.sessionCreatedBeforeFlush);
+    }
+
+    public void testNoSessionIsCreatedWithClientSideStateSaving() throws Exception {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME,
+                StateManager.STATE_SAVING_METHOD_CLIENT);
+
+        new HeadFlushRenderer(headRenderer).encodeEnd(facesContext, head);
+
+        assertFalse(recordingContext.sessionCreated);
+        assertEquals(1, recordingContext.flushes);
+    }
+
+    public void testRenderKitWrapsTheHeadRenderer() throws Exception {
+        servletContext.addInitParameter(Html5WebConfigParams.HEAD_FLUSH_ENABLED, "true");
+        Renderer otherRenderer = new Renderer() {
+        };
+        renderKit.addRenderer(HEAD_FAMILY, "javax.faces.Text", otherRenderer);
+        Html5RenderKit html5RenderKit = new Html5RenderKit(renderKit);
+
+        Renderer renderer = html5RenderKit.getRenderer(HEAD_FAMILY, HEAD_RENDERER_TYPE);
+        assertTrue(renderer instanceof HeadFlushRenderer);
+        assertSame(headRenderer, ((HeadFlushRenderer) renderer).getWrapped());
+        assertSame(renderer, html5RenderKit.getRenderer(HEAD_FAMILY, HEAD_RENDERER_TYPE));
+
+        assertSame(otherRenderer, html5RenderKit.getRenderer(HEAD_FAMILY, "javax.faces.Text"));
+    }
+
+    public void testRenderKitDoesNotWrapWhenDisabled() throws Exception {
+        Html5RenderKit html5RenderKit = new Html5RenderKit(renderKit);
+
+        assertSame(headRenderer, html5RenderKit.getRenderer(HEAD_FAMILY, HEAD_RENDERER_TYPE));
+    }
+
+    /**
+     * Records the flushes of the response and the creation of the session.
+     */
+    private static class RecordingExternalContext extends ExternalContextWrapper {
+
+        private final ExternalContext wrapped;
+
+        int flushes;
+        boolean sessionCreated;
+        boolean sessionCreatedBeforeFlush;
+
+        RecordingExternalContext(ExternalContext wrapped) {
+            this.wrapped = wrapped;
+        }
+
+        @Override
+        public ExternalContext getWrapped() {
+            return wrapped;
+        }
+
+        @Override
+        public Object getSession(boolean create) {
+            if (create) {
+                sessionCreated = true;
+                sessionCreatedBeforeFlush = flushes == 0;
+            }
+            return wrapped.getSession(create);
+        }
+
+        @Override
+        public void responseFlushBuffer() {
+            flushes++;
+        }
+    }
+}
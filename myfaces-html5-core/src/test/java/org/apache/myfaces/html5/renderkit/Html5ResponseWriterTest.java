@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit;
+
+import java.io.StringWriter;
+
+import javax.faces.context.ResponseWriter;
+
+import junit.framework.TestCase;
+
+public class Html5ResponseWriterTest extends TestCase {
+
+    private StringWriter out;
+    private Html5ResponseWriter writer;
+
+    public Html5ResponseWriterTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        out = new StringWriter();
+        writer = new Html5ResponseWriter(out, "text/html", "UTF-8");
+    }
+
+    public void testElementsAndAttributes() throws Exception {
+        writer.startElement("video", null);
+        writer.writeAttribute("id", "form:video", null);
+        writer.writeAttribute("controls", Boolean.TRUE, null);
+        writer.writeAttribute("loop", Boolean.FALSE, null);
+        writer.writeAttribute("data-x", "a\"b&c<d>", null);
+        writer.startElement("source", null);
+        writer.writeURIAttribute("src", "/media/a b.ogv?x=1&y=\u00e7", null);
+        writer.endElement("source");
+        writer.writeText("1 < 2 & \"3\"", null);
+        writer.endElement("video");
+        writer.flush();
+
+        assertEquals("<video id=\"form:video\" controls=\"controls\" data-x=\"a&quot;b&amp;c&lt;d&gt;\">"
+                + "<source src=\"/media/a%20b.ogv?x=1&amp;y=%C3%A7\" />"
+                + "1 &lt; 2 &amp; \"3\"</video>", out.toString());
+    }
+
+    public void testScriptAndStyleContentIsNotEscaped() throws Exception {
+        writer.startElement("script", null);
+        writer.writeText("if (a < b && c) {}", null);
+        writer.endElement("script");
+        writer.writeText("<", null);
+        writer.flush();
+
+        assertEquals("<script>if (a < b && c) {}</script>&lt;", out.toString());
+    }
+
+    public void testNonUnicodeEncodingUsesCharacterReferences() throws Exception {
+        writer = new Html5ResponseWriter(out, "text/html", "ISO-8859-9");
+        writer.startElement("div", null);
+        writer.writeAttribute("title", "\u011f", null);
+        writer.endElement("div");
+        writer.flush();
+
+        assertEquals("<div title=\"&#287;\"></div>", out.toString());
+    }
+
+    public void testSupplementaryCharacterIsOneReference() throws Exception {
+        writer = new Html5ResponseWriter(out, "text/html", "ISO-8859-1");
+        writer.startElement("span", null);
+        writer.writeAttribute("title", "a\ud83d\ude00b", null);
+        writer.writeText("\ud83d\ude00", null);
+        // a lone surrogate is written as it is
+        writer.writeText("\ud83d", null);
+        writer.endElement("span");
+        writer.flush();
+
+        assertEquals("<span title=\"a&#128512;b\">&#128512;&#55357;</span>", out.toString());
+    }
+
+    public void testEmptyElementsAreClosedInTheStartTag() throws Exception {
+        writer.startElement("IMG", null);
+        writer.endElement("IMG");
+        writer.startElement("br", null);
+        writer.endElement("br");
+        writer.startElement("p", null);
+        writer.endElement("p");
+        writer.flush();
+
+        assertEquals("<IMG /><br /><p></p>", out.toString());
+    }
+
+    public void testHtmlContentType() {
+        assertTrue(Html5RenderKit.isHtmlContentType("text/html"));
+        assertTrue(Html5RenderKit.isHtmlContentType("text/html, application/xhtml+xml"));
+        assertTrue(Html5RenderKit.isHtmlContentType("image/png, text/html;q=0.9"));
+        assertTrue(Html5RenderKit.isHtmlContentType("*/*"));
+        // xhtml is chosen if it comes first
+        assertFalse(Html5RenderKit.isHtmlContentType("application/xhtml+xml, text/html;q=0.9"));
+        assertFalse(Html5RenderKit.isHtmlContentType("application/xml, */*"));
+        assertFalse(Html5RenderKit.isHtmlContentType("text/xml"));
+        assertFalse(Html5RenderKit.isHtmlContentType("application/xhtml+xml"));
+    }
+
+    public void testLargeOutputIsFlushedInChunks() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < Html5ResponseWriter.BUFFER_SIZE; i++) {
+            writer.write("ab");
+            expected.append("ab");
+        }
+        assertTrue(out.getBuffer().length() > 0);
+        assertTrue(out.getBuffer().length() < expected.length());
+
+        writer.close();
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    public void testBufferIsReturnedToPoolOnEndDocument() throws Exception {
+        writer.startDocument();
+        writer.write("a");
+        int pooled = Html5ResponseWriter.getPooledBufferCount();
+        writer.endDocument();
+        assertEquals(pooled + 1, Html5ResponseWriter.getPooledBufferCount());
+
+        // a clone takes no buffer
+        StringWriter cloneOut = new StringWriter();
+        ResponseWriter clone = writer.cloneWithWriter(cloneOut);
+        clone.write("b");
+        assertEquals(pooled + 1, Html5ResponseWriter.getPooledBufferCount());
+        assertEquals("a", out.toString());
+        assertEquals("b", cloneOut.toString());
+    }
+
+    public void testCloneWritesWithoutFlush() throws Exception {
+        writer.startElement("div", null);
+        StringWriter cloneOut = new StringWriter();
+        ResponseWriter clone = writer.cloneWithWriter(cloneOut);
+
+        clone.startElement("span", null);
+        clone.writeAttribute("class", "a", null);
+        clone.writeText("b & c", null);
+        clone.endElement("span");
+        clone.startElement("br", null);
+        clone.endElement("br");
+
+        assertEquals("<span class=\"a\">b &amp; c</span><br />", cloneOut.toString());
+        // pending output of the original is written before the clone starts
+        assertEquals("<div", out.toString());
+    }
+
+    public void testAttributeOutsideOfStartTagFails() throws Exception {
+        writer.startElement("div", null);
+        writer.writeText("x", null);
+        try {
+            writer.writeAttribute("id", "y", null);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
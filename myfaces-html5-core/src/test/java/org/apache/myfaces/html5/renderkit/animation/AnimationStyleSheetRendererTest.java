@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.animation;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+
+import org.apache.myfaces.html5.application.StyleSheetResourceHandler;
+import org.apache.myfaces.html5.renderkit.util.AggregatedStyleSheet;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+import org.apache.myfaces.html5.test.TextRenderer;
+
+public class AnimationStyleSheetRendererTest extends AbstractHtml5ViewControllerTestCase {
+
+    private static final String CSS_RENDERER_TYPE = "org.apache.myfaces.html5.Effects";
+
+    private AnimationStyleSheetRenderer renderer;
+
+    public AnimationStyleSheetRendererTest(String name) {
+        super(name);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        servletContext.addInitParameter(Html5WebConfigParams.ANIMATION_STYLESHEET_ENABLED, "true");
+        application.addComponent(UIOutput.COMPONENT_TYPE, UIOutput.class.getName());
+        facesContext.getViewRoot().setViewId("/page.xhtml");
+
+        renderer = new AnimationStyleSheetRenderer();
+        facesContext.getRenderKit().addRenderer(UIOutput.COMPONENT_FAMILY, CSS_RENDERER_TYPE, new TextRenderer());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        renderer = null;
+        super.tearDown();
+    }
+
+    public void testComponentsAfterTheStyleSheetAreAggregatedInOrder() throws Exception {
+        UIComponent before = addCss("head", "a{}");
+        AggregatedStyleSheet.addStyleSheet(facesContext);
+        UIComponent head = addCss("head", "b{}");
+        UIComponent body = addCss("body", "c{}");
+
+        assertEquals("b{}c{}", renderer.renderStyleSheet(facesContext, AggregatedStyleSheet.findStyleSheet(facesContext)));
+
+        // rendered in the head already
+        assertFalse(AggregatedStyleSheet.isAggregated(facesContext, before));
+        assertTrue(AggregatedStyleSheet.isAggregated(facesContext, head));
+        assertTrue(AggregatedStyleSheet.isAggregated(facesContext, body));
+        assertEquals("", writer.getWriter().toString());
+    }
+
+    public void testOtherComponentsAreNotAggregated() throws Exception {
+        AggregatedStyleSheet.addStyleSheet(facesContext);
+        UIOutput script = new UIOutput();
+        script.setValue("alert(1)");
+        facesContext.getViewRoot().addComponentResource(facesContext, script, "body");
+
+        assertNull(renderer.renderStyleSheet(facesContext, AggregatedStyleSheet.findStyleSheet(facesContext)));
+        assertFalse(AggregatedStyleSheet.isAggregated(facesContext, script));
+    }
+
+    public void testLinkToTheRegisteredStyleSheet() throws Exception {
+        AggregatedStyleSheet.addStyleSheet(facesContext);
+        addCss("body", "a{b:c}");
+
+        renderer.encodeEnd(facesContext, AggregatedStyleSheet.findStyleSheet(facesContext));
+
+        String output = writer.getWriter().toString();
+        assertTrue(output, output.startsWith("<link"));
+        assertTrue(output, output.indexOf("rel=\"stylesheet\"") > 0);
+        assertTrue(output, output.indexOf(StyleSheetResourceHandler.RESOURCE_NAME_PREFIX
+                + StyleSheetResourceHandler.hash("a{b:c}") + ".css") > 0);
+        assertTrue(output, output.indexOf(StyleSheetResourceHandler.VIEW_ID_PARAM + "=%2Fpage.xhtml") > 0);
+    }
+
+    public void testNoLinkWithoutCss() throws Exception {
+        AggregatedStyleSheet.addStyleSheet(facesContext);
+
+        renderer.encodeEnd(facesContext, AggregatedStyleSheet.findStyleSheet(facesContext));
+
+        assertEquals("", writer.getWriter().toString());
+    }
+
+    private UIComponent addCss(String target, String css) {
+        UIOutput component = new UIOutput();
+        component.setRendererType(CSS_RENDERER_TYPE);
+        component.setValue(css);
+        facesContext.getViewRoot().addComponentResource(facesContext, component, target);
+        return component;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.animation;
+
+import junit.framework.TestCase;
+
+public class KeyFrameNameCacheTest extends TestCase {
+
+    public KeyFrameNameCacheTest(String name) {
+        super(name);
+    }
+
+    public void testCanonicalize() {
+        assertEquals("0%{opacity:1;}50%{opacity:0.5;}100%{opacity:1;}",
+                KeyFrameNameCache.canonicalize("  0% {opacity: 1;} 50% {opacity: 0.5;}\n 100% { opacity : 1; }  "));
+        assertEquals("from{-webkit-transform:scale(1) rotate(5deg);}",
+                KeyFrameNameCache.canonicalize("from { -webkit-transform:  scale(1)   rotate(5deg); }"));
+        assertEquals("", KeyFrameNameCache.canonicalize("  \t "));
+    }
+
+    public void testIdenticalKeyFramesShareName() {
+        KeyFrameNameCache cache = new KeyFrameNameCache(10);
+
+        String name = cache.getName(KeyFrameNameCache.canonicalize(" 0% {opacity: 1;} 100% {opacity: 0;} "));
+        assertTrue(name, name.matches("fx-kf-[0-9a-f]{16}"));
+        assertEquals(name, cache.getName(KeyFrameNameCache.canonicalize("0%{opacity:1;}\n100%{opacity:0;}")));
+        assertFalse(name.equals(cache.getName("0%{opacity:1;}100%{opacity:0.5;}")));
+
+        // names only depend on the body, so they are stable across caches
+        assertEquals(name, new KeyFrameNameCache(10).getName("0%{opacity:1;}100%{opacity:0;}"));
+    }
+
+    public void testCacheIsBounded() {
+        KeyFrameNameCache cache = new KeyFrameNameCache(3);
+        for (int i = 0; i < 10; i++) {
+            cache.getName("0%{opacity:" + i + ";}");
+        }
+        assertEquals(3, cache.size());
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.behavior;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.faces.component.UIOutput;
+import javax.faces.component.behavior.ClientBehaviorContext;
+import javax.faces.event.FacesEvent;
+import javax.faces.event.PhaseId;
+
+import org.apache.myfaces.html5.behavior.DropTargetBehavior;
+import org.apache.myfaces.html5.event.DropEvent;
+import org.apache.myfaces.html5.renderkit.util.ClientBehaviorEvents;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+
+public class DropTargetBehaviorRendererTest extends AbstractHtml5ViewControllerTestCase {
+
+    private static final String PARAM = "text/x-myfaces-html5-dnd-param";
+    private static final String FOUND_MIME_TYPES = "org.apache.myfaces.dnd.foundMimeTypes";
+    private static final String BATCH_SIZE = "org.apache.myfaces.dnd.batchSize";
+    private static final String BATCH_PREFIX = "org.apache.myfaces.dnd.batch.";
+
+    private DropTargetBehaviorRenderer renderer;
+    private DropTargetBehavior behavior;
+    private RecordingComponent component;
+
+    public DropTargetBehaviorRendererTest(String name) {
+        super(name);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        renderer = new DropTargetBehaviorRenderer();
+        behavior = new DropTargetBehavior();
+        component = new RecordingComponent();
+        component.setId("target");
+        facesContext.getViewRoot().getChildren().add(component);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        renderer = null;
+        behavior = null;
+        component = null;
+        super.tearDown();
+    }
+
+    public void testSingleDropIsDecodedWithoutPrefix() {
+        request.addParameter(PARAM, "item");
+        request.addParameter(FOUND_MIME_TYPES, "text/plain");
+        request.addParameter("text/plain", "hello");
+
+        renderer.decode(facesContext, component, behavior);
+
+        assertEquals(1, component.events.size());
+        DropEvent event = (DropEvent) component.events.get(0);
+        assertEquals("item", event.getParam());
+        assertEquals("hello", event.getDropDataMap().get("text/plain"));
+        assertNull(event.getFiles());
+        assertSame(behavior, event.getBehavior());
+        assertEquals(PhaseId.INVOKE_APPLICATION, event.getPhaseId());
+    }
+
+    public void testBatchIsDecodedIntoDropEventsInOrder() {
+        request.addParameter(BATCH_SIZE, "3");
+        for (int i = 0; i < 3; i++) {
+            request.addParameter(BATCH_PREFIX + i + "." + PARAM, "item" + i);
+        }
+        request.addParameter(BATCH_PREFIX + "1." + FOUND_MIME_TYPES, "text/plain");
+        request.addParameter(BATCH_PREFIX + "1.text/plain", "second");
+        // values without the prefix do not belong to a drop of the batch
+        request.addParameter(PARAM, "unbatched");
+
+        renderer.decode(facesContext, component, behavior);
+
+        assertEquals(3, component.events.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("item" + i, ((DropEvent) component.events.get(i)).getParam());
+        }
+        assertNull(((DropEvent) component.events.get(0)).getDropDataMap());
+        assertEquals("second", ((DropEvent) component.events.get(1)).getDropDataMap().get("text/plain"));
+    }
+
+    public void testBatchSizeIsCapped() {
+        request.addParameter(BATCH_SIZE, "1000");
+
+        renderer.decode(facesContext, component, behavior);
+
+        assertEquals(100, component.events.size());
+    }
+
+    public void testNothingIsDecodedForAComponentNotRendered() {
+        component.setRendered(false);
+        request.addParameter(PARAM, "item");
+
+        renderer.decode(facesContext, component, behavior);
+
+        assertTrue(component.events.isEmpty());
+    }
+
+    public void testScriptIsRenderedWithoutDelegation() {
+        behavior.setAction("copy");
+
+        assertEquals("return myfaces.html5.dnd.dragEnterOrOver(event, 'copy', null, "
+                + "['text/x-myfaces-html5-dnd-source']);", renderer.getScript(
+                createBehaviorContext(ClientBehaviorEvents.DRAGOVER_EVENT), behavior));
+        assertTrue(renderer.getScript(createBehaviorContext(ClientBehaviorEvents.DROP_EVENT), behavior).startsWith(
+                "return myfaces.html5.dnd.drop(event, 'target', "));
+    }
+
+    public void testScriptIsRenderedForComponentsWhichCanNotDelegate() {
+        servletContext.addInitParameter(Html5WebConfigParams.DND_DELEGATION_ENABLED, "true");
+
+        // the renderer of the component did not render the attributes, e.g. of a h:panelGroup
+        String script = renderer.getScript(createBehaviorContext(ClientBehaviorEvents.DROP_EVENT), behavior);
+
+        assertNotNull(script);
+        assertTrue(script, script.startsWith("return myfaces.html5.dnd.drop("));
+    }
+
+    private ClientBehaviorContext createBehaviorContext(String eventName) {
+        return ClientBehaviorContext.createClientBehaviorContext(facesContext, component, eventName,
+                component.getClientId(facesContext), null);
+    }
+
+    /**
+     * Records the queued events instead of passing them to the view root.
+     */
+    private static class RecordingComponent extends UIOutput {
+
+        final List<FacesEvent> events = new ArrayList<FacesEvent>();
+
+        @Override
+        public void queueEvent(FacesEvent event) {
+            events.add(event);
+        }
+    }
+}
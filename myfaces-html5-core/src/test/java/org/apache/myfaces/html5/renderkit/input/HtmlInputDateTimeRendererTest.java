@@ -2,9 +2,12 @@ package org.apache.myfaces.html5.renderkit.input;
 
 import org.apache.myfaces.html5.component.input.HtmlInputColor;
 import org.apache.myfaces.html5.component.input.HtmlInputDateTime;
+import org.apache.myfaces.html5.renderkit.input.util.Html5TemporalConverter;
 import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+import org.apache.myfaces.html5.test.ConstantValueExpression;
 import org.apache.myfaces.html5.test.HtmlCheckAttributesUtil;
 import org.apache.myfaces.html5.test.HtmlRenderedAttr;
+import org.apache.myfaces.html5.test.TestUtils;
 
 /**
  * @author Ali Ok (aliok@apache.org)
@@ -23,6 +26,33 @@ public class HtmlInputDateTimeRendererTest extends AbstractHtml5ViewControllerTe
         htmlInputDateTime = new HtmlInputDateTime();
     }
 
+    public void testTemporalValueIsRenderedWithTemporalConverter() throws Exception {
+        Object date = localDate(2010, 2, 28);
+        if (date == null)
+            return;
+
+        htmlInputDateTime.setId("input");
+        htmlInputDateTime.setType("date");
+        htmlInputDateTime.setValueExpression("value", new ConstantValueExpression(date, date.getClass()));
+
+        TestUtils.renderComponent(facesContext, htmlInputDateTime);
+
+        assertTrue(writer.getWriter().toString().contains("value=\"2010-02-28\""));
+        assertTrue(htmlInputDateTime.getConverter() instanceof Html5TemporalConverter);
+        assertEquals(date.getClass(), ((Html5TemporalConverter) htmlInputDateTime.getConverter()).getValueType());
+    }
+
+    public void testConverterWithoutValueTypeUsesTheValueExpression() throws Exception {
+        Object date = localDate(2010, 2, 28);
+        if (date == null)
+            return;
+
+        htmlInputDateTime.setType("date");
+        htmlInputDateTime.setValueExpression("value", new ConstantValueExpression(null, date.getClass()));
+
+        assertEquals(date, new Html5TemporalConverter().getAsObject(facesContext, htmlInputDateTime, "2010-02-28"));
+    }
+
     public void testPassThruHtmlProperties() throws Exception {
         HtmlRenderedAttr[] attrs = {
             //Html5 Global Props
@@ -54,5 +84,15 @@ public class HtmlInputDateTimeRendererTest extends AbstractHtml5ViewControllerTe
         }
     }
 
-
+    /**
+     * @return the LocalDate, or null if the runtime has no java.time
+     */
+    private static Object localDate(int year, int month, int day) throws Exception {
+        try {
+            return Class.forName("java.time.LocalDate").getMethod("of", int.class, int.class, int.class)
+                    .invoke(null, year, month, day);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
 }
@@ -2,8 +2,10 @@ package org.apache.myfaces.html5.renderkit.input;
 
 import org.apache.myfaces.html5.component.input.HtmlInputText;
 import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+import org.apache.myfaces.html5.test.ConstantValueExpression;
 import org.apache.myfaces.html5.test.HtmlCheckAttributesUtil;
 import org.apache.myfaces.html5.test.HtmlRenderedAttr;
+import org.apache.myfaces.html5.test.TestUtils;
 
 /**
  * @author Ali Ok (aliok@apache.org)
@@ -55,6 +57,33 @@ public class HtmlInputTextRendererTest extends AbstractHtml5ViewControllerTestCa
         doTestForInputText();
     }
 
+    public void testTemporalValueIsRenderedWithoutDateTimeConverter() throws Exception
+    {
+        Object date = localDate(2010, 2, 28);
+        if (date == null)
+            return;
+
+        htmlInputText.setId("input");
+        htmlInputText.setValueExpression("value", new ConstantValueExpression(date, date.getClass()));
+
+        TestUtils.renderComponent(facesContext, htmlInputText);
+
+        assertTrue(writer.getWriter().toString().contains("value=\"2010-02-28\""));
+        assertNull(htmlInputText.getConverter());
+    }
+
+    /**
+     * @return the LocalDate, or null if the runtime has no java.time
+     */
+    private static Object localDate(int year, int month, int day) throws Exception {
+        try {
+            return Class.forName("java.time.LocalDate").getMethod("of", int.class, int.class, int.class)
+                    .invoke(null, year, month, day);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
 
 
     private void doTestForInputText() throws Exception {
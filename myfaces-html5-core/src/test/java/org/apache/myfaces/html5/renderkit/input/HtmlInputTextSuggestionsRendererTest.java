@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.el.ELContext;
+import javax.faces.context.FacesContext;
+
+import org.apache.myfaces.html5.component.input.Html5BaseInputText;
+import org.apache.myfaces.html5.component.input.HtmlInputText;
+import org.apache.myfaces.html5.model.PrefixSuggestionIndex;
+import org.apache.myfaces.html5.model.SuggestionProvider;
+import org.apache.myfaces.html5.renderkit.input.delegate.HtmlTextInputSuggestionRendererHelper;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
+import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+import org.apache.myfaces.html5.test.ConstantValueExpression;
+import org.apache.myfaces.html5.test.TestUtils;
+
+/**
+ * Tests the rendering of the options of a {@link SuggestionProvider} given as the "suggestions" of an input.
+ */
+public class HtmlInputTextSuggestionsRendererTest extends AbstractHtml5ViewControllerTestCase {
+
+    private HtmlInputText htmlInputText;
+
+    public HtmlInputTextSuggestionsRendererTest(String name) {
+        super(name);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        this.htmlInputText = new HtmlInputText();
+        this.htmlInputText.setId("input");
+        facesContext.getViewRoot().getChildren().add(htmlInputText);
+    }
+
+    public void testOptionsAreWrittenWhileTheyAreProvided() throws Exception {
+        RecordingProvider provider = new RecordingProvider("a", "b", "c");
+        htmlInputText.setSuggestions(provider);
+
+        TestUtils.renderComponent(facesContext, htmlInputText);
+
+        String output = output();
+        assertEquals(-1, provider.limit);
+        assertEquals(Arrays.asList("a", "b", "c"), provider.suggested);
+
+        // each option is in the response before the provider produces the next one
+        assertEquals(-1, provider.outputs.get(0).indexOf("<option"));
+        assertTrue(provider.outputs.get(1).indexOf("value=\"a\"") > 0);
+        assertEquals(-1, provider.outputs.get(1).indexOf("value=\"b\""));
+        assertTrue(provider.outputs.get(2).indexOf("value=\"b\"") > 0);
+
+        assertTrue(output.indexOf("value=\"a\"") < output.indexOf("value=\"b\""));
+        assertTrue(output.indexOf("value=\"b\"") < output.indexOf("value=\"c\""));
+    }
+
+    public void testOptionsAreLimited() throws Exception {
+        servletContext.addInitParameter(Html5WebConfigParams.SUGGESTIONS_LIMIT, "2");
+        RecordingProvider provider = new RecordingProvider("a", "b", "c", "d");
+        htmlInputText.setSuggestions(provider);
+
+        TestUtils.renderComponent(facesContext, htmlInputText);
+
+        String output = output();
+        assertEquals(2, provider.limit);
+        assertEquals(Arrays.asList("a", "b"), provider.suggested);
+        assertTrue(output.indexOf("value=\"a\"") > 0);
+        assertTrue(output.indexOf("value=\"b\"") > 0);
+        assertEquals(-1, output.indexOf("value=\"c\""));
+    }
+
+    public void testEmptyProviderIsNotAsked() throws Exception {
+        RecordingProvider provider = new RecordingProvider() {
+            @Override
+            public int getSizeHint() {
+                return 0;
+            }
+        };
+        htmlInputText.setSuggestions(provider);
+
+        TestUtils.renderComponent(facesContext, htmlInputText);
+
+        assertEquals(-2, provider.limit);
+        assertEquals(-1, output().indexOf("<option"));
+    }
+
+    public void testPrefixSuggestionIndexIsRenderedWithoutIncrementalSuggestions() throws Exception {
+        servletContext.addInitParameter(Html5WebConfigParams.SUGGESTIONS_LIMIT, "2");
+        htmlInputText.setSuggestions(PrefixSuggestionIndex.build("c, a, b"));
+
+        TestUtils.renderComponent(facesContext, htmlInputText);
+
+        String output = output();
+        assertTrue(output.indexOf("value=\"a\"") > 0);
+        assertTrue(output.indexOf("value=\"a\"") < output.indexOf("value=\"b\""));
+        assertEquals(-1, output.indexOf("value=\"c\""));
+    }
+
+    public void testSharedDataListAsksTheProviderOfTheSharingInputOnce() throws Exception {
+        servletContext.addInitParameter(Html5WebConfigParams.SHARED_DATALISTS_ENABLED, "true");
+        RecordingProvider provider = new RecordingProvider("a", "b");
+        htmlInputText.setSuggestions(provider);
+
+        HtmlInputText other = new HtmlInputText();
+        other.setId("other");
+        RecordingProvider otherProvider = new RecordingProvider("a", "b");
+        other.setSuggestions(otherProvider);
+        facesContext.getViewRoot().getChildren().add(other);
+
+        TestUtils.renderComponent(facesContext, htmlInputText);
+        TestUtils.renderComponent(facesContext, other);
+
+        // the options are not kept for the hash, the first provider is asked again to render them
+        assertEquals(Arrays.asList("a", "b", "a", "b"), provider.suggested);
+        assertEquals(Arrays.asList("a", "b"), otherProvider.suggested);
+
+        String output = output();
+        assertTrue(output.indexOf("<datalist") > 0);
+        assertEquals(output.indexOf("<datalist"), output.lastIndexOf("<datalist"));
+        assertEquals(output.indexOf("value=\"a\""), output.lastIndexOf("value=\"a\""));
+        assertEquals(htmlInputText.getAttributes().get("datalist"), other.getAttributes().get("datalist"));
+    }
+
+    public void testProviderWithUnknownSizeIsNotShared() throws Exception {
+        servletContext.addInitParameter(Html5WebConfigParams.SHARED_DATALISTS_ENABLED, "true");
+        RecordingProvider provider = new RecordingProvider("a", "b");
+        provider.sizeHint = -1;
+        htmlInputText.setSuggestions(provider);
+
+        HtmlInputText other = new HtmlInputText();
+        other.setId("other");
+        RecordingProvider otherProvider = new RecordingProvider("a", "b");
+        otherProvider.sizeHint = -1;
+        other.setSuggestions(otherProvider);
+        facesContext.getViewRoot().getChildren().add(other);
+
+        TestUtils.renderComponent(facesContext, htmlInputText);
+        TestUtils.renderComponent(facesContext, other);
+
+        assertEquals(Arrays.asList("a", "b"), provider.suggested);
+        assertEquals(Arrays.asList("a", "b"), otherProvider.suggested);
+
+        String output = output();
+        assertTrue(output.indexOf("<datalist") < output.lastIndexOf("<datalist"));
+    }
+
+    public void testIndexIsReusedForAGetterReturningANewListEachTime() throws Exception {
+        final List<String> values = new ArrayList<String>(Arrays.asList("apple", "avocado", "banana"));
+        htmlInputText.setValueExpression("suggestions", new ConstantValueExpression(null, List.class) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Object getValue(ELContext context) {
+                return new ArrayList<String>(values);
+            }
+        });
+        IndexingHelper helper = new IndexingHelper();
+
+        PrefixSuggestionIndex index = helper.index(facesContext, htmlInputText);
+        assertSame(index, helper.index(facesContext, htmlInputText));
+
+        // changed suggestions are indexed again
+        values.add("cherry");
+        PrefixSuggestionIndex changed = helper.index(facesContext, htmlInputText);
+        assertNotSame(index, changed);
+        assertSame(changed, helper.index(facesContext, htmlInputText));
+    }
+
+    private String output() {
+        return writer.getWriter().toString();
+    }
+
+    /**
+     * Makes the index of the suggestions of an input accessible.
+     */
+    private static class IndexingHelper extends HtmlTextInputSuggestionRendererHelper {
+
+        PrefixSuggestionIndex index(FacesContext facesContext, Html5BaseInputText component) throws IOException {
+            return getPrefixSuggestionIndex(facesContext, component);
+        }
+    }
+
+    /**
+     * Provides its values, ignoring the limit, and records the response written before each of them.
+     */
+    private class RecordingProvider implements SuggestionProvider {
+
+        private final String[] values;
+
+        int limit = -2;
+        int sizeHint;
+        final List<String> suggested = new ArrayList<String>();
+        final List<String> outputs = new ArrayList<String>();
+
+        RecordingProvider(String... values) {
+            this.values = values;
+            this.sizeHint = values.length;
+        }
+
+        public int getSizeHint() {
+            return sizeHint;
+        }
+
+        public void provideSuggestions(Callback callback, int limit) throws IOException {
+            this.limit = limit;
+            for (String value : values) {
+                outputs.add(output());
+                suggested.add(value);
+                if (!callback.suggest(value, value.toUpperCase()))
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input.util;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.apache.myfaces.html5.renderkit.util.HTML5;
+import org.apache.myfaces.html5.test.MicroBenchmark;
+
+/**
+ * Compares parsing and formatting date, local date time and global date time values with
+ * {@link Html5DateTimeFormatUtils} and with the SimpleDateFormat based implementation it replaced, which created a
+ * new SimpleDateFormat for each value. Run with {@link MicroBenchmark}.
+ */
+public class Html5DateTimeFormatUtilsBenchmark {
+
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 200000;
+
+    private static final String DATE = "1979-10-14";
+    private static final String LOCAL_DATETIME = "1979-10-14T12:00:00.001";
+    private static final String GLOBAL_DATETIME = "1979-10-14T12:00:00.001-04:00";
+
+    // patterns of the replaced implementation
+    private static final String DATE_PATTERN = "yyyy-MM-dd";
+    private static final String LOCAL_DATETIME_PATTERN_WITH_MILLIS = "yyyy-MM-dd'T'HH:mm:ss.SSS";
+    private static final String GLOBAL_DATETIME_NONUTC_PATTERN_WITH_MILLIS = "yyyy-MM-dd'T'HH:mm:ss.SSSZZZZ";
+
+    // keeps the results alive
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        new MicroBenchmark(WARMUP, ITERATIONS)
+                .add("SimpleDateFormat", new MicroBenchmark.Operation() {
+                    public void run() throws Exception {
+                        withSimpleDateFormat();
+                    }
+                })
+                .add("Html5DateTimeFormatUtils", new MicroBenchmark.Operation() {
+                    public void run() throws Exception {
+                        withFormatUtils();
+                    }
+                })
+                .run();
+        System.out.println("checksum: " + sink);
+    }
+
+    private static void withFormatUtils() throws ParseException {
+        Date date = Html5DateTimeFormatUtils.parseDateTime(DATE, HTML5.INPUT_TYPE_DATE);
+        Date localDateTime = Html5DateTimeFormatUtils.parseDateTime(LOCAL_DATETIME, HTML5.INPUT_TYPE_DATETIME_LOCAL);
+        Date globalDateTime = Html5DateTimeFormatUtils.parseDateTime(GLOBAL_DATETIME, HTML5.INPUT_TYPE_DATETIME);
+
+        sink += globalDateTime.getTime()
+                + Html5DateTimeFormatUtils.formatDateTime(date, HTML5.INPUT_TYPE_DATE).length()
+                + Html5DateTimeFormatUtils.formatDateTime(localDateTime, HTML5.INPUT_TYPE_DATETIME_LOCAL).length();
+    }
+
+    private static void withSimpleDateFormat() throws ParseException {
+        Date date = new SimpleDateFormat(DATE_PATTERN).parse(DATE);
+        Date localDateTime = new SimpleDateFormat(LOCAL_DATETIME_PATTERN_WITH_MILLIS).parse(LOCAL_DATETIME);
+        // the replaced implementation removed the colon of the time zone, SimpleDateFormat can not parse it
+        int colon = GLOBAL_DATETIME.lastIndexOf(':');
+        Date globalDateTime = new SimpleDateFormat(GLOBAL_DATETIME_NONUTC_PATTERN_WITH_MILLIS)
+                .parse(GLOBAL_DATETIME.substring(0, colon) + GLOBAL_DATETIME.substring(colon + 1));
+
+        sink += globalDateTime.getTime()
+                + new SimpleDateFormat(DATE_PATTERN).format(date).length()
+                + new SimpleDateFormat(LOCAL_DATETIME_PATTERN_WITH_MILLIS).format(localDateTime).length();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input.util;
+
+import static org.apache.myfaces.html5.renderkit.input.util.Html5DateTimeFormatUtils.*;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+public class Html5DateTimeFormatUtilsTest extends TestCase {
+
+    public Html5DateTimeFormatUtilsTest(String name) {
+        super(name);
+    }
+
+    public void testGlobalDateTime() throws Exception {
+        assertEquals(0L, parseEpochMillis("1970-01-01T00:00Z", TYPE_DATETIME));
+        assertEquals(parseEpochMillis("1979-10-14T16:00:00.001Z", TYPE_DATETIME),
+                parseEpochMillis("1979-10-14T12:00:00.001-04:00", TYPE_DATETIME));
+        assertEquals(parseEpochMillis("8592-01-01T00:00Z", TYPE_DATETIME),
+                parseEpochMillis("8592-01-01T02:09+02:09", TYPE_DATETIME));
+
+        long millis = parseEpochMillis("0037-12-13T00:00:05.5Z", TYPE_DATETIME);
+        assertEquals("0037-12-13T00:00:05.500Z", formatEpochMillis(millis, TYPE_DATETIME));
+    }
+
+    public void testLocalTypes() throws Exception {
+        assertEquals(86400000L, parseEpochMillis("1970-01-02", TYPE_DATE));
+        assertEquals("2000-02-29", formatEpochMillis(parseEpochMillis("2000-02-29", TYPE_DATE), TYPE_DATE));
+        assertEquals("1979-10-14T12:00:00.001",
+                formatEpochMillis(parseEpochMillis("1979-10-14T12:00:00.001", TYPE_DATETIME_LOCAL),
+                        TYPE_DATETIME_LOCAL));
+        assertEquals(3600000L + 9 * 60000L, parseEpochMillis("01:09", TYPE_TIME));
+        assertEquals("23:59:59.999", formatEpochMillis(parseEpochMillis("23:59:59.999", TYPE_TIME), TYPE_TIME));
+        assertEquals("1969-12", formatEpochMillis(parseEpochMillis("1969-12", TYPE_MONTH), TYPE_MONTH));
+    }
+
+    public void testWeek() throws Exception {
+        // 2009 has 53 weeks, its first week starts on 2008-12-29
+        assertEquals(parseEpochMillis("2008-12-29", TYPE_DATE), parseEpochMillis("2009-W01", TYPE_WEEK));
+        assertEquals(parseEpochMillis("2009-12-28", TYPE_DATE), parseEpochMillis("2009-W53", TYPE_WEEK));
+        assertEquals("2009-W53", formatEpochMillis(parseEpochMillis("2010-01-03", TYPE_DATE), TYPE_WEEK));
+        assertEquals("2010-W01", formatEpochMillis(parseEpochMillis("2010-01-04", TYPE_DATE), TYPE_WEEK));
+        assertEquals(52, weeksInYear(2010));
+        assertEquals(53, weeksInYear(2015));
+    }
+
+    public void testInvalidValues() throws Exception {
+        assertInvalid("2010-02-29", TYPE_DATE, 8);
+        assertInvalid("2010-W53", TYPE_WEEK, 6);
+        assertInvalid("10-01-01", TYPE_DATE, 2);
+        assertInvalid("2010-01-01T10:00", TYPE_DATETIME, 16);
+        assertInvalid("24:00", TYPE_TIME, 0);
+        assertInvalid("10:00:00.", TYPE_TIME, 9);
+        assertInvalid("2010-01x", TYPE_MONTH, 7);
+    }
+
+    public void testYearsAfterTheRangeOfDateAreInvalid() throws Exception {
+        long last = parseEpochMillis("292278993-12-31T23:59:59.999-23:59", TYPE_DATETIME);
+        assertTrue(last > parseEpochMillis("292278993-01-01", TYPE_DATE));
+        assertTrue(parseEpochMillis("292278993-W52", TYPE_WEEK) > 0);
+
+        assertInvalid("292278994-01-01", TYPE_DATE, 0);
+        assertInvalid("999999999-12-31T23:59Z", TYPE_DATETIME, 0);
+        assertInvalid("999999999-12", TYPE_MONTH, 0);
+        assertInvalid("999999999-W01", TYPE_WEEK, 0);
+    }
+
+    public void testDateApiUsesDefaultTimeZoneForLocalTypes() throws Exception {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT+02:00"));
+            Date date = parseDateTime("2010-06-01", "date");
+            assertEquals(parseEpochMillis("2010-05-31T22:00Z", TYPE_DATETIME), date.getTime());
+            assertEquals("2010-06-01", formatDateTime(date, "date"));
+            assertEquals("2010-05-31T22:00:00.000Z", formatDateTime(date, "datetime"));
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    private void assertInvalid(String value, int type, int errorOffset) {
+        try {
+            parseEpochMillis(value, type);
+            fail("ParseException expected for " + value);
+        } catch (ParseException e) {
+            assertEquals(value, errorOffset, e.getErrorOffset());
+        }
+    }
+}
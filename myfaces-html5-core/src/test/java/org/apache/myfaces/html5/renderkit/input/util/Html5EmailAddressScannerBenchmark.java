@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input.util;
+
+import java.text.ParseException;
+
+import org.apache.commons.validator.EmailValidator;
+import org.apache.myfaces.html5.test.MicroBenchmark;
+
+/**
+ * Compares converting a submitted list of e-mail addresses with {@link Html5EmailAddressScanner} and with the
+ * replaced implementation of {@link Html5EmailConverter}, which split the value with a regex, trimmed each address
+ * and validated it with the EmailValidator of commons-validator. Run with {@link MicroBenchmark}.
+ */
+public class Html5EmailAddressScannerBenchmark {
+
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 200000;
+
+    private static final String VALUE = "john@example.com, jane.doe@mail.example.org,info+news@example.co.uk";
+
+    // keeps the results alive
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        new MicroBenchmark(WARMUP, ITERATIONS)
+                .add("EmailValidator", new MicroBenchmark.Operation() {
+                    public void run() throws Exception {
+                        withEmailValidator();
+                    }
+                })
+                .add("Html5EmailAddressScanner", new MicroBenchmark.Operation() {
+                    public void run() throws Exception {
+                        withScanner();
+                    }
+                })
+                .run();
+        System.out.println("checksum: " + sink);
+    }
+
+    private static void withScanner() throws ParseException {
+        sink += Html5EmailAddressScanner.parseAddressList(VALUE).length;
+    }
+
+    private static void withEmailValidator() {
+        String[] emails = VALUE.split(",");
+        for (String email : emails) {
+            email = email.trim();
+            if (!EmailValidator.getInstance().isValid(email))
+                throw new IllegalStateException("not a valid email: " + email);
+        }
+        sink += emails.length;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input.util;
+
+import java.text.ParseException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class Html5EmailAddressScannerTest extends TestCase {
+
+    public Html5EmailAddressScannerTest(String name) {
+        super(name);
+    }
+
+    public void testValidAddresses() {
+        assertTrue(Html5EmailAddressScanner.isValidAddress("foo@bar.com"));
+        assertTrue(Html5EmailAddressScanner.isValidAddress("a.b+c!#$%&'*/=?^_`{|}~-@localhost"));
+        assertTrue(Html5EmailAddressScanner.isValidAddress("x@a-b.c0"));
+
+        assertFalse(Html5EmailAddressScanner.isValidAddress(""));
+        assertFalse(Html5EmailAddressScanner.isValidAddress("@bar.com"));
+        assertFalse(Html5EmailAddressScanner.isValidAddress("foo@"));
+        assertFalse(Html5EmailAddressScanner.isValidAddress("foo@-bar.com"));
+        assertFalse(Html5EmailAddressScanner.isValidAddress("foo@bar-.com"));
+        assertFalse(Html5EmailAddressScanner.isValidAddress("foo@bar..com"));
+        assertFalse(Html5EmailAddressScanner.isValidAddress("foo@bar.com."));
+        assertFalse(Html5EmailAddressScanner.isValidAddress("f\u00f6o@bar.com"));
+    }
+
+    public void testParseAddressList() throws Exception {
+        assertNull(Html5EmailAddressScanner.parseAddressList(" \t "));
+        assertEquals(Arrays.asList("foo@bar.com"),
+                Arrays.asList(Html5EmailAddressScanner.parseAddressList(" foo@bar.com ")));
+        assertEquals(Arrays.asList("a@b", "c@d", "e@f"),
+                Arrays.asList(Html5EmailAddressScanner.parseAddressList("a@b,c@d ,\n e@f")));
+    }
+
+    public void testErrorOffset() {
+        assertErrorOffset("a@b, c d@e", 6);
+        assertErrorOffset("a@b,,c@d", 4);
+        assertErrorOffset("a@b,", 4);
+        assertErrorOffset("a@b.c_d", 5);
+    }
+
+    public void testAppendAddressList() {
+        StringBuilder builder = new StringBuilder();
+        Html5EmailAddressScanner.appendAddressList(builder, new String[] { " a@b", "c@d ", "e@f" });
+        assertEquals("a@b,c@d,e@f", builder.toString());
+    }
+
+    private void assertErrorOffset(String value, int errorOffset) {
+        try {
+            Html5EmailAddressScanner.parseAddressList(value);
+            fail("ParseException expected for " + value);
+        } catch (ParseException e) {
+            assertEquals(value, errorOffset, e.getErrorOffset());
+        }
+    }
+}
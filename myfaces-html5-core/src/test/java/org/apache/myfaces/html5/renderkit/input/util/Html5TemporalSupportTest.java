@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.input.util;
+
+import static org.apache.myfaces.html5.renderkit.input.util.Html5DateTimeFormatUtils.*;
+
+import junit.framework.TestCase;
+
+/**
+ * java.time is looked up reflectively, so the test runs (and passes trivially) on runtimes without it.
+ */
+public class Html5TemporalSupportTest extends TestCase {
+
+    public Html5TemporalSupportTest(String name) {
+        super(name);
+    }
+
+    public void testRoundTrips() throws Exception {
+        assertRoundTrip("java.time.LocalDate", "2010-02-28", TYPE_DATE, "2010-02-28");
+        assertRoundTrip("java.time.LocalDate", "1969-12-31", TYPE_DATE, "1969-12-31");
+        assertRoundTrip("java.time.LocalDate", "2009-W53", TYPE_WEEK, "2009-12-28");
+        assertRoundTrip("java.time.LocalTime", "23:59:59.999", TYPE_TIME, "23:59:59.999");
+        assertRoundTrip("java.time.LocalDateTime", "1969-12-31T23:59:59.001", TYPE_DATETIME_LOCAL,
+                "1969-12-31T23:59:59.001");
+        assertRoundTrip("java.time.YearMonth", "1600-02", TYPE_MONTH, "1600-02");
+        assertRoundTrip("java.time.OffsetDateTime", "2010-01-04T10:15:00.000Z", TYPE_DATETIME, "2010-01-04T10:15Z");
+        assertRoundTrip("java.time.Instant", "2010-01-04T10:15:00.000Z", TYPE_DATETIME, "2010-01-04T10:15:00Z");
+    }
+
+    public void testSupportedTypes() throws Exception {
+        assertFalse(Html5TemporalSupport.isSupportedType(java.util.Date.class));
+        assertFalse(Html5TemporalSupport.isSupportedType(null));
+
+        Class<?> type = loadClass("java.time.LocalDate");
+        if (type != null)
+            assertTrue(Html5TemporalSupport.isSupportedType(type));
+    }
+
+    private void assertRoundTrip(String className, String value, int type, String expectedString) throws Exception {
+        Class<?> targetType = loadClass(className);
+        if (targetType == null)
+            return;
+
+        Object temporal = Html5TemporalSupport.fromEpochMillis(parseEpochMillis(value, type), type, targetType);
+        assertEquals(expectedString, temporal.toString());
+        assertEquals(value, formatEpochMillis(Html5TemporalSupport.toEpochMillis(temporal, type), type));
+    }
+
+    private static Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
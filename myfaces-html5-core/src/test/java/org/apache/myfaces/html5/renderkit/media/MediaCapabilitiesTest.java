@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.media;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.myfaces.html5.model.MediaInfo;
+
+public class MediaCapabilitiesTest extends TestCase {
+
+    private static final String SAFARI = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_6_4) AppleWebKit/533.16 "
+            + "(KHTML, like Gecko) Version/5.0 Safari/533.16";
+    private static final String CHROME = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/534.7 "
+            + "(KHTML, like Gecko) Chrome/7.0.517.41 Safari/534.7";
+
+    private final MediaInfo mp4Low = new MediaInfo("low.mp4", "video/mp4", null, null, false, 500);
+    private final MediaInfo mp4High = new MediaInfo("high.mp4", "video/mp4", null, null, false, 2000);
+    private final MediaInfo ogg = new MediaInfo("clip.ogv", "video/ogg; codecs=\"theora, vorbis\"");
+    private final MediaInfo webm = new MediaInfo("clip.webm", "video/webm", null, null, false, 1000);
+    private final MediaInfo disabled = new MediaInfo("off.webm", "video/webm", null, null, true);
+
+    public MediaCapabilitiesTest(String name) {
+        super(name);
+    }
+
+    public void testUnknownClientKeepsSourcesOrderedByQuality() {
+        MediaCapabilities capabilities = MediaCapabilities.parse(CHROME, null);
+
+        assertFalse(capabilities.isProbed());
+        assertEquals(Arrays.asList(mp4High, webm, mp4Low, ogg), negotiate(capabilities));
+    }
+
+    public void testUserAgentExcludesKnownUnplayableTypes() {
+        MediaCapabilities capabilities = MediaCapabilities.parse(SAFARI, null);
+
+        assertEquals(0F, capabilities.getPreference("video/ogg"));
+        assertEquals(Arrays.asList(mp4High, webm, mp4Low), negotiate(capabilities));
+    }
+
+    public void testCookieOverridesUserAgent() {
+        MediaCapabilities capabilities = MediaCapabilities.parse(SAFARI,
+                "video%2Fwebm%3A1%2Cvideo%2Fmp4%3A0%2Cvideo%2Fogg%3A1");
+
+        assertTrue(capabilities.isProbed());
+        assertEquals(Arrays.asList(webm, ogg), negotiate(capabilities));
+    }
+
+    public void testProbedPlayableTypesArePreferred() {
+        MediaCapabilities capabilities = MediaCapabilities.parse(CHROME, "video%2Fogg%3A1");
+
+        assertEquals(2F, capabilities.getPreference("video/ogg"));
+        assertEquals(1F, capabilities.getPreference("audio/mpeg"));
+        assertEquals(1F, capabilities.getPreference(null));
+        assertEquals(Arrays.asList(ogg, mp4High, webm, mp4Low), negotiate(capabilities));
+    }
+
+    public void testNothingPlayableKeepsAllSources() {
+        MediaCapabilities capabilities = MediaCapabilities.parse(null, "video%2Fogg%3A0");
+
+        List<MediaInfo> sources = capabilities.negotiate(Arrays.asList(ogg, disabled));
+        assertEquals(Arrays.asList(ogg), sources);
+    }
+
+    private List<MediaInfo> negotiate(MediaCapabilities capabilities) {
+        return capabilities.negotiate(Arrays.asList(mp4Low, ogg, disabled, webm, mp4High));
+    }
+}
@@ -1,9 +1,22 @@
 package org.apache.myfaces.html5.renderkit.media;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.faces.application.Resource;
+import javax.faces.application.ResourceHandler;
+import javax.faces.context.FacesContext;
+
 import org.apache.myfaces.html5.component.media.Video;
+import org.apache.myfaces.html5.model.MediaInfo;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
 import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
 import org.apache.myfaces.html5.test.HtmlCheckAttributesUtil;
 import org.apache.myfaces.html5.test.HtmlRenderedAttr;
+import org.apache.myfaces.html5.test.TestUtils;
 
 /**
  * @author Ali Ok (aliok@apache.org)
@@ -20,6 +33,7 @@ public class VideoRendererTest extends AbstractHtml5ViewControllerTestCase {
     public void setUp() throws Exception {
         super.setUp();
         video = new Video();
+        application.setResourceHandler(new ScriptResourceHandler());
     }
 
     public void testPassThruHtmlProperties() throws Exception
@@ -52,4 +66,151 @@ public class VideoRendererTest extends AbstractHtml5ViewControllerTestCase {
         }
     }
 
+    public void testLazyVideoWritesDataSrc() throws Exception {
+        video.setLoading("lazy");
+        video.setValue("clip.mp4");
+
+        TestUtils.renderComponent(facesContext, video);
+
+        String output = output();
+        assertTrue(output, output.indexOf("data-loading=\"lazy\"") > 0);
+        assertTrue(output, output.indexOf("data-src=\"clip.mp4\"") > 0);
+        assertEquals(output, -1, output.indexOf(" src=\"clip.mp4\""));
+    }
+
+    public void testLazySourcesWriteDataSrc() throws Exception {
+        video.setLoading("lazy");
+        video.addMediaInfo(new MediaInfo("clip.webm", "video/webm"));
+
+        TestUtils.renderComponent(facesContext, video);
+
+        String output = output();
+        assertTrue(output, output.indexOf("<source") > 0);
+        assertTrue(output, output.indexOf("data-src=\"clip.webm\"") > output.indexOf("<source"));
+        assertEquals(output, -1, output.indexOf(" src=\"clip.webm\""));
+        assertTrue(output, output.indexOf("type=\"video/webm\"") > 0);
+    }
+
+    public void testLazyVideoForcesPreloadNoneAndKeepsThePreloadValue() throws Exception {
+        video.setLoading("lazy");
+        video.setPreload("auto");
+
+        TestUtils.renderComponent(facesContext, video);
+
+        String output = output();
+        assertTrue(output, output.indexOf(" preload=\"none\"") > 0);
+        assertTrue(output, output.indexOf("data-preload=\"auto\"") > 0);
+        assertEquals(output, -1, output.indexOf(" preload=\"auto\""));
+    }
+
+    public void testLoadingDefaultsToTheContextParameter() throws Exception {
+        servletContext.addInitParameter(Html5WebConfigParams.MEDIA_LOADING, "lazy");
+        video.setValue("clip.mp4");
+
+        TestUtils.renderComponent(facesContext, video);
+
+        assertTrue(output(), output().indexOf("data-src=\"clip.mp4\"") > 0);
+    }
+
+    public void testLoadingPropertyOverridesTheContextParameter() throws Exception {
+        servletContext.addInitParameter(Html5WebConfigParams.MEDIA_LOADING, "lazy");
+        video.setLoading("eager");
+        video.setValue("clip.mp4");
+
+        TestUtils.renderComponent(facesContext, video);
+
+        String output = output();
+        assertTrue(output, output.indexOf(" src=\"clip.mp4\"") > 0);
+        assertEquals(output, -1, output.indexOf("data-src"));
+        assertEquals(output, -1, output.indexOf(ScriptResourceHandler.SCRIPT_NAME));
+    }
+
+    public void testLazyLoadingScriptIsRenderedOncePerView() throws Exception {
+        video.setLoading("lazy");
+        Video other = new Video();
+        other.setId("other");
+        other.setLoading("lazy");
+
+        TestUtils.renderComponent(facesContext, video);
+        TestUtils.renderComponent(facesContext, other);
+
+        String output = output();
+        int script = output.indexOf(ScriptResourceHandler.SCRIPT_NAME);
+        assertTrue(output, script > output.lastIndexOf("</video>"));
+        assertEquals(output, script, output.lastIndexOf(ScriptResourceHandler.SCRIPT_NAME));
+    }
+
+    private String output() {
+        return writer.getWriter().toString();
+    }
+
+    /**
+     * Creates resources for the lazy loading script, with the resource name in the request path.
+     */
+    private static class ScriptResourceHandler extends ResourceHandler {
+
+        static final String SCRIPT_NAME = "media.js";
+
+        @Override
+        public Resource createResource(String resourceName) {
+            return createResource(resourceName, null);
+        }
+
+        @Override
+        public Resource createResource(final String resourceName, final String libraryName) {
+            Resource resource = new Resource() {
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    return null;
+                }
+
+                @Override
+                public Map<String, String> getResponseHeaders() {
+                    return Collections.emptyMap();
+                }
+
+                @Override
+                public String getRequestPath() {
+                    return RESOURCE_IDENTIFIER + "/" + resourceName + "?ln=" + libraryName;
+                }
+
+                @Override
+                public URL getURL() {
+                    return null;
+                }
+
+                @Override
+                public boolean userAgentNeedsUpdate(FacesContext context) {
+                    return false;
+                }
+            };
+            resource.setResourceName(resourceName);
+            resource.setLibraryName(libraryName);
+            return resource;
+        }
+
+        @Override
+        public Resource createResource(String resourceName, String libraryName, String contentType) {
+            return createResource(resourceName, libraryName);
+        }
+
+        @Override
+        public void handleResourceRequest(FacesContext context) throws IOException {
+        }
+
+        @Override
+        public boolean isResourceRequest(FacesContext context) {
+            return false;
+        }
+
+        @Override
+        public boolean libraryExists(String libraryName) {
+            return true;
+        }
+
+        @Override
+        public String getRendererTypeForResourceName(String resourceName) {
+            return null;
+        }
+    }
 }
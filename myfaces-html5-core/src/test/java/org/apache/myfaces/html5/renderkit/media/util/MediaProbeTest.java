@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.media.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+public class MediaProbeTest extends TestCase {
+
+    private File file;
+
+    public MediaProbeTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("media", ".bin");
+    }
+
+    protected void tearDown() throws Exception {
+        file.delete();
+        super.tearDown();
+    }
+
+    public void testMp4WithMoovAfterMediaData() throws IOException {
+        byte[] avcC = box("avcC", bytes(1, 0x42, 0xC0, 0x1E, 0xFF));
+        byte[] avc1 = box("avc1", concat(new byte[78], avcC));
+        byte[] esds = box("esds", bytes(0, 0, 0, 0,
+                0x03, 0x19, 0, 1, 0,
+                0x04, 0x11, 0x40, 0x15, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+                0x05, 0x02, 0x12, 0x10));
+        byte[] mp4a = box("mp4a", concat(new byte[28], esds));
+
+        write(concat(box("ftyp", ascii("isom\u0000\u0000\u0000\u0001")),
+                box("mdat", new byte[64 * 1024]),
+                box("moov", concat(track("vide", avc1), track("soun", mp4a)))));
+
+        MediaMetadata metadata = MediaProbe.probe(file);
+        assertEquals("video/mp4", metadata.getContentType());
+        assertEquals("avc1.42C01E, mp4a.40.2", metadata.getCodecs());
+    }
+
+    public void testMp4WithUnknownSampleEntryHasNoCodecs() throws IOException {
+        write(concat(box("ftyp", ascii("M4A \u0000\u0000\u0000\u0000")),
+                box("moov", track("soun", box("xxxx", new byte[28])))));
+
+        MediaMetadata metadata = MediaProbe.probe(file);
+        assertEquals("video/mp4", metadata.getContentType());
+        assertNull(metadata.getCodecs());
+    }
+
+    public void testWebm() throws IOException {
+        byte[] header = element(0x1A45DFA3, element(0x4282, ascii("webm")));
+        byte[] video = element(0xAE, concat(element(0x83, bytes(1)), element(0x86, ascii("V_VP8"))));
+        byte[] audio = element(0xAE, concat(element(0x83, bytes(2)), element(0x86, ascii("A_VORBIS"))));
+        byte[] segment = element(0x18538067, element(0x1654AE6B, concat(video, audio)));
+
+        write(concat(header, segment));
+
+        MediaMetadata metadata = MediaProbe.probe(file);
+        assertEquals("video/webm", metadata.getContentType());
+        assertEquals("vp8, vorbis", metadata.getCodecs());
+    }
+
+    public void testOggAudio() throws IOException {
+        byte[] opusHead = concat(ascii("OpusHead"), new byte[11]);
+
+        write(concat(page(0x02, opusHead), page(0x00, new byte[100])));
+
+        MediaMetadata metadata = MediaProbe.probe(file);
+        assertEquals("audio/ogg", metadata.getContentType());
+        assertEquals("opus", metadata.getCodecs());
+    }
+
+    public void testUnknownFormat() throws IOException {
+        write(ascii("FLV\u0001\u0005\u0000\u0000\u0000\u0009\u0000\u0000\u0000"));
+
+        assertNull(MediaProbe.probe(file));
+    }
+
+    private void write(byte[] content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] track(String handlerType, byte[] sampleEntry) throws IOException {
+        byte[] hdlr = box("hdlr", concat(new byte[8], ascii(handlerType), new byte[12]));
+        byte[] stsd = box("stsd", concat(bytes(0, 0, 0, 0, 0, 0, 0, 1), sampleEntry));
+        byte[] minf = box("minf", box("stbl", stsd));
+        return box("trak", box("mdia", concat(hdlr, minf)));
+    }
+
+    private static byte[] page(int headerType, byte[] packet) throws IOException {
+        return concat(ascii("OggS"), bytes(0, headerType), new byte[20], bytes(1, packet.length), packet);
+    }
+
+    private static byte[] box(String type, byte[] payload) throws IOException {
+        int size = payload.length + 8;
+        return concat(bytes(size >>> 24, size >>> 16, size >>> 8, size), ascii(type), payload);
+    }
+
+    private static byte[] element(int id, byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            if ((id >>> shift) != 0)
+                out.write(id >>> shift);
+        }
+        // 4 byte size vint
+        out.write(bytes(0x10 | (data.length >>> 24), data.length >>> 16, data.length >>> 8, data.length));
+        out.write(data);
+        return out.toByteArray();
+    }
+
+    private static byte[] ascii(String str) {
+        byte[] bytes = new byte[str.length()];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) str.charAt(i);
+        return bytes;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) values[i];
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... arrays) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] array : arrays)
+            out.write(array);
+        return out.toByteArray();
+    }
+}
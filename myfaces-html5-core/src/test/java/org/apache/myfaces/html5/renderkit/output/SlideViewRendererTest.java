@@ -19,10 +19,15 @@
 
 package org.apache.myfaces.html5.renderkit.output;
 
+import org.apache.myfaces.html5.component.output.AbstractSlideView;
+import org.apache.myfaces.html5.component.output.Slide;
 import org.apache.myfaces.html5.component.output.SlideView;
+import org.apache.myfaces.html5.renderkit.util.CSS;
+import org.apache.myfaces.html5.renderkit.util.HTML5;
 import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
 import org.apache.myfaces.html5.test.HtmlCheckAttributesUtil;
 import org.apache.myfaces.html5.test.HtmlRenderedAttr;
+import org.apache.myfaces.html5.test.TestUtils;
 
 /**
  * @author Ali Ok (aliok@apache.org)
@@ -39,6 +44,8 @@ public class SlideViewRendererTest extends AbstractHtml5ViewControllerTestCase {
     protected void setUp() throws Exception {
         super.setUp();
         this.slideView = new SlideView();
+        this.slideView.setId("slides");
+        facesContext.getViewRoot().getChildren().add(slideView);
     }
 
     public void testPassThruHtmlProperties() throws Exception
@@ -63,4 +70,88 @@ public class SlideViewRendererTest extends AbstractHtml5ViewControllerTestCase {
             fail(HtmlCheckAttributesUtil.constructErrorMessage(attrs, writer.getWriter().toString()));
         }
     }
+
+    public void testDefaultSlidePropertiesAreNotWritten() throws Exception {
+        slideView.setSlideWidth(AbstractSlideView.DEFAULT_SLIDE_WIDTH);
+
+        TestUtils.renderComponent(facesContext, slideView);
+
+        String output = output();
+        assertEquals(output, -1, output.indexOf("style="));
+        assertEquals(output, -1, output.indexOf("--mf-slide"));
+    }
+
+    public void testNonDefaultSlidePropertiesAreWrittenBeforeTheStyle() throws Exception {
+        slideView.setSlideLeft(5);
+        slideView.setSlideWidth(AbstractSlideView.DEFAULT_SLIDE_WIDTH);
+        slideView.setInactiveSlideScale(0.5);
+        slideView.setDuration("2");
+        slideView.setStyle("color:red");
+
+        TestUtils.renderComponent(facesContext, slideView);
+
+        String output = output();
+        assertTrue(output, output.indexOf("style=\"" + CSS.SLIDE_LEFT_VAR + ":5%;" + CSS.SLIDE_SCALE_VAR + ":0.5;"
+                + CSS.SLIDE_DURATION_VAR + ":2s;color:red\"") > 0);
+        assertEquals(output, -1, output.indexOf(CSS.SLIDE_WIDTH_VAR));
+        assertEquals(output, output.indexOf("style="), output.lastIndexOf("style="));
+    }
+
+    public void testSlidesOutsideTheWindowAreRenderedAsPlaceholders() throws Exception {
+        slideView.setSlideWindow(1);
+        Slide first = addSlide("first");
+        Slide hidden = addSlide("hidden");
+        hidden.setRendered(false);
+        Slide second = addSlide("second");
+        Slide third = addSlide("third");
+        Slide fourth = addSlide("fourth");
+
+        TestUtils.renderComponent(facesContext, slideView);
+
+        String output = output();
+        // the first slide and the window after it, not counting slides that are not rendered
+        assertRendered(output, first);
+        assertEquals(output, -1, output.indexOf(hidden.getClientId(facesContext)));
+        assertRendered(output, second);
+        assertPlaceholder(output, third);
+        assertPlaceholder(output, fourth);
+        assertTrue(output, output.indexOf(", 1);") > 0);
+    }
+
+    public void testAllSlidesAreRenderedWithoutWindow() throws Exception {
+        Slide first = addSlide("first");
+        Slide second = addSlide("second");
+        Slide third = addSlide("third");
+
+        TestUtils.renderComponent(facesContext, slideView);
+
+        String output = output();
+        assertRendered(output, first);
+        assertRendered(output, second);
+        assertRendered(output, third);
+        assertEquals(output, -1, output.indexOf(HTML5.DATA_FX_SLIDE_PLACEHOLDER_ATTR));
+        assertTrue(output, output.indexOf(", 0);") > 0);
+    }
+
+    private Slide addSlide(String id) {
+        Slide slide = new Slide();
+        slide.setId(id);
+        slideView.getChildren().add(slide);
+        return slide;
+    }
+
+    private void assertRendered(String output, Slide slide) {
+        String id = "id=\"" + slide.getClientId(facesContext) + "\"";
+        assertTrue(output, output.indexOf(id) > 0);
+        assertEquals(output, -1, output.indexOf(id + " " + HTML5.DATA_FX_SLIDE_PLACEHOLDER_ATTR));
+    }
+
+    private void assertPlaceholder(String output, Slide slide) {
+        String id = "id=\"" + slide.getClientId(facesContext) + "\"";
+        assertTrue(output, output.indexOf(id + " " + HTML5.DATA_FX_SLIDE_PLACEHOLDER_ATTR + "=\"true\"") > 0);
+    }
+
+    private String output() {
+        return writer.getWriter().toString();
+    }
 }
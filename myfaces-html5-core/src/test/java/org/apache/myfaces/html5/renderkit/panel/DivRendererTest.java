@@ -18,12 +18,23 @@
 */
 package org.apache.myfaces.html5.renderkit.panel;
 
+import javax.faces.component.behavior.ClientBehaviorContext;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import org.apache.myfaces.html5.behavior.DragSourceBehavior;
+import org.apache.myfaces.html5.behavior.DropTargetBehavior;
 import org.apache.myfaces.html5.component.panel.Div;
+import org.apache.myfaces.html5.renderkit.behavior.DragSourceBehaviorRenderer;
+import org.apache.myfaces.html5.renderkit.behavior.DropTargetBehaviorRenderer;
+import org.apache.myfaces.html5.renderkit.util.ClientBehaviorEvents;
+import org.apache.myfaces.html5.renderkit.util.HTML5;
+import org.apache.myfaces.html5.renderkit.util.Html5RendererUtils;
+import org.apache.myfaces.html5.renderkit.util.Html5WebConfigParams;
 import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
 import org.apache.myfaces.html5.test.HtmlCheckAttributesUtil;
 import org.apache.myfaces.html5.test.HtmlRenderedAttr;
+import org.apache.myfaces.html5.test.TestUtils;
 
 
 public class DivRendererTest extends AbstractHtml5ViewControllerTestCase {
@@ -73,4 +84,92 @@ public class DivRendererTest extends AbstractHtml5ViewControllerTestCase {
         }
     }
 
+    public void testDelegatedDropTargetIsRenderedAsAttributesOnce() throws Exception
+    {
+        servletContext.addInitParameter(Html5WebConfigParams.DND_DELEGATION_ENABLED, "true");
+        addDndBehaviorRenderers();
+        div.setId("div");
+        facesContext.getViewRoot().getChildren().add(div);
+
+        // fx:dropTarget adds the same behavior for the three events
+        DropTargetBehavior dropTarget = new DropTargetBehavior();
+        dropTarget.setAction("copy");
+        dropTarget.setTypes("files");
+        dropTarget.setRerender("list");
+        div.addClientBehavior(ClientBehaviorEvents.DRAGENTER_EVENT, dropTarget);
+        div.addClientBehavior(ClientBehaviorEvents.DRAGOVER_EVENT, dropTarget);
+        div.addClientBehavior(ClientBehaviorEvents.DROP_EVENT, dropTarget);
+
+        TestUtils.renderComponent(facesContext, div);
+
+        String output = writer.getWriter().toString();
+        assertOnce(output, HTML5.DATA_FX_DROP_ATTR + "=\"copy\"");
+        assertOnce(output, HTML5.DATA_FX_DROP_TYPES_ATTR + "=\"files\"");
+        assertOnce(output, HTML5.DATA_FX_DROP_RENDER_ATTR + "=\"list\"");
+        assertEquals(output, -1, output.indexOf("myfaces.html5.dnd"));
+        assertEquals(output, -1, output.indexOf("ondrop"));
+
+        // the behavior renderers return no script for the events rendered as attributes
+        for (String eventName : new String[] { ClientBehaviorEvents.DRAGENTER_EVENT,
+                ClientBehaviorEvents.DRAGOVER_EVENT, ClientBehaviorEvents.DROP_EVENT })
+        {
+            ClientBehaviorContext behaviorContext = ClientBehaviorContext.createClientBehaviorContext(facesContext,
+                    div, eventName, div.getClientId(facesContext), null);
+            assertTrue(eventName, Html5RendererUtils.isDelegatedBehaviorRendered(behaviorContext));
+            assertNull(eventName, new DropTargetBehaviorRenderer().getScript(behaviorContext, dropTarget));
+        }
+    }
+
+    public void testDelegatedDragSourceIsRenderedAsAttributes() throws Exception
+    {
+        servletContext.addInitParameter(Html5WebConfigParams.DND_DELEGATION_ENABLED, "true");
+        addDndBehaviorRenderers();
+        div.setId("div");
+        facesContext.getViewRoot().getChildren().add(div);
+
+        DragSourceBehavior dragSource = new DragSourceBehavior();
+        dragSource.setAction("move");
+        dragSource.setDropTargetTypes("files");
+        dragSource.setParam("item");
+        div.addClientBehavior(ClientBehaviorEvents.DRAGSTART_EVENT, dragSource);
+
+        TestUtils.renderComponent(facesContext, div);
+
+        String output = writer.getWriter().toString();
+        assertOnce(output, HTML5.DATA_FX_DRAG_ATTR + "=\"move\"");
+        assertOnce(output, HTML5.DATA_FX_DRAG_TYPES_ATTR + "=\"files\"");
+        assertOnce(output, HTML5.DATA_FX_DRAG_PARAM_ATTR + "=\"item\"");
+        assertEquals(output, -1, output.indexOf("ondragstart"));
+    }
+
+    public void testDropTargetIsRenderedAsScriptWithoutDelegation() throws Exception
+    {
+        addDndBehaviorRenderers();
+        div.setId("div");
+        facesContext.getViewRoot().getChildren().add(div);
+
+        DropTargetBehavior dropTarget = new DropTargetBehavior();
+        div.addClientBehavior(ClientBehaviorEvents.DRAGOVER_EVENT, dropTarget);
+        div.addClientBehavior(ClientBehaviorEvents.DROP_EVENT, dropTarget);
+
+        TestUtils.renderComponent(facesContext, div);
+
+        String output = writer.getWriter().toString();
+        assertEquals(output, -1, output.indexOf(HTML5.DATA_FX_DROP_ATTR));
+        assertTrue(output, output.indexOf("ondragover=\"return myfaces.html5.dnd.dragEnterOrOver(") > 0);
+        assertTrue(output, output.indexOf("ondrop=\"return myfaces.html5.dnd.drop(") > 0);
+    }
+
+    private void addDndBehaviorRenderers()
+    {
+        renderKit.addClientBehaviorRenderer(DropTargetBehavior.RENDERER_ID, new DropTargetBehaviorRenderer());
+        renderKit.addClientBehaviorRenderer(DragSourceBehavior.RENDERER_ID, new DragSourceBehaviorRenderer());
+    }
+
+    private static void assertOnce(String output, String attribute)
+    {
+        assertTrue(output, output.indexOf(attribute) > 0);
+        assertEquals(output, output.indexOf(attribute), output.lastIndexOf(attribute));
+    }
+
 }
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+
+import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+
+public class AggregatedStyleSheetTest extends AbstractHtml5ViewControllerTestCase {
+
+    public AggregatedStyleSheetTest(String name) {
+        super(name);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        application.addComponent(UIOutput.COMPONENT_TYPE, UIOutput.class.getName());
+    }
+
+    public void testStyleSheetIsNotAddedWhenDisabled() {
+        AggregatedStyleSheet.addStyleSheet(facesContext);
+
+        assertNull(AggregatedStyleSheet.findStyleSheet(facesContext));
+    }
+
+    public void testStyleSheetIsAddedToTheHeadOnce() {
+        servletContext.addInitParameter(Html5WebConfigParams.ANIMATION_STYLESHEET_ENABLED, "true");
+
+        AggregatedStyleSheet.addStyleSheet(facesContext);
+        UIComponent styleSheet = AggregatedStyleSheet.findStyleSheet(facesContext);
+        AggregatedStyleSheet.addStyleSheet(facesContext);
+
+        assertNotNull(styleSheet);
+        assertSame(styleSheet, AggregatedStyleSheet.findStyleSheet(facesContext));
+        assertEquals(AggregatedStyleSheet.RENDERER_TYPE, styleSheet.getRendererType());
+        // added again when the view is built on the next request
+        assertTrue(styleSheet.isTransient());
+        assertEquals(1, facesContext.getViewRoot().getComponentResources(facesContext, "head").size());
+    }
+
+    public void testComponentsAreAggregatedPerRequest() {
+        UIComponent aggregated = new UIOutput();
+        UIComponent other = new UIOutput();
+
+        assertFalse(AggregatedStyleSheet.isAggregated(facesContext, aggregated));
+        AggregatedStyleSheet.markAggregated(facesContext, aggregated);
+
+        assertTrue(AggregatedStyleSheet.isAggregated(facesContext, aggregated));
+        assertFalse(AggregatedStyleSheet.isAggregated(facesContext, other));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+import javax.faces.context.ResponseWriter;
+
+import org.apache.myfaces.html5.test.MicroBenchmark;
+
+/**
+ * Compares rendering the pass through attributes of a video with its {@link AttributeRenderPlan} and with iterating
+ * a plain copy of the attribute map, the path taken for maps not built with {@link AttributeMap}.
+ * Run with {@link MicroBenchmark}.
+ * The component keeps its attributes in a HashMap, so the numbers show the cost of the rendering loop itself, not of
+ * the attribute lookup of the JSF implementation.
+ */
+public class AttributeRenderPlanBenchmark {
+
+    private static final int WARMUP = 50000;
+    private static final int ITERATIONS = 1000000;
+
+    public static void main(String[] args) throws Exception {
+        ResponseWriter writer = new NullResponseWriter();
+        UIComponent component = createComponent();
+        Map<String, String> compiled = PassThroughAttributes.VIDEO;
+        Map<String, String> plain = new HashMap<String, String>(PassThroughAttributes.VIDEO);
+
+        new MicroBenchmark(WARMUP, ITERATIONS)
+                .add("Map iteration", render(writer, component, plain))
+                .add("AttributeRenderPlan", render(writer, component, compiled))
+                .run();
+    }
+
+    private static MicroBenchmark.Operation render(final ResponseWriter writer, final UIComponent component,
+            final Map<String, String> attrs) {
+        return new MicroBenchmark.Operation() {
+            public void run() throws IOException {
+                Html5RendererUtils.renderPassThroughAttributes(writer, component, attrs);
+            }
+        };
+    }
+
+    private static UIComponent createComponent() {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put(JsfProperties.STYLECLASS_PROP, "video");
+        attributes.put(JsfProperties.TITLE_PROP, "Demo");
+        attributes.put(JsfProperties.SHOW_CONTROLS_PROP, Boolean.TRUE);
+        attributes.put(JsfProperties.DRAGGABLE_PROP, Boolean.TRUE);
+        attributes.put(JsfProperties.WIDTH_PROP, Integer.valueOf(640));
+        attributes.put(JsfProperties.POSTER_PROP, "poster.png");
+
+        return new UIOutput() {
+            @Override
+            public Map<String, Object> getAttributes() {
+                return attributes;
+            }
+        };
+    }
+
+    private static class NullResponseWriter extends ResponseWriter {
+
+        @Override
+        public String getContentType() {
+            return "text/html";
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return "UTF-8";
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void startDocument() {
+        }
+
+        @Override
+        public void endDocument() {
+        }
+
+        @Override
+        public void startElement(String name, UIComponent component) {
+        }
+
+        @Override
+        public void endElement(String name) {
+        }
+
+        @Override
+        public void writeAttribute(String name, Object value, String property) {
+        }
+
+        @Override
+        public void writeURIAttribute(String name, Object value, String property) {
+        }
+
+        @Override
+        public void writeComment(Object comment) {
+        }
+
+        @Override
+        public void writeText(Object text, String property) {
+        }
+
+        @Override
+        public void writeText(char[] text, int off, int len) {
+        }
+
+        @Override
+        public ResponseWriter cloneWithWriter(Writer writer) {
+            return this;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
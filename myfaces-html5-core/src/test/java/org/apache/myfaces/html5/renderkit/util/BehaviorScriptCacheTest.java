@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import static org.apache.myfaces.html5.renderkit.util.BehaviorScriptCache.SINGLE_EVENT_CHAIN;
+import static org.apache.myfaces.html5.renderkit.util.BehaviorScriptCache.TWO_EVENT_CHAIN;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.behavior.AjaxBehavior;
+import javax.faces.component.behavior.ClientBehavior;
+import javax.faces.component.behavior.ClientBehaviorContext;
+import javax.faces.component.behavior.ClientBehaviorHint;
+import javax.faces.context.FacesContext;
+
+import org.apache.myfaces.html5.component.input.HtmlInputText;
+import org.apache.myfaces.html5.test.AbstractHtml5ViewControllerTestCase;
+
+public class BehaviorScriptCacheTest extends AbstractHtml5ViewControllerTestCase {
+
+    private HtmlInputText input;
+
+    public BehaviorScriptCacheTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        input = new HtmlInputText();
+        input.setId("input");
+        facesContext.getViewRoot().getChildren().add(input);
+    }
+
+    public void testHitsAndMisses() {
+        BehaviorScriptCache cache = new BehaviorScriptCache(10);
+        String key = createKey(ajax("@this"));
+        assertNotNull(key);
+
+        assertNull(cache.get(key));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.put(key, "jsf.util.chain(this, event, 'a')");
+        assertEquals("jsf.util.chain(this, event, 'a')", cache.get(key));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertNull(cache.get(key));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    public void testKeysOfBehaviorsWithDifferentParametersDiffer() {
+        String key = createKey(ajax("@this"));
+        assertEquals(key, createKey(ajax("@this")));
+        assertFalse(key.equals(createKey(ajax("@form"))));
+
+        AjaxBehavior immediate = ajax("@this");
+        immediate.setImmediate(true);
+        assertFalse(key.equals(createKey(immediate)));
+
+        AjaxBehavior onevent = ajax("@this");
+        onevent.setOnevent("handle");
+        assertFalse(key.equals(createKey(onevent)));
+
+        // the event code and the event name are part of the key
+        assertFalse(key.equals(BehaviorScriptCache.createKey(facesContext, input, behaviors("change", ajax("@this")),
+                null, "alert(1)", null, SINGLE_EVENT_CHAIN, "change")));
+        assertFalse(key.equals(BehaviorScriptCache.createKey(facesContext, input, behaviors("keyup", ajax("@this")),
+                null, null, null, SINGLE_EVENT_CHAIN, "keyup")));
+    }
+
+    public void testChainKindIsPartOfTheKey() {
+        Map<String, List<ClientBehavior>> behaviors = behaviors("change", ajax("@this"));
+        behaviors.put("2", behaviors.get("change"));
+
+        String twoEvents = BehaviorScriptCache.createKey(facesContext, input, behaviors, null, null, null,
+                TWO_EVENT_CHAIN, "change", "2");
+        assertFalse(twoEvents.equals(BehaviorScriptCache.createKey(facesContext, input, behaviors, null, null, null,
+                SINGLE_EVENT_CHAIN, "change", "2")));
+        assertFalse(twoEvents.equals(BehaviorScriptCache.createKey(facesContext, input, behaviors, null, null, null,
+                SINGLE_EVENT_CHAIN, "2", "change", "2")));
+    }
+
+    public void testNotCacheable() {
+        // a value expression may evaluate to something else on the next request
+        AjaxBehavior render = ajax("@this");
+        render.setValueExpression("render", facesContext.getApplication().getExpressionFactory()
+                .createValueExpression(facesContext.getELContext(), "#{bean.render}", Object.class));
+        assertNull(createKey(render));
+
+        List<ClientBehaviorContext.Parameter> params = new ArrayList<ClientBehaviorContext.Parameter>();
+        params.add(new ClientBehaviorContext.Parameter("p", "v"));
+        assertNull(BehaviorScriptCache.createKey(facesContext, input, behaviors("change", ajax("@this")), params,
+                null, null, SINGLE_EVENT_CHAIN, "change"));
+
+        ClientBehavior other = new ClientBehavior() {
+            public String getScript(ClientBehaviorContext behaviorContext) {
+                return "x()";
+            }
+
+            public void decode(FacesContext context, UIComponent component) {
+            }
+
+            public Set<ClientBehaviorHint> getHints() {
+                return Collections.emptySet();
+            }
+        };
+        assertNull(BehaviorScriptCache.createKey(facesContext, input, behaviors("change", other), null, null, null,
+                SINGLE_EVENT_CHAIN, "change"));
+    }
+
+    public void testLeastRecentlyUsedScriptIsEvicted() {
+        BehaviorScriptCache cache = new BehaviorScriptCache(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        // makes "b" the least recently used one
+        assertEquals("A", cache.get("a"));
+        cache.put("c", "C");
+
+        assertEquals(2, cache.size());
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+    }
+
+    public void testInstance() {
+        BehaviorScriptCache cache = BehaviorScriptCache.getInstance(facesContext);
+        assertNotNull(cache);
+        assertSame(cache, BehaviorScriptCache.getInstance(facesContext));
+    }
+
+    public void testDisabled() {
+        servletContext.addInitParameter(Html5WebConfigParams.BEHAVIOR_SCRIPT_CACHE_SIZE, "0");
+        assertNull(BehaviorScriptCache.getInstance(facesContext));
+    }
+
+    private String createKey(AjaxBehavior behavior) {
+        return BehaviorScriptCache.createKey(facesContext, input, behaviors("change", behavior), null, null, null,
+                SINGLE_EVENT_CHAIN, "change");
+    }
+
+    private static AjaxBehavior ajax(String render) {
+        AjaxBehavior behavior = new AjaxBehavior();
+        behavior.setRender(Arrays.asList(render));
+        return behavior;
+    }
+
+    private static Map<String, List<ClientBehavior>> behaviors(String eventName, ClientBehavior behavior) {
+        Map<String, List<ClientBehavior>> behaviors = new HashMap<String, List<ClientBehavior>>();
+        behaviors.put(eventName, Collections.singletonList(behavior));
+        return behaviors;
+    }
+}
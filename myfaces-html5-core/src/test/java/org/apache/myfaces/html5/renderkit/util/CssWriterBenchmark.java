@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.myfaces.html5.test.MicroBenchmark;
+
+import static org.apache.myfaces.html5.renderkit.util.CssSelectorBuilder.selector;
+
+/**
+ * Compares the bytes allocated for writing the slide view rules with {@link CssBuilder} and with {@link CssWriter}.
+ * Run with {@link MicroBenchmark}.
+ */
+public class CssWriterBenchmark {
+
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 100000;
+
+    private static final String[] CLASSES = { "slide", "slide-previous", "slide-active", "slide-next",
+            "slide-hidden-left", "slide-hidden-right" };
+
+    public static void main(String[] args) throws Exception {
+        final Writer out = new NullWriter();
+
+        new MicroBenchmark(WARMUP, ITERATIONS)
+                .add("CssBuilder", new MicroBenchmark.Operation() {
+                    public void run() throws IOException {
+                        writeWithCssBuilder(out);
+                    }
+                })
+                .add("CssWriter", new MicroBenchmark.Operation() {
+                    public void run() throws IOException {
+                        writeWithCssWriter(out);
+                    }
+                })
+                .run();
+    }
+
+    private static void writeWithCssBuilder(Writer out) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < CLASSES.length; i++) {
+            new CssBuilder().selector(selector("div").id("j_id1\\:slides").child(selector("div").clazz(CLASSES[i])).build())
+                    .percentRule(CSS.LEFT_PROP, 25.0 * i)
+                    .rule("-webkit-" + CSS.TRANSITION_DURATION_PROP, "1s")
+                    .rule("-o-" + CSS.TRANSITION_DURATION_PROP, "1s")
+                    .append(builder);
+        }
+        out.write(builder.toString());
+    }
+
+    private static void writeWithCssWriter(Writer out) throws IOException {
+        CssWriter css = new CssWriter(out, false);
+        for (int i = 0; i < CLASSES.length; i++) {
+            css.selector("div").id("j_id1\\:slides").descendant("div").clazz(CLASSES[i])
+                    .percentDeclaration(CSS.LEFT_PROP, 25.0 * i)
+                    .prefixedDeclaration(CSS.TRANSITION_PREFIXES, CSS.TRANSITION_DURATION_PROP, "1s")
+                    .endRule();
+        }
+    }
+
+    private static class NullWriter extends Writer {
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+        }
+
+        @Override
+        public void write(String str) {
+        }
+
+        @Override
+        public void write(int c) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.renderkit.util;
+
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+public class CssWriterTest extends TestCase {
+
+    public CssWriterTest(String name) {
+        super(name);
+    }
+
+    public void testRule() throws Exception {
+        StringWriter out = new StringWriter();
+        new CssWriter(out, false).selector("div").id("foo").descendant("div").clazz("bar")
+                .percentDeclaration(CSS.LEFT_PROP, 12.5)
+                .percentDeclaration(CSS.WIDTH_PROP, 50)
+                .declaration(CSS.TRANSITION_DELAY_PROP, null)
+                .prefixedDeclaration(CSS.TRANSITION_PREFIXES, CSS.TRANSITION_DURATION_PROP, "2s")
+                .endRule();
+
+        assertEquals("div#foo div.bar { left: 12.5%; width: 50%; -webkit-transition-duration: 2s; "
+                + "-o-transition-duration: 2s; } ", out.toString());
+    }
+
+    public void testMinified() throws Exception {
+        StringWriter out = new StringWriter();
+        CssWriter css = new CssWriter(out, true);
+        css.startAtRule(CSS.KEYFRAMES_RULE, "foo");
+        css.selector("from").declaration("opacity", "0").endRule();
+        css.endAtRule();
+        css.clazz("foo").declaration(CSS.ANIMATION_NAME_PROP, "foo").endRule();
+        css.id("bar").endRule();
+
+        assertEquals("@-webkit-keyframes foo{from{opacity:0;}}.foo{-webkit-animation-name:foo;}#bar{}", out.toString());
+    }
+
+    public void testInvalidState() throws Exception {
+        CssWriter css = new CssWriter(new StringWriter(), false);
+        try {
+            css.declaration("opacity", "0");
+            fail("declaration without selector");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+
+        css.clazz("foo").declaration("opacity", "0");
+        try {
+            css.clazz("bar");
+            fail("selector inside a block");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+
+        try {
+            css.declaration(" ", "0");
+            fail("blank property");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.test;
+
+import javax.el.ELContext;
+import javax.el.ValueExpression;
+
+/**
+ * ValueExpression with a fixed value and type, for binding components to values of types the test code can not
+ * reference, or to a getter that returns a new object on each call.
+ */
+public class ConstantValueExpression extends ValueExpression {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private final Class<?> type;
+
+    public ConstantValueExpression(Object value, Class<?> type) {
+        this.value = value;
+        this.type = type;
+    }
+
+    @Override
+    public Object getValue(ELContext context) {
+        return value;
+    }
+
+    @Override
+    public void setValue(ELContext context, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isReadOnly(ELContext context) {
+        return true;
+    }
+
+    @Override
+    public Class<?> getType(ELContext context) {
+        return type;
+    }
+
+    @Override
+    public Class<?> getExpectedType() {
+        return type;
+    }
+
+    @Override
+    public String getExpressionString() {
+        return "#{constant}";
+    }
+
+    @Override
+    public boolean isLiteralText() {
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+}
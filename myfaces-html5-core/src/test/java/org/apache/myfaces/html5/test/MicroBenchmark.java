@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the main method benchmarks of the tests, which compare an implementation with the one it replaced. They are
+ * not run by the build; start one with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=&lt;benchmark class&gt;</code>.
+ * <br/>
+ * All operations are warmed up together, then each is measured in several rounds and the median round is reported
+ * in ns/op, with the allocated bytes/op on JVMs providing <code>com.sun.management.ThreadMXBean</code>.
+ * <br/>
+ * This is not JMH, which is not a dependency of the project: the operations share one JVM, so the JIT profile of one
+ * can affect the others, and dead code elimination is only prevented by the operations themselves, e.g. by adding
+ * their results to a field. The numbers are good for comparing the operations of one run, not as absolute values.
+ */
+public class MicroBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * An operation to measure.
+     */
+    public interface Operation {
+
+        void run() throws Exception;
+    }
+
+    private final int _warmup;
+    private final int _iterations;
+
+    private final List<String> _names = new ArrayList<String>();
+    private final List<Operation> _operations = new ArrayList<Operation>();
+
+    /**
+     * @param warmup number of calls of each operation before measuring
+     * @param iterations number of calls of each operation in a round
+     */
+    public MicroBenchmark(int warmup, int iterations) {
+        this._warmup = warmup;
+        this._iterations = iterations;
+    }
+
+    public MicroBenchmark add(String name, Operation operation) {
+        _names.add(name);
+        _operations.add(operation);
+        return this;
+    }
+
+    /**
+     * Measures the operations in the order they were added and prints the results.
+     */
+    public void run() throws Exception {
+        for (int i = 0; i < _warmup; i++) {
+            for (Operation operation : _operations) {
+                operation.run();
+            }
+        }
+
+        for (int i = 0; i < _operations.size(); i++) {
+            Operation operation = _operations.get(i);
+            long[] times = new long[ROUNDS];
+            long[] bytes = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                long allocated = allocatedBytes();
+                long time = System.nanoTime();
+                for (int j = 0; j < _iterations; j++) {
+                    operation.run();
+                }
+                times[round] = System.nanoTime() - time;
+                bytes[round] = allocated < 0 ? -1 : allocatedBytes() - allocated;
+            }
+            Arrays.sort(times);
+            Arrays.sort(bytes);
+
+            long medianBytes = bytes[ROUNDS / 2];
+            System.out.println(_names.get(i) + ": " + (times[ROUNDS / 2] / _iterations) + " ns/op"
+                    + (medianBytes < 0 ? "" : ", " + (medianBytes / _iterations) + " bytes/op"));
+        }
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if the JVM does not tell
+     */
+    public static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        try {
+            Method method = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            return ((Long) method.invoke(bean, Thread.currentThread().getId())).longValue();
+        }
+        catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.html5.validator;
+
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+public class DateTimeRangeValidatorTest extends TestCase {
+
+    public DateTimeRangeValidatorTest(String name) {
+        super(name);
+    }
+
+    public void testBoundsAreResolvedPerType() throws Exception {
+        DateTimeRangeValidator validator = new DateTimeRangeValidator();
+        validator.setMinimum("2010-01-04T10:15:00Z");
+
+        assertEquals("2010-01-04T10:15:00.000Z", validator.getFormattedMinimum("datetime"));
+        assertEquals(new Date(1262600100000L), validator.getResolvedMinimum("datetime"));
+        assertNull(validator.getFormattedMaximum("datetime"));
+
+        validator.setMinimum("2010-W01");
+        assertEquals("2010-W01", validator.getFormattedMinimum("week"));
+
+        validator.setMaximum("2010-W10");
+        assertEquals("2010-W10", validator.getFormattedMaximum("week"));
+
+        validator.setMinimum("2010-01");
+        validator.setMaximum("2010-02");
+        assertEquals("2010-01", validator.getFormattedMinimum("month"));
+        assertEquals("2010-02", validator.getFormattedMaximum("month"));
+    }
+
+    public void testDateBoundChangesAreDetected() throws Exception {
+        Date maximum = new Date(0L);
+        DateTimeRangeValidator validator = new DateTimeRangeValidator();
+        validator.setMaximum(maximum);
+        assertEquals("1970-01-01T00:00:00.000Z", validator.getFormattedMaximum("datetime"));
+
+        maximum.setTime(1000L);
+        assertEquals("1970-01-01T00:00:01.000Z", validator.getFormattedMaximum("datetime"));
+    }
+
+    public void testSaveAndRestoreState() throws Exception {
+        DateTimeRangeValidator validator = new DateTimeRangeValidator();
+        validator.setMinimum(new Date(1000L));
+        validator.setMaximum("2010-01-01T00:00Z");
+        validator.setExceedMaximumMessage("too late");
+
+        Object state = validator.saveState(null);
+        assertEquals(3, ((Object[]) state).length);
+
+        DateTimeRangeValidator restored = new DateTimeRangeValidator();
+        restored.restoreState(null, state);
+        assertEquals(new Date(1000L), restored.getMinimum());
+        assertEquals("2010-01-01T00:00Z", restored.getMaximum());
+        assertEquals("too late", restored.getExceedMaximumMessage());
+        assertNull(restored.getNotInRangeMessage());
+
+        assertNull(new DateTimeRangeValidator().saveState(null));
+    }
+}
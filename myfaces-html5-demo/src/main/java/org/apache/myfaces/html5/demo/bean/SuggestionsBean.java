@@ -19,6 +19,7 @@
 
 package org.apache.myfaces.html5.demo.bean;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,6 +29,8 @@ import javax.faces.bean.ManagedBean;
 import javax.faces.bean.ViewScoped;
 import javax.faces.model.SelectItem;
 
+import org.apache.myfaces.html5.model.PrefixSuggestionIndex;
+
 @ManagedBean(name = "suggestionsBean")
 @ViewScoped
 public class SuggestionsBean implements Serializable
@@ -37,6 +40,7 @@ public class SuggestionsBean implements Serializable
 
     private String movie01;
     private String movie02;
+    private String movie03;
 
     private String favoriteMovie;
 
@@ -75,6 +79,15 @@ public class SuggestionsBean implements Serializable
         return items;
     }
 
+    public PrefixSuggestionIndex getMovieSuggestionIndex() throws IOException
+    {
+        // built once, each keystroke is a lookup in the index
+        if (movieSuggestionIndex == null)
+            movieSuggestionIndex = PrefixSuggestionIndex.build(Arrays.asList(movieNames));
+
+        return movieSuggestionIndex;
+    }
+
     public String getMovie01()
     {
         return movie01;
@@ -95,6 +108,16 @@ public class SuggestionsBean implements Serializable
         this.movie02 = movie02;
     }
 
+    public String getMovie03()
+    {
+        return movie03;
+    }
+
+    public void setMovie03(String movie03)
+    {
+        this.movie03 = movie03;
+    }
+
     public String getFavoriteMovie()
     {
         return favoriteMovie;
@@ -105,6 +128,8 @@ public class SuggestionsBean implements Serializable
         this.favoriteMovie = favoriteMovie;
     }
 
+    private static PrefixSuggestionIndex movieSuggestionIndex;
+
     private static String[] movieNames = new String[]
     {
             "Java 4 Ever", "The Shawshank Redemption", "The Godfather", "The Godfather: Part II",